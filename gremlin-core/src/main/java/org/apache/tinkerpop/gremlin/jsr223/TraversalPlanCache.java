@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.jsr223;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Mutating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.BytecodeHelper;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.GraphStatistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded, least-recently-used cache of strategy-applied traversals keyed on the shape of their {@link Bytecode}.
+ * Requests that differ only in the ids given to their start {@code V()} or {@code E()} step share a plan, so a hit
+ * costs a clone of the cached traversal rather than a fresh translation and another round of strategy application.
+ * <p/>
+ * Every other argument remains part of the key as many strategies make decisions based on literal values (e.g. the
+ * number in {@code count().is(0)}). Traversals containing lambdas, side-effect or sack sources, explicit strategies,
+ * a computer or {@link Mutating} steps are never cached and are simply translated. Neither are plans with a
+ * {@link GraphStep} that is not {@link GraphStep#isRebindable() rebindable}, as a clone of such a step may still
+ * read the ids and state of the cached one. Nor are plans for which the {@link GraphStatistics} of the graph reported
+ * an estimate as unknown while strategies were applied, as the plan chosen once the estimate is known may differ.
+ * <p/>
+ * Looking up a plan is separate from compiling one. {@link #translate(TraversalSource, Bytecode)} only translates or
+ * clones and never applies strategies, which may read the graph, so that callers can apply them through
+ * {@link #applyStrategies(TraversalSource, Bytecode, Traversal.Admin)} where they would otherwise have called
+ * {@link Traversal.Admin#applyStrategies()}, e.g. within a transaction and an evaluation timeout.
+ */
+public final class TraversalPlanCache {
+
+    private static final Object STEPS = new Object();
+
+    private final Map<Key, Traversal.Admin<?, ?>> plans;
+
+    public TraversalPlanCache(final int maxSize) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("The maxSize of the plan cache must be greater than zero");
+
+        this.plans = new LinkedHashMap<Key, Traversal.Admin<?, ?>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Traversal.Admin<?, ?>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Translates the {@link Bytecode} against the {@link TraversalSource}, returning a clone of a cached plan when
+     * one with the same shape exists. Otherwise the translated traversal is returned without its strategies applied
+     * and should be given to {@link #applyStrategies(TraversalSource, Bytecode, Traversal.Admin)}.
+     */
+    public <T extends Traversal.Admin<?, ?>> T translate(final TraversalSource g, final Bytecode bytecode) {
+        final Object[] ids = startIds(bytecode);
+        final Key key = isCacheable(bytecode) ? new Key(g, bytecode, ids) : null;
+        if (null == key)
+            return (T) JavaTranslator.of(g).translate(bytecode);
+
+        final Traversal.Admin<?, ?> plan;
+        synchronized (this.plans) {
+            plan = this.plans.get(key);
+        }
+
+        if (null == plan)
+            return (T) JavaTranslator.of(g).translate(bytecode);
+
+        final Traversal.Admin<?, ?> traversal = plan.clone();
+        if (null != ids && ids.length > 0) {
+            final GraphStep<?, ?> graphStep = (GraphStep<?, ?>) traversal.getStartStep();
+            graphStep.clearIds();
+            graphStep.addIds(ids);
+        }
+        return (T) traversal;
+    }
+
+    /**
+     * Applies the strategies of a traversal that was returned from {@link #translate(TraversalSource, Bytecode)} for
+     * the same {@link Bytecode} unless it came from the cache and so already has them applied. The resulting plan is
+     * cached when it can be reused for other traversals of the same shape.
+     */
+    public void applyStrategies(final TraversalSource g, final Bytecode bytecode, final Traversal.Admin<?, ?> traversal) {
+        if (traversal.isLocked())
+            return;
+
+        if (!isCacheable(bytecode)) {
+            traversal.applyStrategies();
+            return;
+        }
+
+        final GraphStatistics statistics = g.getGraph().statistics().orElse(null);
+        final long unknownEstimates = null == statistics ? 0 : statistics.getUnknownEstimateCount();
+        traversal.applyStrategies();
+        if (null != statistics && statistics.getUnknownEstimateCount() != unknownEstimates)
+            return;
+
+        final Object[] ids = startIds(bytecode);
+        if (!isReusable(traversal, ids))
+            return;
+
+        final Traversal.Admin<?, ?> plan = traversal.clone();
+        synchronized (this.plans) {
+            this.plans.put(new Key(g, bytecode, ids), plan);
+        }
+    }
+
+    /**
+     * Determines if a plan for the shape of the {@link Bytecode} is held by the cache without counting as a use.
+     */
+    boolean contains(final TraversalSource g, final Bytecode bytecode) {
+        if (!isCacheable(bytecode))
+            return false;
+
+        synchronized (this.plans) {
+            return this.plans.containsKey(new Key(g, bytecode, startIds(bytecode)));
+        }
+    }
+
+    public int size() {
+        synchronized (this.plans) {
+            return this.plans.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (this.plans) {
+            this.plans.clear();
+        }
+    }
+
+    private static boolean isCacheable(final Bytecode bytecode) {
+        if (BytecodeHelper.getLambdaLanguage(bytecode).isPresent())
+            return false;
+
+        for (final Bytecode.Instruction instruction : bytecode.getSourceInstructions()) {
+            final String operator = instruction.getOperator();
+            if (operator.equals(TraversalSource.Symbols.withSideEffect) ||
+                    operator.equals(TraversalSource.Symbols.withSack) ||
+                    operator.equals(TraversalSource.Symbols.withStrategies) ||
+                    operator.equals(TraversalSource.Symbols.withComputer))
+                return false;
+        }
+        return !bytecode.getStepInstructions().isEmpty();
+    }
+
+    /**
+     * A plan is only reusable if each of its {@link GraphStep} instances is rebound by a clone and if strategy
+     * application left the start step holding exactly the ids it was given, as those are the only values that get
+     * swapped out on a cache hit.
+     */
+    private static boolean isReusable(final Traversal.Admin<?, ?> plan, final Object[] ids) {
+        if (TraversalHelper.hasStepOfAssignableClassRecursively(Mutating.class, plan))
+            return false;
+        for (final GraphStep<?, ?> graphStep : TraversalHelper.getStepsOfAssignableClassRecursively(GraphStep.class, plan)) {
+            if (!graphStep.isRebindable())
+                return false;
+        }
+        if (null == ids || 0 == ids.length)
+            return true;
+
+        final Step<?, ?> startStep = plan.getStartStep();
+        return startStep instanceof GraphStep && Arrays.equals(ids, ((GraphStep<?, ?>) startStep).getIds());
+    }
+
+    /**
+     * Gets the ids of a start {@code V()} or {@code E()} normalized the way {@link GraphStep} will hold them, or
+     * {@code null} if the traversal does not start with one of those steps.
+     */
+    private static Object[] startIds(final Bytecode bytecode) {
+        final List<Bytecode.Instruction> steps = bytecode.getStepInstructions();
+        if (steps.isEmpty())
+            return null;
+
+        final Bytecode.Instruction start = steps.get(0);
+        if (!start.getOperator().equals(GraphTraversal.Symbols.V) && !start.getOperator().equals(GraphTraversal.Symbols.E))
+            return null;
+
+        final Object[] arguments = start.getArguments();
+        final Object[] ids;
+        if (arguments.length == 1 && resolve(arguments[0]) instanceof Collection)
+            ids = ((Collection<?>) resolve(arguments[0])).toArray();
+        else
+            ids = arguments.clone();
+
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = resolve(ids[i]);
+        }
+        return ids;
+    }
+
+    private static Object resolve(final Object argument) {
+        return argument instanceof Bytecode.Binding ? ((Bytecode.Binding<?>) argument).value() : argument;
+    }
+
+    private static final class Key {
+        private final TraversalSource source;
+        private final List<Object> shape;
+        private final int hashCode;
+
+        private Key(final TraversalSource source, final Bytecode bytecode, final Object[] ids) {
+            this.source = source;
+            this.shape = new ArrayList<>();
+            for (final Bytecode.Instruction instruction : bytecode.getSourceInstructions()) {
+                this.shape.add(instruction.getOperator());
+                this.shape.add(Arrays.asList(instruction.getArguments()));
+            }
+            this.shape.add(STEPS);
+            final List<Bytecode.Instruction> steps = bytecode.getStepInstructions();
+            for (int i = 0; i < steps.size(); i++) {
+                this.shape.add(steps.get(i).getOperator());
+                // the start ids are the parameter of the plan so only their count distinguishes one shape from another
+                this.shape.add(0 == i && null != ids ? ids.length : Arrays.asList(steps.get(i).getArguments()));
+            }
+            this.hashCode = 31 * System.identityHashCode(source) + this.shape.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof Key))
+                return false;
+
+            final Key that = (Key) other;
+            return this.source == that.source && this.hashCode == that.hashCode && this.shape.equals(that.shape);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+}
@@ -46,4 +46,12 @@ public interface Messenger<M> {
      */
     public void sendMessage(final MessageScope messageScope, final M message);
 
+    /**
+     * The currently executing vertex asks to be executed in the next iteration even if it receives no messages, which
+     * only matters when {@link VertexProgram#requiresOnlyActiveVertices(Memory)} holds for that iteration. The default
+     * implementation does nothing as it is always correct to execute every vertex.
+     */
+    public default void keepActive() {
+    }
+
 }
@@ -172,6 +172,19 @@ public interface VertexProgram<M> extends Cloneable {
      */
     public Set<MessageScope> getMessageScopes(final Memory memory);
 
+    /**
+     * Determines if the upcoming iteration only needs to execute the vertices that received messages in the previous
+     * iteration or that called {@link Messenger#keepActive()} during it, as executing any other vertex would have no
+     * effect. A {@link GraphComputer} may then skip the other vertices, though it is free to execute them all. This is
+     * never consulted for the initial iteration. The default is {@code false}.
+     *
+     * @param memory an immutable form of the {@link Memory} as seen by the upcoming iteration
+     * @return whether only the active vertices need to be executed in the upcoming iteration
+     */
+    public default boolean requiresOnlyActiveVertices(final Memory memory) {
+        return false;
+    }
+
     /**
      * The set of {@link MapReduce} jobs that are associated with the {@link VertexProgram}.
      * This is not necessarily the exhaustive list over the life of the {@link GraphComputer}.
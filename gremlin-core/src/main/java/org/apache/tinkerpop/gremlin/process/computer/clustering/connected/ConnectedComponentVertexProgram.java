@@ -155,6 +155,12 @@ public class ConnectedComponentVertexProgram implements VertexProgram<String> {
         }
     }
 
+    @Override
+    public boolean requiresOnlyActiveVertices(final Memory memory) {
+        // after the first iteration a vertex only does something when a neighbor sent it a component
+        return true;
+    }
+
     @Override
     public Set<VertexComputeKey> getVertexComputeKeys() {
         return new HashSet<>(Arrays.asList(
@@ -335,6 +335,12 @@ public class ShortestPathVertexProgram implements VertexProgram<Triplet<Path, Ed
         memory.add(VOTE_TO_HALT, voteToHalt);
     }
 
+    @Override
+    public boolean requiresOnlyActiveVertices(final Memory memory) {
+        // while searching, a vertex only extends paths that it received from adjacent vertices
+        return memory.<Integer>get(STATE) == SEARCH;
+    }
+
     @Override
     public boolean terminate(final Memory memory) {
         if (memory.isInitialIteration() && this.haltedTraversersIndex != null) {
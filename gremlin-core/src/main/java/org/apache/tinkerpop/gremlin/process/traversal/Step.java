@@ -172,6 +172,22 @@ public interface Step<S, E> extends Iterator<Traverser.Admin<E>>, Serializable,
         return Collections.emptySet();
     }
 
+    /**
+     * Fills the given array with the next traversers of this step and returns how many were written, which is zero
+     * only once the step is exhausted. The default implementation pulls one traverser at a time through
+     * {@link #hasNext()} and {@link #next()}, while steps that can process their starts a batch at a time override it.
+     *
+     * @param batch the array to fill from its first index
+     * @return the number of traversers written to the array
+     */
+    public default int nextBatch(final Traverser.Admin<E>[] batch) {
+        int size = 0;
+        while (size < batch.length && this.hasNext()) {
+            batch[size++] = this.next();
+        }
+        return size;
+    }
+
     /**
      * Compare the current step with another step.
      *
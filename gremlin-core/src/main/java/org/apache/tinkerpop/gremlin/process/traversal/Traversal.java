@@ -22,6 +22,7 @@ import org.apache.commons.configuration2.Configuration;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
 import org.apache.tinkerpop.gremlin.process.remote.traversal.step.map.RemoteStep;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
 import org.apache.tinkerpop.gremlin.process.traversal.step.filter.NoneStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.InjectStep;
@@ -34,6 +35,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.TraverserSe
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalExplanation;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalMetrics;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalPublisher;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 
 import java.io.Serializable;
@@ -48,6 +50,7 @@ import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -169,6 +172,14 @@ public interface Traversal<S, E> extends Iterator<E>, Serializable, Cloneable, A
         }
     }
 
+    /**
+     * Gets a {@link TraversalPublisher} which iterates this {@code Traversal} on the {@code Executor} only as its
+     * subscriber requests results, rather than blocking a thread for the whole iteration.
+     */
+    public default TraversalPublisher<E> toPublisher(final Executor executor) {
+        return new TraversalPublisher<>(this.asAdmin(), executor);
+    }
+
     /**
      * Add all the results of the traversal to the provided collection.
      *
@@ -180,12 +191,17 @@ public interface Traversal<S, E> extends Iterator<E>, Serializable, Cloneable, A
             if (!this.asAdmin().isLocked()) this.asAdmin().applyStrategies();
             // use the end step so the results are bulked
             final Step<?, E> endStep = this.asAdmin().getEndStep();
-            while (true) {
-                final Traverser<E> traverser = endStep.next();
-                TraversalHelper.addToCollection(collection, traverser.get(), traverser.bulk());
+            final Traverser.Admin<E>[] batch = new Traverser.Admin[Batching.DEFAULT_BATCH_SIZE];
+            TraversalHelper.setBatchSize(this.asAdmin(), batch.length);
+            int size;
+            while ((size = endStep.nextBatch(batch)) > 0) {
+                for (int i = 0; i < size; i++) {
+                    TraversalHelper.addToCollection(collection, batch[i].get(), batch[i].bulk());
+                }
             }
         } catch (final NoSuchElementException ignored) {
         } finally {
+            TraversalHelper.setBatchSize(this.asAdmin(), 0);
             CloseableIterator.closeIterator(this);
         }
         return collection;
@@ -206,11 +222,14 @@ public interface Traversal<S, E> extends Iterator<E>, Serializable, Cloneable, A
             }
             // use the end step so the results are bulked
             final Step<?, E> endStep = this.asAdmin().getEndStep();
-            while (true) {
-                endStep.next();
+            final Traverser.Admin<E>[] batch = new Traverser.Admin[Batching.DEFAULT_BATCH_SIZE];
+            TraversalHelper.setBatchSize(this.asAdmin(), batch.length);
+            while (endStep.nextBatch(batch) > 0) {
+                // the traversers are discarded as only the side-effects are desired
             }
         } catch (final NoSuchElementException ignored) {
         } finally {
+            TraversalHelper.setBatchSize(this.asAdmin(), 0);
             CloseableIterator.closeIterator(this);
         }
         return (Traversal<A, B>) this;
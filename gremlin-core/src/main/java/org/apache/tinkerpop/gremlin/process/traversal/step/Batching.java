@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ExpandableStepIterator;
+
+/**
+ * A {@code Batching} step neither short-circuits nor has side-effects, so it may pull the traversers of its previous
+ * {@link Step} a batch at a time through {@link Step#nextBatch(org.apache.tinkerpop.gremlin.process.traversal.Traverser.Admin[])}
+ * without changing the result of the {@link Traversal}. When a traversal is fully drained with
+ * {@link Traversal#fill(java.util.Collection)} or {@link Traversal#iterate()}, the trailing steps that are all
+ * {@code Batching} have their starts pulled in batches of {@link #DEFAULT_BATCH_SIZE} by their
+ * {@link ExpandableStepIterator}.
+ */
+public interface Batching {
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+}
@@ -21,12 +21,13 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.filter;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public final class ClassFilterStep<S, T> extends FilterStep<S> {
+public final class ClassFilterStep<S, T> extends FilterStep<S> implements Batching {
 
     private final Class<T> classFilter;
     private final boolean allowClasses;
@@ -21,6 +21,8 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.filter;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.EmptyTraverser;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -40,5 +42,36 @@ public abstract class FilterStep<S> extends AbstractStep<S, S> {
         }
     }
 
+    /**
+     * When the starts are pulled in batches, the batch is filtered in place rather than one traverser at a time.
+     */
+    @Override
+    public int nextBatch(final Traverser.Admin<S>[] batch) {
+        if (!this.starts.isBatching() || EmptyTraverser.instance() != this.nextEnd)
+            return super.nextBatch(batch);
+        while (true) {
+            if (Thread.interrupted()) throw new TraversalInterruptedException();
+            final int starts = this.starts.nextBatch(batch);
+            if (0 == starts)
+                return 0;
+            int size = 0;
+            for (int i = 0; i < starts; i++) {
+                final Traverser.Admin<S> traverser = batch[i];
+                if (this.filter(traverser) && traverser.bulk() > 0)
+                    batch[size++] = this.prepareTraversalForNextStep(traverser);
+            }
+            if (size > 0)
+                return size;
+        }
+    }
+
+    /**
+     * Determines if the traverser passes the filter of this step without moving it through the step, so that a
+     * {@link org.apache.tinkerpop.gremlin.process.traversal.step.util.FusedStep} can evaluate the filter in its chain.
+     */
+    public boolean filterTraverser(final Traverser.Admin<S> traverser) {
+        return this.filter(traverser);
+    }
+
     protected abstract boolean filter(final Traverser.Admin<S> traverser);
 }
@@ -21,10 +21,13 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.map;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.EmptyTraverser;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
 import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
 import org.apache.tinkerpop.gremlin.util.iterator.EmptyIterator;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -51,6 +54,28 @@ public abstract class FlatMapStep<S, E> extends AbstractStep<S, E> {
         }
     }
 
+    /**
+     * When the starts are pulled in batches, the batch is filled from the flattened iterators without going through
+     * {@link #hasNext()} and {@link #next()} for each traverser.
+     */
+    @Override
+    public int nextBatch(final Traverser.Admin<E>[] batch) {
+        if (!this.starts.isBatching() || EmptyTraverser.instance() != this.nextEnd)
+            return super.nextBatch(batch);
+        int size = 0;
+        try {
+            while (size < batch.length) {
+                if (Thread.interrupted()) throw new TraversalInterruptedException();
+                final Traverser.Admin<E> traverser = this.processNextStart();
+                if (traverser.bulk() > 0)
+                    batch[size++] = this.prepareTraversalForNextStep(traverser);
+            }
+        } catch (final NoSuchElementException e) {
+            // the starts are exhausted so return what has been gathered so far
+        }
+        return size;
+    }
+
     protected abstract Iterator<E> flatMap(final Traverser.Admin<S> traverser);
 
     @Override
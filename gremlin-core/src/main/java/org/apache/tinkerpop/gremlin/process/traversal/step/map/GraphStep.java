@@ -43,6 +43,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Supplier;
 
 /**
@@ -66,9 +68,7 @@ public class GraphStep<S, E extends Element> extends AbstractStep<S, E> implemen
         this.returnClass = returnClass;
         this.ids = (ids != null && ids.length == 1 && ids[0] instanceof Collection) ? ((Collection) ids[0]).toArray(new Object[((Collection) ids[0]).size()]) : ids;
         this.isStart = isStart;
-        this.iteratorSupplier = () -> (Iterator<E>) (Vertex.class.isAssignableFrom(this.returnClass) ?
-                this.getTraversal().getGraph().get().vertices(this.ids) :
-                this.getTraversal().getGraph().get().edges(this.ids));
+        this.iteratorSupplier = new GraphIteratorSupplier();
     }
 
     public String toString() {
@@ -129,6 +129,29 @@ public class GraphStep<S, E extends Element> extends AbstractStep<S, E> implemen
         this.ids = new Object[0];
     }
 
+    /**
+     * Determines if a {@link #clone()} of this step reads its own ids and state rather than those of the step it was
+     * cloned from, in which case the ids of a clone may be replaced to reuse a compiled traversal as the
+     * {@code TraversalPlanCache} does. This holds for a {@code GraphStep} with its default iterator supplier.
+     * Subclasses that set a supplier of their own must rebind it in {@link #clone()} and override this method to opt
+     * in.
+     */
+    public boolean isRebindable() {
+        return GraphStep.class.equals(this.getClass()) && this.iteratorSupplier instanceof GraphStep.GraphIteratorSupplier;
+    }
+
+    /**
+     * Gets the elements of this step as a {@code Spliterator} that can be split into partitions to be processed in
+     * parallel. By default the elements come from the iterator supplier and splitting buffers them in batches.
+     * Providers that can divide their element collections more cheaply should override this method and return a
+     * {@code Spliterator} that is safe to consume from any thread.
+     */
+    public Spliterator<E> spliterator() {
+        return null == this.iteratorSupplier ?
+                Spliterators.emptySpliterator() :
+                Spliterators.spliteratorUnknownSize(this.iteratorSupplier.get(), Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
     @Override
     public void onGraphComputer() {
         this.iteratorSupplier = Collections::emptyIterator;
@@ -173,6 +196,17 @@ public class GraphStep<S, E extends Element> extends AbstractStep<S, E> implemen
         this.iterator = EmptyIterator.instance();
     }
 
+    @Override
+    public GraphStep<S, E> clone() {
+        final GraphStep<S, E> clone = (GraphStep<S, E>) super.clone();
+        if (null != this.ids)
+            clone.ids = this.ids.clone();
+        // the default supplier reads the ids of the step that created it so the clone needs its own
+        if (this.iteratorSupplier instanceof GraphStep.GraphIteratorSupplier)
+            clone.iteratorSupplier = clone.new GraphIteratorSupplier();
+        return clone;
+    }
+
     @Override
     public int hashCode() {
         int result = super.hashCode() ^ this.returnClass.hashCode();
@@ -209,4 +243,16 @@ public class GraphStep<S, E extends Element> extends AbstractStep<S, E> implemen
         }
         return false;
     }
+
+    /**
+     * The default iterator source which looks up the elements of the step's ids on the traversal's graph.
+     */
+    private final class GraphIteratorSupplier implements Supplier<Iterator<E>> {
+        @Override
+        public Iterator<E> get() {
+            return (Iterator<E>) (Vertex.class.isAssignableFrom(returnClass) ?
+                    getTraversal().getGraph().get().vertices(ids) :
+                    getTraversal().getGraph().get().edges(ids));
+        }
+    }
 }
@@ -176,6 +176,14 @@ public final class MatchStep<S, E> extends ComputerAwareStep<S, Map<String, E>>
         this.matchTraversals.remove(globalChildTraversal);
     }
 
+    /**
+     * Sorts the match()-traversals, which determines the order in which the {@link MatchAlgorithm} considers them
+     * before it has learned anything about their cost from the traversers it has seen.
+     */
+    public void sortGlobalChildren(final Comparator<Traversal.Admin<Object, Object>> comparator) {
+        this.matchTraversals.sort(comparator);
+    }
+
     @Override
     public List<Traversal.Admin<Object, Object>> getGlobalChildren() {
         return Collections.unmodifiableList(this.matchTraversals);
@@ -20,6 +20,8 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.map;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.EmptyTraverser;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
 
 /**
  * A type of {@link MapStep} class which will transform the object of one {@link Traverser} into another. This class
@@ -40,5 +42,38 @@ public abstract class ScalarMapStep<S, E> extends MapStep<S,E> {
         return traverser.split(this.map(traverser), this);
     }
 
+    /**
+     * When the starts are pulled in batches, the batch is mapped in place rather than one traverser at a time.
+     */
+    @Override
+    public int nextBatch(final Traverser.Admin<E>[] batch) {
+        if (!this.starts.isBatching() || EmptyTraverser.instance() != this.nextEnd)
+            return super.nextBatch(batch);
+        final Traverser.Admin<S>[] starts = (Traverser.Admin<S>[]) (Traverser.Admin[]) batch;
+        while (true) {
+            if (Thread.interrupted()) throw new TraversalInterruptedException();
+            final int size = this.starts.nextBatch(starts);
+            if (0 == size)
+                return 0;
+            int mapped = 0;
+            for (int i = 0; i < size; i++) {
+                final Traverser.Admin<S> traverser = starts[i];
+                final Traverser.Admin<E> split = traverser.split(this.map(traverser), this);
+                if (split.bulk() > 0)
+                    batch[mapped++] = this.prepareTraversalForNextStep(split);
+            }
+            if (mapped > 0)
+                return mapped;
+        }
+    }
+
+    /**
+     * Transforms the object of the traverser without moving it through the step, so that a
+     * {@link org.apache.tinkerpop.gremlin.process.traversal.step.util.FusedStep} can evaluate the map in its chain.
+     */
+    public E mapTraverser(final Traverser.Admin<S> traverser) {
+        return this.map(traverser);
+    }
+
     protected abstract E map(final Traverser.Admin<S> traverser);
 }
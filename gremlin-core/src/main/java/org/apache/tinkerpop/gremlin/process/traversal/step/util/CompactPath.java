@@ -0,0 +1,494 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.process.traversal.Pop;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable {@link Path} that, like {@link ImmutablePath}, shares its prefix with the paths it was extended from,
+ * but stores the labels of each object as an {@code int} bitset over a {@link LabelTable} rather than as a
+ * {@code Set}. The table is only ever appended to and is shared by every path extended from the same path, so
+ * extending, adding labels to and retracting labels from a path never allocates a label set and label lookups are
+ * bitwise tests. The size of the path is kept with each object so that positional access and equality do not count
+ * the path first. Label sets are only materialized, and then interned by the table, when they are asked for through
+ * {@link #labels()}. The few objects whose labels were given in an order other than the one in which they were first
+ * seen by the table also keep that order as a set of their own.
+ * <p/>
+ * A path carries at most {@link LabelTable#MAX_LABELS} distinct labels, after which it continues as an
+ * {@link ImmutablePath}.
+ * <p/>
+ * Each call to {@link #make()} starts a new table, so the tables are scoped to the paths extended from one empty path,
+ * such as the one that a {@link org.apache.tinkerpop.gremlin.process.traversal.TraverserGenerator} holds for the
+ * traversal it generates traversers for, and are released along with them.
+ */
+public class CompactPath implements Path, Serializable, Cloneable {
+
+    private final CompactPath previousPath;
+    private final Object currentObject;
+    private final int currentLabels;
+    private final int size;
+    private final LabelTable table;
+
+    private CompactPath(final CompactPath previousPath, final Object currentObject, final int currentLabels,
+                        final int size, final LabelTable table) {
+        this.previousPath = previousPath;
+        this.currentObject = currentObject;
+        this.currentLabels = currentLabels;
+        this.size = size;
+        this.table = table;
+    }
+
+    private static CompactPath make(final CompactPath previousPath, final Object currentObject, final int currentLabels,
+                                    final LabelTable table, final Set<String> orderedLabels) {
+        return null == orderedLabels ?
+                new CompactPath(previousPath, currentObject, currentLabels, previousPath.size + 1, table) :
+                new OrderedCompactPath(previousPath, currentObject, currentLabels, previousPath.size + 1, table, orderedLabels);
+    }
+
+    public static Path make() {
+        return new LabelTable().empty;
+    }
+
+    /**
+     * Gets the empty path that this path was extended from, and so the one to extend for a new path that should share
+     * its label tables.
+     */
+    public Path root() {
+        return this.table.empty;
+    }
+
+    @SuppressWarnings("CloneDoesntCallSuperClone,CloneDoesntDeclareCloneNotSupportedException")
+    @Override
+    public CompactPath clone() {
+        return this;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return 0 == this.size;
+    }
+
+    @Override
+    public <A> A head() {
+        return (A) this.currentObject;
+    }
+
+    @Override
+    public Path extend(final Object object, final Set<String> labels) {
+        final LabelTable extendedTable = this.table.with(labels);
+        if (null == extendedTable)
+            return this.toImmutablePath().extend(object, labels);
+        return make(this, object, extendedTable.bits(labels), extendedTable,
+                extendedTable.isOrdered(0, labels) ? null : Collections.unmodifiableSet(new LinkedHashSet<>(labels)));
+    }
+
+    @Override
+    public Path extend(final Set<String> labels) {
+        if (labels.isEmpty() || this.isEmpty())
+            return this;
+
+        final LabelTable extendedTable = this.table.with(labels);
+        if (null == extendedTable)
+            return this.toImmutablePath().extend(labels);
+
+        final int bits = this.currentLabels | extendedTable.bits(labels);
+        if (bits == this.currentLabels)
+            return this;
+
+        final Set<String> orderedLabels;
+        if (!(this instanceof OrderedCompactPath) && extendedTable.isOrdered(this.currentLabels, labels))
+            orderedLabels = null;
+        else {
+            final Set<String> temp = new LinkedHashSet<>(this.currentLabels());
+            temp.addAll(labels);
+            orderedLabels = Collections.unmodifiableSet(temp);
+        }
+        return make(this.previousPath, this.currentObject, bits, extendedTable, orderedLabels);
+    }
+
+    /**
+     * Removes the labels from the path and, as with {@link ImmutablePath#retract(Set)}, drops the objects that are
+     * left without any label. The part of the path ahead of the first object that changes is shared rather than
+     * rebuilt.
+     */
+    @Override
+    public Path retract(final Set<String> labels) {
+        if (labels.isEmpty())
+            return this;
+
+        final int mask = this.table.bitsOf(labels);
+
+        final CompactPath[] sections = this.sections();
+        int first = 0;
+        while (first < sections.length && 0 != sections[first].currentLabels && 0 == (sections[first].currentLabels & mask)) {
+            first++;
+        }
+        if (first == sections.length)
+            return this;
+
+        CompactPath newPath = 0 == first ? this.table.empty : sections[first - 1];
+        for (int i = first; i < sections.length; i++) {
+            final int bits = sections[i].currentLabels & ~mask;
+            if (0 != bits) {
+                final Set<String> orderedLabels;
+                if (sections[i] instanceof OrderedCompactPath) {
+                    final Set<String> temp = new LinkedHashSet<>(sections[i].currentLabels());
+                    temp.removeAll(labels);
+                    orderedLabels = Collections.unmodifiableSet(temp);
+                } else
+                    orderedLabels = null;
+                newPath = make(newPath, sections[i].currentObject, bits, this.table, orderedLabels);
+            }
+        }
+        return newPath;
+    }
+
+    @Override
+    public <A> A get(final int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+
+        CompactPath currentPath = this;
+        while (currentPath.size - 1 != index) {
+            currentPath = currentPath.previousPath;
+        }
+        return (A) currentPath.currentObject;
+    }
+
+    @Override
+    public <A> A get(final Pop pop, final String label) {
+        if (Pop.mixed == pop)
+            return this.get(label);
+
+        final int bit = this.table.bit(label);
+        if (Pop.all == pop) {
+            final List<Object> list = new ArrayList<>();
+            for (CompactPath currentPath = this; 0 != bit && !currentPath.isEmpty(); currentPath = currentPath.previousPath) {
+                if (0 != (currentPath.currentLabels & bit))
+                    list.add(currentPath.currentObject);
+            }
+            Collections.reverse(list);
+            return (A) list;
+        } else if (Pop.last == pop) {
+            for (CompactPath currentPath = this; 0 != bit && !currentPath.isEmpty(); currentPath = currentPath.previousPath) {
+                if (0 != (currentPath.currentLabels & bit))
+                    return (A) currentPath.currentObject;
+            }
+            throw Path.Exceptions.stepWithProvidedLabelDoesNotExist(label);
+        } else { // Pop.first
+            A found = null;
+            for (CompactPath currentPath = this; 0 != bit && !currentPath.isEmpty(); currentPath = currentPath.previousPath) {
+                if (0 != (currentPath.currentLabels & bit))
+                    found = (A) currentPath.currentObject;
+            }
+            return found;
+        }
+    }
+
+    @Override
+    public boolean hasLabel(final String label) {
+        final int bit = this.table.bit(label);
+        for (CompactPath currentPath = this; 0 != bit && !currentPath.isEmpty(); currentPath = currentPath.previousPath) {
+            if (0 != (currentPath.currentLabels & bit))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public List<Object> objects() {
+        final Object[] objects = new Object[this.size];
+        for (CompactPath currentPath = this; !currentPath.isEmpty(); currentPath = currentPath.previousPath) {
+            objects[currentPath.size - 1] = currentPath.currentObject;
+        }
+        return Collections.unmodifiableList(Arrays.asList(objects));
+    }
+
+    @Override
+    public List<Set<String>> labels() {
+        final Set<String>[] labels = new Set[this.size];
+        for (CompactPath currentPath = this; !currentPath.isEmpty(); currentPath = currentPath.previousPath) {
+            labels[currentPath.size - 1] = currentPath.currentLabels();
+        }
+        return Collections.unmodifiableList(Arrays.asList(labels));
+    }
+
+    @Override
+    public boolean isSimple() {
+        final Set<Object> objects = new HashSet<>();
+        for (CompactPath currentPath = this; !currentPath.isEmpty(); currentPath = currentPath.previousPath) {
+            if (!objects.add(currentPath.currentObject))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.pathString(this);
+    }
+
+    @Override
+    public int hashCode() {
+        // hashCode algorithm from AbstractList
+        int hashCode = 1;
+        for (final CompactPath section : this.sections()) {
+            hashCode = hashCode * 31 + Objects.hashCode(section.currentObject);
+        }
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof Path))
+            return false;
+
+        final Path otherPath = (Path) other;
+        if (otherPath.size() != this.size)
+            return false;
+
+        if (otherPath instanceof CompactPath) {
+            CompactPath otherCurrentPath = (CompactPath) otherPath;
+            for (CompactPath currentPath = this; !currentPath.isEmpty(); currentPath = currentPath.previousPath) {
+                if (!Objects.equals(currentPath.currentObject, otherCurrentPath.currentObject) ||
+                        !(currentPath.table == otherCurrentPath.table ?
+                                currentPath.currentLabels == otherCurrentPath.currentLabels :
+                                currentPath.currentLabels().equals(otherCurrentPath.currentLabels())))
+                    return false;
+                otherCurrentPath = otherCurrentPath.previousPath;
+            }
+            return true;
+        }
+
+        final List<Object> otherObjects = otherPath.objects();
+        final List<Set<String>> otherLabels = otherPath.labels();
+        for (CompactPath currentPath = this; !currentPath.isEmpty(); currentPath = currentPath.previousPath) {
+            final int index = currentPath.size - 1;
+            if (!Objects.equals(currentPath.currentObject, otherObjects.get(index)) ||
+                    !currentPath.currentLabels().equals(otherLabels.get(index)))
+                return false;
+        }
+        return true;
+    }
+
+    Set<String> currentLabels() {
+        return this.table.labels(this.currentLabels);
+    }
+
+    /**
+     * Gets the non-empty paths that make up this one from the first object to the last.
+     */
+    private CompactPath[] sections() {
+        final CompactPath[] sections = new CompactPath[this.size];
+        for (CompactPath currentPath = this; !currentPath.isEmpty(); currentPath = currentPath.previousPath) {
+            sections[currentPath.size - 1] = currentPath;
+        }
+        return sections;
+    }
+
+    private Path toImmutablePath() {
+        Path path = ImmutablePath.make();
+        for (final CompactPath section : this.sections()) {
+            path = path.extend(section.currentObject, section.currentLabels());
+        }
+        return path;
+    }
+
+    /**
+     * A {@link CompactPath} whose current labels are not in the order of its {@link LabelTable}.
+     */
+    public static final class OrderedCompactPath extends CompactPath {
+
+        private final Set<String> orderedLabels;
+
+        private OrderedCompactPath(final CompactPath previousPath, final Object currentObject, final int currentLabels,
+                                   final int size, final LabelTable table, final Set<String> orderedLabels) {
+            super(previousPath, currentObject, currentLabels, size, table);
+            this.orderedLabels = orderedLabels;
+        }
+
+        @Override
+        Set<String> currentLabels() {
+            return this.orderedLabels;
+        }
+    }
+
+    /**
+     * An append-only list of labels where the position of a label is its bit in the labels of a {@link CompactPath}.
+     * Tables are interned by the table they were appended to, so that paths extended from the same empty path which
+     * introduce the same labels in the same order share their tables.
+     */
+    static final class LabelTable implements Serializable {
+
+        static final int MAX_LABELS = Integer.SIZE;
+        private static final int MAX_INTERNED_LABEL_SETS = 256;
+
+        private final String[] labels;
+        private final CompactPath empty;
+        private transient volatile Map<String, LabelTable> extensions;
+        private transient volatile Map<Integer, Set<String>> labelSets;
+
+        private LabelTable() {
+            this.labels = new String[0];
+            this.empty = new CompactPath(null, null, 0, 0, this);
+        }
+
+        private LabelTable(final String[] labels, final CompactPath empty) {
+            this.labels = labels;
+            this.empty = empty;
+        }
+
+        int bit(final String label) {
+            for (int i = 0; i < this.labels.length; i++) {
+                if (this.labels[i].equals(label))
+                    return 1 << i;
+            }
+            return 0;
+        }
+
+        /**
+         * Gets the bits of those labels that are in the table.
+         */
+        int bitsOf(final Set<String> labels) {
+            int bits = 0;
+            for (final String label : labels) {
+                bits |= this.bit(label);
+            }
+            return bits;
+        }
+
+        /**
+         * Gets the bits of the labels, all of which must be in the table.
+         */
+        int bits(final Set<String> labels) {
+            return labels.isEmpty() ? 0 : this.bitsOf(labels);
+        }
+
+        /**
+         * Determines if appending the labels to those of the bits keeps them in the order of the table.
+         */
+        boolean isOrdered(final int bits, final Set<String> labels) {
+            int highest = bits;
+            for (final String label : labels) {
+                final int bit = this.bit(label);
+                if (0 != (bits & bit))
+                    continue;
+                if (Integer.compareUnsigned(bit, highest) <= 0)
+                    return false;
+                highest = bit;
+            }
+            return true;
+        }
+
+        /**
+         * Gets a table with all of the labels, which is this one if it already has them, or {@code null} if that
+         * would exceed {@link #MAX_LABELS}.
+         */
+        LabelTable with(final Set<String> labels) {
+            LabelTable table = this;
+            for (final String label : labels) {
+                if (0 == table.bit(label)) {
+                    table = table.append(label);
+                    if (null == table)
+                        return null;
+                }
+            }
+            return table;
+        }
+
+        private LabelTable append(final String label) {
+            if (MAX_LABELS == this.labels.length)
+                return null;
+
+            Map<String, LabelTable> extensions = this.extensions;
+            if (null != extensions) {
+                final LabelTable table = extensions.get(label);
+                if (null != table)
+                    return table;
+            }
+
+            final String[] appended = Arrays.copyOf(this.labels, this.labels.length + 1);
+            appended[this.labels.length] = label;
+            final LabelTable table = new LabelTable(appended, this.empty);
+            if (null == extensions) {
+                synchronized (this) {
+                    if (null == this.extensions)
+                        this.extensions = new ConcurrentHashMap<>();
+                    extensions = this.extensions;
+                }
+            }
+            final LabelTable interned = extensions.putIfAbsent(label, table);
+            return null == interned ? table : interned;
+        }
+
+        /**
+         * Gets the labels of the bits as an unmodifiable set in the order the labels were added to the table.
+         */
+        Set<String> labels(final int bits) {
+            if (0 == bits)
+                return Collections.emptySet();
+
+            Map<Integer, Set<String>> labelSets = this.labelSets;
+            if (null != labelSets) {
+                final Set<String> labels = labelSets.get(bits);
+                if (null != labels)
+                    return labels;
+            }
+
+            final Set<String> labels = new LinkedHashSet<>();
+            for (int i = 0; i < this.labels.length; i++) {
+                if (0 != (bits & (1 << i)))
+                    labels.add(this.labels[i]);
+            }
+            final Set<String> unmodifiableLabels = Collections.unmodifiableSet(labels);
+
+            if (null == labelSets) {
+                synchronized (this) {
+                    if (null == this.labelSets)
+                        this.labelSets = new ConcurrentHashMap<>();
+                    labelSets = this.labelSets;
+                }
+            }
+            if (labelSets.size() < MAX_INTERNED_LABEL_SETS)
+                labelSets.putIfAbsent(bits, unmodifiableLabels);
+            return unmodifiableLabels;
+        }
+    }
+}
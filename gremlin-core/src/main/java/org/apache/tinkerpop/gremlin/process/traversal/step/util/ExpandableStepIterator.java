@@ -22,6 +22,8 @@ import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.TraverserSet;
 
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
+
 import java.io.Serializable;
 import java.util.Iterator;
 
@@ -32,6 +34,10 @@ public final class ExpandableStepIterator<S> implements Iterator<Traverser.Admin
 
     private TraverserSet<S> traverserSet;
     private final Step<S, ?> hostStep;
+    private transient Traverser.Admin<S>[] batch;
+    private transient int batchIndex;
+    private transient int batchSize;
+    private transient boolean batching;
 
     public ExpandableStepIterator(final Step<S, ?> hostStep) {
         this(hostStep, new TraverserSet<>());
@@ -44,20 +50,76 @@ public final class ExpandableStepIterator<S> implements Iterator<Traverser.Admin
 
     @Override
     public boolean hasNext() {
-        return !this.traverserSet.isEmpty() || this.hostStep.getPreviousStep().hasNext();
+        return !this.traverserSet.isEmpty() || this.batchIndex < this.batchSize || this.hostStep.getPreviousStep().hasNext();
     }
 
     @Override
     public Traverser.Admin<S> next() {
         if (!this.traverserSet.isEmpty())
             return this.traverserSet.remove();
+        if (this.batchIndex < this.batchSize)
+            return this.takeFromBatch();
         /////////////
-        if (this.hostStep.getPreviousStep().hasNext())
+        if (this.batching) {
+            this.batchIndex = 0;
+            this.batchSize = this.hostStep.getPreviousStep().nextBatch(this.batch);
+            if (this.batchSize > 0)
+                return this.takeFromBatch();
+        } else if (this.hostStep.getPreviousStep().hasNext())
             return this.hostStep.getPreviousStep().next();
         /////////////
         return this.traverserSet.remove();
     }
 
+    /**
+     * Fills the given array with the next starts of the host step and returns how many were written, which is zero
+     * only once there are no more starts. The previous step is only asked for a whole batch when batching is on,
+     * otherwise at most one traverser is pulled from it so that it does not run ahead of the host step.
+     */
+    public int nextBatch(final Traverser.Admin<S>[] batch) {
+        int size = 0;
+        while (size < batch.length && !this.traverserSet.isEmpty()) {
+            batch[size++] = this.traverserSet.remove();
+        }
+        while (size < batch.length && this.batchIndex < this.batchSize) {
+            batch[size++] = this.takeFromBatch();
+        }
+        if (size > 0 || 0 == batch.length)
+            return size;
+        /////////////
+        if (this.batching)
+            return this.hostStep.getPreviousStep().nextBatch(batch);
+        if (this.hostStep.getPreviousStep().hasNext()) {
+            batch[0] = this.hostStep.getPreviousStep().next();
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Sets the number of traversers to pull from the previous step at a time, where a size less than one turns
+     * batching off. Batching should only be turned on for a {@link Batching} host step whose previous step is free to
+     * run ahead of it. Traversers already pulled in a batch are still returned after batching is turned off.
+     */
+    public void setBatchSize(final int batchSize) {
+        if (batchSize > 0 && this.batchIndex == this.batchSize && (null == this.batch || this.batch.length != batchSize)) {
+            this.batch = new Traverser.Admin[batchSize];
+            this.batchIndex = 0;
+            this.batchSize = 0;
+        }
+        this.batching = batchSize > 0;
+    }
+
+    public boolean isBatching() {
+        return this.batching;
+    }
+
+    private Traverser.Admin<S> takeFromBatch() {
+        final Traverser.Admin<S> traverser = this.batch[this.batchIndex];
+        this.batch[this.batchIndex++] = null;
+        return traverser;
+    }
+
     public void add(final Iterator<Traverser.Admin<S>> iterator) {
         iterator.forEachRemaining(this.traverserSet::add);
     }
@@ -73,5 +135,8 @@ public final class ExpandableStepIterator<S> implements Iterator<Traverser.Admin
 
     public void clear() {
         this.traverserSet.clear();
+        while (this.batchIndex < this.batchSize) {
+            this.batch[this.batchIndex++] = null;
+        }
     }
 }
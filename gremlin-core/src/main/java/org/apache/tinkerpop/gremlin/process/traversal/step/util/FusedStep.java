@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.FilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.ScalarMapStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.EmptyTraverser;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A step that evaluates a chain of unlabeled {@link Batching} {@link FilterStep} and {@link ScalarMapStep} instances
+ * for each traverser in a single loop, rather than moving the traverser through a step, and its starts, for each of
+ * them. The fused steps are kept as they were so that they are still reported by {@link #toString()}.
+ */
+public final class FusedStep<S, E> extends AbstractStep<S, E> implements Batching {
+
+    private List<Step<?, ?>> fusedSteps;
+    private transient Step<?, ?>[] chain;
+
+    /**
+     * The step that the {@link #fusedSteps} belong to. A clone still shares them with the step it was cloned from
+     * when {@link AbstractStep#clone()} resets it, and must not reset them until {@link #clone()} replaces them.
+     */
+    private FusedStep<?, ?> owner = this;
+
+    public FusedStep(final Traversal.Admin traversal, final List<Step<?, ?>> fusedSteps) {
+        super(traversal);
+        this.fusedSteps = new ArrayList<>(fusedSteps);
+        for (final Step<?, ?> step : this.fusedSteps) {
+            if (!(step instanceof FilterStep) && !(step instanceof ScalarMapStep))
+                throw new IllegalArgumentException("Only filter and scalar map steps can be fused: " + step);
+        }
+    }
+
+    public List<Step<?, ?>> getFusedSteps() {
+        return Collections.unmodifiableList(this.fusedSteps);
+    }
+
+    @Override
+    protected Traverser.Admin<E> processNextStart() {
+        while (true) {
+            final Traverser.Admin<E> traverser = this.evaluate(this.starts.next());
+            if (null != traverser)
+                return traverser;
+        }
+    }
+
+    /**
+     * When the starts are pulled in batches, the whole chain is evaluated over the batch in place.
+     */
+    @Override
+    public int nextBatch(final Traverser.Admin<E>[] batch) {
+        if (!this.starts.isBatching() || EmptyTraverser.instance() != this.nextEnd)
+            return super.nextBatch(batch);
+        final Traverser.Admin<S>[] starts = (Traverser.Admin<S>[]) (Traverser.Admin[]) batch;
+        while (true) {
+            if (Thread.interrupted()) throw new TraversalInterruptedException();
+            final int size = this.starts.nextBatch(starts);
+            if (0 == size)
+                return 0;
+            int evaluated = 0;
+            for (int i = 0; i < size; i++) {
+                final Traverser.Admin<E> traverser = this.evaluate(starts[i]);
+                if (null != traverser && traverser.bulk() > 0)
+                    batch[evaluated++] = this.prepareTraversalForNextStep(traverser);
+            }
+            if (evaluated > 0)
+                return evaluated;
+        }
+    }
+
+    /**
+     * Passes the traverser through each fused step in turn, returning {@code null} as soon as a filter rejects it.
+     */
+    private Traverser.Admin<E> evaluate(final Traverser.Admin<S> start) {
+        if (null == this.chain)
+            this.chain = this.fusedSteps.toArray(new Step[this.fusedSteps.size()]);
+        Traverser.Admin traverser = start;
+        for (final Step<?, ?> step : this.chain) {
+            if (step instanceof FilterStep) {
+                if (!((FilterStep) step).filterTraverser(traverser))
+                    return null;
+            } else
+                traverser = traverser.split(((ScalarMapStep) step).mapTraverser(traverser), step);
+        }
+        return traverser;
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        final Set<TraverserRequirement> requirements = EnumSet.noneOf(TraverserRequirement.class);
+        for (final Step<?, ?> step : this.fusedSteps) {
+            requirements.addAll(step.getRequirements());
+        }
+        return requirements;
+    }
+
+    @Override
+    public void setTraversal(final Traversal.Admin<?, ?> traversal) {
+        super.setTraversal(traversal);
+        for (final Step<?, ?> step : this.fusedSteps) {
+            step.setTraversal(traversal);
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        if (this.owner != this)
+            return;
+        for (final Step<?, ?> step : this.fusedSteps) {
+            step.reset();
+        }
+    }
+
+    @Override
+    public FusedStep<S, E> clone() {
+        final FusedStep<S, E> clone = (FusedStep<S, E>) super.clone();
+        clone.fusedSteps = new ArrayList<>(this.fusedSteps.size());
+        for (final Step<?, ?> step : this.fusedSteps) {
+            clone.fusedSteps.add(step.clone());
+        }
+        clone.chain = null;
+        clone.owner = clone;
+        return clone;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        for (int i = 0; i < this.fusedSteps.size(); i++) {
+            result ^= Integer.rotateLeft(this.fusedSteps.get(i).hashCode(), i + 1);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.fusedSteps);
+    }
+}
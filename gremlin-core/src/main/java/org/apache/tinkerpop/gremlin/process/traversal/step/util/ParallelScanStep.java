@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.TraverserGenerator;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * A start step that runs a {@link GraphStep} and the linear prefix of the traversal that follows it on the common
+ * {@link ForkJoinPool}. The elements of {@link GraphStep#spliterator()} are split into partitions and each partition
+ * is pushed through its own clone of the prefix. If the prefix ends in a {@link ReducingBarrierStep} each partition
+ * reduces its own seed and the seeds are merged with the step's {@link ReducingBarrierStep#getBiOperator()},
+ * otherwise the traversers of all partitions are emitted in partition order to the barrier that follows this step.
+ */
+public final class ParallelScanStep<S, E> extends AbstractStep<S, E> implements TraversalParent {
+
+    private GraphStep<?, ?> graphStep;
+    private Traversal.Admin<?, E> partitionTraversal;
+    private final int partitions;
+    private transient Iterator<Traverser.Admin<E>> results = null;
+
+    public ParallelScanStep(final Traversal.Admin traversal, final GraphStep<?, ?> graphStep,
+                            final Traversal.Admin<?, E> partitionTraversal, final int partitions) {
+        super(traversal);
+        if (partitions < 1)
+            throw new IllegalArgumentException("The number of partitions must be greater than zero");
+        this.graphStep = graphStep;
+        this.graphStep.setTraversal(traversal);
+        this.partitionTraversal = this.integrateChild(partitionTraversal);
+        this.partitions = partitions;
+    }
+
+    public GraphStep<?, ?> getGraphStep() {
+        return this.graphStep;
+    }
+
+    public Traversal.Admin<?, E> getPartitionTraversal() {
+        return this.partitionTraversal;
+    }
+
+    public int getPartitions() {
+        return this.partitions;
+    }
+
+    @Override
+    protected Traverser.Admin<E> processNextStart() {
+        if (null == this.results)
+            this.results = this.execute();
+        if (!this.results.hasNext())
+            throw FastNoSuchElementException.instance();
+        return this.results.next();
+    }
+
+    private Iterator<Traverser.Admin<E>> execute() {
+        final Step<?, E> endStep = this.partitionTraversal.getEndStep();
+        final Spliterator<?> elements = this.graphStep.spliterator();
+        final int depth = 32 - Integer.numberOfLeadingZeros(this.partitions - 1);
+        // resolve the generator before forking so that partitions do not race to initialize it
+        final TraverserGenerator generator = this.getTraversal().getTraverserGenerator();
+        if (endStep instanceof ReducingBarrierStep) {
+            final ReducingBarrierStep<?, E> reducer = (ReducingBarrierStep<?, E>) endStep;
+            final BinaryOperator<E> operator = reducer.getBiOperator();
+            final E seed = ForkJoinPool.commonPool().invoke(new PartitionTask<>(elements, depth, partition -> this.reduce(partition, generator), (a, b) -> {
+                // a partition without a seed, or with a null one because all of its values were null, adds nothing
+                if (a == ReducingBarrierStep.NON_EMITTING_SEED) return b;
+                if (b == ReducingBarrierStep.NON_EMITTING_SEED) return a;
+                if (null == a) return b;
+                if (null == b) return a;
+                return operator.apply(a, b);
+            }));
+            return seed == ReducingBarrierStep.NON_EMITTING_SEED ?
+                    Collections.emptyIterator() :
+                    IteratorUtils.of(this.getTraversal().getTraverserGenerator().generate(reducer.generateFinalResult(seed), (Step<E, E>) this, 1L));
+        } else {
+            return ForkJoinPool.commonPool().<List<Traverser.Admin<E>>>invoke(new PartitionTask<>(elements, depth, partition -> this.collect(partition, generator), (a, b) -> {
+                a.addAll(b);
+                return a;
+            })).iterator();
+        }
+    }
+
+    private Traversal.Admin<?, E> startPartition(final Spliterator<?> elements, final TraverserGenerator generator) {
+        final Traversal.Admin partition = this.partitionTraversal.clone();
+        partition.addStarts(IteratorUtils.map(Spliterators.iterator(elements), element -> generator.generate(element, (Step) this, 1L)));
+        return partition;
+    }
+
+    private E reduce(final Spliterator<?> elements, final TraverserGenerator generator) {
+        final ReducingBarrierStep<?, E> reducer = (ReducingBarrierStep<?, E>) this.startPartition(elements, generator).getEndStep();
+        return reducer.hasNextBarrier() ? reducer.nextBarrier() : (E) ReducingBarrierStep.NON_EMITTING_SEED;
+    }
+
+    private List<Traverser.Admin<E>> collect(final Spliterator<?> elements, final TraverserGenerator generator) {
+        final Traversal.Admin<?, E> partition = this.startPartition(elements, generator);
+        final List<Traverser.Admin<E>> traversers = new ArrayList<>();
+        while (partition.hasNext()) {
+            traversers.add(partition.nextTraverser());
+        }
+        return traversers;
+    }
+
+    @Override
+    public List<Traversal.Admin<?, E>> getGlobalChildren() {
+        return Collections.singletonList(this.partitionTraversal);
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        final Set<TraverserRequirement> requirements = this.getSelfAndChildRequirements();
+        requirements.addAll(this.graphStep.getRequirements());
+        return requirements;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.results = null;
+    }
+
+    @Override
+    public ParallelScanStep<S, E> clone() {
+        final ParallelScanStep<S, E> clone = (ParallelScanStep<S, E>) super.clone();
+        clone.graphStep = this.graphStep.clone();
+        clone.partitionTraversal = this.partitionTraversal.clone();
+        clone.results = null;
+        return clone;
+    }
+
+    @Override
+    public void setTraversal(final Traversal.Admin<?, ?> parentTraversal) {
+        super.setTraversal(parentTraversal);
+        this.graphStep.setTraversal(parentTraversal);
+        this.integrateChild(this.partitionTraversal);
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.graphStep, this.partitionTraversal);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.graphStep.hashCode() ^ this.partitionTraversal.hashCode() ^ this.partitions;
+    }
+
+    /**
+     * Splits the elements until the depth is exhausted or they can no longer be split, forking the prefix half of
+     * each split and merging the results of both halves in encounter order.
+     */
+    private static final class PartitionTask<R> extends RecursiveTask<R> {
+        private final Spliterator<?> elements;
+        private final int depth;
+        private final Function<Spliterator<?>, R> leaf;
+        private final BinaryOperator<R> merge;
+
+        private PartitionTask(final Spliterator<?> elements, final int depth,
+                              final Function<Spliterator<?>, R> leaf, final BinaryOperator<R> merge) {
+            this.elements = elements;
+            this.depth = depth;
+            this.leaf = leaf;
+            this.merge = merge;
+        }
+
+        @Override
+        protected R compute() {
+            final Spliterator<?> prefix = this.depth > 0 ? this.elements.trySplit() : null;
+            if (null == prefix)
+                return this.leaf.apply(this.elements);
+
+            final PartitionTask<R> left = new PartitionTask<>(prefix, this.depth - 1, this.leaf, this.merge);
+            left.fork();
+            final R right = new PartitionTask<>(this.elements, this.depth - 1, this.leaf, this.merge).compute();
+            return this.merge.apply(left.join(), right);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.MapConfiguration;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Barrier;
+import org.apache.tinkerpop.gremlin.process.traversal.step.LambdaHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.LocalBarrier;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Mutating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Ranging;
+import org.apache.tinkerpop.gremlin.process.traversal.step.SideEffectCapable;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.FilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.TimeLimitStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.FlatMapStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.FoldStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.MapStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.ProfileSideEffectStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.SideEffectStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.FusedStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ParallelScanStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@code ParallelExecutionStrategy} runs the start {@link GraphStep} of an OLTP traversal and the linear prefix of
+ * steps that follows it on the common {@link ForkJoinPool} by replacing them with a {@link ParallelScanStep}. The
+ * prefix may only hold unlabeled filter, map, flat map and local barrier steps that neither mutate the graph, touch
+ * side-effects nor hold lambdas, and it must end at a {@link Barrier}. When that barrier is a
+ * {@link ReducingBarrierStep} (e.g. {@code count()}, {@code sum()}, {@code group()} or {@code fold()}) it is reduced
+ * within each partition and the partial results are merged, otherwise the barrier (e.g. {@code order()} or
+ * {@code dedup()}) receives the output of all partitions.
+ * <p/>
+ * Elements are read from many threads at once, so the strategy leaves traversals over graphs that support
+ * transactions untouched as those generally bind their state to a thread. The strategy is not registered by default
+ * and must be added with {@code withStrategies()}.
+ *
+ * @example <pre>
+ * g.V().hasLabel('person').out().count()                // is replaced by ParallelScanStep(GraphStep,[HasStep,VertexStep,CountGlobalStep])
+ * g.V().values('name').order()                          // is replaced by ParallelScanStep(GraphStep,[PropertiesStep]),OrderGlobalStep
+ * g.V().out().limit(10).count()                         // is not replaced as limit() is not allowed in the prefix
+ * </pre>
+ */
+public final class ParallelExecutionStrategy extends AbstractTraversalStrategy<TraversalStrategy.FinalizationStrategy> implements TraversalStrategy.FinalizationStrategy {
+
+    public static final String PARTITIONS = "partitions";
+
+    private static final ParallelExecutionStrategy INSTANCE = new ParallelExecutionStrategy(ForkJoinPool.getCommonPoolParallelism() * 4);
+
+    private final int partitions;
+
+    /**
+     * @param partitions the maximum number of partitions to split the elements of the {@link GraphStep} into
+     */
+    public ParallelExecutionStrategy(final int partitions) {
+        if (partitions < 1)
+            throw new IllegalArgumentException("The number of partitions must be greater than zero");
+        this.partitions = partitions;
+    }
+
+    public int getPartitions() {
+        return this.partitions;
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (!traversal.isRoot() || TraversalHelper.onGraphComputer(traversal) ||
+                TraversalHelper.hasStepOfAssignableClassRecursively(ProfileSideEffectStep.class, traversal) ||
+                null != traversal.getSideEffects().getSackInitialValue() ||
+                !traversal.getGraph().map(ParallelExecutionStrategy::isReadableConcurrently).orElse(false))
+            return;
+
+        final Step<?, ?> startStep = traversal.getStartStep();
+        if (!(startStep instanceof GraphStep) || !((GraphStep) startStep).isStartStep() || !startStep.getLabels().isEmpty())
+            return;
+
+        final List<Step> steps = traversal.getSteps();
+        int end = 1;
+        while (end < steps.size() && isParallelizable(steps.get(end))) {
+            end++;
+        }
+        // a range is a barrier too but consuming every partition ahead of it would defeat its early termination
+        if (end == steps.size() || !(steps.get(end) instanceof Barrier) || steps.get(end) instanceof Ranging)
+            return;
+
+        final Step<?, ?> barrier = steps.get(end);
+        final boolean reducing = barrier instanceof ReducingBarrierStep && isSafe(barrier) &&
+                (!(barrier instanceof FoldStep) || ((FoldStep) barrier).isListFold());
+        // without any prefix steps to run there is nothing gained by splitting the elements
+        if (!reducing && 1 == end)
+            return;
+
+        final Traversal.Admin<?, ?> partitionTraversal = new DefaultTraversal<>();
+        final int last = reducing ? end : end - 1;
+        for (int i = 1; i <= last; i++) {
+            partitionTraversal.addStep(steps.get(1));
+            traversal.removeStep(1);
+        }
+        traversal.removeStep(0);
+
+        final ParallelScanStep<?, ?> parallelScanStep = new ParallelScanStep<>(traversal, (GraphStep<?, ?>) startStep, partitionTraversal, this.partitions);
+        if (reducing) {
+            for (final String label : new ArrayList<>(barrier.getLabels())) {
+                barrier.removeLabel(label);
+                parallelScanStep.addLabel(label);
+            }
+        }
+        traversal.addStep(0, parallelScanStep);
+    }
+
+    private static boolean isReadableConcurrently(final Graph graph) {
+        return !graph.features().graph().supportsTransactions();
+    }
+
+    private static boolean isParallelizable(final Step<?, ?> step) {
+        return step.getLabels().isEmpty() &&
+                (step instanceof FilterStep || step instanceof MapStep || step instanceof FlatMapStep ||
+                        step instanceof FusedStep || step instanceof LocalBarrier) &&
+                (!(step instanceof Barrier) || step instanceof LocalBarrier) &&
+                !(step instanceof Ranging) &&
+                isSafe(step);
+    }
+
+    /**
+     * Determines if the step, and any steps of its children, can run concurrently with clones of itself.
+     */
+    private static boolean isSafe(final Step<?, ?> step) {
+        if (step instanceof Mutating || step instanceof LambdaHolder || step instanceof SideEffectCapable ||
+                step instanceof SideEffectStep || step instanceof TimeLimitStep)
+            return false;
+
+        if (step instanceof TraversalParent) {
+            final List<Traversal.Admin<?, ?>> children = new ArrayList<>(((TraversalParent) step).getLocalChildren());
+            children.addAll(((TraversalParent) step).getGlobalChildren());
+            for (final Traversal.Admin<?, ?> child : children) {
+                for (final Step<?, ?> childStep : child.getSteps()) {
+                    if (!isSafe(childStep))
+                        return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public static ParallelExecutionStrategy create(final Configuration configuration) {
+        return new ParallelExecutionStrategy(configuration.getInt(PARTITIONS, INSTANCE.partitions));
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        final Map<String, Object> map = new HashMap<>();
+        map.put(STRATEGY, ParallelExecutionStrategy.class.getCanonicalName());
+        map.put(PARTITIONS, this.partitions);
+        return new MapConfiguration(map);
+    }
+
+    public static ParallelExecutionStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.FilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.ScalarMapStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.ProfileSideEffectStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.FusedStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@code StepFusionStrategy} fuses runs of two or more unlabeled {@link Batching} {@link FilterStep} and
+ * {@link ScalarMapStep} instances into a single {@link FusedStep}, which evaluates the whole run for each traverser
+ * without the starts and traverser bookkeeping of every step in between. It is a finalization strategy so that
+ * provider optimizations can still fold the original steps (e.g. {@code HasStep} into a graph step). Traversals that
+ * are profiled or executed on a {@link org.apache.tinkerpop.gremlin.process.computer.GraphComputer} are left as they
+ * are, so that profiling still reports the original steps. It is not a default strategy and must be added with
+ * {@code withStrategies()}. It applies before {@link ProfileStrategy} and before {@link ParallelExecutionStrategy},
+ * which can run fused steps within its partitions.
+ *
+ * @example <pre>
+ * __.id().is(gt(3))                       // is replaced by FusedStep([IdStep, IsStep(gt(3))])
+ * __.label().is('person').as('a')         // is not replaced as IsStep is labeled
+ * </pre>
+ */
+public final class StepFusionStrategy extends AbstractTraversalStrategy<TraversalStrategy.FinalizationStrategy> implements TraversalStrategy.FinalizationStrategy {
+
+    private static final StepFusionStrategy INSTANCE = new StepFusionStrategy();
+    private static final Set<Class<? extends FinalizationStrategy>> POSTS = new HashSet<>(Arrays.asList(
+            ProfileStrategy.class, ParallelExecutionStrategy.class));
+
+    private StepFusionStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal) ||
+                TraversalHelper.hasStepOfAssignableClassRecursively(ProfileSideEffectStep.class, TraversalHelper.getRootTraversal(traversal)))
+            return;
+
+        final List<Step> steps = traversal.getSteps();
+        int index = 0;
+        while (index < steps.size()) {
+            int end = index;
+            while (end < steps.size() && isFusible(steps.get(end))) {
+                end++;
+            }
+            if (end - index > 1) {
+                final List<Step<?, ?>> run = new ArrayList<>(end - index);
+                for (int i = index; i < end; i++) {
+                    run.add(steps.get(index));
+                    traversal.removeStep(index);
+                }
+                traversal.addStep(index, new FusedStep<>(traversal, run));
+                index++;
+            } else {
+                index = end + 1;
+            }
+        }
+    }
+
+    private static boolean isFusible(final Step<?, ?> step) {
+        return step instanceof Batching && (step instanceof FilterStep || step instanceof ScalarMapStep) &&
+                step.getLabels().isEmpty();
+    }
+
+    @Override
+    public Set<Class<? extends FinalizationStrategy>> applyPost() {
+        return POSTS;
+    }
+
+    public static StepFusionStrategy instance() {
+        return INSTANCE;
+    }
+}
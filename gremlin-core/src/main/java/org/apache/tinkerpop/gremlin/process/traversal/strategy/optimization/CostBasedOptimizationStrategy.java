@@ -0,0 +1,383 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.WhereTraversalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeOtherVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.MatchStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.AndP;
+import org.apache.tinkerpop.gremlin.process.traversal.util.OrP;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.GraphStatistics;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@code CostBasedOptimizationStrategy} uses the {@link GraphStatistics} of the {@link Graph} a traversal runs on to
+ * choose the cheapest of several equivalent forms of parts of the traversal. It does nothing for graphs that do not
+ * provide statistics and leaves alone those parts of a traversal whose cost it cannot estimate. It:
+ * <ul>
+ *     <li>sorts the conditions of each {@link HasStep} so that the most selective one is tested first and, right
+ *     after a start {@link GraphStep}, so that those an index can answer come ahead of the rest and the provider
+ *     starts from the most selective index,</li>
+ *     <li>turns a {@code where()} that tests whether two labeled vertices are connected by a chain of
+ *     {@code out()}, {@code in()} and {@code both()} steps around when expanding from the second vertex reaches
+ *     fewer vertices than expanding from the first,</li>
+ *     <li>sorts the patterns of a {@code match()} by their estimated number of results per start, which is the order
+ *     in which the {@link MatchStep.CountMatchAlgorithm} tries them before it has counted any.</li>
+ * </ul>
+ * The strategy is not registered by default and must be added with {@code withStrategies()}.
+ *
+ * @example <pre>
+ * __.has("name", "marko").hasLabel("person")                    // is replaced by __.hasLabel("person").has("name", "marko") if fewer vertices are named "marko" than are persons
+ * __.as("a").out().as("b").where(__.as("a").out("knows").as("b")) // is replaced by __.as("a").out().as("b").where(__.as("b").in("knows").as("a")) if vertices have fewer incoming than outgoing "knows" edges
+ * </pre>
+ */
+public final class CostBasedOptimizationStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy> implements TraversalStrategy.OptimizationStrategy {
+
+    private static final CostBasedOptimizationStrategy INSTANCE = new CostBasedOptimizationStrategy();
+    private static final Set<Class<? extends OptimizationStrategy>> PRIORS = new HashSet<>(Arrays.asList(
+            FilterRankingStrategy.class,
+            InlineFilterStrategy.class,
+            MatchPredicateStrategy.class));
+    private static final Set<Class<? extends OptimizationStrategy>> POSTS = Collections.singleton(PathRetractionStrategy.class);
+
+    /**
+     * The selectivities assumed for conditions for which the statistics give no estimate, taken from the classic
+     * System R defaults.
+     */
+    private static final double EQUALITY_SELECTIVITY = 0.1d;
+    private static final double RANGE_SELECTIVITY = 1d / 3d;
+    private static final double DEFAULT_SELECTIVITY = 0.5d;
+
+    private CostBasedOptimizationStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        final Optional<GraphStatistics> statistics = TraversalHelper.getRootTraversal(traversal).getGraph().flatMap(Graph::statistics);
+        if (!statistics.isPresent())
+            return;
+
+        for (final HasStep<?> hasStep : TraversalHelper.getStepsOfClass(HasStep.class, traversal)) {
+            sortHasContainers(hasStep, statistics.get());
+        }
+        if (!TraversalHelper.onGraphComputer(traversal)) {
+            for (final WhereTraversalStep<?> whereStep : TraversalHelper.getStepsOfClass(WhereTraversalStep.class, traversal)) {
+                reverseWhereTraversal(whereStep, traversal, statistics.get());
+            }
+        }
+        for (final MatchStep<?, ?> matchStep : TraversalHelper.getStepsOfClass(MatchStep.class, traversal)) {
+            sortMatchTraversals(matchStep, statistics.get());
+        }
+    }
+
+    private static void sortHasContainers(final HasStep<?> hasStep, final GraphStatistics statistics) {
+        final List<HasContainer> hasContainers = new ArrayList<>(hasStep.getHasContainers());
+        if (hasContainers.size() < 2)
+            return;
+
+        final Class<? extends Element> elementClass = getElementClass(hasStep.getPreviousStep());
+        if (null == elementClass)
+            return;
+
+        final Step<?, ?> previousStep = hasStep.getPreviousStep();
+        final boolean lookup = previousStep instanceof GraphStep && ((GraphStep<?, ?>) previousStep).isStartStep() &&
+                0 == ((GraphStep<?, ?>) previousStep).getIds().length;
+        final Map<HasContainer, Double> selectivities = new HashMap<>();
+        for (final HasContainer hasContainer : hasContainers) {
+            selectivities.put(hasContainer, getSelectivity(hasContainer.getKey(), hasContainer.getPredicate(), elementClass, statistics));
+        }
+        final List<HasContainer> sortedHasContainers = new ArrayList<>(hasContainers);
+        sortedHasContainers.sort(Comparator.<HasContainer>comparingInt(
+                hasContainer -> lookup && isIndexLookup(hasContainer, elementClass, statistics) ? 0 : 1).
+                thenComparingDouble(selectivities::get));
+        if (sortedHasContainers.equals(hasContainers))
+            return;
+
+        for (final HasContainer hasContainer : hasContainers) {
+            hasStep.removeHasContainer(hasContainer);
+        }
+        for (final HasContainer hasContainer : sortedHasContainers) {
+            hasStep.addHasContainer(hasContainer);
+        }
+    }
+
+    private static boolean isIndexLookup(final HasContainer hasContainer, final Class<? extends Element> elementClass,
+                                         final GraphStatistics statistics) {
+        return (Compare.eq == hasContainer.getBiPredicate() || Contains.within == hasContainer.getBiPredicate()) &&
+                statistics.isIndexed(elementClass, hasContainer.getKey());
+    }
+
+    /**
+     * Estimates the fraction of the elements of the class that the predicate lets through.
+     */
+    private static double getSelectivity(final String key, final P<?> predicate, final Class<? extends Element> elementClass,
+                                         final GraphStatistics statistics) {
+        if (predicate instanceof AndP) {
+            double selectivity = 1d;
+            for (final P<?> p : ((AndP<?>) predicate).getPredicates()) {
+                selectivity = selectivity * getSelectivity(key, p, elementClass, statistics);
+            }
+            return selectivity;
+        } else if (predicate instanceof OrP) {
+            double selectivity = 0d;
+            for (final P<?> p : ((OrP<?>) predicate).getPredicates()) {
+                selectivity = selectivity + getSelectivity(key, p, elementClass, statistics);
+            }
+            return Math.min(1d, selectivity);
+        }
+
+        final boolean negated = Compare.neq == predicate.getBiPredicate() || Contains.without == predicate.getBiPredicate();
+        if (!negated && Compare.eq != predicate.getBiPredicate() && Contains.within != predicate.getBiPredicate())
+            return predicate.getBiPredicate() instanceof Compare ? RANGE_SELECTIVITY : DEFAULT_SELECTIVITY;
+
+        final Collection<?> values = predicate.getValue() instanceof Collection ?
+                (Collection<?>) predicate.getValue() :
+                null == predicate.getValue() ? null : Arrays.asList(predicate.getValue());
+        final double selectivity;
+        if (null == values)
+            selectivity = EQUALITY_SELECTIVITY;
+        else if (key.equals(T.id.getAccessor()))
+            selectivity = 0d;
+        else if (key.equals(T.label.getAccessor()))
+            selectivity = getLabelSelectivity(values, elementClass, statistics).orElse(EQUALITY_SELECTIVITY);
+        else
+            selectivity = statistics.getDistinctValueCount(elementClass, key).
+                    filter(distinctValues -> distinctValues > 0).
+                    map(distinctValues -> Math.min(1d, (double) values.size() / distinctValues)).
+                    orElse(EQUALITY_SELECTIVITY);
+        return negated ? 1d - selectivity : selectivity;
+    }
+
+    private static Optional<Double> getLabelSelectivity(final Collection<?> labels, final Class<? extends Element> elementClass,
+                                                        final GraphStatistics statistics) {
+        final boolean vertices = Vertex.class.isAssignableFrom(elementClass);
+        final Optional<Long> count = vertices ? statistics.getVertexCount() : statistics.getEdgeCount();
+        if (!count.isPresent() || 0 == count.get())
+            return Optional.empty();
+
+        long labelCount = 0;
+        for (final Object label : labels) {
+            if (!(label instanceof String))
+                return Optional.empty();
+            final Optional<Long> c = vertices ? statistics.getVertexCount((String) label) : statistics.getEdgeCount((String) label);
+            if (!c.isPresent())
+                return Optional.empty();
+            labelCount = labelCount + c.get();
+        }
+        return Optional.of(Math.min(1d, (double) labelCount / count.get()));
+    }
+
+    /**
+     * Reverses a {@code where()} of the form {@code where(__.as("a").out("x").in("y").as("b"))}, where both labels
+     * refer to vertices of the enclosing traversal, if going from "b" to "a" is expected to reach fewer vertices.
+     */
+    private static void reverseWhereTraversal(final WhereTraversalStep<?> whereStep, final Traversal.Admin<?, ?> traversal,
+                                              final GraphStatistics statistics) {
+        final List<Step> steps = whereStep.getLocalChildren().get(0).getSteps();
+        if (steps.size() < 3 ||
+                !(steps.get(0) instanceof WhereTraversalStep.WhereStartStep) ||
+                !(steps.get(steps.size() - 1) instanceof WhereTraversalStep.WhereEndStep) ||
+                !isVertexStep(whereStep.getPreviousStep()))
+            return;
+
+        final Set<String> startKeys = ((WhereTraversalStep.WhereStartStep<?>) steps.get(0)).getScopeKeys();
+        final Set<String> endKeys = ((WhereTraversalStep.WhereEndStep) steps.get(steps.size() - 1)).getScopeKeys();
+        if (startKeys.isEmpty() || endKeys.isEmpty())
+            return;
+        final String startKey = startKeys.iterator().next();
+        final String endKey = endKeys.iterator().next();
+        if (!isVertexLabel(startKey, whereStep, traversal) || !isVertexLabel(endKey, whereStep, traversal))
+            return;
+
+        final List<VertexStep<?>> vertexSteps = new ArrayList<>();
+        for (final Step<?, ?> step : steps.subList(1, steps.size() - 1)) {
+            if (!(step instanceof VertexStep) || !((VertexStep<?>) step).returnsVertex() || !step.getLabels().isEmpty())
+                return;
+            vertexSteps.add((VertexStep<?>) step);
+        }
+
+        double forwardCost = 1d;
+        double reverseCost = 1d;
+        for (final VertexStep<?> vertexStep : vertexSteps) {
+            final Optional<Double> forward = getAverageDegree(vertexStep.getEdgeLabels(), vertexStep.getDirection(), statistics);
+            final Optional<Double> reverse = getAverageDegree(vertexStep.getEdgeLabels(), vertexStep.getDirection().opposite(), statistics);
+            if (!forward.isPresent() || !reverse.isPresent())
+                return;
+            forwardCost = forwardCost * forward.get();
+            reverseCost = reverseCost * reverse.get();
+        }
+        if (reverseCost >= forwardCost)
+            return;
+
+        final Traversal.Admin<?, ?> reversedTraversal = __.as(endKey).asAdmin();
+        for (int i = vertexSteps.size() - 1; i >= 0; i--) {
+            final VertexStep<?> vertexStep = vertexSteps.get(i);
+            reversedTraversal.addStep(new VertexStep<>(reversedTraversal, Vertex.class, vertexStep.getDirection().opposite(), vertexStep.getEdgeLabels()));
+        }
+        reversedTraversal.getEndStep().addLabel(startKey);
+
+        final WhereTraversalStep<?> reversedStep = new WhereTraversalStep<>(traversal, reversedTraversal);
+        TraversalHelper.copyLabels(whereStep, reversedStep, false);
+        TraversalHelper.replaceStep((Step) whereStep, reversedStep, traversal);
+    }
+
+    /**
+     * Determines if the label is only given to steps ahead of the step that emit vertices, so that it resolves to a
+     * vertex from the path and not to some other object or side-effect.
+     */
+    private static boolean isVertexLabel(final String label, final Step<?, ?> step, final Traversal.Admin<?, ?> traversal) {
+        if (traversal.getSideEffects().exists(label))
+            return false;
+
+        boolean found = false;
+        for (Step<?, ?> previousStep = step.getPreviousStep(); !(previousStep instanceof EmptyStep); previousStep = previousStep.getPreviousStep()) {
+            if (previousStep.getLabels().contains(label)) {
+                if (!isVertexStep(previousStep))
+                    return false;
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    private static boolean isVertexStep(final Step<?, ?> step) {
+        return Vertex.class.equals(getElementClass(step));
+    }
+
+    private static void sortMatchTraversals(final MatchStep<?, ?> matchStep, final GraphStatistics statistics) {
+        final Map<Traversal.Admin<Object, Object>, Double> costs = new HashMap<>();
+        for (final Traversal.Admin<Object, Object> matchTraversal : matchStep.getGlobalChildren()) {
+            final Optional<Double> cost = getCost(matchTraversal, statistics);
+            if (!cost.isPresent())
+                return;
+            costs.put(matchTraversal, cost.get());
+        }
+        matchStep.sortGlobalChildren(Comparator.<Traversal.Admin<Object, Object>>comparingInt(
+                matchTraversal -> MatchStep.Helper.getTraversalType(matchTraversal).ordinal()).
+                thenComparingDouble(costs::get));
+    }
+
+    /**
+     * Estimates the number of objects a traversal emits per start by multiplying the degrees of the edges it steps
+     * over and the selectivities of the conditions it tests.
+     */
+    private static Optional<Double> getCost(final Traversal.Admin<?, ?> traversal, final GraphStatistics statistics) {
+        double cost = 1d;
+        for (final Step<?, ?> step : traversal.getSteps()) {
+            if (step instanceof VertexStep) {
+                final Optional<Double> degree = getAverageDegree(((VertexStep<?>) step).getEdgeLabels(), ((VertexStep<?>) step).getDirection(), statistics);
+                if (!degree.isPresent())
+                    return Optional.empty();
+                cost = cost * degree.get();
+            } else if (step instanceof EdgeVertexStep) {
+                if (Direction.BOTH == ((EdgeVertexStep) step).getDirection())
+                    cost = cost * 2d;
+            } else if (step instanceof HasStep) {
+                final Class<? extends Element> elementClass = getElementClass(step.getPreviousStep());
+                for (final HasContainer hasContainer : ((HasStep<?>) step).getHasContainers()) {
+                    cost = cost * (null == elementClass ?
+                            DEFAULT_SELECTIVITY :
+                            getSelectivity(hasContainer.getKey(), hasContainer.getPredicate(), elementClass, statistics));
+                }
+            }
+        }
+        return Optional.of(cost);
+    }
+
+    /**
+     * Gets the average number of edges with any of the labels that a vertex has in the direction, which for several
+     * labels is the sum of their averages.
+     */
+    private static Optional<Double> getAverageDegree(final String[] edgeLabels, final Direction direction,
+                                                     final GraphStatistics statistics) {
+        if (0 == edgeLabels.length)
+            return statistics.getAverageDegree(null, direction);
+
+        double degree = 0d;
+        for (final String edgeLabel : edgeLabels) {
+            final Optional<Double> d = statistics.getAverageDegree(edgeLabel, direction);
+            if (!d.isPresent())
+                return Optional.empty();
+            degree = degree + d.get();
+        }
+        return Optional.of(degree);
+    }
+
+    /**
+     * Gets the class of the elements the step emits or {@code null} if that is not known.
+     */
+    private static Class<? extends Element> getElementClass(final Step<?, ?> step) {
+        if (step instanceof GraphStep)
+            return ((GraphStep<?, ?>) step).returnsVertex() ? Vertex.class : Edge.class;
+        else if (step instanceof VertexStep)
+            return ((VertexStep<?>) step).returnsVertex() ? Vertex.class : Edge.class;
+        else if (step instanceof EdgeVertexStep || step instanceof EdgeOtherVertexStep)
+            return Vertex.class;
+        else if (step instanceof HasStep)
+            return getElementClass(step.getPreviousStep());
+        else
+            return null;
+    }
+
+    @Override
+    public Set<Class<? extends OptimizationStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    @Override
+    public Set<Class<? extends OptimizationStrategy>> applyPost() {
+        return POSTS;
+    }
+
+    public static CostBasedOptimizationStrategy instance() {
+        return INSTANCE;
+    }
+}
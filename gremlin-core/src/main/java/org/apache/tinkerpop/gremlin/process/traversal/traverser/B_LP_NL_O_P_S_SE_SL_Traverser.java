@@ -19,7 +19,9 @@
 package org.apache.tinkerpop.gremlin.process.traversal.traverser;
 
 import org.apache.commons.collections.map.ReferenceMap;
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.CompactPath;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.LabelledCounter;
 
 
@@ -35,7 +37,11 @@ public class B_LP_NL_O_P_S_SE_SL_Traverser<T> extends B_LP_O_P_S_SE_SL_Traverser
     }
 
     public B_LP_NL_O_P_S_SE_SL_Traverser(final T t, final Step<T, ?> step, final long initialBulk) {
-        super(t, step, initialBulk);
+        this(t, step, initialBulk, CompactPath.make());
+    }
+
+    public B_LP_NL_O_P_S_SE_SL_Traverser(final T t, final Step<T, ?> step, final long initialBulk, final Path root) {
+        super(t, step, initialBulk, root);
         this.nestedLoops = new Stack<>();
         this.loopNames = new ReferenceMap(ReferenceMap.HARD, ReferenceMap.WEAK);
     }
@@ -18,9 +18,11 @@
  */
 package org.apache.tinkerpop.gremlin.process.traversal.traverser;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.TraverserGenerator;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.CompactPath;
 
 import java.util.EnumSet;
 import java.util.Set;
@@ -30,7 +32,7 @@ import java.util.Set;
  */
 public final class B_LP_O_S_SE_SL_TraverserGenerator implements TraverserGenerator {
 
-    private static final B_LP_O_S_SE_SL_TraverserGenerator INSTANCE = new B_LP_O_S_SE_SL_TraverserGenerator();
+    private static final B_LP_O_S_SE_SL_TraverserGenerator INSTANCE = new B_LP_O_S_SE_SL_TraverserGenerator(null);
     private static final Set<TraverserRequirement> REQUIREMENTS = EnumSet.of(
             TraverserRequirement.BULK,
             TraverserRequirement.LABELED_PATH,
@@ -39,12 +41,17 @@ public final class B_LP_O_S_SE_SL_TraverserGenerator implements TraverserGenerat
             TraverserRequirement.SIDE_EFFECTS,
             TraverserRequirement.SINGLE_LOOP);
 
-    private B_LP_O_S_SE_SL_TraverserGenerator() {
+    private final Path root;
+
+    private B_LP_O_S_SE_SL_TraverserGenerator(final Path root) {
+        this.root = root;
     }
 
     @Override
     public <S> Traverser.Admin<S> generate(final S start, final Step<S, ?> startStep, final long initialBulk) {
-        return new B_LP_O_S_SE_SL_Traverser<>(start, startStep, initialBulk);
+        return null == this.root ?
+                new B_LP_O_S_SE_SL_Traverser<>(start, startStep, initialBulk) :
+                new B_LP_O_S_SE_SL_Traverser<>(start, startStep, initialBulk, this.root);
     }
 
     @Override
@@ -55,4 +62,13 @@ public final class B_LP_O_S_SE_SL_TraverserGenerator implements TraverserGenerat
     public static B_LP_O_S_SE_SL_TraverserGenerator instance() {
         return INSTANCE;
     }
+
+    /**
+     * Creates a generator whose traversers extend their paths from an empty path of its own, so that they share their
+     * label tables with one another but not with the traversers of any other generator. The traversers of
+     * {@link #instance()} each start from an empty path of their own.
+     */
+    public static B_LP_O_S_SE_SL_TraverserGenerator create() {
+        return new B_LP_O_S_SE_SL_TraverserGenerator(CompactPath.make());
+    }
 }
\ No newline at end of file
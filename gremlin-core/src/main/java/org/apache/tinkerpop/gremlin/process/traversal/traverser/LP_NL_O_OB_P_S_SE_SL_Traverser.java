@@ -20,7 +20,9 @@
 package org.apache.tinkerpop.gremlin.process.traversal.traverser;
 
 import org.apache.commons.collections.map.ReferenceMap;
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.CompactPath;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.LabelledCounter;
 
 import java.util.Iterator;
@@ -35,7 +37,11 @@ public class LP_NL_O_OB_P_S_SE_SL_Traverser<T> extends LP_O_OB_P_S_SE_SL_Travers
     }
 
     public LP_NL_O_OB_P_S_SE_SL_Traverser(final T t, final Step<T, ?> step) {
-        super(t, step);
+        this(t, step, CompactPath.make());
+    }
+
+    public LP_NL_O_OB_P_S_SE_SL_Traverser(final T t, final Step<T, ?> step, final Path root) {
+        super(t, step, root);
         this.nestedLoops = new Stack<>();
         this.loopNames = new ReferenceMap(ReferenceMap.HARD, ReferenceMap.WEAK);
     }
@@ -19,9 +19,11 @@
 
 package org.apache.tinkerpop.gremlin.process.traversal.traverser;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.TraverserGenerator;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.CompactPath;
 
 import java.util.EnumSet;
 import java.util.Set;
@@ -39,14 +41,19 @@ public final class LP_NL_O_OB_P_S_SE_SL_TraverserGenerator implements TraverserG
             TraverserRequirement.SINGLE_LOOP);
 
 
-    private static final LP_NL_O_OB_P_S_SE_SL_TraverserGenerator INSTANCE = new LP_NL_O_OB_P_S_SE_SL_TraverserGenerator();
+    private static final LP_NL_O_OB_P_S_SE_SL_TraverserGenerator INSTANCE = new LP_NL_O_OB_P_S_SE_SL_TraverserGenerator(null);
 
-    private LP_NL_O_OB_P_S_SE_SL_TraverserGenerator() {
+    private final Path root;
+
+    private LP_NL_O_OB_P_S_SE_SL_TraverserGenerator(final Path root) {
+        this.root = root;
     }
 
     @Override
     public <S> Traverser.Admin<S> generate(final S start, final Step<S, ?> startStep, final long initialBulk) {
-        return new LP_NL_O_OB_P_S_SE_SL_Traverser<>(start, startStep);
+        return null == this.root ?
+                new LP_NL_O_OB_P_S_SE_SL_Traverser<>(start, startStep) :
+                new LP_NL_O_OB_P_S_SE_SL_Traverser<>(start, startStep, this.root);
     }
 
     @Override
@@ -57,4 +64,13 @@ public final class LP_NL_O_OB_P_S_SE_SL_TraverserGenerator implements TraverserG
     public static LP_NL_O_OB_P_S_SE_SL_TraverserGenerator instance() {
         return INSTANCE;
     }
+
+    /**
+     * Creates a generator whose traversers extend their paths from an empty path of its own, so that they share their
+     * label tables with one another but not with the traversers of any other generator. The traversers of
+     * {@link #instance()} each start from an empty path of their own.
+     */
+    public static LP_NL_O_OB_P_S_SE_SL_TraverserGenerator create() {
+        return new LP_NL_O_OB_P_S_SE_SL_TraverserGenerator(CompactPath.make());
+    }
 }
\ No newline at end of file
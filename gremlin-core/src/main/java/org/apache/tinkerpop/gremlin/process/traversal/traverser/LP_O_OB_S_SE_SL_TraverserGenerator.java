@@ -19,9 +19,11 @@
 
 package org.apache.tinkerpop.gremlin.process.traversal.traverser;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.TraverserGenerator;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.CompactPath;
 
 import java.util.EnumSet;
 import java.util.Set;
@@ -40,14 +42,19 @@ public final class LP_O_OB_S_SE_SL_TraverserGenerator implements TraverserGenera
             TraverserRequirement.SINGLE_LOOP);
 
 
-    private static final LP_O_OB_S_SE_SL_TraverserGenerator INSTANCE = new LP_O_OB_S_SE_SL_TraverserGenerator();
+    private static final LP_O_OB_S_SE_SL_TraverserGenerator INSTANCE = new LP_O_OB_S_SE_SL_TraverserGenerator(null);
 
-    private LP_O_OB_S_SE_SL_TraverserGenerator() {
+    private final Path root;
+
+    private LP_O_OB_S_SE_SL_TraverserGenerator(final Path root) {
+        this.root = root;
     }
 
     @Override
     public <S> Traverser.Admin<S> generate(final S start, final Step<S, ?> startStep, final long initialBulk) {
-        return new LP_O_OB_S_SE_SL_Traverser<>(start, startStep);
+        return null == this.root ?
+                new LP_O_OB_S_SE_SL_Traverser<>(start, startStep) :
+                new LP_O_OB_S_SE_SL_Traverser<>(start, startStep, this.root);
     }
 
     @Override
@@ -58,4 +65,13 @@ public final class LP_O_OB_S_SE_SL_TraverserGenerator implements TraverserGenera
     public static LP_O_OB_S_SE_SL_TraverserGenerator instance() {
         return INSTANCE;
     }
+
+    /**
+     * Creates a generator whose traversers extend their paths from an empty path of its own, so that they share their
+     * label tables with one another but not with the traversers of any other generator. The traversers of
+     * {@link #instance()} each start from an empty path of their own.
+     */
+    public static LP_O_OB_S_SE_SL_TraverserGenerator create() {
+        return new LP_O_OB_S_SE_SL_TraverserGenerator(CompactPath.make());
+    }
 }
\ No newline at end of file
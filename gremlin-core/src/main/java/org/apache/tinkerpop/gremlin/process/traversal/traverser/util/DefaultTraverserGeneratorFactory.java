@@ -61,16 +61,16 @@ public class DefaultTraverserGeneratorFactory implements TraverserGeneratorFacto
                 return NL_O_OB_S_SE_SL_TraverserGenerator.instance();
 
             if (LP_O_OB_S_SE_SL_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
-                return LP_O_OB_S_SE_SL_TraverserGenerator.instance();
+                return LP_O_OB_S_SE_SL_TraverserGenerator.create();
 
             if (LP_NL_O_OB_S_SE_SL_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
-                return LP_NL_O_OB_S_SE_SL_TraverserGenerator.instance();
+                return LP_NL_O_OB_S_SE_SL_TraverserGenerator.create();
 
             if (LP_O_OB_P_S_SE_SL_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
-                return LP_O_OB_P_S_SE_SL_TraverserGenerator.instance();
+                return LP_O_OB_P_S_SE_SL_TraverserGenerator.create();
 
             if (LP_NL_O_OB_P_S_SE_SL_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
-                return LP_NL_O_OB_P_S_SE_SL_TraverserGenerator.instance();
+                return LP_NL_O_OB_P_S_SE_SL_TraverserGenerator.create();
         } else {
             if (B_O_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
                 return B_O_TraverserGenerator.instance();
@@ -82,16 +82,16 @@ public class DefaultTraverserGeneratorFactory implements TraverserGeneratorFacto
                 return B_NL_O_S_SE_SL_TraverserGenerator.instance();
 
             if (B_LP_O_S_SE_SL_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
-                return B_LP_O_S_SE_SL_TraverserGenerator.instance();
+                return B_LP_O_S_SE_SL_TraverserGenerator.create();
 
             if (B_LP_NL_O_S_SE_SL_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
-                return B_LP_NL_O_S_SE_SL_TraverserGenerator.instance();
+                return B_LP_NL_O_S_SE_SL_TraverserGenerator.create();
 
             if (B_LP_O_P_S_SE_SL_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
-                return B_LP_O_P_S_SE_SL_TraverserGenerator.instance();
+                return B_LP_O_P_S_SE_SL_TraverserGenerator.create();
 
             if (B_LP_NL_O_P_S_SE_SL_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
-                return B_LP_NL_O_P_S_SE_SL_TraverserGenerator.instance();
+                return B_LP_NL_O_P_S_SE_SL_TraverserGenerator.create();
         }
 
         throw new IllegalStateException("The provided traverser generator factory does not support the requirements of the traversal: " + this.getClass().getCanonicalName() + requirements);
@@ -20,28 +20,55 @@ package org.apache.tinkerpop.gremlin.process.traversal.traverser.util;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
-import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.Spliterators;
 
 /**
+ * A set of traversers in insertion order where adding a traverser equal to one already in the set merges its bulk
+ * into that one. The traversers are kept in an array in the order they were added, with an open-addressing table of
+ * positions in that array to find them by, so adding and polling do not allocate an entry per traverser.
+ * <p/>
+ * The set is not thread-safe as a traversal only ever touches its sets from one thread. The sets a
+ * {@link org.apache.tinkerpop.gremlin.process.computer.GraphComputer} shares between workers, in memory or in
+ * messages, are reduced or combined by the computer under its own locks.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public class TraverserSet<S> extends AbstractSet<Traverser.Admin<S>> implements Set<Traverser.Admin<S>>, Queue<Traverser.Admin<S>>, Serializable {
 
-    private final Map<Traverser.Admin<S>, Traverser.Admin<S>> map = Collections.synchronizedMap(new LinkedHashMap<>());
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * The traversers in insertion order between {@code head} and {@code tail}, with {@code null} for those removed.
+     */
+    private transient Traverser.Admin<S>[] entries;
+
+    /**
+     * The open-addressing table, probed linearly, where a slot holds the position of a traverser in {@code entries}
+     * plus one, zero when it was never used and minus one when its traverser was removed.
+     */
+    private transient int[] table;
+    private transient int head;
+    private transient int tail;
+    private transient int size;
+    private transient int removed;
+    private transient int modCount;
 
     public TraverserSet() {
 
@@ -49,51 +76,69 @@ public class TraverserSet<S> extends AbstractSet<Traverser.Admin<S>> implements
 
     public TraverserSet(final Traverser.Admin<S> traverser) {
         if (traverser != null)
-            this.map.put(traverser, traverser);
+            this.add(traverser);
     }
 
     @Override
     public Iterator<Traverser.Admin<S>> iterator() {
-        return this.map.values().iterator();
+        return new TraverserSetIterator();
     }
 
     public Traverser.Admin<S> get(final Traverser.Admin<S> traverser) {
-        return this.map.get(traverser);
+        final int slot = this.slotOf(traverser);
+        return slot < 0 ? null : this.entries[this.table[slot] - 1];
     }
 
     @Override
     public int size() {
-        return this.map.size();
+        return this.size;
     }
 
     public long bulkSize() {
         long bulk = 0L;
-        for (final Traverser.Admin<S> traverser : this.map.values()) {
-            bulk = bulk + traverser.bulk();
+        for (int i = this.head; i < this.tail; i++) {
+            if (null != this.entries[i])
+                bulk = bulk + this.entries[i].bulk();
         }
         return bulk;
     }
 
     @Override
     public boolean isEmpty() {
-        return this.map.isEmpty();
+        return 0 == this.size;
     }
 
     @Override
     public boolean contains(final Object traverser) {
-        return this.map.containsKey(traverser);
+        return this.slotOf(traverser) >= 0;
     }
 
     @Override
     public boolean add(final Traverser.Admin<S> traverser) {
-        final Traverser.Admin<S> existing = this.map.get(traverser);
-        if (null == existing) {
-            this.map.put(traverser, traverser);
-            return true;
-        } else {
-            existing.merge(traverser);
-            return false;
+        this.ensureCapacity();
+        final int mask = this.table.length - 1;
+        int insertAt = -1;
+        for (int slot = hash(traverser) & mask; ; slot = (slot + 1) & mask) {
+            final int position = this.table[slot];
+            if (0 == position) {
+                if (insertAt < 0) insertAt = slot;
+                break;
+            } else if (position < 0) {
+                if (insertAt < 0) insertAt = slot;
+            } else {
+                final Traverser.Admin<S> existing = this.entries[position - 1];
+                if (traverser == existing || traverser.equals(existing)) {
+                    existing.merge(traverser);
+                    return false;
+                }
+            }
         }
+        if (this.table[insertAt] < 0) this.removed--;
+        this.entries[this.tail] = traverser;
+        this.table[insertAt] = ++this.tail;
+        this.size++;
+        this.modCount++;
+        return true;
     }
 
     @Override
@@ -103,63 +148,214 @@ public class TraverserSet<S> extends AbstractSet<Traverser.Admin<S>> implements
 
     @Override
     public Traverser.Admin<S> remove() {  // pop, exception if empty
-        final Iterator<Traverser.Admin<S>> iterator = this.map.values().iterator();
-        if (!iterator.hasNext())
+        if (0 == this.size)
             throw FastNoSuchElementException.instance();
-        final Traverser.Admin<S> next = iterator.next();
-        iterator.remove();
+        final Traverser.Admin<S> next = this.entries[this.head];
+        this.removeAt(this.head);
         return next;
     }
 
     @Override
     public Traverser.Admin<S> poll() {  // pop, null if empty
-        return this.map.isEmpty() ? null : this.remove();
+        return 0 == this.size ? null : this.remove();
     }
 
     @Override
     public Traverser.Admin<S> element() { // peek, exception if empty
-        return this.iterator().next();
+        if (0 == this.size)
+            throw FastNoSuchElementException.instance();
+        return this.entries[this.head];
     }
 
     @Override
     public Traverser.Admin<S> peek() { // peek, null if empty
-        return this.map.isEmpty() ? null : this.iterator().next();
+        return 0 == this.size ? null : this.entries[this.head];
     }
 
     @Override
     public boolean remove(final Object traverser) {
-        return this.map.remove(traverser) != null;
+        final int slot = this.slotOf(traverser);
+        if (slot < 0)
+            return false;
+        this.removeAt(this.table[slot] - 1);
+        return true;
     }
 
     @Override
     public void clear() {
-        this.map.clear();
+        if (null != this.table) {
+            Arrays.fill(this.entries, this.head, this.tail, null);
+            Arrays.fill(this.table, 0);
+        }
+        this.head = 0;
+        this.tail = 0;
+        this.size = 0;
+        this.removed = 0;
+        this.modCount++;
     }
 
     @Override
     public Spliterator<Traverser.Admin<S>> spliterator() {
-        return this.map.values().spliterator();
-    }
-
-    @Override
-    public String toString() {
-        return this.map.values().toString();
+        return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.DISTINCT);
     }
 
     public void sort(final Comparator<Traverser<S>> comparator) {
-        final List<Traverser.Admin<S>> list = new ArrayList<>(this.map.size());
-        IteratorUtils.removeOnNext(this.map.values().iterator()).forEachRemaining(list::add);
+        final List<Traverser.Admin<S>> list = this.drain();
         Collections.sort(list, comparator);
-        this.map.clear();
-        list.forEach(traverser -> this.map.put(traverser, traverser));
+        list.forEach(this::add);
     }
 
     public void shuffle(final Random random) {
-        final List<Traverser.Admin<S>> list = new ArrayList<>(this.map.size());
-        IteratorUtils.removeOnNext(this.map.values().iterator()).forEachRemaining(list::add);
+        final List<Traverser.Admin<S>> list = this.drain();
         Collections.shuffle(list, random);
-        this.map.clear();
-        list.forEach(traverser -> this.map.put(traverser, traverser));
+        list.forEach(this::add);
+    }
+
+    private List<Traverser.Admin<S>> drain() {
+        final List<Traverser.Admin<S>> list = new ArrayList<>(this.size);
+        for (int i = this.head; i < this.tail; i++) {
+            if (null != this.entries[i])
+                list.add(this.entries[i]);
+        }
+        this.clear();
+        return list;
+    }
+
+    private static int hash(final Object traverser) {
+        final int h = traverser.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Finds the slot of the table that holds the position of a traverser equal to the one given, or {@code -1}.
+     */
+    private int slotOf(final Object traverser) {
+        if (0 == this.size)
+            return -1;
+        final int mask = this.table.length - 1;
+        for (int slot = hash(traverser) & mask; ; slot = (slot + 1) & mask) {
+            final int position = this.table[slot];
+            if (0 == position)
+                return -1;
+            if (position > 0) {
+                final Traverser.Admin<S> existing = this.entries[position - 1];
+                if (traverser == existing || traverser.equals(existing))
+                    return slot;
+            }
+        }
+    }
+
+    private void removeAt(final int position) {
+        final int mask = this.table.length - 1;
+        int slot = hash(this.entries[position]) & mask;
+        while (this.table[slot] != position + 1) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = -1;
+        this.removed++;
+        this.entries[position] = null;
+        this.size--;
+        this.modCount++;
+        if (0 == this.size) {
+            this.head = 0;
+            this.tail = 0;
+        } else if (position == this.head) {
+            while (null == this.entries[this.head]) {
+                this.head++;
+            }
+        }
+    }
+
+    /**
+     * Makes room for one more traverser at the tail, moving the traversers to the front of a new array when the
+     * array is full, and keeps the table at most half full counting the slots of removed traversers.
+     */
+    private void ensureCapacity() {
+        if (null == this.table) {
+            this.entries = new Traverser.Admin[MIN_CAPACITY];
+            this.table = new int[MIN_CAPACITY * 2];
+            return;
+        }
+        if (this.tail == this.entries.length) {
+            final Traverser.Admin<S>[] entries = new Traverser.Admin[Math.max(MIN_CAPACITY, this.size * 2)];
+            int position = 0;
+            for (int i = this.head; i < this.tail; i++) {
+                if (null != this.entries[i])
+                    entries[position++] = this.entries[i];
+            }
+            this.entries = entries;
+            this.head = 0;
+            this.tail = position;
+            this.rehash(Math.max(this.table.length, Integer.highestOneBit(entries.length) * 2));
+        } else if ((this.size + this.removed + 1) * 2 > this.table.length) {
+            this.rehash((this.size + 1) * 4 > this.table.length ? this.table.length * 2 : this.table.length);
+        }
+    }
+
+    private void rehash(final int capacity) {
+        this.table = new int[capacity];
+        this.removed = 0;
+        final int mask = capacity - 1;
+        for (int i = this.head; i < this.tail; i++) {
+            if (null == this.entries[i])
+                continue;
+            int slot = hash(this.entries[i]) & mask;
+            while (0 != this.table[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            this.table[slot] = i + 1;
+        }
+    }
+
+    private void writeObject(final ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        stream.writeInt(this.size);
+        for (int i = this.head; i < this.tail; i++) {
+            if (null != this.entries[i])
+                stream.writeObject(this.entries[i]);
+        }
     }
 
+    private void readObject(final ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        final int size = stream.readInt();
+        for (int i = 0; i < size; i++) {
+            this.add((Traverser.Admin<S>) stream.readObject());
+        }
+    }
+
+    private final class TraverserSetIterator implements Iterator<Traverser.Admin<S>> {
+        private int next = head;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            while (this.next < tail && null == entries[this.next]) {
+                this.next++;
+            }
+            return this.next < tail;
+        }
+
+        @Override
+        public Traverser.Admin<S> next() {
+            if (this.expectedModCount != modCount)
+                throw new ConcurrentModificationException();
+            if (!this.hasNext())
+                throw FastNoSuchElementException.instance();
+            this.last = this.next++;
+            return entries[this.last];
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0)
+                throw new IllegalStateException();
+            if (this.expectedModCount != modCount)
+                throw new ConcurrentModificationException();
+            removeAt(this.last);
+            this.last = -1;
+            this.expectedModCount = modCount;
+        }
+    }
 }
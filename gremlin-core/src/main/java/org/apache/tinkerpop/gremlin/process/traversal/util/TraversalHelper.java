@@ -25,8 +25,10 @@ import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.lambda.ValueTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.lambda.TokenTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.step.ByModulating;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Mutating;
 import org.apache.tinkerpop.gremlin.process.traversal.step.Scoping;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
 import org.apache.tinkerpop.gremlin.process.traversal.step.branch.RepeatStep;
@@ -44,6 +46,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.map.SelectOneStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.SelectStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.StartStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.BulkSet;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
@@ -457,6 +460,27 @@ public final class TraversalHelper {
         return false;
     }
 
+    /**
+     * Sets the number of traversers that the trailing {@link Batching} steps of the traversal pull from their previous
+     * step at a time, where a size less than one turns batching back off. Batching is meant for a traversal that is
+     * being fully drained and is never turned on for one that mutates the graph, as a batching step could then see
+     * the mutations that its previous step made for the traversers after the current one.
+     *
+     * @param traversal the traversal whose trailing steps should pull their starts in batches
+     * @param batchSize the number of traversers to pull at a time
+     */
+    public static void setBatchSize(final Traversal.Admin<?, ?> traversal, final int batchSize) {
+        if (batchSize > 0 && hasStepOfAssignableClassRecursively(Mutating.class, traversal))
+            return;
+        final List<Step> steps = traversal.getSteps();
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            final Step<?, ?> step = steps.get(i);
+            if (!(step instanceof Batching) || !(step instanceof AbstractStep))
+                break;
+            ((AbstractStep<?, ?>) step).getStarts().setBatchSize(batchSize);
+        }
+    }
+
     /**
      * Apply the provider {@link Consumer} function to the provided {@link Traversal} and all of its children.
      *
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the results of a {@link Traversal} to a single {@link Subscriber} as they are requested. The traversal
+ * is only iterated on the supplied {@code Executor} while the subscriber has outstanding demand, so a slow consumer
+ * does not hold a thread and a fast traversal never runs ahead of what was requested. The contract mirrors that of
+ * {@code java.util.concurrent.Flow} and Reactive Streams, so adapting a {@link Subscriber} to either is a matter of
+ * delegating the four signals.
+ * <p/>
+ * Iteration is handed back to the {@code Executor} after every {@link Batching#DEFAULT_BATCH_SIZE} results so that a
+ * subscriber with unbounded demand shares its threads with other work. The traversal is closed once it completes,
+ * fails or the subscription is cancelled.
+ * <p/>
+ * A publisher may also be given an {@code Iterator} that draws on a traversal in some other way than its results,
+ * e.g. the one Gremlin Server uses to send halted traversers with their bulk, in which case it is closed instead of
+ * the traversal if it is {@code AutoCloseable}.
+ */
+public final class TraversalPublisher<E> {
+
+    private final Iterator<E> results;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+    public TraversalPublisher(final Traversal.Admin<?, E> traversal, final Executor executor) {
+        this((Iterator<E>) traversal, executor);
+    }
+
+    public TraversalPublisher(final Iterator<E> results, final Executor executor) {
+        this.results = results;
+        this.executor = executor;
+    }
+
+    /**
+     * Subscribes to the results of the traversal. A traversal can only be iterated once, so any subscriber after the
+     * first is signalled an {@code IllegalStateException}.
+     */
+    public void subscribe(final Subscriber<? super E> subscriber) {
+        if (null == subscriber)
+            throw new NullPointerException("The subscriber cannot be null");
+
+        if (!this.subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(CancelledSubscription.INSTANCE);
+            subscriber.onError(new IllegalStateException("A TraversalPublisher can only be subscribed to once"));
+            return;
+        }
+
+        final TraversalSubscription<E> subscription = new TraversalSubscription<>(this.results, this.executor, subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Receives the results of a {@link TraversalPublisher}. No further signals follow {@link #onError(Throwable)} or
+     * {@link #onComplete()}.
+     */
+    public interface Subscriber<T> {
+
+        public void onSubscribe(final Subscription subscription);
+
+        public void onNext(final T item);
+
+        public void onError(final Throwable throwable);
+
+        public void onComplete();
+    }
+
+    /**
+     * Links a {@link Subscriber} to a {@link TraversalPublisher} and controls the flow of results between them.
+     */
+    public interface Subscription {
+
+        /**
+         * Adds {@code n} to the number of results the subscriber is ready to receive. A value less than one cancels
+         * the subscription and signals an {@code IllegalArgumentException}.
+         */
+        public void request(final long n);
+
+        /**
+         * Stops the delivery of results and releases the traversal. Results already being delivered may still
+         * arrive.
+         */
+        public void cancel();
+    }
+
+    private static final class CancelledSubscription implements Subscription {
+        private static final CancelledSubscription INSTANCE = new CancelledSubscription();
+
+        @Override
+        public void request(final long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+
+    private static final class TraversalSubscription<E> implements Subscription, Runnable {
+
+        private final Iterator<E> results;
+        private final Executor executor;
+        private final Subscriber<? super E> subscriber;
+
+        private final AtomicLong demand = new AtomicLong(0L);
+        /**
+         * Counts the signals received while a drain is scheduled or running, ensuring a single drain at a time and
+         * that no request is missed by a drain that is just finishing.
+         */
+        private final AtomicInteger pending = new AtomicInteger(0);
+        private volatile boolean cancelled = false;
+        private volatile Throwable invalidRequest = null;
+        private boolean done = false;
+
+        private TraversalSubscription(final Iterator<E> results, final Executor executor,
+                                      final Subscriber<? super E> subscriber) {
+            this.results = results;
+            this.executor = executor;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n < 1) {
+                this.invalidRequest = new IllegalArgumentException("The number of requested results must be positive but was " + n);
+                this.cancelled = true;
+            } else {
+                this.demand.getAndUpdate(current -> Long.MAX_VALUE - current < n ? Long.MAX_VALUE : current + n);
+            }
+            this.schedule();
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            this.schedule();
+        }
+
+        private void schedule() {
+            if (0 == this.pending.getAndIncrement()) {
+                try {
+                    this.executor.execute(this);
+                } catch (final RejectedExecutionException ex) {
+                    this.cancelled = true;
+                    this.pending.set(0);
+                    this.terminate(ex);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            int emitted = 0;
+            while (!this.done) {
+                if (this.cancelled) {
+                    this.terminate(this.invalidRequest);
+                    return;
+                }
+
+                try {
+                    while (this.demand.get() > 0 && !this.cancelled) {
+                        if (!this.results.hasNext()) {
+                            this.terminate(null);
+                            return;
+                        }
+                        this.subscriber.onNext(this.results.next());
+                        this.demand.decrementAndGet();
+                        if (++emitted == Batching.DEFAULT_BATCH_SIZE) {
+                            // give the thread back and continue where this left off in a fresh task
+                            this.pending.set(1);
+                            this.executor.execute(this);
+                            return;
+                        }
+                    }
+                } catch (final Throwable t) {
+                    this.cancelled = true;
+                    this.terminate(t);
+                    return;
+                }
+
+                if (this.cancelled)
+                    continue;
+
+                missed = this.pending.addAndGet(-missed);
+                if (0 == missed)
+                    return;
+            }
+        }
+
+        /**
+         * Closes the results and signals the subscriber, unless the subscription was simply cancelled in which case
+         * the {@code throwable} is {@code null} and nothing is signalled.
+         */
+        private void terminate(final Throwable throwable) {
+            if (this.done)
+                return;
+            this.done = true;
+
+            final boolean completed = !this.cancelled;
+            try {
+                if (this.results instanceof AutoCloseable)
+                    ((AutoCloseable) this.results).close();
+            } catch (final Exception ignored) {
+                // the results have been delivered so failing to release resources is not the subscriber's problem
+            }
+
+            if (null != throwable)
+                this.subscriber.onError(throwable);
+            else if (completed)
+                this.subscriber.onComplete();
+        }
+    }
+}
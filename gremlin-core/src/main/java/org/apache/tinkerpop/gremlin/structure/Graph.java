@@ -336,6 +336,14 @@ public interface Graph extends AutoCloseable, Host {
      */
     public Configuration configuration();
 
+    /**
+     * Gets the {@link GraphStatistics} that the {@code Graph} implementation keeps about its elements, if any, for use
+     * by cost-based traversal optimizations.
+     */
+    public default Optional<GraphStatistics> statistics() {
+        return Optional.empty();
+    }
+
     /**
      * Graph variables are a set of key/value pairs associated with the graph. The keys are String and the values
      * are Objects.
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.structure;
+
+import java.util.Optional;
+
+/**
+ * Estimates about the elements of a {@link Graph} that a provider may expose through {@link Graph#statistics()} so
+ * that cost-based optimizers, like the
+ * {@link org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.CostBasedOptimizationStrategy}, can
+ * choose between equivalent forms of a traversal. Values need not be exact or current and every method may report
+ * that the provider does not know the answer, which is what the default implementations do, so that providers need
+ * only implement those statistics they keep anyway.
+ */
+public interface GraphStatistics {
+
+    /**
+     * Gets the number of vertices in the graph.
+     */
+    public default Optional<Long> getVertexCount() {
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the number of vertices with the specified label.
+     */
+    public default Optional<Long> getVertexCount(final String label) {
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the number of edges in the graph.
+     */
+    public default Optional<Long> getEdgeCount() {
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the number of edges with the specified label.
+     */
+    public default Optional<Long> getEdgeCount(final String label) {
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the number of distinct values of the property key across the elements of the specified class
+     * ({@link Vertex} or {@link Edge}).
+     */
+    public default Optional<Long> getDistinctValueCount(final Class<? extends Element> elementClass, final String key) {
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the average number of edges with the specified label that a vertex has in the specified direction, taken
+     * over the vertices that have at least one such edge, which is the number of edges a traversal expands on average
+     * when it steps over that label from a vertex at which such edges exist. A {@code null} label stands for edges
+     * of any label.
+     */
+    public default Optional<Double> getAverageDegree(final String edgeLabel, final Direction direction) {
+        return Optional.empty();
+    }
+
+    /**
+     * Determines if elements of the specified class ({@link Vertex} or {@link Edge}) can be looked up by their value
+     * for the property key without a scan of all such elements.
+     */
+    public default boolean isIndexed(final Class<? extends Element> elementClass, final String key) {
+        return false;
+    }
+
+    /**
+     * Gets the number of times an estimate was reported as unknown because it had yet to be computed. A caller can
+     * compare the count before and after optimizing a traversal to tell if it was optimized without an estimate that
+     * may since have become known, e.g. to keep from caching its plan. Providers whose unknown estimates stay unknown
+     * need not count them.
+     */
+    public default long getUnknownEstimateCount() {
+        return 0;
+    }
+}
@@ -44,8 +44,11 @@ import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.Partit
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.SeedStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.SubgraphStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization.MatchAlgorithmStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization.ParallelExecutionStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization.StepFusionStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.AdjacentToIncidentStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.ByModulatorOptimizationStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.CostBasedOptimizationStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.EarlyLimitStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.FilterRankingStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.IdentityRemovalStrategy;
@@ -208,6 +211,9 @@ abstract class GraphSONModule extends TinkerPopJacksonModule {
                             ReadOnlyStrategy.class,
                             StandardVerificationStrategy.class,
                             EarlyLimitStrategy.class,
+                            StepFusionStrategy.class,
+                            ParallelExecutionStrategy.class,
+                            CostBasedOptimizationStrategy.class,
                             EdgeLabelVerificationStrategy.class,
                             ReservedKeysVerificationStrategy.class,
                             //
@@ -336,6 +342,9 @@ abstract class GraphSONModule extends TinkerPopJacksonModule {
                     ReadOnlyStrategy.class,
                     StandardVerificationStrategy.class,
                     EarlyLimitStrategy.class,
+                    StepFusionStrategy.class,
+                    ParallelExecutionStrategy.class,
+                    CostBasedOptimizationStrategy.class,
                     EdgeLabelVerificationStrategy.class,
                     ReservedKeysVerificationStrategy.class,
                     //
@@ -444,6 +453,9 @@ abstract class GraphSONModule extends TinkerPopJacksonModule {
                             ReadOnlyStrategy.class,
                             StandardVerificationStrategy.class,
                             EarlyLimitStrategy.class,
+                            StepFusionStrategy.class,
+                            ParallelExecutionStrategy.class,
+                            CostBasedOptimizationStrategy.class,
                             EdgeLabelVerificationStrategy.class,
                             ReservedKeysVerificationStrategy.class,
                             //
@@ -562,6 +574,9 @@ abstract class GraphSONModule extends TinkerPopJacksonModule {
                     ReadOnlyStrategy.class,
                     StandardVerificationStrategy.class,
                     EarlyLimitStrategy.class,
+                    StepFusionStrategy.class,
+                    ParallelExecutionStrategy.class,
+                    CostBasedOptimizationStrategy.class,
                     EdgeLabelVerificationStrategy.class,
                     ReservedKeysVerificationStrategy.class,
                     //
@@ -54,8 +54,11 @@ import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.Partit
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.SeedStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.SubgraphStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization.MatchAlgorithmStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization.ParallelExecutionStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization.StepFusionStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.AdjacentToIncidentStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.ByModulatorOptimizationStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.CostBasedOptimizationStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.EarlyLimitStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.FilterRankingStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.IdentityRemovalStrategy;
@@ -362,6 +365,9 @@ public enum GryoVersion {
             add(GryoTypeReg.of(MatchStep.GreedyMatchAlgorithm.class, 164));
             add(GryoTypeReg.of(EdgeLabelVerificationStrategy.class, 189));
             add(GryoTypeReg.of(ReservedKeysVerificationStrategy.class, 190));
+            add(GryoTypeReg.of(StepFusionStrategy.class, 195));
+            add(GryoTypeReg.of(ParallelExecutionStrategy.class, 196, new JavaSerializer()));
+            add(GryoTypeReg.of(CostBasedOptimizationStrategy.class, 197));                 // ***LAST ID***
 
             add(GryoTypeReg.of(TraverserSet.class, 58));
             add(GryoTypeReg.of(Tree.class, 61));
@@ -402,7 +408,7 @@ public enum GryoVersion {
             add(GryoTypeReg.of(OrderGlobalStep.OrderBiOperator.class, 118));
             add(GryoTypeReg.of(ProfileStep.ProfileBiOperator.class, 119));
             add(GryoTypeReg.of(IndexedTraverserSet.VertexIndexedTraverserSet.class, 173));
-            add(GryoTypeReg.of(ReducingBarrierStep.NonEmittingSeed.class, 194));           // ***LAST ID***
+            add(GryoTypeReg.of(ReducingBarrierStep.NonEmittingSeed.class, 194));
 
             add(GryoTypeReg.of(B_LP_NL_O_P_S_SE_SL_Traverser.class, 174));
             add(GryoTypeReg.of(B_NL_O_S_SE_SL_Traverser.class, 175));
@@ -567,7 +573,7 @@ public enum GryoVersion {
             add(GryoTypeReg.of(MeanGlobalStep.MeanGlobalBiOperator.class, 110));
             add(GryoTypeReg.of(MeanGlobalStep.MeanNumber.class, 111));
             add(GryoTypeReg.of(TreeStep.TreeBiOperator.class, 112));
-            add(GryoTypeReg.of(ReducingBarrierStep.NonEmittingSeed.class, 194));           // ***LAST ID***
+            add(GryoTypeReg.of(ReducingBarrierStep.NonEmittingSeed.class, 194));
 
             // skip 113
             add(GryoTypeReg.of(RangeGlobalStep.RangeBiOperator.class, 114));
@@ -604,6 +610,9 @@ public enum GryoVersion {
             add(GryoTypeReg.of(MatchStep.GreedyMatchAlgorithm.class, 167));
             add(GryoTypeReg.of(EdgeLabelVerificationStrategy.class, 189));
             add(GryoTypeReg.of(ReservedKeysVerificationStrategy.class, 190));
+            add(GryoTypeReg.of(StepFusionStrategy.class, 195));
+            add(GryoTypeReg.of(ParallelExecutionStrategy.class, 196, new JavaSerializer()));
+            add(GryoTypeReg.of(CostBasedOptimizationStrategy.class, 197));                 // ***LAST ID***
             // skip 171, 172 to sync with the 3.3.x
             add(GryoTypeReg.of(IndexedTraverserSet.VertexIndexedTraverserSet.class, 173));
 
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.jsr223;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+import org.apache.tinkerpop.gremlin.util.function.Lambda;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TraversalPlanCacheTest {
+
+    private final GraphTraversalSource g = EmptyGraph.instance().traversal();
+
+    @Test
+    public void shouldReusePlanForDifferentStartIds() {
+        final TraversalPlanCache cache = new TraversalPlanCache(10);
+        final Traversal.Admin<?, ?> first = compile(cache, g, g.V(1).out("knows").asAdmin().getBytecode());
+        assertTrue(first.isLocked());
+        assertEquals(1, cache.size());
+        assertArrayEquals(new Object[]{1}, ((GraphStep<?, ?>) first.getStartStep()).getIds());
+
+        final Traversal.Admin<?, ?> second = compile(cache, g, g.V(2).out("knows").asAdmin().getBytecode());
+        assertTrue(second.isLocked());
+        assertEquals(1, cache.size());
+        assertArrayEquals(new Object[]{2}, ((GraphStep<?, ?>) second.getStartStep()).getIds());
+
+        compile(cache, g, g.V(Arrays.asList(3, 4)).out("knows").asAdmin().getBytecode());
+        assertEquals(2, cache.size());
+        assertArrayEquals(new Object[]{2}, ((GraphStep<?, ?>) second.getStartStep()).getIds());
+    }
+
+    @Test
+    public void shouldOnlyCachePlanOnceStrategiesAreApplied() {
+        final TraversalPlanCache cache = new TraversalPlanCache(10);
+        final Bytecode bytecode = g.V(1).out("knows").asAdmin().getBytecode();
+        final Traversal.Admin<?, ?> translated = cache.translate(g, bytecode);
+        assertFalse(translated.isLocked());
+        assertEquals(0, cache.size());
+
+        cache.applyStrategies(g, bytecode, translated);
+        assertTrue(translated.isLocked());
+        assertEquals(1, cache.size());
+
+        final Traversal.Admin<?, ?> cached = cache.translate(g, g.V(2).out("knows").asAdmin().getBytecode());
+        assertTrue(cached.isLocked());
+        assertArrayEquals(new Object[]{2}, ((GraphStep<?, ?>) cached.getStartStep()).getIds());
+    }
+
+    @Test
+    public void shouldKeepOtherArgumentsInTheKey() {
+        final TraversalPlanCache cache = new TraversalPlanCache(10);
+        compile(cache, g, g.V().out().count().is(0).asAdmin().getBytecode());
+        compile(cache, g, g.V().out().count().is(1).asAdmin().getBytecode());
+        compile(cache, g, g.V().out().count().is(1).asAdmin().getBytecode());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void shouldNotCacheUnsupportedTraversals() {
+        final TraversalPlanCache cache = new TraversalPlanCache(10);
+        compile(cache, g, g.V().map(Lambda.function("it.get()")).asAdmin().getBytecode());
+        compile(cache, g, g.withSideEffect("a", 1).V().asAdmin().getBytecode());
+        compile(cache, g, g.V(1).property("k", "v").asAdmin().getBytecode());
+        compile(cache, g, g.V().where(__.addV()).asAdmin().getBytecode());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed() {
+        final TraversalPlanCache cache = new TraversalPlanCache(2);
+        compile(cache, g, g.V().out().asAdmin().getBytecode());
+        compile(cache, g, g.V().in().asAdmin().getBytecode());
+        compile(cache, g, g.V().out().asAdmin().getBytecode());
+        compile(cache, g, g.V().both().asAdmin().getBytecode());
+        assertEquals(2, cache.size());
+        assertTrue(cache.contains(g, g.V().out().asAdmin().getBytecode()));
+        assertFalse(cache.contains(g, g.V().in().asAdmin().getBytecode()));
+    }
+
+    @Test
+    public void shouldNotCachePlansWithGraphStepsThatAreNotRebindable() {
+        final TraversalStrategies strategies = TraversalStrategies.GlobalCache.getStrategies(EmptyGraph.class).clone().
+                addStrategies(CapturingGraphStepStrategy.INSTANCE);
+        final GraphTraversalSource capturing = new GraphTraversalSource(EmptyGraph.instance(), strategies);
+        final TraversalPlanCache cache = new TraversalPlanCache(10);
+        final Traversal.Admin<?, ?> traversal = compile(cache, capturing, capturing.V(1).out().asAdmin().getBytecode());
+        assertTrue(traversal.isLocked());
+        assertEquals(0, cache.size());
+
+        compile(cache, g, g.V(1).out().asAdmin().getBytecode());
+        assertEquals(1, cache.size());
+    }
+
+    private static final class CapturingGraphStepStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+            implements TraversalStrategy.ProviderOptimizationStrategy {
+
+        private static final CapturingGraphStepStrategy INSTANCE = new CapturingGraphStepStrategy();
+
+        @Override
+        public void apply(final Traversal.Admin<?, ?> traversal) {
+            for (final GraphStep<?, Element> originalGraphStep : TraversalHelper.getStepsOfClass(GraphStep.class, traversal)) {
+                final GraphStep<?, Element> graphStep = new GraphStep<>(traversal, originalGraphStep.getReturnClass(),
+                        originalGraphStep.isStartStep(), originalGraphStep.getIds());
+                // a supplier that reads the ids of the step it was set on rather than those of a clone
+                graphStep.setIteratorSupplier(() -> (Iterator) Arrays.asList(graphStep.getIds()).iterator());
+                TraversalHelper.replaceStep((Step) originalGraphStep, graphStep, traversal);
+            }
+        }
+    }
+
+    private static Traversal.Admin<?, ?> compile(final TraversalPlanCache cache, final TraversalSource source, final Bytecode bytecode) {
+        final Traversal.Admin<?, ?> traversal = cache.translate(source, bytecode);
+        cache.applyStrategies(source, bytecode, traversal);
+        return traversal;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePositiveSize() {
+        new TraversalPlanCache(0);
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.tinkerpop.gremlin.process.traversal;
 
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.CompactPath;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.ImmutablePath;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.MutablePath;
 import org.apache.tinkerpop.gremlin.structure.util.detached.DetachedPath;
@@ -30,13 +31,16 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -46,7 +50,7 @@ import static org.junit.Assert.fail;
 public class PathTest {
 
     private final static List<Supplier<Path>> PATH_SUPPLIERS =
-            Arrays.asList(MutablePath::make, ImmutablePath::make, DetachedPath::make, ReferencePath::make);
+            Arrays.asList(MutablePath::make, ImmutablePath::make, CompactPath::make, DetachedPath::make, ReferencePath::make);
 
     @Test
     public void shouldHaveStandardSemanticsImplementedCorrectly() {
@@ -529,4 +533,48 @@ public class PathTest {
             assertEquals(1, subPath.labels().get(2).size());
         });
     }
+
+    @Test
+    public void shouldShareCompactPathPrefixOnRetraction() {
+        final CompactPath root = (CompactPath) CompactPath.make();
+        final Path prefix = root.extend("marko", Collections.singleton("a")).extend("josh", Collections.singleton("b"));
+        final Path path = prefix.extend("ripple", Collections.singleton("c")).extend("lop", Collections.singleton("d"));
+        final Path retractedPath = path.retract(Collections.singleton("c"));
+        assertEquals(ImmutablePath.make().extend("marko", Collections.singleton("a")).extend("josh", Collections.singleton("b"))
+                .extend("lop", Collections.singleton("d")), retractedPath);
+        assertSame(root, ((CompactPath) retractedPath).root());
+        assertSame(prefix, path.retract(new HashSet<>(Arrays.asList("c", "d"))));
+        assertSame(path, path.retract(Collections.singleton("x")));
+        assertSame(root, path.retract(new HashSet<>(Arrays.asList("a", "b", "c", "d"))));
+    }
+
+    @Test
+    public void shouldScopeCompactPathLabelTablesToTheirRoot() {
+        final CompactPath root = (CompactPath) CompactPath.make();
+        final CompactPath otherRoot = (CompactPath) CompactPath.make();
+        assertNotSame(root, otherRoot);
+
+        final CompactPath path = (CompactPath) root.extend("marko", Collections.singleton("a"));
+        final CompactPath otherPath = (CompactPath) otherRoot.extend("marko", Collections.singleton("a"));
+        assertEquals(path, otherPath);
+        assertSame(root, path.root());
+        assertSame(otherRoot, otherPath.root());
+        assertSame(root, ((CompactPath) path.extend("josh", Collections.singleton("b"))).root());
+    }
+
+    @Test
+    public void shouldSupportMoreCompactPathLabelsThanBits() {
+        Path compactPath = CompactPath.make();
+        Path immutablePath = ImmutablePath.make();
+        for (int i = 0; i < 40; i++) {
+            final Set<String> labels = new LinkedHashSet<>(Arrays.asList("a" + i, "b" + i));
+            compactPath = compactPath.extend(i, labels);
+            immutablePath = immutablePath.extend(i, labels);
+        }
+        assertEquals(immutablePath, compactPath);
+        assertEquals(40, compactPath.size());
+        assertEquals(39, (int) compactPath.get("b39"));
+        assertEquals(0, (int) compactPath.get("a0"));
+        assertEquals(immutablePath.retract(Collections.singleton("a3")), compactPath.retract(Collections.singleton("a3")));
+    }
 }
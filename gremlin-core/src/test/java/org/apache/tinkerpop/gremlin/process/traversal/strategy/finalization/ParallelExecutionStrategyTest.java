@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization;
+
+import org.apache.commons.configuration2.MapConfiguration;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ParallelScanStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class ParallelExecutionStrategyTest {
+
+    private final GraphTraversalSource g = EmptyGraph.instance().traversal();
+
+    @Test
+    public void shouldReduceWithinPartitions() {
+        final Traversal.Admin<?, ?> traversal = applyParallelExecutionStrategy(g.V().hasLabel("person").out().count().as("c"));
+        assertEquals(1, traversal.getSteps().size());
+        final ParallelScanStep<?, ?> step = (ParallelScanStep<?, ?>) traversal.getStartStep();
+        assertThat(step.getGraphStep(), instanceOf(GraphStep.class));
+        assertEquals(3, step.getPartitionTraversal().getSteps().size());
+        assertThat(step.getPartitionTraversal().getEndStep(), instanceOf(CountGlobalStep.class));
+        assertEquals(Collections.singleton("c"), step.getLabels());
+    }
+
+    @Test
+    public void shouldLeaveCollectingBarrierAfterPartitions() {
+        final Traversal.Admin<?, ?> traversal = applyParallelExecutionStrategy(g.V().values("name").order().by(Order.desc));
+        assertEquals(2, traversal.getSteps().size());
+        assertThat(traversal.getStartStep(), instanceOf(ParallelScanStep.class));
+        assertEquals(1, ((ParallelScanStep<?, ?>) traversal.getStartStep()).getPartitionTraversal().getSteps().size());
+        assertThat(traversal.getEndStep(), instanceOf(OrderGlobalStep.class));
+    }
+
+    @Test
+    public void shouldNotParallelizeUnsafePrefixes() {
+        assertThat(applyParallelExecutionStrategy(g.V().out().limit(10).count()).getStartStep(), instanceOf(GraphStep.class));
+        assertThat(applyParallelExecutionStrategy(g.V().map(t -> t.get()).count()).getStartStep(), instanceOf(GraphStep.class));
+        assertThat(applyParallelExecutionStrategy(g.V().out().as("a").count()).getStartStep(), instanceOf(GraphStep.class));
+        assertThat(applyParallelExecutionStrategy(g.V().out().values("name")).getStartStep(), instanceOf(GraphStep.class));
+        assertThat(applyParallelExecutionStrategy(g.V().order()).getStartStep(), instanceOf(GraphStep.class));
+        assertThat(applyParallelExecutionStrategy(g.V().out().count().profile()).getStartStep(), instanceOf(GraphStep.class));
+    }
+
+    @Test
+    public void shouldNotReduceNonListFoldWithinPartitions() {
+        final Traversal.Admin<?, ?> traversal = applyParallelExecutionStrategy(g.V().values("age").fold(0, (a, b) -> (int) a + (int) b));
+        assertEquals(2, traversal.getSteps().size());
+        assertThat(traversal.getStartStep(), instanceOf(ParallelScanStep.class));
+    }
+
+    @Test
+    public void shouldCreateFromConfiguration() {
+        final ParallelExecutionStrategy strategy = ParallelExecutionStrategy.create(
+                new MapConfiguration(Collections.singletonMap(ParallelExecutionStrategy.PARTITIONS, 8)));
+        assertEquals(8, strategy.getPartitions());
+        assertEquals(8, ParallelExecutionStrategy.create(strategy.getConfiguration()).getPartitions());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePositivePartitions() {
+        new ParallelExecutionStrategy(0);
+    }
+
+    private static Traversal.Admin<?, ?> applyParallelExecutionStrategy(final GraphTraversal<?, ?> traversal) {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(ParallelExecutionStrategy.instance());
+        traversal.asAdmin().setStrategies(strategies);
+        traversal.asAdmin().applyStrategies();
+        return traversal.asAdmin();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.FilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.IsStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.IdStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.FusedStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class StepFusionStrategyTest {
+
+    @Test
+    public void shouldFuseFilterAndMapSteps() {
+        final Traversal.Admin<?, ?> traversal = applyStepFusionStrategy(__.out().id().is(P.gt(3)).out());
+        assertEquals(3, traversal.getSteps().size());
+        assertThat(traversal.getSteps().get(1), instanceOf(FusedStep.class));
+        final FusedStep<?, ?> fused = (FusedStep<?, ?>) traversal.getSteps().get(1);
+        assertEquals(2, fused.getFusedSteps().size());
+        assertThat(fused.getFusedSteps().get(0), instanceOf(IdStep.class));
+        assertThat(fused.getFusedSteps().get(1), instanceOf(IsStep.class));
+        assertEquals("FusedStep([IdStep, IsStep(gt(3))])", fused.toString());
+    }
+
+    @Test
+    public void shouldNotFuseLabeledSteps() {
+        assertEquals(__.out().id().as("a").is(P.gt(3)), applyStepFusionStrategy(__.out().id().as("a").is(P.gt(3))));
+        assertEquals(__.out().id(), applyStepFusionStrategy(__.out().id()));
+    }
+
+    @Test
+    public void shouldNotFuseProfiledSteps() {
+        final Traversal.Admin<?, ?> traversal = applyStepFusionStrategy(__.out().id().is(P.gt(3)).profile());
+        assertThat(traversal.getSteps().get(1), instanceOf(IdStep.class));
+    }
+
+    @Test
+    public void shouldEvaluateFusedSteps() {
+        final Traversal.Admin<Integer, Integer> traversal = applyStepFusionStrategy(__.inject(1, 2, 3, 4, 5, 6).is(P.gt(1)).is(P.lt(5)).is(P.neq(3)));
+        assertThat(traversal.getSteps().get(1), instanceOf(FusedStep.class));
+        assertEquals(Arrays.asList(2, 4), traversal.toList());
+
+        final Traversal.Admin<Integer, Integer> clone = applyStepFusionStrategy(__.inject(1, 2, 3, 4, 5, 6).is(P.gt(1)).is(P.lt(5)).is(P.neq(3))).clone();
+        assertEquals(Arrays.asList(2, 4), clone.toList());
+    }
+
+    @Test
+    public void shouldResetFusedStepsOfItsOwnAndNotThoseOfTheStepItWasClonedFrom() {
+        final Traversal.Admin<?, ?> traversal = __.identity().asAdmin();
+        final ResetCountingStep<Object> step = new ResetCountingStep<>(traversal);
+        final FusedStep<Object, Object> fused = new FusedStep<>(traversal, Collections.singletonList(step));
+
+        final FusedStep<Object, Object> clone = fused.clone();
+        final ResetCountingStep<Object> clonedStep = (ResetCountingStep<Object>) clone.getFusedSteps().get(0);
+        assertNotSame(step, clonedStep);
+        assertEquals(0, step.resets);
+
+        fused.reset();
+        assertEquals(1, step.resets);
+
+        final int clonedResets = clonedStep.resets;
+        clone.reset();
+        assertEquals(clonedResets + 1, clonedStep.resets);
+        assertEquals(1, step.resets);
+    }
+
+    @Test
+    public void shouldBeOptIn() {
+        assertFalse(TraversalStrategies.GlobalCache.getStrategies(Graph.class).getStrategy(StepFusionStrategy.class).isPresent());
+    }
+
+    @Test
+    public void shouldApplyBeforeProfileAndParallelExecution() {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(ProfileStrategy.instance(), new ParallelExecutionStrategy(4), StepFusionStrategy.instance());
+        final List<Class<? extends TraversalStrategy>> order = strategies.toList().stream().
+                map(TraversalStrategy::getClass).collect(Collectors.toList());
+        assertTrue(order.indexOf(StepFusionStrategy.class) < order.indexOf(ProfileStrategy.class));
+        assertTrue(order.indexOf(StepFusionStrategy.class) < order.indexOf(ParallelExecutionStrategy.class));
+    }
+
+    private static <S, E> Traversal.Admin<S, E> applyStepFusionStrategy(final Traversal<S, E> traversal) {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(StepFusionStrategy.instance());
+        traversal.asAdmin().setStrategies(strategies);
+        traversal.asAdmin().applyStrategies();
+        return traversal.asAdmin();
+    }
+
+    private static final class ResetCountingStep<S> extends FilterStep<S> {
+        private int resets = 0;
+
+        private ResetCountingStep(final Traversal.Admin traversal) {
+            super(traversal);
+        }
+
+        @Override
+        protected boolean filter(final Traverser.Admin<S> traverser) {
+            return true;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            this.resets++;
+        }
+    }
+}
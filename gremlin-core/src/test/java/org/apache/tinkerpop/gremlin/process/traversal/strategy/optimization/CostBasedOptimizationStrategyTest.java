@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.GraphStatistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.apache.tinkerpop.gremlin.process.traversal.P.gt;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.within;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(Parameterized.class)
+public class CostBasedOptimizationStrategyTest {
+
+    private static final Graph graph = mock(Graph.class);
+    private static final GraphTraversalSource g = new GraphTraversalSource(graph);
+
+    static {
+        final Map<String, Long> vertexCounts = new HashMap<>();
+        vertexCounts.put("person", 80L);
+        vertexCounts.put("software", 20L);
+        final Map<String, Long> distinctValues = new HashMap<>();
+        distinctValues.put("name", 100L);
+        distinctValues.put("age", 10L);
+        distinctValues.put("lang", 2L);
+        final Map<String, Double> degrees = new HashMap<>();
+        degrees.put("knows" + Direction.OUT, 5d);
+        degrees.put("knows" + Direction.IN, 1d);
+        degrees.put("created" + Direction.OUT, 1d);
+        degrees.put("created" + Direction.IN, 10d);
+
+        final GraphStatistics statistics = new GraphStatistics() {
+            @Override
+            public Optional<Long> getVertexCount() {
+                return Optional.of(100L);
+            }
+
+            @Override
+            public Optional<Long> getVertexCount(final String label) {
+                return Optional.ofNullable(vertexCounts.get(label));
+            }
+
+            @Override
+            public Optional<Long> getDistinctValueCount(final Class<? extends Element> elementClass, final String key) {
+                return Optional.ofNullable(distinctValues.get(key));
+            }
+
+            @Override
+            public Optional<Double> getAverageDegree(final String edgeLabel, final Direction direction) {
+                return Optional.ofNullable(degrees.get(edgeLabel + direction));
+            }
+
+            @Override
+            public boolean isIndexed(final Class<? extends Element> elementClass, final String key) {
+                return "lang".equals(key);
+            }
+        };
+        when(graph.statistics()).thenReturn(Optional.of(statistics));
+    }
+
+    @Parameterized.Parameter(value = 0)
+    public Traversal.Admin original;
+
+    @Parameterized.Parameter(value = 1)
+    public Traversal.Admin optimized;
+
+    @Parameterized.Parameter(value = 2)
+    public Collection<TraversalStrategy> otherStrategies;
+
+    @Test
+    public void doTest() {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        final TraversalStrategies optimizedStrategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(CostBasedOptimizationStrategy.instance());
+        for (final TraversalStrategy strategy : this.otherStrategies) {
+            strategies.addStrategies(strategy);
+            optimizedStrategies.addStrategies(strategy);
+        }
+        this.original.setGraph(graph);
+        this.original.setStrategies(strategies);
+        this.original.applyStrategies();
+        this.optimized.setStrategies(optimizedStrategies);
+        this.optimized.applyStrategies();
+        assertEquals(this.optimized, this.original);
+        assertEquals(this.optimized.toString(), this.original.toString());
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Iterable<Object[]> generateTestParameters() {
+        return Arrays.asList(new Object[][]{
+                {__.out().hasLabel("person").has("age", 32).asAdmin(), __.out().has("age", 32).hasLabel("person").asAdmin(), Collections.singletonList(InlineFilterStrategy.instance())},
+                {__.out().has("age", 32).has("name", "marko").asAdmin(), __.out().has("name", "marko").has("age", 32).asAdmin(), Collections.singletonList(InlineFilterStrategy.instance())},
+                {__.out().has("age", gt(32)).has("age", within(29, 30)).asAdmin(), __.out().has("age", within(29, 30)).has("age", gt(32)).asAdmin(), Collections.singletonList(InlineFilterStrategy.instance())},
+                {__.out().has("age", 32).has("lang", "java").asAdmin(), __.out().has("age", 32).has("lang", "java").asAdmin(), Collections.singletonList(InlineFilterStrategy.instance())},
+                {g.V().has("age", 32).has("lang", "java").asAdmin(), g.V().has("lang", "java").has("age", 32).asAdmin(), Collections.singletonList(InlineFilterStrategy.instance())},
+                {__.out().has("age", 32).has("unknown", 1).asAdmin(), __.out().has("age", 32).has("unknown", 1).asAdmin(), Collections.singletonList(InlineFilterStrategy.instance())},
+                {__.V().as("a").out().as("b").where(__.as("a").out("knows").as("b")).asAdmin(), __.V().as("a").out().as("b").where(__.as("b").in("knows").as("a")).asAdmin(), Collections.emptyList()},
+                {__.V().as("a").out().as("b").where(__.as("a").out("knows").in("created").as("b")).asAdmin(), __.V().as("a").out().as("b").where(__.as("b").out("created").in("knows").as("a")).asAdmin(), Collections.emptyList()},
+                {__.V().as("a").out().as("b").where(__.as("a").out("created").as("b")).asAdmin(), __.V().as("a").out().as("b").where(__.as("a").out("created").as("b")).asAdmin(), Collections.emptyList()},
+                {__.V().as("a").out().as("b").where(__.as("a").out("follows").as("b")).asAdmin(), __.V().as("a").out().as("b").where(__.as("a").out("follows").as("b")).asAdmin(), Collections.emptyList()},
+                {__.V().as("a").out().values("name").as("b").where(__.as("a").out("knows").as("b")).asAdmin(), __.V().as("a").out().values("name").as("b").where(__.as("a").out("knows").as("b")).asAdmin(), Collections.emptyList()},
+                {__.V().as("a").out().as("b").where(__.as("a").out("knows").has("age", 32).as("b")).asAdmin(), __.V().as("a").out().as("b").where(__.as("a").out("knows").has("age", 32).as("b")).asAdmin(), Collections.emptyList()},
+                {__.V().match(__.as("a").in("created").as("b"), __.as("a").out("knows").as("c")).asAdmin(), __.V().match(__.as("a").out("knows").as("c"), __.as("a").in("created").as("b")).asAdmin(), Collections.emptyList()},
+                {__.V().match(__.as("a").out("knows").as("b"), __.as("a").out("created").as("c")).asAdmin(), __.V().match(__.as("a").out("created").as("c"), __.as("a").out("knows").as("b")).asAdmin(), Collections.emptyList()},
+                {__.V().match(__.as("a").out("knows").as("b"), __.as("a").out("follows").as("c")).asAdmin(), __.V().match(__.as("a").out("knows").as("b"), __.as("a").out("follows").as("c")).asAdmin(), Collections.emptyList()},
+        });
+    }
+}
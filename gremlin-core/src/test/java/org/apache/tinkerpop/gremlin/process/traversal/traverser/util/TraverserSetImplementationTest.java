@@ -191,6 +191,50 @@ public class TraverserSetImplementationTest {
         assertEquals(3, ts.bulkSize());
     }
 
+    @Test
+    public void shouldKeepInsertionOrderAcrossGrowthAndRemoval() {
+        final TraverserSet<String> ts = traverserSetMaker.get();
+        for (int i = 0; i < 1000; i++) {
+            ts.add(makeTraverser("x" + i, 1));
+        }
+        for (int i = 0; i < 500; i++) {
+            assertEquals("x" + i, ts.poll().get());
+        }
+        for (int i = 0; i < 1000; i++) {
+            ts.add(makeTraverser("x" + i, 1));
+        }
+        assertEquals(1000, ts.size());
+        assertEquals(1500, ts.bulkSize());
+        for (int i = 500; i < 1000; i++) {
+            final Traverser.Admin<String> t = ts.poll();
+            assertEquals("x" + i, t.get());
+            assertEquals(2, t.bulk());
+        }
+        for (int i = 0; i < 500; i++) {
+            assertEquals("x" + i, ts.poll().get());
+        }
+        assertThat(ts.isEmpty(), is(true));
+        assertNull(ts.poll());
+    }
+
+    @Test
+    public void shouldRemoveThroughIterator() {
+        final TraverserSet<String> ts = makeStringTraversers();
+        final Iterator<Traverser.Admin<String>> itty = ts.iterator();
+        itty.next();
+        itty.next();
+        itty.remove();
+        assertEquals("b2", itty.next().get());
+        assertEquals("c", itty.next().get());
+        assertThat(itty.hasNext(), is(false));
+        assertEquals(3, ts.size());
+        assertThat(ts.contains(makeTraverser("b1", 1)), is(false));
+        assertEquals("a", ts.remove().get());
+        assertEquals("b2", ts.remove().get());
+        assertEquals("c", ts.remove().get());
+        assertThat(ts.isEmpty(), is(true));
+    }
+
     private TraverserSet<String> makeStringTraversers() {
         final TraverserSet<String> ts = traverserSetMaker.get();
         ts.add(makeTraverser("a", 1));
@@ -20,12 +20,14 @@
 package org.apache.tinkerpop.gremlin.process.traversal.util;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Operator;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalSideEffects;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
 import org.apache.tinkerpop.gremlin.util.function.ConstantSupplier;
 import org.apache.tinkerpop.gremlin.util.function.HashSetSupplier;
 import org.hamcrest.CoreMatchers;
@@ -84,6 +86,25 @@ public class DefaultTraversalTest {
         assertThat(exceptionThrown.get(), CoreMatchers.is(true));
     }
 
+    @Test
+    public void shouldFillInBatches() {
+        final List<Integer> l = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        assertEquals(l.subList(500, 1000), __.inject(l).unfold().is(P.gte(500)).toList());
+        assertEquals(Arrays.asList(500L), __.inject(l).unfold().is(P.gte(500)).count().toList());
+
+        final Traversal.Admin<?, ?> traversal = __.inject(l).unfold().is(P.gte(500)).asAdmin();
+        traversal.iterate();
+        assertFalse(((AbstractStep) traversal.getEndStep()).getStarts().isBatching());
+    }
+
+    @Test
+    public void shouldNotRunAheadOfLimitWhenFillingInBatches() {
+        final AtomicInteger counter = new AtomicInteger(0);
+        final List<Integer> l = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        assertEquals(Arrays.asList(0, 1, 2), __.inject(l).unfold().sideEffect(i -> counter.incrementAndGet()).limit(3).is(P.gte(0)).toList());
+        assertThat(counter.get(), lessThan(10));
+    }
+
     @Test
     public void shouldCloneTraversalCorrectly() {
         final DefaultGraphTraversal<?, ?> original = new DefaultGraphTraversal<>();
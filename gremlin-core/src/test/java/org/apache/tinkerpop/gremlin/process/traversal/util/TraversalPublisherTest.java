@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TraversalPublisherTest {
+
+    @Test
+    public void shouldOnlyPublishRequestedResults() {
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+        __.inject(1, 2, 3, 4, 5).toPublisher(Runnable::run).subscribe(subscriber);
+        assertTrue(subscriber.items.isEmpty());
+
+        subscriber.subscription.request(2);
+        assertEquals(Arrays.asList(1, 2), subscriber.items);
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), subscriber.items);
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void shouldPublishEachBulkedResult() {
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+        __.inject(1, 1, 1, 2).barrier().toPublisher(Runnable::run).subscribe(subscriber);
+        subscriber.subscription.request(3);
+        assertEquals(Arrays.asList(1, 1, 1), subscriber.items);
+        subscriber.subscription.request(3);
+        assertEquals(Arrays.asList(1, 1, 1, 2), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void shouldStopPublishingWhenCancelled() {
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<Integer>() {
+            @Override
+            public void onNext(final Integer item) {
+                super.onNext(item);
+                if (item == 2) subscription.cancel();
+            }
+        };
+        __.inject(1, 2, 3, 4, 5).toPublisher(Runnable::run).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.request(1);
+        assertEquals(Arrays.asList(1, 2), subscriber.items);
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void shouldSignalErrorOnInvalidRequest() {
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+        __.inject(1, 2, 3).toPublisher(Runnable::run).subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertThat(subscriber.error, instanceOf(IllegalArgumentException.class));
+        assertTrue(subscriber.items.isEmpty());
+    }
+
+    @Test
+    public void shouldSignalErrorOnTraversalFailure() {
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+        __.inject(1, 2, 0).map(t -> 10 / t.get()).toPublisher(Runnable::run).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(Arrays.asList(10, 5), subscriber.items);
+        assertThat(subscriber.error, instanceOf(ArithmeticException.class));
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    public void shouldPublishIteratorAndCloseItWhenDone() {
+        final AtomicBoolean closed = new AtomicBoolean(false);
+        final Traversal.Admin<Integer, Integer> traversal = __.inject(1, 2, 3).asAdmin();
+        final Iterator<String> results = new CloseableIterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return traversal.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return "v" + traversal.next();
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        final RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        new TraversalPublisher<>(results, Runnable::run).subscribe(subscriber);
+        subscriber.subscription.request(2);
+        assertEquals(Arrays.asList("v1", "v2"), subscriber.items);
+        assertFalse(closed.get());
+
+        subscriber.subscription.request(2);
+        assertEquals(Arrays.asList("v1", "v2", "v3"), subscriber.items);
+        assertTrue(subscriber.completed);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void shouldOnlyAllowOneSubscriber() {
+        final TraversalPublisher<Integer> publisher = __.inject(1).toPublisher(Runnable::run);
+        publisher.subscribe(new RecordingSubscriber<>());
+        final RecordingSubscriber<Integer> second = new RecordingSubscriber<>();
+        publisher.subscribe(second);
+        assertThat(second.error, instanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    public void shouldPublishOnExecutorAsRequestedFromSubscriber() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Integer> expected = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+            final Traversal<Integer, Integer> traversal = __.inject(expected.toArray(new Integer[0]));
+            final CountDownLatch latch = new CountDownLatch(1);
+            final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<Integer>() {
+                @Override
+                public void onSubscribe(final TraversalPublisher.Subscription subscription) {
+                    super.onSubscribe(subscription);
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(final Integer item) {
+                    super.onNext(item);
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onComplete() {
+                    super.onComplete();
+                    latch.countDown();
+                }
+            };
+            traversal.toPublisher(executor).subscribe(subscriber);
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+            assertEquals(expected, subscriber.items);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class RecordingSubscriber<T> implements TraversalPublisher.Subscriber<T> {
+        final List<T> items = Collections.synchronizedList(new ArrayList<>());
+        volatile TraversalPublisher.Subscription subscription;
+        volatile Throwable error;
+        volatile boolean completed;
+
+        @Override
+        public void onSubscribe(final TraversalPublisher.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final T item) {
+            this.items.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            this.error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+    }
+}
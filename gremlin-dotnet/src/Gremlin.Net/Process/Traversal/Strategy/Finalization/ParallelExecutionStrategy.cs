@@ -0,0 +1,51 @@
+﻿#region License
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+#endregion
+
+namespace Gremlin.Net.Process.Traversal.Strategy.Finalization
+{
+    /// <summary>
+    ///     Runs the start step of a traversal and the steps that follow it up to the first barrier across partitions
+    ///     of the elements it reads.
+    /// </summary>
+    public class ParallelExecutionStrategy : AbstractTraversalStrategy
+    {
+        private const string JavaFqcn = FinalizationNamespace + nameof(ParallelExecutionStrategy);
+        
+        /// <summary>
+        ///     Initializes a new instance of the <see cref="ParallelExecutionStrategy" /> class.
+        /// </summary>
+        public ParallelExecutionStrategy() : base(JavaFqcn)
+        {
+        }
+
+        /// <summary>
+        ///     Initializes a new instance of the <see cref="ParallelExecutionStrategy" /> class.
+        /// </summary>
+        /// <param name="partitions">The maximum number of partitions to split the elements of the start step into.</param>
+        public ParallelExecutionStrategy(int partitions)
+            : this()
+        {
+            Configuration["partitions"] = partitions;
+        }
+    }
+}
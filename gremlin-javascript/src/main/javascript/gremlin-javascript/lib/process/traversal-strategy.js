@@ -169,6 +169,23 @@ class MatchAlgorithmStrategy extends TraversalStrategy {
   }
 }
 
+class ParallelExecutionStrategy extends TraversalStrategy {
+  /**
+   * @param {Number} [partitions] the maximum number of partitions to split the elements of the start step into
+   */
+  constructor(partitions) {
+    super("org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization.ParallelExecutionStrategy");
+    if (partitions !== undefined)
+      this.configuration["partitions"] = partitions;
+  }
+}
+
+class StepFusionStrategy extends TraversalStrategy {
+  constructor() {
+    super("org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization.StepFusionStrategy");
+  }
+}
+
 class AdjacentToIncidentStrategy extends TraversalStrategy {
   constructor() {
     super("org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.AdjacentToIncidentStrategy");
@@ -253,6 +270,12 @@ class EarlyLimitStrategy extends TraversalStrategy {
   }
 }
 
+class CostBasedOptimizationStrategy extends TraversalStrategy {
+  constructor() {
+    super("org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.CostBasedOptimizationStrategy");
+  }
+}
+
 class LambdaRestrictionStrategy extends TraversalStrategy {
   constructor() {
     super("org.apache.tinkerpop.gremlin.process.traversal.strategy.verification.LambdaRestrictionStrategy");
@@ -301,6 +324,8 @@ module.exports = {
   VertexProgramStrategy: VertexProgramStrategy,
   // finalization
   MatchAlgorithmStrategy: MatchAlgorithmStrategy,
+  ParallelExecutionStrategy: ParallelExecutionStrategy,
+  StepFusionStrategy: StepFusionStrategy,
   // optimization
   AdjacentToIncidentStrategy: AdjacentToIncidentStrategy,
   FilterRankingStrategy: FilterRankingStrategy,
@@ -316,6 +341,7 @@ module.exports = {
   RepeatUnrollStrategy: RepeatUnrollStrategy,
   GraphFilterStrategy: GraphFilterStrategy,
   EarlyLimitStrategy: EarlyLimitStrategy,
+  CostBasedOptimizationStrategy: CostBasedOptimizationStrategy,
   // verification
   EdgeLabelVerificationStrategy: EdgeLabelVerificationStrategy,
   LambdaRestrictionStrategy: LambdaRestrictionStrategy,
@@ -119,6 +119,18 @@ class MatchAlgorithmStrategy(TraversalStrategy):
             self.configuration["matchAlgorithm"] = match_algorithm
 
 
+class ParallelExecutionStrategy(TraversalStrategy):
+    def __init__(self, partitions=None):
+        TraversalStrategy.__init__(self, fqcn=finalization_namespace + 'ParallelExecutionStrategy')
+        if partitions is not None:
+            self.configuration["partitions"] = partitions
+
+
+class StepFusionStrategy(TraversalStrategy):
+    def __init__(self):
+        TraversalStrategy.__init__(self, fqcn=finalization_namespace + 'StepFusionStrategy')
+
+
 ###########################
 # OPTIMIZATION STRATEGIES #
 ###########################
@@ -203,6 +215,12 @@ class EarlyLimitStrategy(TraversalStrategy):
     def __init__(self):
         TraversalStrategy.__init__(self, fqcn=optimization_namespace + 'EarlyLimitStrategy')
 
+
+class CostBasedOptimizationStrategy(TraversalStrategy):
+    def __init__(self):
+        TraversalStrategy.__init__(self, fqcn=optimization_namespace + 'CostBasedOptimizationStrategy')
+
+
 ###########################
 # VERIFICATION STRATEGIES #
 ###########################
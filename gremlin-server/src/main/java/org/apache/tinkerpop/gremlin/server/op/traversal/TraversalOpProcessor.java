@@ -26,11 +26,13 @@ import org.apache.tinkerpop.gremlin.driver.message.RequestMessage;
 import org.apache.tinkerpop.gremlin.driver.message.ResponseMessage;
 import org.apache.tinkerpop.gremlin.driver.message.ResponseStatusCode;
 import org.apache.tinkerpop.gremlin.jsr223.JavaTranslator;
+import org.apache.tinkerpop.gremlin.jsr223.TraversalPlanCache;
 import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalSource;
 import org.apache.tinkerpop.gremlin.process.traversal.util.BytecodeHelper;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalPublisher;
 import org.apache.tinkerpop.gremlin.server.Context;
 import org.apache.tinkerpop.gremlin.server.GraphManager;
 import org.apache.tinkerpop.gremlin.server.GremlinServer;
@@ -54,12 +56,15 @@ import javax.script.ScriptException;
 import javax.script.SimpleBindings;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -78,10 +83,39 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
 
     private static final Bindings EMPTY_BINDINGS = new SimpleBindings();
 
+    /**
+     * Configuration setting for the maximum number of strategy-applied traversal plans to keep in the
+     * {@link TraversalPlanCache}. A value less than one disables the cache.
+     */
+    public static final String CONFIG_PLAN_CACHE_SIZE = "planCacheSize";
+
+    /**
+     * Default is to not cache traversal plans.
+     */
+    public static final int DEFAULT_PLAN_CACHE_SIZE = 0;
+
+    static final Settings.ProcessorSettings DEFAULT_SETTINGS = new Settings.ProcessorSettings();
+
+    static {
+        DEFAULT_SETTINGS.className = TraversalOpProcessor.class.getCanonicalName();
+        DEFAULT_SETTINGS.config = new HashMap<String, Object>() {{
+            put(CONFIG_PLAN_CACHE_SIZE, DEFAULT_PLAN_CACHE_SIZE);
+        }};
+    }
+
+    private TraversalPlanCache planCache = null;
+
     public TraversalOpProcessor() {
         super(false);
     }
 
+    @Override
+    public void init(final Settings settings) {
+        final int planCacheSize = ((Number) settings.optionalProcessor(TraversalOpProcessor.class).orElse(DEFAULT_SETTINGS).config.
+                getOrDefault(CONFIG_PLAN_CACHE_SIZE, DEFAULT_PLAN_CACHE_SIZE)).intValue();
+        this.planCache = planCacheSize > 0 ? new TraversalPlanCache(planCacheSize) : null;
+    }
+
     @Override
     public String getName() {
         return OP_PROCESSOR_NAME;
@@ -180,7 +214,7 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
         try {
             final Optional<String> lambdaLanguage = BytecodeHelper.getLambdaLanguage(bytecode);
             if (!lambdaLanguage.isPresent())
-                traversal = JavaTranslator.of(g).translate(bytecode);
+                traversal = null == planCache ? JavaTranslator.of(g).translate(bytecode) : planCache.translate(g, bytecode);
             else
                 traversal = context.getGremlinExecutor().eval(bytecode, EMPTY_BINDINGS, lambdaLanguage.get(), traversalSourceName);
         } catch (ScriptException ex) {
@@ -219,8 +253,12 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
                 beforeProcessing(graph, context);
 
                 try {
-                    // compile the traversal - without it getEndStep() has nothing in it
-                    traversal.applyStrategies();
+                    // compile the traversal - without it getEndStep() has nothing in it. a traversal that came from
+                    // the plan cache is already compiled and one that did not is offered to the cache once it is
+                    if (null == planCache)
+                        traversal.applyStrategies();
+                    else
+                        planCache.applyStrategies(g, bytecode, traversal);
                     handleIterator(context, new TraverserIterator(traversal), graph);
                 } catch (Exception ex) {
                     Throwable t = ex;
@@ -296,9 +334,6 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
         final ChannelHandlerContext nettyContext = context.getChannelHandlerContext();
         final RequestMessage msg = context.getRequestMessage();
         final Settings settings = context.getSettings();
-        final MessageSerializer<?> serializer = nettyContext.channel().attr(StateKey.SERIALIZER).get();
-        final boolean useBinary = nettyContext.channel().attr(StateKey.USE_BINARY).get();
-        boolean warnOnce = false;
 
         // we have an empty iterator - happens on stuff like: g.V().iterate()
         if (!itty.hasNext()) {
@@ -317,117 +352,222 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
         // the batch size can be overridden by the request
         final int resultIterationBatchSize = (Integer) msg.optionalArgs(Tokens.ARGS_BATCH_SIZE)
                 .orElse(settings.resultIterationBatchSize);
-        List<Object> aggregate = new ArrayList<>(resultIterationBatchSize);
-
-        // use an external control to manage the loop as opposed to just checking hasNext() in the while.  this
-        // prevent situations where auto transactions create a new transaction after calls to commit() withing
-        // the loop on calls to hasNext().
-        boolean hasMore = itty.hasNext();
-
-        while (hasMore) {
-            if (Thread.interrupted()) throw new InterruptedException();
-
-            // check if an implementation needs to force flush the aggregated results before the iteration batch
-            // size is reached.
-            final boolean forceFlush = isForceFlushed(nettyContext, msg, itty);
-
-            // have to check the aggregate size because it is possible that the channel is not writeable (below)
-            // so iterating next() if the message is not written and flushed would bump the aggregate size beyond
-            // the expected resultIterationBatchSize.  Total serialization time for the response remains in
-            // effect so if the client is "slow" it may simply timeout.
-            //
-            // there is a need to check hasNext() on the iterator because if the channel is not writeable the
-            // previous pass through the while loop will have next()'d the iterator and if it is "done" then a
-            // NoSuchElementException will raise its head. also need a check to ensure that this iteration doesn't
-            // require a forced flush which can be forced by sub-classes.
-            //
-            // this could be placed inside the isWriteable() portion of the if-then below but it seems better to
-            // allow iteration to continue into a batch if that is possible rather than just doing nothing at all
-            // while waiting for the client to catch up
-            if (aggregate.size() < resultIterationBatchSize && itty.hasNext() && !forceFlush) aggregate.add(itty.next());
-
-            // Don't keep executor busy if client has already given up; there is no way to catch up if the channel is
-            // not active, and hence we should break the loop.
-            if (!nettyContext.channel().isActive()) {
-                onError(graph, context);
-                break;
+
+        // results are published a batch at a time as the channel is ready to take them. the publisher hands its work
+        // to this thread through the queue rather than to a pool as the transaction of the request is bound to this
+        // thread and it is the one that is interrupted when the evaluation times out
+        final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+        final ResultSubscriber subscriber = new ResultSubscriber(context, itty, graph, resultIterationBatchSize);
+        new TraversalPublisher<Object>(itty, tasks::add).subscribe(subscriber);
+        try {
+            while (!subscriber.done) {
+                tasks.take().run();
+            }
+        } catch (InterruptedException ie) {
+            subscriber.subscription.cancel();
+            throw ie;
+        } finally {
+            // a cancelled subscription closes the traversal in a task of its own which has to run here too
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
             }
+        }
 
-            // send back a page of results if batch size is met or if it's the end of the results being iterated.
-            // also check writeability of the channel to prevent OOME for slow clients.
-            //
-            // clients might decide to close the Netty channel to the server with a CloseWebsocketFrame after errors
-            // like CorruptedFrameException. On the server, although the channel gets closed, there might be some
-            // executor threads waiting for watermark to clear which will not clear in these cases since client has
-            // already given up on these requests. This leads to these executors waiting for the client to consume
-            // results till the timeout. checking for isActive() should help prevent that.
-            if (nettyContext.channel().isActive() && nettyContext.channel().isWritable()) {
-                if (forceFlush || aggregate.size() == resultIterationBatchSize || !itty.hasNext()) {
-                    final ResponseStatusCode code = itty.hasNext() ? ResponseStatusCode.PARTIAL_CONTENT : ResponseStatusCode.SUCCESS;
-
-                    // serialize here because in sessionless requests the serialization must occur in the same
-                    // thread as the eval.  as eval occurs in the GremlinExecutor there's no way to get back to the
-                    // thread that processed the eval of the script so, we have to push serialization down into that
-                    final Map<String, Object> metadata = generateResultMetaData(nettyContext, msg, code, itty, settings);
-                    final Map<String, Object> statusAttrb = generateStatusAttributes(nettyContext, msg, code, itty, settings);
-                    Frame frame = null;
-                    try {
-                        frame = makeFrame(context, msg, serializer, useBinary, aggregate, code,
-                                          metadata, statusAttrb);
-                    } catch (Exception ex) {
-                        // a frame may use a Bytebuf which is a countable release - if it does not get written
-                        // downstream it needs to be released here
-                        if (frame != null) frame.tryRelease();
-
-                        // exception is handled in makeFrame() - serialization error gets written back to driver
-                        // at that point
-                        onError(graph, context);
-                        break;
-                    }
+        // the client gave up while waiting for the channel to become writable
+        if (subscriber.inactive)
+            onError(graph, context);
+        subscriber.rethrowFailure();
+    }
 
-                    try {
-                        // only need to reset the aggregation list if there's more stuff to write
-                        if (itty.hasNext())
-                            aggregate = new ArrayList<>(resultIterationBatchSize);
-                        else {
-                            // iteration and serialization are both complete which means this finished successfully. note that
-                            // errors internal to script eval or timeout will rollback given GremlinServer's global configurations.
-                            // local errors will get rolledback below because the exceptions aren't thrown in those cases to be
-                            // caught by the GremlinExecutor for global rollback logic. this only needs to be committed if
-                            // there are no more items to iterate and serialization is complete
-                            onTraversalSuccess(graph, context);
-
-                            // exit the result iteration loop as there are no more results left.  using this external control
-                            // because of the above commit.  some graphs may open a new transaction on the call to
-                            // hasNext()
-                            hasMore = false;
-                        }
-                    } catch (Exception ex) {
-                        // a frame may use a Bytebuf which is a countable release - if it does not get written
-                        // downstream it needs to be released here
-                        if (frame != null) frame.tryRelease();
-                        throw ex;
-                    }
+    /**
+     * Writes the results of a traversal back to the client a batch at a time. The next batch is only requested once
+     * the channel is writable, so the results for a slow client are not iterated ahead of what it can take and
+     * pile up in the server.
+     */
+    private final class ResultSubscriber implements TraversalPublisher.Subscriber<Object> {
+        private final Context context;
+        private final ChannelHandlerContext nettyContext;
+        private final RequestMessage msg;
+        private final Settings settings;
+        private final MessageSerializer<?> serializer;
+        private final boolean useBinary;
+        private final Iterator itty;
+        private final Graph graph;
+        private final int resultIterationBatchSize;
+
+        private List<Object> aggregate;
+        private TraversalPublisher.Subscription subscription;
+        private Throwable failure;
+        private boolean warnOnce = false;
+        private volatile int requested = 0;
+        private volatile boolean inactive = false;
+        private volatile boolean done = false;
+
+        private ResultSubscriber(final Context context, final Iterator itty, final Graph graph, final int resultIterationBatchSize) {
+            this.context = context;
+            this.nettyContext = context.getChannelHandlerContext();
+            this.msg = context.getRequestMessage();
+            this.settings = context.getSettings();
+            this.serializer = this.nettyContext.channel().attr(StateKey.SERIALIZER).get();
+            this.useBinary = this.nettyContext.channel().attr(StateKey.USE_BINARY).get();
+            this.itty = itty;
+            this.graph = graph;
+            this.resultIterationBatchSize = resultIterationBatchSize;
+            this.aggregate = new ArrayList<>(resultIterationBatchSize);
+        }
 
-                    if (!itty.hasNext()) iterateComplete(nettyContext, msg, itty);
+        @Override
+        public void onSubscribe(final TraversalPublisher.Subscription subscription) {
+            this.subscription = subscription;
+            this.requestWhenWritable();
+        }
 
-                    // the flush is called after the commit has potentially occurred.  in this way, if a commit was
-                    // required then it will be 100% complete before the client receives it. the "frame" at this point
-                    // should have completely detached objects from the transaction (i.e. serialization has occurred)
-                    // so a new one should not be opened on the flush down the netty pipeline
-                    context.writeAndFlush(code, frame);
+        @Override
+        public void onNext(final Object result) {
+            this.requested--;
+            this.aggregate.add(result);
+
+            // send back a page of results if batch size is met or if an implementation needs to force flush the
+            // aggregated results before the iteration batch size is reached
+            if (this.aggregate.size() < this.resultIterationBatchSize && !isForceFlushed(this.nettyContext, this.msg, this.itty))
+                return;
+
+            if (!this.itty.hasNext()) {
+                // the final page is written on completion which the publisher signals once asked for another result
+                if (0 == this.requested) {
+                    this.requested = 1;
+                    this.subscription.request(1);
                 }
+                return;
+            }
+
+            // don't keep iterating if the client has already given up as there is no way to catch up
+            if (!this.nettyContext.channel().isActive()) {
+                this.abort();
+                return;
+            }
+
+            final Frame frame = this.makeFrame(ResponseStatusCode.PARTIAL_CONTENT);
+            if (null == frame) {
+                this.abort();
+                return;
+            }
+            this.aggregate = new ArrayList<>(this.resultIterationBatchSize);
+            this.context.writeAndFlush(ResponseStatusCode.PARTIAL_CONTENT, frame);
+
+            if (0 == this.requested)
+                this.requestWhenWritable();
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            this.failure = throwable;
+            this.done = true;
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                if (!this.nettyContext.channel().isActive()) {
+                    TraversalOpProcessor.this.onError(this.graph, this.context);
+                    return;
+                }
+
+                final Frame frame = this.makeFrame(ResponseStatusCode.SUCCESS);
+                if (null == frame) {
+                    TraversalOpProcessor.this.onError(this.graph, this.context);
+                    return;
+                }
+
+                try {
+                    // iteration and serialization are both complete which means this finished successfully. note that
+                    // errors internal to script eval or timeout will rollback given GremlinServer's global configurations.
+                    // local errors will get rolledback below because the exceptions aren't thrown in those cases to be
+                    // caught by the GremlinExecutor for global rollback logic. this only needs to be committed if
+                    // there are no more items to iterate and serialization is complete
+                    onTraversalSuccess(this.graph, this.context);
+                } catch (Exception ex) {
+                    // a frame may use a Bytebuf which is a countable release - if it does not get written
+                    // downstream it needs to be released here
+                    frame.tryRelease();
+                    throw ex;
+                }
+
+                iterateComplete(this.nettyContext, this.msg, this.itty);
+
+                // the flush is called after the commit has potentially occurred.  in this way, if a commit was
+                // required then it will be 100% complete before the client receives it. the "frame" at this point
+                // should have completely detached objects from the transaction (i.e. serialization has occurred)
+                // so a new one should not be opened on the flush down the netty pipeline
+                this.context.writeAndFlush(ResponseStatusCode.SUCCESS, frame);
+            } catch (Exception ex) {
+                // the publisher has nothing left to signal so the failure is rethrown once iteration returns
+                this.failure = ex;
+            } finally {
+                this.done = true;
+            }
+        }
+
+        /**
+         * Requests the next batch of results if the channel is writable, or checks again shortly if it is not. As the
+         * check may run on the scheduler it is only made while no results are outstanding.
+         */
+        private void requestWhenWritable() {
+            // clients might decide to close the Netty channel to the server with a CloseWebsocketFrame after errors
+            // like CorruptedFrameException in which case the channel never becomes writable again
+            if (!this.nettyContext.channel().isActive()) {
+                this.inactive = true;
+                this.done = true;
+                this.subscription.cancel();
+            } else if (this.nettyContext.channel().isWritable()) {
+                this.requested = this.resultIterationBatchSize;
+                this.subscription.request(this.resultIterationBatchSize);
             } else {
                 // don't keep triggering this warning over and over again for the same request
-                if (!warnOnce) {
-                    logger.warn("Pausing response writing as writeBufferHighWaterMark exceeded on {} - writing will continue once client has caught up", msg);
-                    warnOnce = true;
+                if (!this.warnOnce) {
+                    logger.warn("Pausing response writing as writeBufferHighWaterMark exceeded on {} - writing will continue once client has caught up", this.msg);
+                    this.warnOnce = true;
                 }
+                this.context.getScheduledExecutorService().schedule(this::requestWhenWritable, 10, TimeUnit.MILLISECONDS);
+            }
+        }
 
-                // since the client is lagging we can hold here for a period of time for the client to catch up.
-                // this isn't blocking the IO thread - just a worker.
-                TimeUnit.MILLISECONDS.sleep(10);
+        /**
+         * Serializes the aggregated results, which has to happen on the thread that iterates them as in sessionless
+         * requests the serialization must occur in the same thread as the eval. Returns {@code null} if serialization
+         * failed in which case the error has already been written back to the client.
+         */
+        private Frame makeFrame(final ResponseStatusCode code) {
+            final Map<String, Object> metadata = generateResultMetaData(this.nettyContext, this.msg, code, this.itty, this.settings);
+            final Map<String, Object> statusAttrb = generateStatusAttributes(this.nettyContext, this.msg, code, this.itty, this.settings);
+            try {
+                return TraversalOpProcessor.makeFrame(this.context, this.msg, this.serializer, this.useBinary, this.aggregate,
+                        code, metadata, statusAttrb);
+            } catch (Exception ex) {
+                return null;
             }
         }
+
+        /**
+         * Stops the iteration from within the publisher, rolling back as the results were not all written.
+         */
+        private void abort() {
+            TraversalOpProcessor.this.onError(this.graph, this.context);
+            this.done = true;
+            this.subscription.cancel();
+        }
+
+        private void rethrowFailure() throws InterruptedException {
+            if (null == this.failure)
+                return;
+            if (this.failure instanceof InterruptedException)
+                throw (InterruptedException) this.failure;
+            if (this.failure instanceof RuntimeException)
+                throw (RuntimeException) this.failure;
+            if (this.failure instanceof Error)
+                throw (Error) this.failure;
+            throw new UndeclaredThrowableException(this.failure);
+        }
     }
 }
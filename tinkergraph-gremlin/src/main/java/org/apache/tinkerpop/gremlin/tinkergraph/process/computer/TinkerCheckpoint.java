@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.Configuration;
+import org.apache.tinkerpop.gremlin.process.computer.VertexProgram;
+import org.apache.tinkerpop.gremlin.structure.io.IoCore;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * The checkpoint of a {@link TinkerGraphComputer} job which is enabled with
+ * {@link TinkerGraphComputer#GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_DIRECTORY}. Between iterations the
+ * {@link TinkerMemory}, the compute properties of the {@link TinkerGraphComputerView} and the messages waiting in the
+ * {@link TinkerMessageBoard} are written with Gryo to a file in that directory. The file is written next to the
+ * previous checkpoint and then moved over it, so a job that dies while writing still has the previous one.
+ * <p/>
+ * A job submitted with a directory that holds a checkpoint resumes from the iteration after it instead of calling
+ * {@link VertexProgram#setup}, and the checkpoint is deleted once the vertex program terminates. The checkpoint keeps
+ * the configuration the vertex program stores with {@link VertexProgram#storeState} and the number of vertices and
+ * edges of the graph, and a job whose vertex program is configured differently or whose graph has a different number
+ * of elements fails rather than resume from it. Graph elements held in memory, properties or messages come back as
+ * detached elements.
+ */
+final class TinkerCheckpoint {
+
+    private static final String CHECKPOINT = "tinkergraph-computer.checkpoint";
+    private static final int VERSION = 2;
+
+    private final TinkerGraph graph;
+    private final File file;
+    private final File partialFile;
+    private final Kryo kryo;
+
+    TinkerCheckpoint(final TinkerGraph graph, final String directory) {
+        final File location = new File(directory).getAbsoluteFile();
+        if (!location.isDirectory() && !location.mkdirs())
+            throw new IllegalStateException("Could not create the checkpoint directory " + location);
+        this.graph = graph;
+        this.file = new File(location, CHECKPOINT);
+        this.partialFile = new File(location, CHECKPOINT + ".partial");
+        // vertex programs are free to put any type in memory, properties and messages
+        this.kryo = graph.io(IoCore.gryo()).mapper().registrationRequired(false).create().createMapper();
+    }
+
+    boolean exists() {
+        return this.file.exists();
+    }
+
+    void write(final VertexProgram<?> vertexProgram, final long runtime, final TinkerMemory memory,
+               final TinkerGraphComputerView view, final TinkerMessageBoard<?> messageBoard) throws IOException {
+        try (final FileOutputStream stream = new FileOutputStream(this.partialFile)) {
+            final Output output = new Output(stream, 65536);
+            output.writeVarInt(VERSION, true);
+            final Map<String, String> configuration = configuration(vertexProgram);
+            output.writeVarInt(configuration.size(), true);
+            for (final Map.Entry<String, String> entry : configuration.entrySet()) {
+                output.writeString(entry.getKey());
+                output.writeString(entry.getValue());
+            }
+            output.writeVarLong(TinkerHelper.getVertices(this.graph).size(), true);
+            output.writeVarLong(TinkerHelper.getEdges(this.graph).size(), true);
+            output.writeVarLong(runtime, true);
+            memory.writeCheckpoint(this.kryo, output);
+            view.writeCheckpoint(this.kryo, output);
+            messageBoard.writeCheckpoint(this.kryo, output);
+            output.flush();
+            stream.getFD().sync();
+        }
+        Files.move(this.partialFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the checkpoint back into the memory, view and message board of the job and returns the runtime the job
+     * had when the checkpoint was written.
+     */
+    long read(final VertexProgram<?> vertexProgram, final TinkerMemory memory,
+              final TinkerGraphComputerView view, final TinkerMessageBoard<?> messageBoard) throws IOException {
+        try (final InputStream stream = new FileInputStream(this.file)) {
+            final Input input = new Input(stream, 65536);
+            final int version = input.readVarInt(true);
+            if (VERSION != version)
+                throw new IllegalStateException("The checkpoint " + this.file + " has an unknown version " + version);
+            final Map<String, String> configuration = new TreeMap<>();
+            final int size = input.readVarInt(true);
+            for (int i = 0; i < size; i++) {
+                configuration.put(input.readString(), input.readString());
+            }
+            if (!configuration.equals(configuration(vertexProgram)))
+                throw new IllegalStateException("The checkpoint " + this.file + " is of a vertex program configured as " +
+                        configuration + " rather than " + configuration(vertexProgram));
+            final long vertexCount = input.readVarLong(true);
+            final long edgeCount = input.readVarLong(true);
+            if (vertexCount != TinkerHelper.getVertices(this.graph).size() || edgeCount != TinkerHelper.getEdges(this.graph).size())
+                throw new IllegalStateException("The checkpoint " + this.file + " is of a graph with " + vertexCount +
+                        " vertices and " + edgeCount + " edges rather than " + TinkerHelper.getVertices(this.graph).size() +
+                        " vertices and " + TinkerHelper.getEdges(this.graph).size() + " edges");
+            final long runtime = input.readVarLong(true);
+            memory.readCheckpoint(this.kryo, input);
+            view.readCheckpoint(this.kryo, input);
+            messageBoard.readCheckpoint(this.kryo, input, vertexProgram.getMessageScopes(memory));
+            return runtime;
+        }
+    }
+
+    /**
+     * Gets the configuration the vertex program stores, which includes its class, with the values as strings and the
+     * keys in order.
+     */
+    private static Map<String, String> configuration(final VertexProgram<?> vertexProgram) {
+        final Configuration configuration = new BaseConfiguration();
+        vertexProgram.storeState(configuration);
+        final Map<String, String> values = new TreeMap<>();
+        final Iterator<String> keys = configuration.getKeys();
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            values.put(key, Objects.toString(configuration.getProperty(key)));
+        }
+        return values;
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(this.file.toPath());
+        Files.deleteIfExists(this.partialFile.toPath());
+    }
+}
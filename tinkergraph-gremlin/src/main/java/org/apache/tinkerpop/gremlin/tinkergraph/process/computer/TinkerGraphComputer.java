@@ -37,6 +37,7 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
 
 import java.util.Collections;
 import java.util.HashSet;
@@ -56,6 +57,16 @@ import java.util.concurrent.ThreadFactory;
  */
 public final class TinkerGraphComputer implements GraphComputer {
 
+    /**
+     * The directory to write a {@link TinkerCheckpoint} of the job to, and to resume the job from when it holds one.
+     */
+    public static final String GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_DIRECTORY = "gremlin.tinkergraph.computer.checkpointDirectory";
+
+    /**
+     * The number of iterations between checkpoints, which defaults to ten.
+     */
+    public static final String GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_INTERVAL = "gremlin.tinkergraph.computer.checkpointInterval";
+
     static {
         // GraphFilters are expensive w/ TinkerGraphComputer as everything is already in memory
         TraversalStrategies.GlobalCache.registerStrategies(TinkerGraphComputer.class,
@@ -68,11 +79,13 @@ public final class TinkerGraphComputer implements GraphComputer {
     private VertexProgram<?> vertexProgram;
     private final TinkerGraph graph;
     private TinkerMemory memory;
-    private final TinkerMessageBoard messageBoard = new TinkerMessageBoard();
+    private TinkerMessageBoard messageBoard;
     private boolean executed = false;
     private final Set<MapReduce> mapReducers = new HashSet<>();
     private int workers = Runtime.getRuntime().availableProcessors();
     private final GraphFilter graphFilter = new GraphFilter();
+    private String checkpointDirectory = null;
+    private int checkpointInterval = 10;
 
     private final ThreadFactory threadFactoryBoss = new BasicThreadFactory.Builder().namingPattern(TinkerGraphComputer.class.getSimpleName() + "-boss").build();
 
@@ -128,6 +141,19 @@ public final class TinkerGraphComputer implements GraphComputer {
         return this;
     }
 
+    @Override
+    public GraphComputer configure(final String key, final Object value) {
+        if (GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_DIRECTORY.equals(key)) {
+            this.checkpointDirectory = null == value ? null : value.toString();
+        } else if (GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_INTERVAL.equals(key)) {
+            final int interval = value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString());
+            if (interval < 1)
+                throw new IllegalArgumentException("The checkpoint interval must be at least one iteration: " + value);
+            this.checkpointInterval = interval;
+        }
+        return this;
+    }
+
     @Override
     public Future<ComputerResult> submit() {
         // a graph computer can only be executed once
@@ -155,17 +181,26 @@ public final class TinkerGraphComputer implements GraphComputer {
         // initialize the memory
         this.memory = new TinkerMemory(this.vertexProgram, this.mapReducers);
         final Future<ComputerResult> result = computerService.submit(() -> {
-            final long time = System.currentTimeMillis();
+            long time = System.currentTimeMillis();
             final TinkerGraphComputerView view = TinkerHelper.createGraphComputerView(this.graph, this.graphFilter, null != this.vertexProgram ? this.vertexProgram.getVertexComputeKeys() : Collections.emptySet());
-            final TinkerWorkerPool workers = new TinkerWorkerPool(this.graph, this.memory, this.workers);
+            final TinkerWorkerPool workers = new TinkerWorkerPool(this.memory, this.workers, view.vertices());
             try {
                 if (null != this.vertexProgram) {
                     // execute the vertex program
-                    this.vertexProgram.setup(this.memory);
+                    this.messageBoard = new TinkerMessageBoard<>(this.graph, workers.vertices(), this.vertexProgram.getMessageCombiner());
+                    final TinkerCheckpoint checkpoint = null == this.checkpointDirectory ? null : new TinkerCheckpoint(this.graph, this.checkpointDirectory);
+                    if (null != checkpoint && checkpoint.exists())
+                        time -= checkpoint.read(this.vertexProgram, this.memory, view, this.messageBoard);
+                    else
+                        this.vertexProgram.setup(this.memory);
                     while (true) {
                         if (Thread.interrupted()) throw new TraversalInterruptedException();
                         this.memory.completeSubRound();
                         workers.setVertexProgram(this.vertexProgram);
+                        // a vertex program that only acts on messages need not see the vertices nobody messaged
+                        final boolean[] activeVertices = !this.memory.isInitialIteration() &&
+                                this.vertexProgram.requiresOnlyActiveVertices(this.memory.asImmutable()) ?
+                                this.messageBoard.activeVertices() : null;
                         workers.executeVertexProgram((vertices, vertexProgram, workerMemory) -> {
                             vertexProgram.workerIterationStart(workerMemory.asImmutable());
                             while (vertices.hasNext()) {
@@ -173,12 +208,12 @@ public final class TinkerGraphComputer implements GraphComputer {
                                 if (Thread.interrupted()) throw new TraversalInterruptedException();
                                 vertexProgram.execute(
                                         ComputerGraph.vertexProgram(vertex, vertexProgram),
-                                        new TinkerMessenger<>(vertex, this.messageBoard, vertexProgram.getMessageCombiner()),
+                                        new TinkerMessenger<>(vertex, TinkerHelper.getComputeOrdinal((TinkerVertex) vertex), this.messageBoard),
                                         workerMemory);
                             }
                             vertexProgram.workerIterationEnd(workerMemory.asImmutable());
                             workerMemory.complete();
-                        });
+                        }, activeVertices);
                         this.messageBoard.completeIteration();
                         this.memory.completeSubRound();
                         if (this.vertexProgram.terminate(this.memory)) {
@@ -186,8 +221,11 @@ public final class TinkerGraphComputer implements GraphComputer {
                             break;
                         } else {
                             this.memory.incrIteration();
+                            if (null != checkpoint && 0 == this.memory.getIteration() % this.checkpointInterval)
+                                checkpoint.write(this.vertexProgram, System.currentTimeMillis() - time, this.memory, view, this.messageBoard);
                         }
                     }
+                    if (null != checkpoint) checkpoint.delete();
                     view.complete(); // drop all transient vertex compute keys
                 }
 
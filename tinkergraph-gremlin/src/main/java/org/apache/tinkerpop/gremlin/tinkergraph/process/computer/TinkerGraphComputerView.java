@@ -29,29 +29,48 @@ import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertexProperty;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Holds the compute properties of the vertices while a {@link TinkerGraphComputer} runs. Each {@link VertexComputeKey}
+ * is a column with a slot per vertex ordinal, where a single value is kept as it is, in a primitive array when it is a
+ * {@code double} or a {@code long}, and {@link VertexProperty} wrappers are only created when they are asked for. A
+ * slot turns into a list of {@link TinkerVertexProperty} once it holds several values or a wrapper needs an id or
+ * meta-properties.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public final class TinkerGraphComputerView {
 
+    private static final byte EMPTY = 0;
+    private static final byte DOUBLE = 1;
+    private static final byte LONG = 2;
+    private static final byte OBJECT = 3;
+    private static final byte PROPERTIES = 4;
+
     private final TinkerGraph graph;
     protected final Map<String, VertexComputeKey> computeKeys;
-    private Map<Element, Map<String, List<VertexProperty<?>>>> computeProperties;
+    private final Map<String, ComputeColumn> computeColumns = new ConcurrentHashMap<>();
+    private final Vertex[] vertices;
     private final Set<Object> legalVertices = new HashSet<>();
     private final Map<Object, Set<Object>> legalEdges = new HashMap<>();
     private final GraphFilter graphFilter;
@@ -60,7 +79,6 @@ public final class TinkerGraphComputerView {
         this.graph = graph;
         this.computeKeys = new HashMap<>();
         computeKeys.forEach(key -> this.computeKeys.put(key.getKey(), key));
-        this.computeProperties = new ConcurrentHashMap<>();
         this.graphFilter = graphFilter;
         if (this.graphFilter.hasFilter()) {
             graph.vertices().forEachRemaining(vertex -> {
@@ -76,24 +94,61 @@ public final class TinkerGraphComputerView {
                 }
             });
         }
+        final List<Vertex> vertices = new ArrayList<>(TinkerHelper.getVertices(graph).size());
+        graph.vertices().forEachRemaining(vertex -> {
+            if (this.legalVertex(vertex)) {
+                TinkerHelper.setComputeOrdinal((TinkerVertex) vertex, vertices.size());
+                vertices.add(vertex);
+            }
+        });
+        this.vertices = vertices.toArray(new Vertex[vertices.size()]);
+        computeKeys.forEach(key -> this.computeColumns.put(key.getKey(), new ComputeColumn(this.vertices.length)));
+    }
+
+    /**
+     * Gets the vertices of the job, where the position of a vertex is its ordinal. The ordinal is also set on each
+     * vertex so that the compute columns, the {@link TinkerWorkerPool} and the {@link TinkerMessageBoard} of the job
+     * all find the slot of a vertex without looking it up by id.
+     */
+    Vertex[] vertices() {
+        return this.vertices;
     }
 
     public <V> Property<V> addProperty(final TinkerVertex vertex, final String key, final V value) {
         ElementHelper.validateProperty(key, value);
         if (isComputeKey(key)) {
-            final TinkerVertexProperty<V> property = new TinkerVertexProperty<V>((TinkerVertex) vertex, key, value) {
-                @Override
-                public void remove() {
-                    removeProperty(vertex, key, this);
-                }
-            };
-            this.addValue(vertex, key, property);
+            final ComputeColumn column = this.computeColumns.get(key);
+            final int ordinal = TinkerHelper.getComputeOrdinal(vertex);
+            if (column.isEmpty(ordinal)) {
+                column.set(ordinal, value);
+                return new ComputeProperty<>(vertex, key, value);
+            }
+            final TinkerVertexProperty<V> property = this.newProperty(vertex, key, value);
+            column.properties(vertex, key, ordinal).add(property);
             return property;
         } else {
             throw GraphComputer.Exceptions.providedKeyIsNotAnElementComputeKey(key);
         }
     }
 
+    /**
+     * Replaces all the values of a compute key on the vertex with the one given, which is what a property with
+     * {@link VertexProperty.Cardinality#single} and no meta-properties amounts to. Like any single property it
+     * also takes the place of the properties of the vertex itself that have the key.
+     */
+    public <V> VertexProperty<V> setProperty(final TinkerVertex vertex, final String key, final V value) {
+        ElementHelper.validateProperty(key, value);
+        if (isComputeKey(key)) {
+            final List<VertexProperty> shadowed = TinkerHelper.getProperties(vertex).get(key);
+            if (null != shadowed)
+                new ArrayList<>(shadowed).forEach(VertexProperty::remove);
+            this.computeColumns.get(key).set(TinkerHelper.getComputeOrdinal(vertex), value);
+            return new ComputeProperty<>(vertex, key, value);
+        } else {
+            throw GraphComputer.Exceptions.providedKeyIsNotAnElementComputeKey(key);
+        }
+    }
+
     public List<VertexProperty<?>> getProperty(final TinkerVertex vertex, final String key) {
         // if the vertex property is already on the vertex, use that.
         final List<VertexProperty<?>> vertexProperty = this.getValue(vertex, key);
@@ -102,12 +157,22 @@ public final class TinkerGraphComputerView {
     }
 
     public List<Property> getProperties(final TinkerVertex vertex) {
+        return this.getProperties(vertex, new String[0]);
+    }
+
+    /**
+     * Gets the properties of the vertex, compute properties included, that have one of the keys, or all of them when
+     * no keys are given.
+     */
+    public List<Property> getProperties(final TinkerVertex vertex, final String... propertyKeys) {
         final List<Property> list = new ArrayList<>();
-        for (final List<VertexProperty> properties : TinkerHelper.getProperties(vertex).values()) {
-            list.addAll(properties);
+        for (final Map.Entry<String, List<VertexProperty>> properties : TinkerHelper.getProperties(vertex).entrySet()) {
+            if (ElementHelper.keyExists(properties.getKey(), propertyKeys))
+                list.addAll(properties.getValue());
         }
-        for (final List<VertexProperty<?>> properties : this.computeProperties.getOrDefault(vertex, Collections.emptyMap()).values()) {
-            list.addAll(properties);
+        for (final Map.Entry<String, ComputeColumn> column : this.computeColumns.entrySet()) {
+            if (ElementHelper.keyExists(column.getKey(), propertyKeys))
+                list.addAll(column.getValue().get(vertex, column.getKey(), TinkerHelper.getComputeOrdinal(vertex)));
         }
         return list;
     }
@@ -132,13 +197,91 @@ public final class TinkerGraphComputerView {
         // remove all transient properties from the vertices
         for (final VertexComputeKey computeKey : this.computeKeys.values()) {
             if (computeKey.isTransient()) {
-                for (final Map<String, List<VertexProperty<?>>> properties : this.computeProperties.values()) {
-                    properties.remove(computeKey.getKey());
+                this.computeColumns.remove(computeKey.getKey());
+            }
+        }
+    }
+
+    /**
+     * Writes the compute properties for a {@link TinkerCheckpoint} with the id of their vertex, so that they can be
+     * read back into a job whose vertices are in another order.
+     */
+    void writeCheckpoint(final Kryo kryo, final Output output) {
+        output.writeVarInt(this.computeColumns.size(), true);
+        for (final Map.Entry<String, ComputeColumn> entry : this.computeColumns.entrySet()) {
+            final ComputeColumn column = entry.getValue();
+            output.writeString(entry.getKey());
+            int size = 0;
+            for (int i = 0; i < this.vertices.length; i++) {
+                if (!column.isEmpty(i)) size++;
+            }
+            output.writeVarInt(size, true);
+            for (int i = 0; i < this.vertices.length; i++) {
+                if (column.isEmpty(i))
+                    continue;
+                kryo.writeClassAndObject(output, this.vertices[i].id());
+                if (PROPERTIES != column.kinds[i]) {
+                    output.writeBoolean(false);
+                    kryo.writeClassAndObject(output, column.value(i));
+                } else {
+                    // a list of properties keeps the ids and meta-properties it has handed out
+                    output.writeBoolean(true);
+                    final List<VertexProperty<?>> properties = column.properties((TinkerVertex) this.vertices[i], entry.getKey(), i);
+                    output.writeVarInt(properties.size(), true);
+                    for (final VertexProperty<?> property : properties) {
+                        kryo.writeClassAndObject(output, property.id());
+                        kryo.writeClassAndObject(output, property.value());
+                        final List<Property<?>> metaProperties = new ArrayList<>();
+                        property.properties().forEachRemaining(metaProperties::add);
+                        output.writeVarInt(metaProperties.size(), true);
+                        for (final Property<?> metaProperty : metaProperties) {
+                            output.writeString(metaProperty.key());
+                            kryo.writeClassAndObject(output, metaProperty.value());
+                        }
+                    }
                 }
             }
         }
     }
 
+    void readCheckpoint(final Kryo kryo, final Input input) {
+        final int columns = input.readVarInt(true);
+        for (int c = 0; c < columns; c++) {
+            final String key = input.readString();
+            final ComputeColumn column = this.computeColumns.get(key);
+            if (null == column)
+                throw new IllegalStateException("The checkpoint has values for " + key + " which is not a compute key of the vertex program");
+            final int size = input.readVarInt(true);
+            for (int i = 0; i < size; i++) {
+                final int ordinal = this.ordinal(kryo.readClassAndObject(input));
+                if (!input.readBoolean()) {
+                    column.set(ordinal, kryo.readClassAndObject(input));
+                } else {
+                    final TinkerVertex vertex = (TinkerVertex) this.vertices[ordinal];
+                    final List<VertexProperty<?>> properties = column.properties(vertex, key, ordinal);
+                    properties.clear();
+                    final int count = input.readVarInt(true);
+                    for (int j = 0; j < count; j++) {
+                        final Object id = kryo.readClassAndObject(input);
+                        final TinkerVertexProperty<Object> property = this.newProperty(id, vertex, key, kryo.readClassAndObject(input));
+                        final int metaProperties = input.readVarInt(true);
+                        for (int k = 0; k < metaProperties; k++) {
+                            property.property(input.readString(), kryo.readClassAndObject(input));
+                        }
+                        properties.add(property);
+                    }
+                }
+            }
+        }
+    }
+
+    private int ordinal(final Object vertexId) {
+        final Vertex vertex = TinkerHelper.getVertices(this.graph).get(vertexId);
+        if (null == vertex)
+            throw new IllegalStateException("The checkpoint has values for vertex " + vertexId + " which is not in the graph");
+        return TinkerHelper.getComputeOrdinal((TinkerVertex) vertex);
+    }
+
     //////////////////////
 
     public Graph processResultGraphPersist(final GraphComputer.ResultGraph resultGraph,
@@ -156,12 +299,7 @@ public final class TinkerGraphComputerView {
                 final TinkerGraph newGraph = TinkerGraph.open();
                 this.graph.vertices().forEachRemaining(vertex -> {
                     final Vertex newVertex = newGraph.addVertex(T.id, vertex.id(), T.label, vertex.label());
-                    vertex.properties().forEachRemaining(vertexProperty -> {
-                        final VertexProperty<?> newVertexProperty = newVertex.property(VertexProperty.Cardinality.list, vertexProperty.key(), vertexProperty.value(), T.id, vertexProperty.id());
-                        vertexProperty.properties().forEachRemaining(property -> {
-                            newVertexProperty.property(property.key(), property.value());
-                        });
-                    });
+                    vertex.properties().forEachRemaining(vertexProperty -> copyProperty(newVertex, vertexProperty));
                 });
                 return newGraph;
             }
@@ -173,12 +311,7 @@ public final class TinkerGraphComputerView {
                 final TinkerGraph newGraph = TinkerGraph.open();
                 this.graph.vertices().forEachRemaining(vertex -> {
                     final Vertex newVertex = newGraph.addVertex(T.id, vertex.id(), T.label, vertex.label());
-                    vertex.properties().forEachRemaining(vertexProperty -> {
-                        final VertexProperty<?> newVertexProperty = newVertex.property(VertexProperty.Cardinality.list, vertexProperty.key(), vertexProperty.value(), T.id, vertexProperty.id());
-                        vertexProperty.properties().forEachRemaining(property -> {
-                            newVertexProperty.property(property.key(), property.value());
-                        });
-                    });
+                    vertex.properties().forEachRemaining(vertexProperty -> copyProperty(newVertex, vertexProperty));
                 });
                 this.graph.edges().forEachRemaining(edge -> {
                     final Vertex outVertex = newGraph.vertices(edge.outVertex().id()).next();
@@ -193,17 +326,26 @@ public final class TinkerGraphComputerView {
 
     private void addPropertiesToOriginalGraph() {
         TinkerHelper.dropGraphComputerView(this.graph);
-        this.computeProperties.forEach((element, properties) -> {
-            properties.forEach((key, vertexProperties) -> {
-                vertexProperties.forEach(vertexProperty -> {
-                    final VertexProperty<?> newVertexProperty = ((Vertex) element).property(VertexProperty.Cardinality.list, vertexProperty.key(), vertexProperty.value(), T.id, vertexProperty.id());
-                    vertexProperty.properties().forEachRemaining(property -> {
-                        newVertexProperty.property(property.key(), property.value());
-                    });
-                });
-            });
+        this.computeColumns.forEach((key, column) -> {
+            for (int i = 0; i < this.vertices.length; i++) {
+                for (final VertexProperty<?> vertexProperty : column.get((TinkerVertex) this.vertices[i], key, i)) {
+                    copyProperty(this.vertices[i], vertexProperty);
+                }
+            }
+        });
+        this.computeColumns.clear();
+    }
+
+    private static void copyProperty(final Vertex vertex, final VertexProperty<?> vertexProperty) {
+        // a compute property that nobody asked the id of never had one, so the vertex gives it a new one
+        if (vertexProperty instanceof ComputeProperty && !((ComputeProperty) vertexProperty).isMaterialized()) {
+            vertex.property(VertexProperty.Cardinality.list, vertexProperty.key(), vertexProperty.value());
+            return;
+        }
+        final VertexProperty<?> newVertexProperty = vertex.property(VertexProperty.Cardinality.list, vertexProperty.key(), vertexProperty.value(), T.id, vertexProperty.id());
+        vertexProperty.properties().forEachRemaining(property -> {
+            newVertexProperty.property(property.key(), property.value());
         });
-        this.computeProperties.clear();
     }
 
     //////////////////////
@@ -212,20 +354,258 @@ public final class TinkerGraphComputerView {
         return this.computeKeys.containsKey(key);
     }
 
-    private void addValue(final Vertex vertex, final String key, final VertexProperty property) {
-        final Map<String, List<VertexProperty<?>>> elementProperties = this.computeProperties.computeIfAbsent(vertex, k -> new HashMap<>());
-        elementProperties.compute(key, (k, v) -> {
-            if (null == v) v = new ArrayList<>();
-            v.add(property);
-            return v;
-        });
+    private <V> TinkerVertexProperty<V> newProperty(final TinkerVertex vertex, final String key, final V value) {
+        return new TinkerVertexProperty<V>(vertex, key, value) {
+            @Override
+            public void remove() {
+                removeProperty(vertex, key, this);
+            }
+        };
+    }
+
+    private <V> TinkerVertexProperty<V> newProperty(final Object id, final TinkerVertex vertex, final String key, final V value) {
+        return new TinkerVertexProperty<V>(id, vertex, key, value) {
+            @Override
+            public void remove() {
+                removeProperty(vertex, key, this);
+            }
+        };
     }
 
-    private void removeValue(final Vertex vertex, final String key, final VertexProperty property) {
-        this.computeProperties.<List<Map<String, VertexProperty<?>>>>getOrDefault(vertex, Collections.emptyMap()).get(key).remove(property);
+    private void removeValue(final TinkerVertex vertex, final String key, final VertexProperty property) {
+        final ComputeColumn column = this.computeColumns.get(key);
+        if (null == column)
+            return;
+        if (property instanceof ComputeProperty && !((ComputeProperty) property).isMaterialized())
+            column.remove(TinkerHelper.getComputeOrdinal(vertex), property.value());
+        else
+            column.remove(TinkerHelper.getComputeOrdinal(vertex), property instanceof ComputeProperty ? ((ComputeProperty) property).delegate() : property);
     }
 
-    private List<VertexProperty<?>> getValue(final Vertex vertex, final String key) {
-        return this.computeProperties.getOrDefault(vertex, Collections.emptyMap()).getOrDefault(key, Collections.emptyList());
+    private List<VertexProperty<?>> getValue(final TinkerVertex vertex, final String key) {
+        final ComputeColumn column = this.computeColumns.get(key);
+        return null == column ? Collections.emptyList() : column.get(vertex, key, TinkerHelper.getComputeOrdinal(vertex));
+    }
+
+    /**
+     * Finds the {@link TinkerVertexProperty} behind a compute property that was handed out as a single value,
+     * turning the slot into a list of properties if it still holds the value itself. A property that was removed in
+     * the meantime gets one that is not on the vertex.
+     */
+    private <V> VertexProperty<V> materialize(final TinkerVertex vertex, final String key, final V value) {
+        final ComputeColumn column = this.computeColumns.get(key);
+        if (null != column) {
+            final int ordinal = TinkerHelper.getComputeOrdinal(vertex);
+            if (!column.isEmpty(ordinal)) {
+                for (final VertexProperty<?> property : column.properties(vertex, key, ordinal)) {
+                    if (Objects.equals(property.value(), value))
+                        return (VertexProperty<V>) property;
+                }
+            }
+        }
+        return new TinkerVertexProperty<>(vertex, key, value);
+    }
+
+    /**
+     * The values of a compute key by vertex ordinal. A slot is only written by the worker that executes its vertex,
+     * so only the lazy allocation of the arrays needs a lock.
+     */
+    private final class ComputeColumn {
+        private final byte[] kinds;
+        private volatile double[] doubles;
+        private volatile long[] longs;
+        private volatile Object[] objects;
+
+        private ComputeColumn(final int size) {
+            this.kinds = new byte[size];
+        }
+
+        private boolean isEmpty(final int ordinal) {
+            return EMPTY == this.kinds[ordinal];
+        }
+
+        private void set(final int ordinal, final Object value) {
+            if (null != this.objects)
+                this.objects[ordinal] = null;
+            if (value instanceof Double) {
+                this.doubles()[ordinal] = (Double) value;
+                this.kinds[ordinal] = DOUBLE;
+            } else if (value instanceof Long) {
+                this.longs()[ordinal] = (Long) value;
+                this.kinds[ordinal] = LONG;
+            } else {
+                this.objects()[ordinal] = value;
+                this.kinds[ordinal] = OBJECT;
+            }
+        }
+
+        private Object value(final int ordinal) {
+            switch (this.kinds[ordinal]) {
+                case DOUBLE:
+                    return this.doubles[ordinal];
+                case LONG:
+                    return this.longs[ordinal];
+                default:
+                    return this.objects[ordinal];
+            }
+        }
+
+        private List<VertexProperty<?>> get(final TinkerVertex vertex, final String key, final int ordinal) {
+            switch (this.kinds[ordinal]) {
+                case EMPTY:
+                    return Collections.emptyList();
+                case PROPERTIES:
+                    return (List<VertexProperty<?>>) this.objects[ordinal];
+                default:
+                    return Collections.singletonList(new ComputeProperty<>(vertex, key, this.value(ordinal)));
+            }
+        }
+
+        /**
+         * Gets the list of properties of the slot, which takes the place of the single value it may hold.
+         */
+        private List<VertexProperty<?>> properties(final TinkerVertex vertex, final String key, final int ordinal) {
+            if (PROPERTIES == this.kinds[ordinal])
+                return (List<VertexProperty<?>>) this.objects[ordinal];
+
+            final List<VertexProperty<?>> properties = new ArrayList<>(2);
+            if (EMPTY != this.kinds[ordinal])
+                properties.add(newProperty(vertex, key, this.value(ordinal)));
+            this.objects()[ordinal] = properties;
+            this.kinds[ordinal] = PROPERTIES;
+            return properties;
+        }
+
+        private void remove(final int ordinal, final Object valueOrProperty) {
+            final byte kind = this.kinds[ordinal];
+            if (EMPTY == kind)
+                return;
+            if (PROPERTIES == kind) {
+                final List<VertexProperty<?>> properties = (List<VertexProperty<?>>) this.objects[ordinal];
+                if (valueOrProperty instanceof VertexProperty)
+                    properties.remove(valueOrProperty);
+                else
+                    properties.stream().filter(p -> Objects.equals(p.value(), valueOrProperty)).findFirst().ifPresent(properties::remove);
+                if (!properties.isEmpty())
+                    return;
+            } else if (!Objects.equals(this.value(ordinal), valueOrProperty)) {
+                return;
+            }
+            if (null != this.objects)
+                this.objects[ordinal] = null;
+            this.kinds[ordinal] = EMPTY;
+        }
+
+        private double[] doubles() {
+            if (null == this.doubles) {
+                synchronized (this) {
+                    if (null == this.doubles)
+                        this.doubles = new double[this.kinds.length];
+                }
+            }
+            return this.doubles;
+        }
+
+        private long[] longs() {
+            if (null == this.longs) {
+                synchronized (this) {
+                    if (null == this.longs)
+                        this.longs = new long[this.kinds.length];
+                }
+            }
+            return this.longs;
+        }
+
+        private Object[] objects() {
+            if (null == this.objects) {
+                synchronized (this) {
+                    if (null == this.objects)
+                        this.objects = new Object[this.kinds.length];
+                }
+            }
+            return this.objects;
+        }
+    }
+
+    /**
+     * A compute property handed out for a single value of a {@link ComputeColumn}. It only turns into the
+     * {@link TinkerVertexProperty} it stands for when its id or meta-properties are needed.
+     */
+    private final class ComputeProperty<V> implements VertexProperty<V> {
+        private final TinkerVertex vertex;
+        private final String key;
+        private final V value;
+        private VertexProperty<V> delegate;
+
+        private ComputeProperty(final TinkerVertex vertex, final String key, final V value) {
+            this.vertex = vertex;
+            this.key = key;
+            this.value = value;
+        }
+
+        private boolean isMaterialized() {
+            return null != this.delegate;
+        }
+
+        private VertexProperty<V> delegate() {
+            if (null == this.delegate)
+                this.delegate = materialize(this.vertex, this.key, this.value);
+            return this.delegate;
+        }
+
+        @Override
+        public String key() {
+            return this.key;
+        }
+
+        @Override
+        public V value() {
+            return this.value;
+        }
+
+        @Override
+        public boolean isPresent() {
+            return true;
+        }
+
+        @Override
+        public Vertex element() {
+            return this.vertex;
+        }
+
+        @Override
+        public Object id() {
+            return this.delegate().id();
+        }
+
+        @Override
+        public <U> Property<U> property(final String key, final U value) {
+            return this.delegate().property(key, value);
+        }
+
+        @Override
+        public <U> Iterator<Property<U>> properties(final String... propertyKeys) {
+            return null == this.delegate ? Collections.emptyIterator() : this.delegate.properties(propertyKeys);
+        }
+
+        @Override
+        public void remove() {
+            removeProperty(this.vertex, this.key, this);
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            return ElementHelper.areEqual(this, object);
+        }
+
+        @Override
+        public int hashCode() {
+            return ElementHelper.hashCode((Element) this);
+        }
+
+        @Override
+        public String toString() {
+            return StringFactory.propertyString(this);
+        }
     }
-}
\ No newline at end of file
+}
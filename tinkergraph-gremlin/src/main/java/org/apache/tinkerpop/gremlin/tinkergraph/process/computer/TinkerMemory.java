@@ -26,6 +26,9 @@ import org.apache.tinkerpop.gremlin.process.computer.VertexProgram;
 import org.apache.tinkerpop.gremlin.process.computer.util.MemoryHelper;
 import org.apache.tinkerpop.gremlin.process.traversal.Operator;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -141,6 +144,29 @@ public final class TinkerMemory implements Memory.Admin {
         return StringFactory.memoryString(this);
     }
 
+    /**
+     * Writes the memory for a {@link TinkerCheckpoint}, which is taken between iterations.
+     */
+    void writeCheckpoint(final Kryo kryo, final Output output) {
+        output.writeVarInt(this.iteration.get(), true);
+        output.writeVarInt(this.currentMap.size(), true);
+        for (final Map.Entry<String, Optional<Object>> entry : this.currentMap.entrySet()) {
+            output.writeString(entry.getKey());
+            kryo.writeClassAndObject(output, entry.getValue().orElse(null));
+        }
+    }
+
+    void readCheckpoint(final Kryo kryo, final Input input) {
+        this.iteration.set(input.readVarInt(true));
+        this.currentMap.clear();
+        final int size = input.readVarInt(true);
+        for (int i = 0; i < size; i++) {
+            final String key = input.readString();
+            this.currentMap.put(key, Optional.ofNullable(kryo.readClassAndObject(input)));
+        }
+        this.previousMap = new ConcurrentHashMap<>(this.currentMap);
+    }
+
     protected void checkKeyValue(final String key, final Object value) {
         if (!this.memoryKeys.containsKey(key))
             throw GraphComputer.Exceptions.providedKeyIsNotAMemoryComputeKey(key);
@@ -18,29 +18,443 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
 
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
 import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.process.computer.util.VertexProgramHelper;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.wrapped.WrappedVertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.apache.tinkerpop.gremlin.util.iterator.MultiIterator;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
 
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 
 /**
+ * Holds the messages of a {@link TinkerGraphComputer} job. The messages of each {@link MessageScope} are kept in an
+ * array indexed by the ordinal the {@link TinkerGraphComputerView} gave each vertex when the job started. The arrays written
+ * during an iteration are read during the next one and then cleared for reuse, so only two sets of them are ever
+ * allocated for a scope.
+ * <p/>
+ * A message sent with a {@link MessageScope.Local} stays in the slot of the sending vertex, which no other vertex
+ * writes to, and is read by every vertex that the incident traversal of the scope reaches from the sender. Those
+ * incident vertices are resolved once per vertex for the whole job rather than on every iteration. A message sent
+ * with a {@link MessageScope.Global} goes to the slot of each receiving vertex under one of a set of striped locks.
+ * When the vertex program has a {@link MessageCombiner} the messages for a slot are combined in place.
+ * <p/>
+ * The board also knows which vertices are active for an iteration, being those that received messages or asked to
+ * be kept active in the previous one, for a vertex program that only needs those executed.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 final class TinkerMessageBoard<M> {
 
-    public Map<MessageScope, Map<Vertex,Queue<M>>> sendMessages = new ConcurrentHashMap<>();
-    public Map<MessageScope, Map<Vertex, Queue<M>>> receiveMessages = new ConcurrentHashMap<>();
-    public Set<MessageScope> previousMessageScopes = new HashSet<>();
-    public Set<MessageScope> currentMessageScopes = new HashSet<>();
+    private static final int LOCK_STRIPES = 1024;
+
+    private final TinkerGraph graph;
+    private final Vertex[] vertices;
+    private final MessageCombiner<M> combiner;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Map<MessageScope, IncidentVertices> incidentVertices = new HashMap<>();
+    private final Map<MessageScope, IncidentVertices> receivingVertices = new HashMap<>();
+    private final Deque<Messages> spareMessages = new ArrayDeque<>();
+
+    private Map<MessageScope, Messages> sendMessages = new HashMap<>();
+    private volatile Map<MessageScope, Messages> sendMessagesByIdentity = new IdentityHashMap<>();
+    private List<Messages> receiveMessages = Collections.emptyList();
+    private boolean[] sendKeepActive;
+    private boolean[] receiveKeepActive;
+
+    /**
+     * Creates a board whose vertex ordinals are the positions of the {@code vertices} in the array.
+     */
+    TinkerMessageBoard(final TinkerGraph graph, final Vertex[] vertices, final Optional<MessageCombiner<M>> combiner) {
+        this.graph = graph;
+        this.vertices = vertices;
+        this.sendKeepActive = new boolean[vertices.length];
+        this.receiveKeepActive = new boolean[vertices.length];
+        this.combiner = combiner.orElse(null);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Gets the ordinal of the vertex or {@code -1} if the vertex is not part of the job. A vertex of the graph carries
+     * its ordinal, so only a vertex that stands in for one, like a detached or reference vertex given to a
+     * {@link MessageScope.Global}, is looked up by id.
+     */
+    int ordinal(final Vertex vertex) {
+        Vertex base = vertex;
+        while (base instanceof WrappedVertex) {
+            base = ((WrappedVertex<Vertex>) base).getBaseVertex();
+        }
+        if (!(base instanceof TinkerVertex) || base.graph() != this.graph) {
+            base = TinkerHelper.getVertices(this.graph).get(vertex.id());
+            if (null == base)
+                return -1;
+        }
+        // the ordinal is left over from an earlier job when the vertex did not pass the graph filter of this one
+        final int ordinal = TinkerHelper.getComputeOrdinal((TinkerVertex) base);
+        return ordinal >= 0 && ordinal < this.vertices.length && this.vertices[ordinal] == base ? ordinal : -1;
+    }
+
+    void sendMessage(final int ordinal, final MessageScope messageScope, final M message) {
+        if (messageScope instanceof MessageScope.Local) {
+            this.sendMessages(messageScope).add(ordinal, message);
+        } else {
+            final Messages messages = this.sendMessages(MessageScope.Global.instance());
+            for (final Vertex vertex : ((MessageScope.Global) messageScope).vertices()) {
+                final int target = this.ordinal(vertex);
+                if (target < 0)
+                    continue;
+                synchronized (this.locks[target & (LOCK_STRIPES - 1)]) {
+                    messages.add(target, message);
+                }
+            }
+        }
+    }
+
+    void keepActive(final int ordinal) {
+        this.sendKeepActive[ordinal] = true;
+    }
+
+    /**
+     * Determines the vertices to execute in the iteration that is about to start, which are those that receive
+     * messages in it or asked to be kept active in the previous one. The receivers of a message sent with a
+     * {@link MessageScope.Local} are found by following its incident traversal from the sender, which like the
+     * reverse direction is resolved once per vertex for the whole job.
+     */
+    boolean[] activeVertices() {
+        final boolean[] active = this.receiveKeepActive.clone();
+        for (final Messages messages : this.receiveMessages) {
+            final IncidentVertices receivers = null == messages.incidentVertices ? null :
+                    this.receivingVertices.computeIfAbsent(messages.incidentVertices.scope, scope -> new IncidentVertices((MessageScope.Local<M>) scope, false));
+            for (int i = 0; i < messages.slots.length; i++) {
+                if (null == messages.slots[i])
+                    continue;
+                if (null == receivers) {
+                    active[i] = true;
+                } else {
+                    receivers.resolve(i, this.vertices[i]);
+                    for (final int receiver : receivers.ordinals[i]) {
+                        active[receiver] = true;
+                    }
+                }
+            }
+        }
+        return active;
+    }
+
+    Iterator<M> receiveMessages(final int ordinal, final Vertex vertex) {
+        if (this.receiveMessages.isEmpty())
+            return Collections.emptyIterator();
+        if (1 == this.receiveMessages.size())
+            return this.receiveMessages.get(0).receive(ordinal, vertex);
+
+        final MultiIterator<M> multiIterator = new MultiIterator<>();
+        for (final Messages messages : this.receiveMessages) {
+            multiIterator.addIterator(messages.receive(ordinal, vertex));
+        }
+        return multiIterator;
+    }
+
+    /**
+     * Makes the messages sent during the iteration that just finished available to the next one, which must be
+     * called while no worker is running.
+     */
+    synchronized void completeIteration() {
+        for (final Messages messages : this.receiveMessages) {
+            messages.clear();
+            this.spareMessages.push(messages);
+        }
+        final List<Messages> received = new ArrayList<>(this.sendMessages.size());
+        for (final Map.Entry<MessageScope, Messages> entry : this.sendMessages.entrySet()) {
+            final Messages messages = entry.getValue();
+            messages.incidentVertices = entry.getKey() instanceof MessageScope.Local ?
+                    this.incidentVertices.computeIfAbsent(entry.getKey(), scope -> new IncidentVertices((MessageScope.Local<M>) scope, true)) :
+                    null;
+            received.add(messages);
+        }
+        this.receiveMessages = received;
+        this.sendMessages = new HashMap<>();
+        this.sendMessagesByIdentity = new IdentityHashMap<>();
+
+        final boolean[] keepActive = this.receiveKeepActive;
+        Arrays.fill(keepActive, false);
+        this.receiveKeepActive = this.sendKeepActive;
+        this.sendKeepActive = keepActive;
+    }
+
+    /**
+     * Writes the messages the next iteration is to receive for a {@link TinkerCheckpoint}, which is taken between
+     * iterations. Vertices are written by id and a {@link MessageScope.Local} by its incident traversal, so that
+     * the messages can be read back into a job whose vertices are in another order.
+     */
+    synchronized void writeCheckpoint(final Kryo kryo, final Output output) {
+        int keepActive = 0;
+        for (final boolean active : this.receiveKeepActive) {
+            if (active) keepActive++;
+        }
+        output.writeVarInt(keepActive, true);
+        for (int i = 0; i < this.receiveKeepActive.length; i++) {
+            if (this.receiveKeepActive[i])
+                kryo.writeClassAndObject(output, this.vertices[i].id());
+        }
+
+        output.writeVarInt(this.receiveMessages.size(), true);
+        for (final Messages messages : this.receiveMessages) {
+            output.writeString(null == messages.incidentVertices ? null : scopeName(messages.incidentVertices.scope));
+            int size = 0;
+            for (final Object slot : messages.slots) {
+                if (null != slot) size++;
+            }
+            output.writeVarInt(size, true);
+            for (int i = 0; i < messages.slots.length; i++) {
+                if (null == messages.slots[i])
+                    continue;
+                kryo.writeClassAndObject(output, this.vertices[i].id());
+                final List<M> slot = new ArrayList<>();
+                messages(messages.slots[i]).forEachRemaining(slot::add);
+                output.writeVarInt(slot.size(), true);
+                for (final M message : slot) {
+                    kryo.writeClassAndObject(output, message);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the messages of a {@link TinkerCheckpoint} as those the next iteration receives, where
+     * {@code messageScopes} are the scopes of the vertex program that the local scopes are matched against.
+     */
+    synchronized void readCheckpoint(final Kryo kryo, final Input input, final Set<MessageScope> messageScopes) {
+        Arrays.fill(this.receiveKeepActive, false);
+        final int keepActive = input.readVarInt(true);
+        for (int i = 0; i < keepActive; i++) {
+            this.receiveKeepActive[this.checkpointOrdinal(kryo.readClassAndObject(input))] = true;
+        }
+
+        final int size = input.readVarInt(true);
+        final List<Messages> received = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final String scopeName = input.readString();
+            final Messages messages = new Messages();
+            if (null != scopeName) {
+                final MessageScope scope = messageScopes.stream()
+                        .filter(s -> s instanceof MessageScope.Local && scopeName.equals(scopeName((MessageScope.Local<?>) s)))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalStateException("The checkpoint has messages for a local scope of " + scopeName + " which the vertex program does not have"));
+                messages.incidentVertices = this.incidentVertices.computeIfAbsent(scope, k -> new IncidentVertices((MessageScope.Local<M>) k, true));
+            }
+            final int slots = input.readVarInt(true);
+            for (int j = 0; j < slots; j++) {
+                final int ordinal = this.checkpointOrdinal(kryo.readClassAndObject(input));
+                final int count = input.readVarInt(true);
+                for (int k = 0; k < count; k++) {
+                    messages.add(ordinal, (M) kryo.readClassAndObject(input));
+                }
+            }
+            received.add(messages);
+        }
+        this.receiveMessages = received;
+    }
+
+    private int checkpointOrdinal(final Object vertexId) {
+        final Vertex vertex = TinkerHelper.getVertices(this.graph).get(vertexId);
+        final int ordinal = null == vertex ? -1 : this.ordinal(vertex);
+        if (ordinal < 0)
+            throw new IllegalStateException("The checkpoint has messages for vertex " + vertexId + " which is not in the graph");
+        return ordinal;
+    }
+
+    private static String scopeName(final MessageScope.Local<?> scope) {
+        return scope.getIncidentTraversal().get().toString();
+    }
+
+    /**
+     * Gets the messages being sent for the scope. Scopes are looked up by identity first as the equality of a
+     * {@link MessageScope.Local} has to build its incident traversal, and vertex programs usually reuse the same
+     * scope instance for every message.
+     */
+    private Messages sendMessages(final MessageScope messageScope) {
+        final Messages messages = this.sendMessagesByIdentity.get(messageScope);
+        return null == messages ? this.registerSendMessages(messageScope) : messages;
+    }
+
+    private synchronized Messages registerSendMessages(final MessageScope messageScope) {
+        Messages messages = this.sendMessagesByIdentity.get(messageScope);
+        if (null == messages) {
+            messages = this.sendMessages.get(messageScope);
+            if (null == messages) {
+                messages = this.spareMessages.isEmpty() ? new Messages() : this.spareMessages.pop();
+                this.sendMessages.put(messageScope, messages);
+            }
+            final Map<MessageScope, Messages> byIdentity = new IdentityHashMap<>(this.sendMessagesByIdentity);
+            byIdentity.put(messageScope, messages);
+            this.sendMessagesByIdentity = byIdentity;
+        }
+        return messages;
+    }
+
+    private Iterator<M> messages(final Object slot) {
+        if (null == slot)
+            return Collections.emptyIterator();
+        else if (slot instanceof Bucket)
+            return (Iterator<M>) ((Bucket) slot).iterator();
+        else
+            return IteratorUtils.of((M) slot);
+    }
+
+    /**
+     * The messages of one scope by vertex ordinal, where a slot holds either a single message or a {@link Bucket}.
+     */
+    private final class Messages {
+        private final Object[] slots = new Object[vertices.length];
+        private IncidentVertices incidentVertices;
+
+        private void add(final int ordinal, final M message) {
+            final Object current = this.slots[ordinal];
+            if (null == current) {
+                this.slots[ordinal] = message;
+            } else if (null != combiner) {
+                this.slots[ordinal] = combiner.combine((M) current, message);
+            } else if (current instanceof Bucket) {
+                ((Bucket) current).add(message);
+            } else {
+                final Bucket bucket = new Bucket();
+                bucket.add(current);
+                bucket.add(message);
+                this.slots[ordinal] = bucket;
+            }
+        }
+
+        private Iterator<M> receive(final int ordinal, final Vertex vertex) {
+            if (null == this.incidentVertices)
+                return messages(this.slots[ordinal]);
+
+            this.incidentVertices.resolve(ordinal, vertex);
+            return new IncidentMessageIterator(this.slots, this.incidentVertices.ordinals[ordinal],
+                    this.incidentVertices.edges[ordinal], this.incidentVertices.scope.getEdgeFunction());
+        }
+
+        private void clear() {
+            Arrays.fill(this.slots, null);
+            this.incidentVertices = null;
+        }
+    }
+
+    /**
+     * The vertices a {@link MessageScope.Local} receives messages from for each vertex ordinal, along with the edge
+     * that leads to each of them, or when not {@code reversed} the vertices it sends messages to. Those a vertex
+     * receives from are resolved by the worker that owns the vertex when it first receives messages for the scope.
+     */
+    private final class IncidentVertices {
+        private final MessageScope.Local<M> scope;
+        private final boolean reversed;
+        private final int[][] ordinals;
+        private final Edge[][] edges;
+
+        private IncidentVertices(final MessageScope.Local<M> scope, final boolean reversed) {
+            this.scope = scope;
+            this.reversed = reversed;
+            this.ordinals = new int[vertices.length][];
+            this.edges = new Edge[vertices.length][];
+        }
+
+        private void resolve(final int ordinal, final Vertex vertex) {
+            if (null != this.ordinals[ordinal])
+                return;
+
+            final Traversal.Admin<Vertex, Edge> incidentTraversal = this.scope.getIncidentTraversal().get().asAdmin();
+            incidentTraversal.addStart(incidentTraversal.getTraverserGenerator().generate(vertex, incidentTraversal.getStartStep(), 1l));
+            final Direction incidentDirection = TraversalHelper.getLastStepOfAssignableClass(VertexStep.class, incidentTraversal).get().getDirection();
+            final Direction direction = this.reversed ? incidentDirection : incidentDirection.opposite();
+            final List<Edge> edges = new ArrayList<>();
+            final List<Integer> ordinals = new ArrayList<>();
+            final Iterator<Edge> iterator = this.reversed ? VertexProgramHelper.reverse(incidentTraversal) : incidentTraversal;
+            while (iterator.hasNext()) {
+                final Edge edge = iterator.next();
+                final Vertex incident = direction.equals(Direction.IN) || direction.equals(Direction.OUT) ?
+                        edge.vertices(direction).next() :
+                        edge.outVertex() == vertex ? edge.inVertex() : edge.outVertex();
+                final int incidentOrdinal = TinkerMessageBoard.this.ordinal(incident);
+                if (incidentOrdinal >= 0) {
+                    edges.add(edge);
+                    ordinals.add(incidentOrdinal);
+                }
+            }
+            this.edges[ordinal] = edges.toArray(new Edge[edges.size()]);
+            this.ordinals[ordinal] = ordinals.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Iterates the messages held in the slots of the incident vertices, applying the edge function of the scope
+     * with the edge that leads to each of them.
+     */
+    private final class IncidentMessageIterator implements Iterator<M> {
+        private final Object[] slots;
+        private final int[] ordinals;
+        private final Edge[] edges;
+        private final BiFunction<M, Edge, M> edgeFunction;
+        private int index = 0;
+        private Edge edge;
+        private Iterator<M> messages = Collections.emptyIterator();
+
+        private IncidentMessageIterator(final Object[] slots, final int[] ordinals, final Edge[] edges,
+                                        final BiFunction<M, Edge, M> edgeFunction) {
+            this.slots = slots;
+            this.ordinals = ordinals;
+            this.edges = edges;
+            this.edgeFunction = edgeFunction;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!this.messages.hasNext()) {
+                if (this.index == this.ordinals.length)
+                    return false;
+                this.edge = this.edges[this.index];
+                this.messages = messages(this.slots[this.ordinals[this.index++]]);
+            }
+            return true;
+        }
+
+        @Override
+        public M next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            return this.edgeFunction.apply(this.messages.next(), this.edge);
+        }
+    }
 
-    public void completeIteration() {
-        this.receiveMessages = this.sendMessages;
-        this.sendMessages = new ConcurrentHashMap<>();
-        this.previousMessageScopes = this.currentMessageScopes;
-        this.currentMessageScopes = new HashSet<>();
+    /**
+     * The messages for a slot that received more than one without a {@link MessageCombiner}, which is a type of
+     * its own so that a message which happens to be a list is not mistaken for it.
+     */
+    private static final class Bucket extends ArrayList<Object> {
     }
 }
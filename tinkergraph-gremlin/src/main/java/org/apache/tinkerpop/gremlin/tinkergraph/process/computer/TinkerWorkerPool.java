@@ -24,22 +24,32 @@ import org.apache.tinkerpop.gremlin.process.computer.VertexProgram;
 import org.apache.tinkerpop.gremlin.process.computer.util.MapReducePool;
 import org.apache.tinkerpop.gremlin.process.computer.util.VertexProgramPool;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
-import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
 import org.apache.tinkerpop.gremlin.util.function.TriConsumer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
+ * Runs the workers of a {@link TinkerGraphComputer}. The vertices are cut into chunks of roughly equal weight, where
+ * the weight of a vertex is one plus its degree, and the workers of each iteration claim chunks from a shared cursor
+ * until none are left so that a worker which drew the supernodes does not hold up the others. The time each chunk
+ * took is measured and the next iteration hands out the slowest chunks first. An iteration that only executes the
+ * active vertices instead cuts those into chunks of equal size.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  * @author Stephen Mallette (http://stephen.genoprime.com)
  */
@@ -47,6 +57,11 @@ public final class TinkerWorkerPool implements AutoCloseable {
 
     private static final BasicThreadFactory THREAD_FACTORY_WORKER = new BasicThreadFactory.Builder().namingPattern("tinker-worker-%d").build();
 
+    /**
+     * The number of chunks to aim for per worker, which leaves enough of them to even out the load of the workers.
+     */
+    private static final int CHUNKS_PER_WORKER = 16;
+
     private final int numberOfWorkers;
     private final ExecutorService workerPool;
     private final CompletionService<Object> completionService;
@@ -54,34 +69,79 @@ public final class TinkerWorkerPool implements AutoCloseable {
     private VertexProgramPool vertexProgramPool;
     private MapReducePool mapReducePool;
     private final Queue<TinkerWorkerMemory> workerMemoryPool = new ConcurrentLinkedQueue<>();
-    private final List<List<Vertex>> workerVertices = new ArrayList<>();
+    private final Vertex[] vertices;
+    private final int[] chunkStarts;
+    private final long[] chunkCosts;
+    private Integer[] chunkOrder;
 
-    public TinkerWorkerPool(final TinkerGraph graph, final TinkerMemory memory, final int numberOfWorkers) {
+    /**
+     * Creates a pool whose workers iterate the {@code vertices} of the {@link TinkerGraphComputerView} of the job in
+     * the order they are given, so that the position of a vertex is the same ordinal everywhere in the job.
+     */
+    public TinkerWorkerPool(final TinkerMemory memory, final int numberOfWorkers, final Vertex[] vertices) {
         this.numberOfWorkers = numberOfWorkers;
         this.workerPool = Executors.newFixedThreadPool(numberOfWorkers, THREAD_FACTORY_WORKER);
         this.completionService = new ExecutorCompletionService<>(this.workerPool);
         for (int i = 0; i < this.numberOfWorkers; i++) {
             this.workerMemoryPool.add(new TinkerWorkerMemory(memory));
-            this.workerVertices.add(new ArrayList<>());
-        }
-        int batchSize = TinkerHelper.getVertices(graph).size() / this.numberOfWorkers;
-        if (0 == batchSize)
-            batchSize = 1;
-        int counter = 0;
-        int index = 0;
-
-        List<Vertex> currentWorkerVertices = this.workerVertices.get(index);
-        final Iterator<Vertex> iterator = graph.vertices();
-        while (iterator.hasNext()) {
-            final Vertex vertex = iterator.next();
-            if (counter++ < batchSize || index == this.workerVertices.size() - 1) {
-                currentWorkerVertices.add(vertex);
-            } else {
-                currentWorkerVertices = this.workerVertices.get(++index);
-                currentWorkerVertices.add(vertex);
-                counter = 1;
+        }
+
+        this.vertices = vertices;
+
+        final long[] weights = new long[this.vertices.length];
+        long totalWeight = 0;
+        for (int i = 0; i < this.vertices.length; i++) {
+            weights[i] = 1 + TinkerHelper.getDegree((TinkerVertex) this.vertices[i]);
+            totalWeight += weights[i];
+        }
+
+        // cut a chunk once it reaches its share of the weight, which leaves a supernode in a chunk of its own
+        final long chunkWeight = Math.max(1, totalWeight / ((long) this.numberOfWorkers * CHUNKS_PER_WORKER));
+        final List<Integer> starts = new ArrayList<>();
+        final List<Long> chunkWeights = new ArrayList<>();
+        long currentWeight = 0;
+        for (int i = 0; i < this.vertices.length; i++) {
+            if (currentWeight > 0 && currentWeight + weights[i] > chunkWeight) {
+                chunkWeights.add(currentWeight);
+                currentWeight = 0;
             }
+            if (0 == currentWeight)
+                starts.add(i);
+            currentWeight += weights[i];
+        }
+        if (currentWeight > 0)
+            chunkWeights.add(currentWeight);
+
+        this.chunkStarts = new int[starts.size() + 1];
+        for (int i = 0; i < starts.size(); i++) {
+            this.chunkStarts[i] = starts.get(i);
+        }
+        this.chunkStarts[starts.size()] = this.vertices.length;
+        this.chunkCosts = new long[starts.size()];
+        for (int i = 0; i < this.chunkCosts.length; i++) {
+            this.chunkCosts[i] = chunkWeights.get(i);
         }
+        this.orderChunks();
+    }
+
+    /**
+     * Orders the chunks from the most to the least costly so that the chunks which take the longest are not left to
+     * the end of an iteration.
+     */
+    private void orderChunks() {
+        final Integer[] order = new Integer[this.chunkCosts.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(this.chunkCosts[b], this.chunkCosts[a]));
+        this.chunkOrder = order;
+    }
+
+    /**
+     * The vertices the workers iterate, where the position of a vertex is its ordinal.
+     */
+    Vertex[] vertices() {
+        return this.vertices;
     }
 
     public void setVertexProgram(final VertexProgram vertexProgram) {
@@ -93,13 +153,41 @@ public final class TinkerWorkerPool implements AutoCloseable {
     }
 
     public void executeVertexProgram(final TriConsumer<Iterator<Vertex>, VertexProgram, TinkerWorkerMemory> worker) throws InterruptedException {
+        final AtomicInteger nextChunk = new AtomicInteger(0);
+        this.executeVertexProgram(worker, () -> new ChunkIterator(nextChunk));
+        this.orderChunks();
+    }
+
+    /**
+     * Executes the vertex program on the vertices whose ordinal is flagged in {@code active}, or on all of them when
+     * {@code active} is {@code null}.
+     */
+    public void executeVertexProgram(final TriConsumer<Iterator<Vertex>, VertexProgram, TinkerWorkerMemory> worker,
+                                     final boolean[] active) throws InterruptedException {
+        if (null == active) {
+            this.executeVertexProgram(worker);
+            return;
+        }
+
+        int size = 0;
+        final int[] ordinals = new int[this.vertices.length];
+        for (int i = 0; i < active.length; i++) {
+            if (active[i])
+                ordinals[size++] = i;
+        }
+        final int activeVertices = size;
+        final int chunkSize = Math.max(1, activeVertices / (this.numberOfWorkers * CHUNKS_PER_WORKER));
+        final AtomicInteger nextChunk = new AtomicInteger(0);
+        this.executeVertexProgram(worker, () -> new ActiveIterator(ordinals, activeVertices, chunkSize, nextChunk));
+    }
+
+    private void executeVertexProgram(final TriConsumer<Iterator<Vertex>, VertexProgram, TinkerWorkerMemory> worker,
+                                      final Supplier<Iterator<Vertex>> vertices) throws InterruptedException {
         for (int i = 0; i < this.numberOfWorkers; i++) {
-            final int index = i;
             this.completionService.submit(() -> {
                 final VertexProgram vp = this.vertexProgramPool.take();
                 final TinkerWorkerMemory workerMemory = this.workerMemoryPool.poll();
-                final List<Vertex> vertices = this.workerVertices.get(index);
-                worker.accept(vertices.iterator(), vp, workerMemory);
+                worker.accept(vertices.get(), vp, workerMemory);
                 this.vertexProgramPool.offer(vp);
                 this.workerMemoryPool.offer(workerMemory);
                 return null;
@@ -144,4 +232,83 @@ public final class TinkerWorkerPool implements AutoCloseable {
     public void close() throws Exception {
         this.workerPool.shutdown();
     }
-}
\ No newline at end of file
+
+    /**
+     * Iterates the vertices of the chunks a worker claims, recording how long the worker spent on each chunk.
+     */
+    private final class ChunkIterator implements Iterator<Vertex> {
+        private final AtomicInteger nextChunk;
+        private int chunk = -1;
+        private int index = 0;
+        private int end = 0;
+        private long started;
+
+        private ChunkIterator(final AtomicInteger nextChunk) {
+            this.nextChunk = nextChunk;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.index == this.end) {
+                if (this.chunk >= 0) {
+                    chunkCosts[this.chunk] = System.nanoTime() - this.started;
+                    this.chunk = -1;
+                }
+                final int next = this.nextChunk.getAndIncrement();
+                if (next >= chunkOrder.length)
+                    return false;
+                this.chunk = chunkOrder[next];
+                this.index = chunkStarts[this.chunk];
+                this.end = chunkStarts[this.chunk + 1];
+                this.started = System.nanoTime();
+            }
+            return true;
+        }
+
+        @Override
+        public Vertex next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            return vertices[this.index++];
+        }
+    }
+
+    /**
+     * Iterates the active vertices of the chunks a worker claims, where a chunk is a run of {@code chunkSize}
+     * ordinals of active vertices.
+     */
+    private final class ActiveIterator implements Iterator<Vertex> {
+        private final int[] ordinals;
+        private final int size;
+        private final int chunkSize;
+        private final AtomicInteger nextChunk;
+        private int index = 0;
+        private int end = 0;
+
+        private ActiveIterator(final int[] ordinals, final int size, final int chunkSize, final AtomicInteger nextChunk) {
+            this.ordinals = ordinals;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.nextChunk = nextChunk;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.index == this.end) {
+                final long start = (long) this.nextChunk.getAndIncrement() * this.chunkSize;
+                if (start >= this.size)
+                    return false;
+                this.index = (int) start;
+                this.end = (int) Math.min(this.size, start + this.chunkSize);
+            }
+            return true;
+        }
+
+        @Override
+        public Vertex next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            return vertices[this.ordinals[this.index++]];
+        }
+    }
+}
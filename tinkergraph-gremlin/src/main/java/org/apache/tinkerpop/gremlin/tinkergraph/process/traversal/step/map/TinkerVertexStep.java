@@ -0,0 +1,142 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.AndP;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerIndexLookup;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link VertexStep} for incident edges that takes over the {@link HasContainer} filters which follow it and the
+ * key of an {@code order().by(key).limit(n)} which follows it, so that the edges of each vertex can be read from a
+ * vertex-centric index of the {@link TinkerGraph}. When there is no applicable index, the edges of each vertex are
+ * iterated and filtered as the replaced steps would have done.
+ */
+public final class TinkerVertexStep<E extends Element> extends VertexStep<E> implements HasContainerHolder {
+
+    private List<HasContainer> hasContainers = new ArrayList<>();
+    private String orderKey = null;
+    private boolean descending = false;
+    private long limit = -1;
+
+    public TinkerVertexStep(final VertexStep<E> originalVertexStep) {
+        super(originalVertexStep.getTraversal(), originalVertexStep.getReturnClass(), originalVertexStep.getDirection(), originalVertexStep.getEdgeLabels());
+        originalVertexStep.getLabels().forEach(this::addLabel);
+        this.parameters = originalVertexStep.getParameters();
+    }
+
+    /**
+     * Sets the order that the {@code order()} step which follows this step sorts edges in and the {@code limit} on
+     * the number of edges that the range which follows it takes. The edges of each vertex are then read in that order
+     * from a vertex-centric index and only the first {@code limit} of them are emitted. The following steps still
+     * sort and limit the edges of all vertices together.
+     */
+    public void setOrder(final String orderKey, final boolean descending, final long limit) {
+        this.orderKey = orderKey;
+        this.descending = descending;
+        this.limit = limit;
+    }
+
+    @Override
+    protected Iterator<E> flatMap(final Traverser.Admin<Vertex> traverser) {
+        final Vertex vertex = traverser.get();
+        if (vertex instanceof TinkerVertex) {
+            if (null != this.orderKey && 1 == this.getEdgeLabels().length) {
+                final Iterator<Edge> ordered = TinkerIndexLookup.orderIncident((TinkerVertex) vertex, this.getDirection(),
+                        this.getEdgeLabels()[0], this.orderKey, this.descending);
+                if (null != ordered) {
+                    final List<Edge> edges = new ArrayList<>();
+                    while (edges.size() < this.limit && ordered.hasNext()) {
+                        final Edge edge = ordered.next();
+                        if (HasContainer.testAll(edge, this.hasContainers))
+                            edges.add(edge);
+                    }
+                    return (Iterator<E>) edges.iterator();
+                }
+            }
+
+            if (!this.hasContainers.isEmpty()) {
+                final List<Edge> indexed = TinkerIndexLookup.queryIncident((TinkerVertex) vertex, this.getDirection(),
+                        this.getEdgeLabels(), this.hasContainers);
+                if (null != indexed)
+                    return (Iterator<E>) IteratorUtils.filter(indexed.iterator(), edge -> HasContainer.testAll(edge, this.hasContainers));
+            }
+        }
+
+        return this.hasContainers.isEmpty() ?
+                super.flatMap(traverser) :
+                IteratorUtils.filter(super.flatMap(traverser), element -> HasContainer.testAll(element, this.hasContainers));
+    }
+
+    @Override
+    public List<HasContainer> getHasContainers() {
+        return Collections.unmodifiableList(this.hasContainers);
+    }
+
+    @Override
+    public void addHasContainer(final HasContainer hasContainer) {
+        if (hasContainer.getPredicate() instanceof AndP) {
+            for (final P<?> predicate : ((AndP<?>) hasContainer.getPredicate()).getPredicates()) {
+                this.addHasContainer(new HasContainer(hasContainer.getKey(), predicate));
+            }
+        } else
+            this.hasContainers.add(hasContainer);
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.getDirection(), Arrays.asList(this.getEdgeLabels()),
+                this.getReturnClass().getSimpleName().toLowerCase(), this.hasContainers,
+                null == this.orderKey ? "" : "order(" + this.orderKey + "," + (this.descending ? "desc" : "asc") + "," + this.limit + ")");
+    }
+
+    @Override
+    public TinkerVertexStep<E> clone() {
+        final TinkerVertexStep<E> clone = (TinkerVertexStep<E>) super.clone();
+        clone.hasContainers = new ArrayList<>();
+        for (final HasContainer hasContainer : this.hasContainers) {
+            clone.addHasContainer(hasContainer.clone());
+        }
+        return clone;
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.hasContainers.hashCode() ^ Objects.hashCode(this.orderKey) ^
+                Boolean.hashCode(this.descending) ^ Long.hashCode(this.limit);
+    }
+}
@@ -18,7 +18,6 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect;
 
-import org.apache.tinkerpop.gremlin.process.traversal.Compare;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
@@ -31,7 +30,7 @@ import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraphIterator;
-import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerIndexLookup;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.ArrayList;
@@ -39,7 +38,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
 
 /**
@@ -48,11 +48,11 @@ import java.util.stream.Collectors;
  */
 public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E> implements HasContainerHolder, AutoCloseable {
 
-    private final List<HasContainer> hasContainers = new ArrayList<>();
+    private List<HasContainer> hasContainers = new ArrayList<>();
     /**
      * List of iterators opened by this step.
      */
-    private final List<Iterator> iterators = new ArrayList<>();
+    private List<Iterator> iterators = new ArrayList<>();
 
     public TinkerGraphStep(final GraphStep<S, E> originalGraphStep) {
         super(originalGraphStep.getTraversal(), originalGraphStep.getReturnClass(), originalGraphStep.isStartStep(), originalGraphStep.getIds());
@@ -62,25 +62,30 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
         // but that allowed the filter in g.V(v).has('k','v') to be ignored.  this created problems for
         // PartitionStrategy which wants to prevent someone from passing "v" from one TraversalSource to
         // another TraversalSource using a different partition
-        this.setIteratorSupplier(() -> (Iterator<E>) (Vertex.class.isAssignableFrom(this.returnClass) ? this.vertices() : this.edges()));
+        this.setIteratorSupplier(this::elements);
+    }
+
+    private Iterator<E> elements() {
+        return (Iterator<E>) (Vertex.class.isAssignableFrom(this.returnClass) ? this.vertices() : this.edges());
     }
 
     private Iterator<? extends Edge> edges() {
         final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
-        final HasContainer indexedContainer = getIndexKey(Edge.class);
         Iterator<Edge> iterator;
         // ids are present, filter on them first
         if (null == this.ids)
             iterator = Collections.emptyIterator();
         else if (this.ids.length > 0)
             iterator = this.iteratorList(graph.edges(this.ids));
-        else
-            iterator = null == indexedContainer ?
+        else {
+            final List<? extends Element> indexed = TinkerIndexLookup.query(graph, Edge.class, this.hasContainers);
+            iterator = null == indexed ?
                     this.iteratorList(graph.edges()) :
-                    TinkerHelper.queryEdgeIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue()).stream()
+                    indexed.stream()
+                                .map(edge -> (Edge) edge)
                                 .filter(edge -> HasContainer.testAll(edge, this.hasContainers))
                                 .collect(Collectors.<Edge>toList()).iterator();
-
+        }
 
         iterators.add(iterator);
 
@@ -89,31 +94,53 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
 
     private Iterator<? extends Vertex> vertices() {
         final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
-        final HasContainer indexedContainer = getIndexKey(Vertex.class);
         Iterator<? extends Vertex> iterator;
         // ids are present, filter on them first
         if (null == this.ids)
             iterator = Collections.emptyIterator();
         else if (this.ids.length > 0)
             iterator = this.iteratorList(graph.vertices(this.ids));
-        else
-            iterator = (null == indexedContainer ?
+        else {
+            final List<? extends Element> indexed = TinkerIndexLookup.query(graph, Vertex.class, this.hasContainers);
+            iterator = (null == indexed ?
                     this.iteratorList(graph.vertices()) :
-                    IteratorUtils.filter(TinkerHelper.queryVertexIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue()).iterator(),
+                    IteratorUtils.filter((Iterator<Vertex>) indexed.iterator(),
                                          vertex -> HasContainer.testAll(vertex, this.hasContainers)));
+        }
 
         iterators.add(iterator);
 
         return iterator;
     }
 
-    private HasContainer getIndexKey(final Class<? extends Element> indexedClass) {
-        final Set<String> indexedKeys = ((TinkerGraph) this.getTraversal().getGraph().get()).getIndexedKeys(indexedClass);
+    /**
+     * Gathers the candidate elements into a list, either by id, from an index or from a full scan, and defers the
+     * {@link HasContainer} filtering to the partitions so that it is evaluated in parallel too.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        if (null == this.ids)
+            return Spliterators.emptySpliterator();
 
-        final Iterator<HasContainer> itty = IteratorUtils.filter(hasContainers.iterator(),
-                c -> c.getPredicate().getBiPredicate() == Compare.eq && indexedKeys.contains(c.getKey()));
-        return itty.hasNext() ? itty.next() : null;
+        final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+        final boolean isVertex = Vertex.class.isAssignableFrom(this.returnClass);
+        final List<E> candidates;
+        if (this.ids.length > 0)
+            candidates = this.candidateList(isVertex ? graph.vertices(this.ids) : graph.edges(this.ids));
+        else {
+            final List<? extends Element> indexed = TinkerIndexLookup.query(graph, isVertex ? Vertex.class : Edge.class, this.hasContainers);
+            candidates = null == indexed ?
+                    this.candidateList(isVertex ? graph.vertices() : graph.edges()) :
+                    (List<E>) indexed;
+        }
+        return candidates.stream().filter(element -> HasContainer.testAll(element, this.hasContainers)).spliterator();
+    }
 
+    private List<E> candidateList(final Iterator<? extends Element> iterator) {
+        final List<E> list = new ArrayList<>();
+        iterator.forEachRemaining(element -> list.add((E) element));
+        CloseableIterator.closeIterator(iterator);
+        return list;
     }
 
     @Override
@@ -161,6 +188,26 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
         return super.hashCode() ^ this.hasContainers.hashCode();
     }
 
+    /**
+     * A clone copies the {@link HasContainer} instances and supplies elements from its own ids.
+     */
+    @Override
+    public boolean isRebindable() {
+        return true;
+    }
+
+    @Override
+    public TinkerGraphStep<S, E> clone() {
+        final TinkerGraphStep<S, E> clone = (TinkerGraphStep<S, E>) super.clone();
+        clone.hasContainers = new ArrayList<>(this.hasContainers.size());
+        for (final HasContainer hasContainer : this.hasContainers) {
+            clone.hasContainers.add(hasContainer.clone());
+        }
+        clone.iterators = new ArrayList<>();
+        clone.setIteratorSupplier(clone::elements);
+        return clone;
+    }
+
     @Override
     public void close() {
         iterators.forEach(CloseableIterator::closeIterator);
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.ValueTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerVertexStep;
+import org.javatuples.Pair;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This strategy replaces a {@link VertexStep} that emits edges with a {@link TinkerVertexStep} when it is followed by
+ * {@code has()} filters, which are folded into the new step, or by {@code order().by(key).limit(n)}, whose key and
+ * limit are handed to the new step while the order and range steps remain in place. The new step can then read the
+ * incident edges of a vertex from a vertex-centric index instead of iterating all of them.
+ *
+ * @example <pre>
+ * g.V().outE('rated').has('stars', gt(4))                // is replaced by TinkerVertexStep with the has() filter
+ * g.V(1).outE('rated').order().by('ts', desc).limit(10)  // TinkerVertexStep reads the first ten edges by ts
+ * </pre>
+ */
+public final class TinkerVertexStepStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerVertexStepStrategy INSTANCE = new TinkerVertexStepStrategy();
+
+    private TinkerVertexStepStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+
+        for (final VertexStep originalVertexStep : TraversalHelper.getStepsOfClass(VertexStep.class, traversal)) {
+            if (!originalVertexStep.returnsEdge())
+                continue;
+
+            final TinkerVertexStep<?> tinkerVertexStep = new TinkerVertexStep<>(originalVertexStep);
+            boolean replace = false;
+            Step<?, ?> currentStep = originalVertexStep.getNextStep();
+            while (currentStep instanceof HasStep || currentStep instanceof NoOpBarrierStep) {
+                if (currentStep instanceof HasStep) {
+                    for (final HasContainer hasContainer : ((HasContainerHolder) currentStep).getHasContainers()) {
+                        tinkerVertexStep.addHasContainer(hasContainer);
+                    }
+                    replace = true;
+                }
+                currentStep = currentStep.getNextStep();
+            }
+
+            if (currentStep instanceof OrderGlobalStep && currentStep.getNextStep() instanceof RangeGlobalStep) {
+                final List<Pair<Traversal.Admin, Comparator>> comparators = ((OrderGlobalStep) currentStep).getComparators();
+                final long limit = ((RangeGlobalStep) currentStep.getNextStep()).getHighRange();
+                if (1 == comparators.size() && limit >= 0 &&
+                        comparators.get(0).getValue0() instanceof ValueTraversal &&
+                        null == ((ValueTraversal) comparators.get(0).getValue0()).getBypassTraversal() &&
+                        (Order.asc == comparators.get(0).getValue1() || Order.desc == comparators.get(0).getValue1())) {
+                    tinkerVertexStep.setOrder(((ValueTraversal) comparators.get(0).getValue0()).getPropertyKey(),
+                            Order.desc == comparators.get(0).getValue1(), limit);
+                    replace = true;
+                }
+            }
+
+            if (!replace)
+                continue;
+
+            TraversalHelper.replaceStep(originalVertexStep, tinkerVertexStep, traversal);
+            currentStep = tinkerVertexStep.getNextStep();
+            while (currentStep instanceof HasStep || currentStep instanceof NoOpBarrierStep) {
+                if (currentStep instanceof HasStep) {
+                    TraversalHelper.copyLabels(currentStep, currentStep.getPreviousStep(), false);
+                    traversal.removeStep(currentStep);
+                }
+                currentStep = currentStep.getNextStep();
+            }
+        }
+    }
+
+    public static TinkerVertexStepStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only snapshot of the adjacency of a {@link TinkerGraph} that is created by {@link TinkerGraph#freeze()}.
+ * Every vertex is given a dense ordinal and, for each direction and edge label, incident edges are laid out in
+ * compressed sparse row form: an {@code offsets} array indexed by vertex ordinal that points into parallel arrays of
+ * neighbor ordinals and edge references. Expanding a vertex therefore walks a contiguous slice of an array rather
+ * than the per-vertex hash sets that back a mutable graph.
+ * <p/>
+ * When built for {@link TinkerGraph#GREMLIN_TINKERGRAPH_OFF_HEAP_ADJACENCY}, the offsets and neighbor ordinals are
+ * moved into direct buffers once the rows are complete, which leaves only the edge references on the heap.
+ */
+final class TinkerAdjacency {
+
+    private final TinkerVertex[] vertices;
+    private final Map<String, Rows> out;
+    private final Map<String, Rows> in;
+
+    private TinkerAdjacency(final TinkerVertex[] vertices, final Map<String, Rows> out, final Map<String, Rows> in) {
+        this.vertices = vertices;
+        this.out = out;
+        this.in = in;
+    }
+
+    /**
+     * Builds the snapshot from the mutable adjacency of the graph, assigning each vertex its ordinal along the way.
+     */
+    static TinkerAdjacency build(final TinkerGraph graph, final boolean offHeap) {
+        final TinkerVertex[] vertices = new TinkerVertex[graph.vertices.size()];
+        int ordinal = 0;
+        for (final Vertex vertex : graph.vertices.values()) {
+            final TinkerVertex tinkerVertex = (TinkerVertex) vertex;
+            tinkerVertex.ordinal = ordinal;
+            vertices[ordinal++] = tinkerVertex;
+        }
+
+        // first pass counts the degree of each vertex per label, second pass places the edges
+        final Map<String, Rows> out = new HashMap<>();
+        final Map<String, Rows> in = new HashMap<>();
+        for (final Edge edge : graph.edges.values()) {
+            final TinkerEdge tinkerEdge = (TinkerEdge) edge;
+            out.computeIfAbsent(edge.label(), label -> new Rows(vertices.length)).offsets[((TinkerVertex) tinkerEdge.outVertex).ordinal + 1]++;
+            in.computeIfAbsent(edge.label(), label -> new Rows(vertices.length)).offsets[((TinkerVertex) tinkerEdge.inVertex).ordinal + 1]++;
+        }
+        out.values().forEach(Rows::allocate);
+        in.values().forEach(Rows::allocate);
+        for (final Edge edge : graph.edges.values()) {
+            final TinkerEdge tinkerEdge = (TinkerEdge) edge;
+            final TinkerVertex outVertex = (TinkerVertex) tinkerEdge.outVertex;
+            final TinkerVertex inVertex = (TinkerVertex) tinkerEdge.inVertex;
+            out.get(edge.label()).place(outVertex.ordinal, inVertex.ordinal, tinkerEdge);
+            in.get(edge.label()).place(inVertex.ordinal, outVertex.ordinal, tinkerEdge);
+        }
+        out.values().forEach(rows -> rows.seal(offHeap));
+        in.values().forEach(rows -> rows.seal(offHeap));
+        return new TinkerAdjacency(vertices, out, in);
+    }
+
+    /**
+     * Restores the per-vertex adjacency maps of a mutable graph from the snapshot.
+     */
+    void restore() {
+        this.out.forEach((label, rows) -> {
+            for (int i = 0; i < this.vertices.length; i++) {
+                for (int j = rows.offset(i); j < rows.offset(i + 1); j++) {
+                    TinkerHelper.addOutEdge(this.vertices[i], label, rows.edges[j]);
+                }
+            }
+        });
+        this.in.forEach((label, rows) -> {
+            for (int i = 0; i < this.vertices.length; i++) {
+                for (int j = rows.offset(i); j < rows.offset(i + 1); j++) {
+                    TinkerHelper.addInEdge(this.vertices[i], label, rows.edges[j]);
+                }
+            }
+        });
+    }
+
+    Iterator<TinkerEdge> edges(final TinkerVertex vertex, final Direction direction, final String... edgeLabels) {
+        return new RowIterator<TinkerEdge>(vertex.ordinal, rows(direction, edgeLabels)) {
+            @Override
+            TinkerEdge get(final Rows rows, final int index) {
+                return rows.edges[index];
+            }
+        };
+    }
+
+    Iterator<TinkerVertex> vertices(final TinkerVertex vertex, final Direction direction, final String... edgeLabels) {
+        return new RowIterator<TinkerVertex>(vertex.ordinal, rows(direction, edgeLabels)) {
+            @Override
+            TinkerVertex get(final Rows rows, final int index) {
+                return vertices[rows.neighbor(index)];
+            }
+        };
+    }
+
+    /**
+     * Counts the edges of the vertex in both directions, which only reads the offsets of its rows.
+     */
+    int degree(final TinkerVertex vertex) {
+        if (vertex.ordinal < 0)
+            return 0;
+
+        int degree = 0;
+        for (final Rows rows : rows(Direction.BOTH)) {
+            if (vertex.ordinal < rows.numberOfVertices)
+                degree += rows.offset(vertex.ordinal + 1) - rows.offset(vertex.ordinal);
+        }
+        return degree;
+    }
+
+    private List<Rows> rows(final Direction direction, final String... edgeLabels) {
+        if (direction == Direction.OUT) return rows(this.out, edgeLabels);
+        if (direction == Direction.IN) return rows(this.in, edgeLabels);
+        final List<Rows> rows = new ArrayList<>(rows(this.out, edgeLabels));
+        rows.addAll(rows(this.in, edgeLabels));
+        return rows;
+    }
+
+    private static List<Rows> rows(final Map<String, Rows> byLabel, final String... edgeLabels) {
+        if (edgeLabels.length == 0)
+            return new ArrayList<>(byLabel.values());
+        else if (edgeLabels.length == 1) {
+            final Rows rows = byLabel.get(edgeLabels[0]);
+            return null == rows ? Collections.emptyList() : Collections.singletonList(rows);
+        } else {
+            final List<Rows> rows = new ArrayList<>(edgeLabels.length);
+            for (final String edgeLabel : edgeLabels) {
+                final Rows labelRows = byLabel.get(edgeLabel);
+                if (null != labelRows) rows.add(labelRows);
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * The compressed sparse rows of a single edge label in a single direction.
+     */
+    private static final class Rows {
+        private final int numberOfVertices;
+        private int[] offsets;
+        private int[] neighbors;
+        private IntBuffer offHeapOffsets;
+        private IntBuffer offHeapNeighbors;
+        private TinkerEdge[] edges;
+        private int[] next;
+
+        private Rows(final int numberOfVertices) {
+            this.numberOfVertices = numberOfVertices;
+            this.offsets = new int[numberOfVertices + 1];
+        }
+
+        private void allocate() {
+            for (int i = 1; i < this.offsets.length; i++) {
+                this.offsets[i] += this.offsets[i - 1];
+            }
+            final int size = this.offsets[this.offsets.length - 1];
+            this.neighbors = new int[size];
+            this.edges = new TinkerEdge[size];
+            this.next = new int[this.offsets.length - 1];
+            System.arraycopy(this.offsets, 0, this.next, 0, this.next.length);
+        }
+
+        private void place(final int ordinal, final int neighbor, final TinkerEdge edge) {
+            final int index = this.next[ordinal]++;
+            this.neighbors[index] = neighbor;
+            this.edges[index] = edge;
+        }
+
+        private void seal(final boolean offHeap) {
+            this.next = null;
+            if (offHeap) {
+                this.offHeapOffsets = directCopy(this.offsets);
+                this.offHeapNeighbors = directCopy(this.neighbors);
+                this.offsets = null;
+                this.neighbors = null;
+            }
+        }
+
+        private int offset(final int ordinal) {
+            return null == this.offsets ? this.offHeapOffsets.get(ordinal) : this.offsets[ordinal];
+        }
+
+        private int neighbor(final int index) {
+            return null == this.neighbors ? this.offHeapNeighbors.get(index) : this.neighbors[index];
+        }
+
+        private static IntBuffer directCopy(final int[] values) {
+            final IntBuffer buffer = ByteBuffer.allocateDirect(values.length * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+            buffer.put(values);
+            return buffer;
+        }
+    }
+
+    private static abstract class RowIterator<E> implements Iterator<E> {
+        private final int ordinal;
+        private final List<Rows> rows;
+        private int current = -1;
+        private int index = 0;
+        private int end = 0;
+
+        private RowIterator(final int ordinal, final List<Rows> rows) {
+            this.ordinal = ordinal;
+            this.rows = rows;
+        }
+
+        abstract E get(final Rows rows, final int index);
+
+        @Override
+        public boolean hasNext() {
+            while (this.index == this.end) {
+                // vertices added after the snapshot was taken have no ordinal and no edges
+                if (this.ordinal < 0 || this.current + 1 >= this.rows.size()) return false;
+                final Rows next = this.rows.get(++this.current);
+                if (this.ordinal < next.numberOfVertices) {
+                    this.index = next.offset(this.ordinal);
+                    this.end = next.offset(this.ordinal + 1);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return get(this.rows.get(this.current), this.index++);
+        }
+    }
+}
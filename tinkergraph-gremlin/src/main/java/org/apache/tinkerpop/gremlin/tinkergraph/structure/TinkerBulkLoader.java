@@ -0,0 +1,361 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads large numbers of vertices and edges into a {@link TinkerGraph} from many threads at once. It is obtained from
+ * {@link TinkerGraph#bulkLoader()} and must be {@link #close() closed} when loading is complete.
+ * <p/>
+ * While the loader is open, the key and composite indices of the graph are suspended and are rebuilt in a single
+ * parallel pass on {@link #close()}, and mutations are not written to the graph log, which is instead replaced by a
+ * snapshot on {@link #close()}. Properties are built directly into maps sized for them rather than added one at a
+ * time through {@link Vertex#property(String, Object)}, and the adjacency of each vertex can be sized up front with
+ * {@link #expectedDegree(int)}. When the input comes from a {@link #trusted(boolean) trusted} source, the checks of
+ * labels, ids and property key/value pairs are skipped as well. The graph should not be read until the loader is
+ * closed.
+ * <p/>
+ * The {@code addVertex}, {@code addVertices}, {@code addEdge} and {@code addEdges} methods may be called
+ * concurrently, though an edge may only be added once both of its vertices have been added. The batch methods check
+ * the loader and the label once for all of their elements and add them to the label index in one step.
+ */
+public final class TinkerBulkLoader implements AutoCloseable {
+
+    private static final Object[] EMPTY_KEY_VALUES = new Object[0];
+
+    private final TinkerGraph graph;
+    private final TinkerIndex<TinkerVertex> vertexIndex;
+    private final TinkerIndex<TinkerEdge> edgeIndex;
+    private final TinkerGraphLog graphLog;
+    private final boolean allowNullVertexPropertyValues;
+    private final boolean allowNullEdgePropertyValues;
+    private volatile boolean trusted = false;
+    private volatile int expectedDegree = 0;
+    private volatile boolean closed = false;
+
+    TinkerBulkLoader(final TinkerGraph graph) {
+        this.graph = graph;
+        this.vertexIndex = graph.vertexIndex;
+        this.edgeIndex = graph.edgeIndex;
+        this.graphLog = graph.graphLog;
+        this.allowNullVertexPropertyValues = graph.features().vertex().supportsNullPropertyValues();
+        this.allowNullEdgePropertyValues = graph.features().edge().supportsNullPropertyValues();
+        graph.vertexIndex = null;
+        graph.edgeIndex = null;
+        graph.graphLog = null;
+    }
+
+    /**
+     * Determines if the input of the loader is known to be valid, in which case it is not checked. Ids must then be
+     * unique, not already present in the graph and of the type that the {@link TinkerGraph.DefaultIdManager} of the
+     * graph holds them as (e.g. {@code Long} for {@link TinkerGraph.DefaultIdManager#LONG}), and labels and property
+     * key/value pairs must be legal. Trusted input that is not valid leaves the graph in an inconsistent state.
+     * Defaults to {@code false}.
+     */
+    public TinkerBulkLoader trusted(final boolean trusted) {
+        this.trusted = trusted;
+        return this;
+    }
+
+    /**
+     * Sizes the vertex storage of the graph for the expected number of vertices so that it does not grow while
+     * loading. This should be called before any vertices are added.
+     */
+    public TinkerBulkLoader expectedVertices(final int expectedVertices) {
+        this.graph.vertices = presize(this.graph.vertices, expectedVertices);
+        return this;
+    }
+
+    /**
+     * Sizes the edge storage of the graph for the expected number of edges so that it does not grow while loading.
+     * This should be called before any edges are added.
+     */
+    public TinkerBulkLoader expectedEdges(final int expectedEdges) {
+        this.graph.edges = presize(this.graph.edges, expectedEdges);
+        return this;
+    }
+
+    /**
+     * Sizes the set of edges that a vertex keeps for each label and direction for the expected number of edges, so
+     * that the adjacency of a vertex of that degree does not grow while loading. Defaults to {@code 0}, which leaves
+     * the sets at their default size.
+     */
+    public TinkerBulkLoader expectedDegree(final int expectedDegree) {
+        this.expectedDegree = expectedDegree;
+        return this;
+    }
+
+    /**
+     * Adds a vertex with the given id, which may be {@code null} to have one generated, label and property key/value
+     * pairs. Properties are added with {@link VertexProperty.Cardinality#list} cardinality.
+     */
+    public Vertex addVertex(final Object id, final String label, final Object... keyValues) {
+        checkOpen();
+        final boolean trusted = this.trusted;
+        if (!trusted) {
+            ElementHelper.validateLabel(label);
+            ElementHelper.legalPropertyKeyValueArray(keyValues);
+        }
+        final TinkerVertex vertex = putVertex(id, label, keyValues, trusted);
+        TinkerHelper.addLabelIndex(this.graph.vertexLabelIndex, vertex);
+        return vertex;
+    }
+
+    /**
+     * Adds a batch of vertices with the same label. The vertex at each position of the {@code ids}, any of which may
+     * be {@code null} to have one generated, gets the property key/value pairs at the same position of the
+     * {@code keyValues}, which may be {@code null} if none of the vertices have properties. Properties are added with
+     * {@link VertexProperty.Cardinality#list} cardinality.
+     */
+    public void addVertices(final String label, final Object[] ids, final Object[][] keyValues) {
+        checkOpen();
+        checkBatch(ids.length, keyValues);
+        final boolean trusted = this.trusted;
+        if (!trusted) ElementHelper.validateLabel(label);
+
+        final List<TinkerVertex> vertices = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            final Object[] vertexKeyValues = keyValues(keyValues, i, trusted);
+            vertices.add(putVertex(ids[i], label, vertexKeyValues, trusted));
+        }
+        addLabelIndex(this.graph.vertexLabelIndex, label, vertices);
+    }
+
+    /**
+     * Adds an edge with the given id, which may be {@code null} to have one generated, between the vertices with the
+     * given ids, which must already have been added to the graph.
+     */
+    public Edge addEdge(final Object id, final Object outVertexId, final String label, final Object inVertexId, final Object... keyValues) {
+        checkOpen();
+        final boolean trusted = this.trusted;
+        if (!trusted) {
+            ElementHelper.validateLabel(label);
+            ElementHelper.legalPropertyKeyValueArray(keyValues);
+        }
+        final TinkerEdge edge = putEdge(id, outVertexId, label, inVertexId, keyValues, trusted);
+        TinkerHelper.addLabelIndex(this.graph.edgeLabelIndex, edge);
+        return edge;
+    }
+
+    /**
+     * Adds a batch of edges with the same label. The edge at each position of the {@code outVertexIds} goes from the
+     * vertex with that id to the vertex with the id at the same position of the {@code inVertexIds}, both of which
+     * must already have been added to the graph, and gets the id and property key/value pairs at the same position
+     * of the {@code ids} and {@code keyValues}. Either of those may be {@code null} to have all ids generated or to
+     * add no properties.
+     */
+    public void addEdges(final String label, final Object[] ids, final Object[] outVertexIds, final Object[] inVertexIds,
+                         final Object[][] keyValues) {
+        checkOpen();
+        checkBatch(outVertexIds.length, ids);
+        checkBatch(outVertexIds.length, inVertexIds);
+        checkBatch(outVertexIds.length, keyValues);
+        final boolean trusted = this.trusted;
+        if (!trusted) ElementHelper.validateLabel(label);
+
+        final List<TinkerEdge> edges = new ArrayList<>(outVertexIds.length);
+        for (int i = 0; i < outVertexIds.length; i++) {
+            final Object[] edgeKeyValues = keyValues(keyValues, i, trusted);
+            edges.add(putEdge(null == ids ? null : ids[i], outVertexIds[i], label, inVertexIds[i], edgeKeyValues, trusted));
+        }
+        addLabelIndex(this.graph.edgeLabelIndex, label, edges);
+    }
+
+    /**
+     * Rebuilds the indices of the graph in a single parallel pass over the loaded elements and, if the graph log is
+     * enabled, takes a snapshot of the loaded graph. Calling this method on a closed loader has no effect.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.closed) return;
+        this.closed = true;
+        if (null != this.vertexIndex) this.graph.vertexIndex = this.vertexIndex.rebuild();
+        if (null != this.edgeIndex) this.graph.edgeIndex = this.edgeIndex.rebuild();
+        this.graph.graphLog = this.graphLog;
+        this.graph.bulkLoader = null;
+        if (null != this.graphLog) this.graph.snapshot();
+    }
+
+    private TinkerVertex putVertex(final Object id, final String label, final Object[] keyValues, final boolean trusted) {
+        Object idValue = trusted ? id : this.graph.vertexIdManager.convert(id);
+        if (null != idValue) {
+            if (!trusted && this.graph.vertices.containsKey(idValue))
+                throw Graph.Exceptions.vertexWithIdAlreadyExists(idValue);
+            this.graph.reserveId(idValue);
+        } else {
+            idValue = this.graph.vertexIdManager.getNextId(this.graph);
+        }
+
+        final TinkerVertex vertex = new TinkerVertex(idValue, label, this.graph);
+        vertex.properties = vertexProperties(vertex, keyValues, trusted);
+        if (trusted)
+            this.graph.vertices.put(idValue, vertex);
+        else if (null != this.graph.vertices.putIfAbsent(idValue, vertex))
+            throw Graph.Exceptions.vertexWithIdAlreadyExists(idValue);
+        return vertex;
+    }
+
+    private TinkerEdge putEdge(final Object id, final Object outVertexId, final String label, final Object inVertexId,
+                               final Object[] keyValues, final boolean trusted) {
+        final TinkerVertex outVertex = vertex(outVertexId, trusted);
+        final TinkerVertex inVertex = vertex(inVertexId, trusted);
+
+        Object idValue = trusted ? id : this.graph.edgeIdManager.convert(id);
+        if (null != idValue) {
+            if (!trusted && this.graph.edges.containsKey(idValue))
+                throw Graph.Exceptions.edgeWithIdAlreadyExists(idValue);
+            this.graph.reserveId(idValue);
+        } else {
+            idValue = this.graph.edgeIdManager.getNextId(this.graph);
+        }
+
+        final TinkerEdge edge = new TinkerEdge(idValue, outVertex, label, inVertex);
+        edge.properties = edgeProperties(edge, keyValues, trusted);
+        if (trusted)
+            this.graph.edges.put(idValue, edge);
+        else if (null != this.graph.edges.putIfAbsent(idValue, edge))
+            throw Graph.Exceptions.edgeWithIdAlreadyExists(idValue);
+        synchronized (outVertex) {
+            if (null == outVertex.outEdges) outVertex.outEdges = new HashMap<>();
+            adjacentEdges(outVertex.outEdges, label).add(edge);
+        }
+        synchronized (inVertex) {
+            if (null == inVertex.inEdges) inVertex.inEdges = new HashMap<>();
+            adjacentEdges(inVertex.inEdges, label).add(edge);
+        }
+        TinkerHelper.addVertexCentricIndex(edge);
+        return edge;
+    }
+
+    /**
+     * Builds the property map of a new vertex the way {@link ElementHelper#attachProperties(Vertex, VertexProperty.Cardinality, Object...)}
+     * would with {@link VertexProperty.Cardinality#list}, but without going through {@link TinkerVertex#property(VertexProperty.Cardinality, String, Object, Object...)}
+     * for each of them.
+     */
+    private Map<String, List<VertexProperty>> vertexProperties(final TinkerVertex vertex, final Object[] keyValues, final boolean trusted) {
+        if (0 == keyValues.length) return null;
+        final Map<String, List<VertexProperty>> properties = new HashMap<>(capacity(keyValues.length / 2));
+        for (int i = 0; i < keyValues.length; i = i + 2) {
+            if (keyValues[i] instanceof T) continue;
+            final String key = (String) keyValues[i];
+            final Object value = keyValues[i + 1];
+            if (!trusted) ElementHelper.validateProperty(key, value);
+            if (null == value && !this.allowNullVertexPropertyValues) {
+                properties.remove(key);
+                continue;
+            }
+            final Object idValue = this.graph.vertexPropertyIdManager.getNextId(this.graph);
+            properties.computeIfAbsent(key, k -> new ArrayList<>(1)).add(new TinkerVertexProperty<>(idValue, vertex, key, value));
+        }
+        return properties.isEmpty() ? null : properties;
+    }
+
+    /**
+     * Builds the property map of a new edge the way {@link ElementHelper#attachProperties(Element, Object...)} would,
+     * but without going through {@link TinkerEdge#property(String, Object)} for each of them.
+     */
+    private Map<String, Property> edgeProperties(final TinkerEdge edge, final Object[] keyValues, final boolean trusted) {
+        if (0 == keyValues.length) return null;
+        final Map<String, Property> properties = new HashMap<>(capacity(keyValues.length / 2));
+        for (int i = 0; i < keyValues.length; i = i + 2) {
+            if (keyValues[i] instanceof T) continue;
+            final String key = (String) keyValues[i];
+            final Object value = keyValues[i + 1];
+            if (!trusted) ElementHelper.validateProperty(key, value);
+            if (null == value && !this.allowNullEdgePropertyValues)
+                properties.remove(key);
+            else
+                properties.put(key, new TinkerProperty<>(edge, key, value));
+        }
+        return properties.isEmpty() ? null : properties;
+    }
+
+    private Set<Edge> adjacentEdges(final Map<String, Set<Edge>> adjacency, final String label) {
+        Set<Edge> edges = adjacency.get(label);
+        if (null == edges) {
+            final int expectedDegree = this.expectedDegree;
+            edges = expectedDegree > 0 ? new HashSet<>(capacity(expectedDegree)) : new HashSet<>();
+            adjacency.put(label, edges);
+        }
+        return edges;
+    }
+
+    private TinkerVertex vertex(final Object id, final boolean trusted) {
+        final Vertex vertex = this.graph.vertices.get(trusted ? id : this.graph.vertexIdManager.convert(id));
+        if (null == vertex)
+            throw new IllegalArgumentException(String.format("Vertex with id %s does not exist in the graph", id));
+        return (TinkerVertex) vertex;
+    }
+
+    private void checkOpen() {
+        if (this.closed)
+            throw new IllegalStateException("The bulk loader has been closed");
+    }
+
+    private static void checkBatch(final int size, final Object[] values) {
+        if (null != values && values.length != size)
+            throw new IllegalArgumentException(String.format("Expected %s values for each element of the batch but received %s", size, values.length));
+    }
+
+    private static Object[] keyValues(final Object[][] keyValues, final int index, final boolean trusted) {
+        final Object[] elementKeyValues = null == keyValues || null == keyValues[index] ? EMPTY_KEY_VALUES : keyValues[index];
+        if (!trusted) ElementHelper.legalPropertyKeyValueArray(elementKeyValues);
+        return elementKeyValues;
+    }
+
+    private static <E extends Element> void addLabelIndex(final Map<String, Set<E>> labelIndex, final String label, final List<? extends E> elements) {
+        if (elements.isEmpty()) return;
+        labelIndex.compute(label, (l, labeled) -> {
+            final Set<E> set = null == labeled ? ConcurrentHashMap.newKeySet(elements.size()) : labeled;
+            set.addAll(elements);
+            return set;
+        });
+    }
+
+    /**
+     * The initial capacity of a hash table that holds the given number of entries without growing.
+     */
+    private static int capacity(final int expected) {
+        return expected < 3 ? expected + 1 : (int) (expected / 0.75f) + 1;
+    }
+
+    private static <E> Map<Object, E> presize(final Map<Object, E> elements, final int expected) {
+        if (elements instanceof TinkerLongKeyedMap) {
+            ((TinkerLongKeyedMap<E>) elements).ensureCapacity(expected);
+            return elements;
+        }
+        return elements.isEmpty() ? new ConcurrentHashMap<>(expected) : elements;
+    }
+}
@@ -55,7 +55,7 @@ public final class TinkerEdge extends TinkerElement implements Edge {
 
     @Override
     public <V> Property<V> property(final String key, final V value) {
-        if (this.removed) throw elementAlreadyRemoved(Edge.class, id);
+        if (this.isRemoved()) throw elementAlreadyRemoved(Edge.class, id);
         ElementHelper.validateProperty(key, value);
 
         if (!allowNullPropertyValues && null == value) {
@@ -63,45 +63,67 @@ public final class TinkerEdge extends TinkerElement implements Edge {
             return Property.empty();
         }
 
-        final Property oldProperty = super.property(key);
-        final Property<V> newProperty = new TinkerProperty<>(this, key, value);
-        if (null == this.properties) this.properties = new HashMap<>();
-        this.properties.put(key, newProperty);
-        TinkerHelper.autoUpdateIndex(this, key, value, oldProperty.isPresent() ? oldProperty.value() : null);
-        return newProperty;
+        final TinkerGraph graph = (TinkerGraph) this.graph();
+        graph.beginMutation();
+        try {
+            final Property oldProperty = super.property(key);
+            final Property<V> newProperty = new TinkerProperty<>(this, key, value);
+            this.mutablePropertyMap().put(key, newProperty);
+            TinkerHelper.autoUpdateIndex(this, key, value, oldProperty.isPresent() ? oldProperty.value() : null);
+            if (null != graph.graphLog) graph.graphLog.setProperty(newProperty);
+            return newProperty;
+        } finally {
+            graph.endMutation();
+        }
 
     }
 
     @Override
     public <V> Property<V> property(final String key) {
-        return null == this.properties ? Property.<V>empty() : this.properties.getOrDefault(key, Property.<V>empty());
+        final Map<String, Property> properties = this.propertyMap();
+        return null == properties ? Property.<V>empty() : properties.getOrDefault(key, Property.<V>empty());
     }
 
     @Override
     public Set<String> keys() {
-        return null == this.properties ? Collections.emptySet() : this.properties.keySet();
+        final Map<String, Property> properties = this.propertyMap();
+        return null == properties ? Collections.emptySet() : properties.keySet();
     }
 
     @Override
     public void remove() {
+        if (((TinkerGraph) this.graph()).isFrozen()) throw Edge.Exceptions.edgeRemovalNotSupported();
+        if (null != ((TinkerGraph) this.graph()).transaction) {
+            ((TinkerGraph) this.graph()).transaction.remove(this);
+            return;
+        }
+        final TinkerGraph graph = (TinkerGraph) this.graph();
         final TinkerVertex outVertex = (TinkerVertex) this.outVertex;
         final TinkerVertex inVertex = (TinkerVertex) this.inVertex;
 
-        if (null != outVertex && null != outVertex.outEdges) {
-            final Set<Edge> edges = outVertex.outEdges.get(this.label());
-            if (null != edges)
-                edges.remove(this);
+        graph.beginMutation();
+        try {
+            if (null != outVertex && null != outVertex.outEdges) {
+                final Set<Edge> edges = outVertex.outEdges.get(this.label());
+                if (null != edges)
+                    edges.remove(this);
+            }
+            if (null != inVertex && null != inVertex.inEdges) {
+                final Set<Edge> edges = inVertex.inEdges.get(this.label());
+                if (null != edges)
+                    edges.remove(this);
+            }
+
+            // leave the graph before the index so that an index being created concurrently does not put the edge back
+            graph.edges.remove(this.id());
+            TinkerHelper.removeElementIndex(this);
+            TinkerHelper.removeLabelIndex(graph.edgeLabelIndex, this);
+            if (null != graph.graphLog) graph.graphLog.removeEdge(this);
+            this.properties = null;
+            this.removed = true;
+        } finally {
+            graph.endMutation();
         }
-        if (null != inVertex && null != inVertex.inEdges) {
-            final Set<Edge> edges = inVertex.inEdges.get(this.label());
-            if (null != edges)
-                edges.remove(this);
-        }
-
-        TinkerHelper.removeElementIndex(this);
-        ((TinkerGraph) this.graph()).edges.remove(this.id());
-        this.properties = null;
-        this.removed = true;
     }
 
     @Override
@@ -122,7 +144,7 @@ public final class TinkerEdge extends TinkerElement implements Edge {
 
     @Override
     public Iterator<Vertex> vertices(final Direction direction) {
-        if (removed) return Collections.emptyIterator();
+        if (this.isRemoved()) return Collections.emptyIterator();
         switch (direction) {
             case OUT:
                 return IteratorUtils.of(this.outVertex);
@@ -140,11 +162,28 @@ public final class TinkerEdge extends TinkerElement implements Edge {
 
     @Override
     public <V> Iterator<Property<V>> properties(final String... propertyKeys) {
-        if (null == this.properties) return Collections.emptyIterator();
+        final Map<String, Property> properties = this.propertyMap();
+        if (null == properties) return Collections.emptyIterator();
         if (propertyKeys.length == 1) {
-            final Property<V> property = this.properties.get(propertyKeys[0]);
+            final Property<V> property = properties.get(propertyKeys[0]);
             return null == property ? Collections.emptyIterator() : IteratorUtils.of(property);
         } else
-            return (Iterator) this.properties.entrySet().stream().filter(entry -> ElementHelper.keyExists(entry.getKey(), propertyKeys)).map(entry -> entry.getValue()).collect(Collectors.toList()).iterator();
+            return (Iterator) properties.entrySet().stream().filter(entry -> ElementHelper.keyExists(entry.getKey(), propertyKeys)).map(entry -> entry.getValue()).collect(Collectors.toList()).iterator();
+    }
+
+    /**
+     * Gets the properties of the edge as seen by the transaction of the current thread when the graph is
+     * transactional.
+     */
+    Map<String, Property> propertyMap() {
+        final TinkerTransaction transaction = ((TinkerGraph) this.graph()).transaction;
+        return null == transaction ? this.properties : transaction.properties(this);
+    }
+
+    Map<String, Property> mutablePropertyMap() {
+        final TinkerTransaction transaction = ((TinkerGraph) this.graph()).transaction;
+        if (null != transaction) return transaction.mutableProperties(this);
+        if (null == this.properties) this.properties = new HashMap<>();
+        return this.properties;
     }
 }
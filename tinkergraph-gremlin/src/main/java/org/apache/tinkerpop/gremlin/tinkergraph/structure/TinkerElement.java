@@ -30,6 +30,11 @@ public abstract class TinkerElement implements Element {
     protected final String label;
     protected boolean removed = false;
 
+    /**
+     * The most recent committed version of the element when the graph is transactional.
+     */
+    protected volatile TinkerVersion versions = null;
+
     protected TinkerElement(final Object id, final String label) {
         this.id = id;
         this.label = label;
@@ -56,6 +61,15 @@ public abstract class TinkerElement implements Element {
         return ElementHelper.areEqual(this, object);
     }
 
+    /**
+     * Determines if the element was removed, which on a transactional graph means that it is not visible to the
+     * transaction of the current thread.
+     */
+    protected boolean isRemoved() {
+        final TinkerTransaction transaction = ((TinkerGraph) this.graph()).transaction;
+        return null == transaction ? this.removed : !transaction.isVisible(this);
+    }
+
     protected static IllegalStateException elementAlreadyRemoved(final Class<? extends Element> clazz, final Object id) {
         return new IllegalStateException(String.format("%s with id %s was removed.", clazz.getSimpleName(), id));
     }
@@ -20,39 +20,63 @@ package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
 import org.apache.commons.configuration2.BaseConfiguration;
 import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.GraphStatistics;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Transaction;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.io.GraphReader;
+import org.apache.tinkerpop.gremlin.structure.io.GraphWriter;
 import org.apache.tinkerpop.gremlin.structure.io.Io;
 import org.apache.tinkerpop.gremlin.structure.io.IoCore;
 import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONVersion;
 import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoVersion;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 import org.apache.tinkerpop.gremlin.structure.util.GraphFactory;
+import org.apache.tinkerpop.gremlin.structure.util.Attachable;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.structure.util.star.StarGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputer;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputerView;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphCountStrategy;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphStepStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerVertexStepStrategy;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Stream;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * An in-memory (with optional persistence on calls to {@link #close()}), reference implementation of the property
@@ -70,6 +94,7 @@ public final class TinkerGraph implements Graph {
     static {
         TraversalStrategies.GlobalCache.registerStrategies(TinkerGraph.class, TraversalStrategies.GlobalCache.getStrategies(Graph.class).clone().addStrategies(
                 TinkerGraphStepStrategy.instance(),
+                TinkerVertexStepStrategy.instance(),
                 TinkerGraphCountStrategy.instance()));
     }
 
@@ -84,27 +109,53 @@ public final class TinkerGraph implements Graph {
     public static final String GREMLIN_TINKERGRAPH_GRAPH_LOCATION = "gremlin.tinkergraph.graphLocation";
     public static final String GREMLIN_TINKERGRAPH_GRAPH_FORMAT = "gremlin.tinkergraph.graphFormat";
     public static final String GREMLIN_TINKERGRAPH_ALLOW_NULL_PROPERTY_VALUES = "gremlin.tinkergraph.allowNullPropertyValues";
+    public static final String GREMLIN_TINKERGRAPH_LONG_ID_STORAGE = "gremlin.tinkergraph.longIdStorage";
+    public static final String GREMLIN_TINKERGRAPH_OFF_HEAP_ADJACENCY = "gremlin.tinkergraph.offHeapAdjacency";
+    public static final String GREMLIN_TINKERGRAPH_GRAPH_LOG = "gremlin.tinkergraph.graphLog";
+    public static final String GREMLIN_TINKERGRAPH_GRAPH_LOG_BATCH_SIZE = "gremlin.tinkergraph.graphLogBatchSize";
+    public static final String GREMLIN_TINKERGRAPH_SNAPSHOT_INTERVAL = "gremlin.tinkergraph.snapshotInterval";
+    public static final String GREMLIN_TINKERGRAPH_TRANSACTIONAL = "gremlin.tinkergraph.transactional";
+
+    private static final Logger logger = LoggerFactory.getLogger(TinkerGraph.class);
 
     private final TinkerGraphFeatures features = new TinkerGraphFeatures();
+    private final TinkerGraphStatistics statistics = new TinkerGraphStatistics(this);
 
     protected AtomicLong currentId = new AtomicLong(-1L);
-    protected Map<Object, Vertex> vertices = new ConcurrentHashMap<>();
-    protected Map<Object, Edge> edges = new ConcurrentHashMap<>();
+    protected Map<Object, Vertex> vertices;
+    protected Map<Object, Edge> edges;
+    protected Map<String, Set<Vertex>> vertexLabelIndex = new ConcurrentHashMap<>();
+    protected Map<String, Set<Edge>> edgeLabelIndex = new ConcurrentHashMap<>();
 
     protected TinkerGraphVariables variables = null;
     protected TinkerGraphComputerView graphComputerView = null;
     protected TinkerIndex<TinkerVertex> vertexIndex = null;
     protected TinkerIndex<TinkerEdge> edgeIndex = null;
+    protected final Map<String, Set<String>> vertexCentricIndices = new ConcurrentHashMap<>();
+    protected TinkerAdjacency adjacency = null;
+    protected TinkerGraphLog graphLog = null;
+    protected TinkerBulkLoader bulkLoader = null;
+    protected TinkerTransaction transaction = null;
 
     protected final IdManager<?> vertexIdManager;
     protected final IdManager<?> edgeIdManager;
     protected final IdManager<?> vertexPropertyIdManager;
     protected final VertexProperty.Cardinality defaultVertexPropertyCardinality;
     protected final boolean allowNullPropertyValues;
+    protected final boolean offHeapAdjacency;
 
     private final Configuration configuration;
     private final String graphLocation;
     private final String graphFormat;
+    /**
+     * Mutations hold the read lock while they change the element maps and append to the {@link TinkerGraphLog}. A
+     * {@link #snapshot()} holds the write lock while it rotates the log, so that it sees every change of the segments
+     * it compacts, and while it copies each vertex that it writes, so that it never iterates a map that is being
+     * changed.
+     */
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final Object snapshotMonitor = new Object();
+    private ScheduledExecutorService snapshotService = null;
 
     /**
      * An empty private constructor that initializes {@link TinkerGraph}.
@@ -117,6 +168,15 @@ public final class TinkerGraph implements Graph {
         defaultVertexPropertyCardinality = VertexProperty.Cardinality.valueOf(
                 configuration.getString(GREMLIN_TINKERGRAPH_DEFAULT_VERTEX_PROPERTY_CARDINALITY, VertexProperty.Cardinality.single.name()));
         allowNullPropertyValues = configuration.getBoolean(GREMLIN_TINKERGRAPH_ALLOW_NULL_PROPERTY_VALUES, false);
+        offHeapAdjacency = configuration.getBoolean(GREMLIN_TINKERGRAPH_OFF_HEAP_ADJACENCY, false);
+
+        final boolean longIdStorage = configuration.getBoolean(GREMLIN_TINKERGRAPH_LONG_ID_STORAGE, false);
+        if (longIdStorage && vertexIdManager != DefaultIdManager.LONG && edgeIdManager != DefaultIdManager.LONG)
+            throw new IllegalStateException(String.format("The %s requires the %s or %s to be %s",
+                    GREMLIN_TINKERGRAPH_LONG_ID_STORAGE, GREMLIN_TINKERGRAPH_VERTEX_ID_MANAGER,
+                    GREMLIN_TINKERGRAPH_EDGE_ID_MANAGER, DefaultIdManager.LONG.name()));
+        vertices = longIdStorage && vertexIdManager == DefaultIdManager.LONG ? new TinkerLongKeyedMap<>() : new ConcurrentHashMap<>();
+        edges = longIdStorage && edgeIdManager == DefaultIdManager.LONG ? new TinkerLongKeyedMap<>() : new ConcurrentHashMap<>();
 
         graphLocation = configuration.getString(GREMLIN_TINKERGRAPH_GRAPH_LOCATION, null);
         graphFormat = configuration.getString(GREMLIN_TINKERGRAPH_GRAPH_FORMAT, null);
@@ -125,7 +185,41 @@ public final class TinkerGraph implements Graph {
             throw new IllegalStateException(String.format("The %s and %s must both be specified if either is present",
                     GREMLIN_TINKERGRAPH_GRAPH_LOCATION, GREMLIN_TINKERGRAPH_GRAPH_FORMAT));
 
+        if (configuration.getBoolean(GREMLIN_TINKERGRAPH_TRANSACTIONAL, false)) {
+            if (configuration.getBoolean(GREMLIN_TINKERGRAPH_GRAPH_LOG, false))
+                throw new IllegalStateException(String.format("The %s cannot be enabled together with the %s",
+                        GREMLIN_TINKERGRAPH_TRANSACTIONAL, GREMLIN_TINKERGRAPH_GRAPH_LOG));
+            transaction = new TinkerTransaction(this);
+        }
+
         if (graphLocation != null) loadGraph();
+
+        if (configuration.getBoolean(GREMLIN_TINKERGRAPH_GRAPH_LOG, false)) {
+            if (null == graphLocation)
+                throw new IllegalStateException(String.format("The %s requires the %s and %s to be specified",
+                        GREMLIN_TINKERGRAPH_GRAPH_LOG, GREMLIN_TINKERGRAPH_GRAPH_LOCATION, GREMLIN_TINKERGRAPH_GRAPH_FORMAT));
+
+            // replay before assigning the log so that replayed mutations are not logged again
+            final TinkerGraphLog log = new TinkerGraphLog(this, graphLocation, configuration.getInt(GREMLIN_TINKERGRAPH_GRAPH_LOG_BATCH_SIZE, 1000));
+            log.replay();
+            graphLog = log;
+
+            final long snapshotInterval = configuration.getLong(GREMLIN_TINKERGRAPH_SNAPSHOT_INTERVAL, 600000L);
+            if (snapshotInterval > 0) {
+                snapshotService = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder().
+                        namingPattern(TinkerGraph.class.getSimpleName() + "-snapshot").daemon(true).build());
+                snapshotService.scheduleWithFixedDelay(() -> {
+                    try {
+                        // the log is detached while a bulk loader is open
+                        final TinkerGraphLog currentLog = graphLog;
+                        if (null != currentLog && currentLog.records() > 0) snapshot();
+                    } catch (Exception ex) {
+                        // segments are only compacted after a successful save so the next interval tries again
+                        logger.warn(String.format("Could not snapshot graph to %s", graphLocation), ex);
+                    }
+                }, snapshotInterval, snapshotInterval, TimeUnit.MILLISECONDS);
+            }
+        }
     }
 
     /**
@@ -166,21 +260,36 @@ public final class TinkerGraph implements Graph {
         final String label = ElementHelper.getLabelValue(keyValues).orElse(Vertex.DEFAULT_LABEL);
 
         if (null != idValue) {
-            if (this.vertices.containsKey(idValue))
+            if (null == this.transaction ? this.vertices.containsKey(idValue) : null != this.transaction.vertex(idValue))
                 throw Exceptions.vertexWithIdAlreadyExists(idValue);
+            reserveId(idValue);
         } else {
             idValue = vertexIdManager.getNextId(this);
         }
 
-        final Vertex vertex = new TinkerVertex(idValue, label, this);
-        this.vertices.put(vertex.id(), vertex);
+        final TinkerVertex vertex = new TinkerVertex(idValue, label, this);
+        if (null != this.transaction) {
+            this.transaction.add(vertex);
+            ElementHelper.attachProperties(vertex, VertexProperty.Cardinality.list, keyValues);
+            return vertex;
+        }
+        beginMutation();
+        try {
+            this.vertices.put(vertex.id(), vertex);
+            TinkerHelper.addLabelIndex(this.vertexLabelIndex, vertex);
+            if (null != this.graphLog) this.graphLog.addVertex(vertex);
 
-        ElementHelper.attachProperties(vertex, VertexProperty.Cardinality.list, keyValues);
+            ElementHelper.attachProperties(vertex, VertexProperty.Cardinality.list, keyValues);
+        } finally {
+            endMutation();
+        }
         return vertex;
     }
 
     @Override
     public <C extends GraphComputer> C compute(final Class<C> graphComputerClass) {
+        if (null != this.transaction)
+            throw Graph.Exceptions.graphComputerNotSupported();
         if (!graphComputerClass.equals(TinkerGraphComputer.class))
             throw Graph.Exceptions.graphDoesNotSupportProvidedGraphComputer(graphComputerClass);
         return (C) new TinkerGraphComputer(this);
@@ -188,6 +297,8 @@ public final class TinkerGraph implements Graph {
 
     @Override
     public GraphComputer compute() {
+        if (null != this.transaction)
+            throw Graph.Exceptions.graphComputerNotSupported();
         return new TinkerGraphComputer(this);
     }
 
@@ -213,29 +324,175 @@ public final class TinkerGraph implements Graph {
         return StringFactory.graphString(this, "vertices:" + this.vertices.size() + " edges:" + this.edges.size());
     }
 
+    /**
+     * Moves the id counter past a user supplied integral identifier so that the {@link DefaultIdManager}
+     * implementations can hand out the next counter value without probing the element maps for a collision.
+     */
+    void reserveId(final Object id) {
+        if (id instanceof Long || id instanceof Integer) {
+            final long value = ((Number) id).longValue();
+            if (value > this.currentId.get())
+                this.currentId.accumulateAndGet(value, Math::max);
+        }
+    }
+
     public void clear() {
-        this.vertices.clear();
-        this.edges.clear();
-        this.variables = null;
-        this.currentId.set(-1L);
-        this.vertexIndex = null;
-        this.edgeIndex = null;
-        this.graphComputerView = null;
+        beginMutation();
+        try {
+            if (null != this.graphLog) this.graphLog.clear();
+            if (null != this.transaction) this.transaction.clear();
+            this.vertices.clear();
+            this.edges.clear();
+            this.vertexLabelIndex.clear();
+            this.edgeLabelIndex.clear();
+            this.adjacency = null;
+            this.variables = null;
+            this.currentId.set(-1L);
+            this.vertexIndex = null;
+            this.edgeIndex = null;
+            this.vertexCentricIndices.clear();
+            this.graphComputerView = null;
+        } finally {
+            endMutation();
+        }
+    }
+
+    /**
+     * Called before the element maps are changed outside of a transaction. A graph with a
+     * {@link #GREMLIN_TINKERGRAPH_GRAPH_LOCATION} holds off a {@link #snapshot()} until the matching
+     * {@link #endMutation()}. Mutations may nest.
+     */
+    void beginMutation() {
+        if (null != this.graphLocation) this.snapshotLock.readLock().lock();
+    }
+
+    /**
+     * Called after a change that began with {@link #beginMutation()} is complete.
+     */
+    void endMutation() {
+        if (null != this.graphLocation) this.snapshotLock.readLock().unlock();
+    }
+
+    /**
+     * Opens a {@link TinkerBulkLoader} which adds vertices and edges from many threads at once while deferring index
+     * maintenance until it is closed. Only one loader may be open at a time and the graph may not be
+     * {@link #freeze() frozen}.
+     */
+    public synchronized TinkerBulkLoader bulkLoader() {
+        if (null != this.transaction)
+            throw new IllegalStateException("A bulk loader cannot be opened on a transactional graph");
+        if (isFrozen())
+            throw Vertex.Exceptions.edgeAdditionsNotSupported();
+        if (null != this.bulkLoader)
+            throw new IllegalStateException("A bulk loader is already open on this graph");
+        this.bulkLoader = new TinkerBulkLoader(this);
+        return this.bulkLoader;
+    }
+
+    /**
+     * Compacts the adjacency of the graph into a read-only snapshot of per-label compressed sparse row arrays which
+     * {@code Vertex.edges()}, {@code Vertex.vertices()} and the {@link TinkerGraphComputer} then iterate instead of
+     * the per-vertex hash sets, which are released. While frozen, edges can neither be added nor removed, nor can a
+     * vertex that has edges be removed. Vertices and properties remain mutable. Calling this method on a graph that
+     * is already frozen has no effect. With {@link #GREMLIN_TINKERGRAPH_OFF_HEAP_ADJACENCY} enabled, the offsets and
+     * neighbor ordinals of the snapshot are held in direct memory outside of the Java heap. A transactional graph
+     * cannot be frozen.
+     */
+    public void freeze() {
+        if (null != this.transaction)
+            throw new IllegalStateException("A transactional graph cannot be frozen");
+        if (isFrozen()) return;
+        beginMutation();
+        try {
+            this.adjacency = TinkerAdjacency.build(this, this.offHeapAdjacency);
+            this.vertices.values().forEach(vertex -> {
+                ((TinkerVertex) vertex).outEdges = null;
+                ((TinkerVertex) vertex).inEdges = null;
+            });
+        } finally {
+            endMutation();
+        }
+    }
+
+    /**
+     * Restores mutable adjacency to a graph that was {@link #freeze() frozen}. Calling this method on a graph that is
+     * not frozen has no effect.
+     */
+    public void unfreeze() {
+        if (!isFrozen()) return;
+        beginMutation();
+        try {
+            this.adjacency.restore();
+            this.adjacency = null;
+        } finally {
+            endMutation();
+        }
     }
 
     /**
-     * This method only has an effect if the {@link #GREMLIN_TINKERGRAPH_GRAPH_LOCATION} is set, in which case the
-     * data in the graph is persisted to that location. This method may be called multiple times and does not release
-     * resources.
+     * Determines if the adjacency of the graph is currently {@link #freeze() frozen}.
+     */
+    public boolean isFrozen() {
+        return null != this.adjacency;
+    }
+
+    /**
+     * Writes the graph to the {@link #GREMLIN_TINKERGRAPH_GRAPH_LOCATION}. When the {@link #GREMLIN_TINKERGRAPH_GRAPH_LOG}
+     * is enabled, the log segments that the snapshot makes redundant are deleted afterwards. Snapshots are also taken
+     * in the background every {@link #GREMLIN_TINKERGRAPH_SNAPSHOT_INTERVAL} milliseconds while the log is enabled.
+     * <p/>
+     * With the log enabled and a {@link #GREMLIN_TINKERGRAPH_GRAPH_FORMAT} of "gryo" or "graphson", other threads may
+     * go on changing the graph while the snapshot is written and are only held off while the log is rotated and while
+     * a single vertex is copied. Otherwise they wait until the snapshot is complete.
+     */
+    public void snapshot() {
+        if (null == graphLocation)
+            throw new IllegalStateException(String.format("The %s must be specified to snapshot the graph", GREMLIN_TINKERGRAPH_GRAPH_LOCATION));
+
+        synchronized (snapshotMonitor) {
+            // the log is detached while a bulk loader is open
+            final TinkerGraphLog log = graphLog;
+            final boolean concurrent = null != log && (graphFormat.equals("gryo") || graphFormat.equals("graphson"));
+            final long lastSegment;
+            snapshotLock.writeLock().lock();
+            try {
+                lastSegment = null == log ? -1L : log.rotate();
+                if (!concurrent) saveGraph(false);
+            } finally {
+                snapshotLock.writeLock().unlock();
+            }
+
+            // changes made from here on are in the segments that follow the rotation, which replay applies again by
+            // element id whether or not the snapshot holds them
+            if (concurrent) saveGraph(true);
+            if (null != log) log.compact(lastSegment);
+        }
+    }
+
+    /**
+     * Stops the background computation of the {@link #statistics()} of the graph, waiting for a pass that is under
+     * way to give up. If the {@link #GREMLIN_TINKERGRAPH_GRAPH_LOCATION} is set, the data in the graph is also
+     * persisted to that location. If the {@link #GREMLIN_TINKERGRAPH_GRAPH_LOG} is enabled, the log is forced to disk
+     * rather than writing the whole graph and background snapshots stop. This method may be called multiple times and
+     * does not release other resources.
      */
     @Override
     public void close() {
-        if (graphLocation != null) saveGraph();
+        statistics.close();
+        if (graphLocation == null) return;
+        if (graphLog != null) {
+            if (snapshotService != null) snapshotService.shutdownNow();
+            graphLog.close();
+        } else {
+            saveGraph(false);
+        }
     }
 
     @Override
     public Transaction tx() {
-        throw Exceptions.transactionsNotSupported();
+        if (null == this.transaction)
+            throw Exceptions.transactionsNotSupported();
+        return this.transaction;
     }
 
     @Override
@@ -256,8 +513,14 @@ public final class TinkerGraph implements Graph {
     private void loadGraph() {
         final File f = new File(graphLocation);
         if (f.exists() && f.isFile()) {
+            // a snapshot taken while the log is enabled may have been written while the graph changed
+            final boolean logged = configuration.getBoolean(GREMLIN_TINKERGRAPH_GRAPH_LOG, false);
             try {
-                if (graphFormat.equals("graphml")) {
+                if (logged && graphFormat.equals("gryo")) {
+                    readVertexCopies(io(IoCore.gryo()).reader().create());
+                } else if (logged && graphFormat.equals("graphson")) {
+                    readVertexCopies(io(IoCore.graphson()).reader().create());
+                } else if (graphFormat.equals("graphml")) {
                     io(IoCore.graphml()).readGraph(graphLocation);
                 } else if (graphFormat.equals("graphson")) {
                     io(IoCore.graphson()).readGraph(graphLocation);
@@ -272,28 +535,93 @@ public final class TinkerGraph implements Graph {
         }
     }
 
-    private void saveGraph() {
+    /**
+     * Reads a snapshot that was written by {@link #writeVertexCopies(GraphWriter, String)}. Such a snapshot may hold an
+     * edge on the vertex it goes into while the vertex it comes out of was removed, or not yet added, by the time that
+     * vertex was copied. The log segments that follow the snapshot remove or add the edge again, so it is skipped here
+     * rather than failing the load.
+     */
+    private void readVertexCopies(final GraphReader reader) throws IOException {
+        final List<StarGraph.StarVertex> starVertices = new ArrayList<>();
+        try (final InputStream inputStream = new FileInputStream(graphLocation)) {
+            reader.readVertices(inputStream, attachable -> {
+                final StarGraph.StarVertex starVertex = (StarGraph.StarVertex) attachable.get();
+                starVertex.attach(Attachable.Method.create(this));
+                starVertices.add(starVertex);
+                return starVertex;
+            }, null, Direction.IN).forEachRemaining(vertex -> {});
+        }
+        for (final StarGraph.StarVertex starVertex : starVertices) {
+            starVertex.edges(Direction.IN).forEachRemaining(edge -> {
+                final Vertex outVertex = this.vertices.get(vertexIdManager.convert(edge.outVertex().id()));
+                final Vertex inVertex = this.vertices.get(vertexIdManager.convert(edge.inVertex().id()));
+                if (null == outVertex || null == inVertex) {
+                    logger.debug("Skipped edge {} of the snapshot at {} as one of its vertices is not part of it", edge.id(), graphLocation);
+                    return;
+                }
+                final Edge newEdge = outVertex.addEdge(edge.label(), inVertex, T.id, edge.id());
+                edge.properties().forEachRemaining(property -> newEdge.property(property.key(), property.value()));
+            });
+        }
+    }
+
+    /**
+     * Writes the vertices of the graph with their edges while other threads go on changing it, holding them off only
+     * while each vertex is copied.
+     */
+    private void writeVertexCopies(final GraphWriter writer, final String location) throws IOException {
+        final Iterator<Vertex> copies = IteratorUtils.filter(IteratorUtils.map(this.vertices.values().iterator(), vertex -> {
+            snapshotLock.writeLock().lock();
+            try {
+                return ((TinkerVertex) vertex).removed ? null : (Vertex) StarGraph.of(vertex).getStarVertex();
+            } finally {
+                snapshotLock.writeLock().unlock();
+            }
+        }), Objects::nonNull);
+        try (final OutputStream outputStream = new FileOutputStream(location)) {
+            writer.writeVertices(outputStream, copies, Direction.BOTH);
+        }
+    }
+
+    private void saveGraph(final boolean concurrent) {
         final File f = new File(graphLocation);
-        if (f.exists()) {
-            f.delete();
-        } else {
-            final File parent = f.getParentFile();
+        final File parent = f.getParentFile();
+
+        // the parent would be null in the case of an relative path if the graphLocation was simply: "f.gryo"
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
 
-            // the parent would be null in the case of an relative path if the graphLocation was simply: "f.gryo"
-            if (parent != null && !parent.exists()) {
-                parent.mkdirs();
+        // write next to the graph and move into place so that a failed write leaves the previous copy intact
+        final String tempLocation = graphLocation + ".tmp";
+        try {
+            if (null != transaction) {
+                // write the latest commit without the changes of a transaction that the current thread has open
+                transaction.exclusive(() -> writeGraph(tempLocation, false));
+            } else {
+                writeGraph(tempLocation, concurrent);
             }
+            if (Files.exists(Paths.get(tempLocation)))
+                Files.move(Paths.get(tempLocation), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new RuntimeException(String.format("Could not save graph at %s with %s", graphLocation, graphFormat), ex);
         }
+    }
 
+    private void writeGraph(final String location, final boolean concurrent) {
         try {
-            if (graphFormat.equals("graphml")) {
-                io(IoCore.graphml()).writeGraph(graphLocation);
+            if (concurrent && graphFormat.equals("gryo")) {
+                writeVertexCopies(io(IoCore.gryo()).writer().create(), location);
+            } else if (concurrent && graphFormat.equals("graphson")) {
+                writeVertexCopies(io(IoCore.graphson()).writer().create(), location);
+            } else if (graphFormat.equals("graphml")) {
+                io(IoCore.graphml()).writeGraph(location);
             } else if (graphFormat.equals("graphson")) {
-                io(IoCore.graphson()).writeGraph(graphLocation);
+                io(IoCore.graphson()).writeGraph(location);
             } else if (graphFormat.equals("gryo")) {
-                io(IoCore.gryo()).writeGraph(graphLocation);
+                io(IoCore.gryo()).writeGraph(location);
             } else {
-                io(IoCore.createIoBuilder(graphFormat)).writeGraph(graphLocation);
+                io(IoCore.createIoBuilder(graphFormat)).writeGraph(location);
             }
         } catch (Exception ex) {
             throw new RuntimeException(String.format("Could not save graph at %s with %s", graphLocation, graphFormat), ex);
@@ -304,7 +632,17 @@ public final class TinkerGraph implements Graph {
                                                                   final IdManager idManager,
                                                                   final Object... ids) {
         final Iterator<T> iterator;
-        if (0 == ids.length) {
+        if (null != this.transaction) {
+            final boolean forVertices = clazz.equals(Vertex.class);
+            if (0 == ids.length)
+                return new TinkerGraphIterator<>((Iterator<T>) (forVertices ? this.transaction.vertices() : this.transaction.edges()));
+
+            return new TinkerGraphIterator<>(IteratorUtils.filter(IteratorUtils.map(Arrays.asList(ids), id -> {
+                final Object iid = clazz.isAssignableFrom(id.getClass()) ? clazz.cast(id).id() : idManager.convert(id);
+                final Object convertedId = idManager.convert(iid);
+                return (T) (forVertices ? this.transaction.vertex(convertedId) : this.transaction.edge(convertedId));
+            }).iterator(), Objects::nonNull));
+        } else if (0 == ids.length) {
             iterator = new TinkerGraphIterator<>(elements.values().iterator());
         } else {
             final List<Object> idList = Arrays.asList(ids);
@@ -336,6 +674,11 @@ public final class TinkerGraph implements Graph {
         return features;
     }
 
+    @Override
+    public Optional<GraphStatistics> statistics() {
+        return Optional.of(statistics);
+    }
+
     public class TinkerGraphFeatures implements Features {
 
         private final TinkerGraphGraphFeatures graphFeatures = new TinkerGraphGraphFeatures();
@@ -433,7 +776,12 @@ public final class TinkerGraph implements Graph {
 
         @Override
         public boolean supportsTransactions() {
-            return false;
+            return null != transaction;
+        }
+
+        @Override
+        public boolean supportsComputer() {
+            return null == transaction;
         }
 
         @Override
@@ -476,12 +824,35 @@ public final class TinkerGraph implements Graph {
      * @param <E>          The type of the element class
      */
     public <E extends Element> void createIndex(final String key, final Class<E> elementClass) {
+        createIndex(key, elementClass, false);
+    }
+
+    /**
+     * Create an index for said element class ({@link Vertex} or {@link Edge}) and said property key. An ordered
+     * index keeps property values sorted and can therefore be used for range filters like {@code gt()},
+     * {@code between()}, {@code outside()} and {@code TextP.startingWith()} as well as for equality. If the key is
+     * already indexed with a different ordering, the index is rebuilt.
+     *
+     * @param key          the property key to index
+     * @param elementClass the element class to index
+     * @param ordered      whether or not the index should keep its values sorted
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void createIndex(final String key, final Class<E> elementClass, final boolean ordered) {
+        if (null != this.transaction) {
+            this.transaction.exclusive(() -> createIndexInternal(key, elementClass, ordered));
+            return;
+        }
+        createIndexInternal(key, elementClass, ordered);
+    }
+
+    private <E extends Element> void createIndexInternal(final String key, final Class<E> elementClass, final boolean ordered) {
         if (Vertex.class.isAssignableFrom(elementClass)) {
             if (null == this.vertexIndex) this.vertexIndex = new TinkerIndex<>(this, TinkerVertex.class);
-            this.vertexIndex.createKeyIndex(key);
+            this.vertexIndex.createKeyIndex(key, ordered);
         } else if (Edge.class.isAssignableFrom(elementClass)) {
             if (null == this.edgeIndex) this.edgeIndex = new TinkerIndex<>(this, TinkerEdge.class);
-            this.edgeIndex.createKeyIndex(key);
+            this.edgeIndex.createKeyIndex(key, ordered);
         } else {
             throw new IllegalArgumentException("Class is not indexable: " + elementClass);
         }
@@ -504,6 +875,71 @@ public final class TinkerGraph implements Graph {
         }
     }
 
+    /**
+     * Create an index for said element class ({@link Vertex} or {@link Edge}) over the combination of the specified
+     * keys, where {@link T#label} may be used to include the element label. The index is used when a traversal
+     * filters on each of the keys with an equality check, as in {@code g.V().hasLabel('person').has('tenant', 1)}.
+     * Only elements that have a value for every key are indexed.
+     *
+     * @param elementClass the element class to index
+     * @param keys         the property keys (or the label accessor) to combine in the index in the given order
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void createCompositeIndex(final Class<E> elementClass, final String... keys) {
+        if (null != this.transaction) {
+            this.transaction.exclusive(() -> createCompositeIndexInternal(elementClass, keys));
+            return;
+        }
+        createCompositeIndexInternal(elementClass, keys);
+    }
+
+    private <E extends Element> void createCompositeIndexInternal(final Class<E> elementClass, final String... keys) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            if (null == this.vertexIndex) this.vertexIndex = new TinkerIndex<>(this, TinkerVertex.class);
+            this.vertexIndex.createCompositeIndex(Arrays.asList(keys));
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            if (null == this.edgeIndex) this.edgeIndex = new TinkerIndex<>(this, TinkerEdge.class);
+            this.edgeIndex.createCompositeIndex(Arrays.asList(keys));
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * Drop the composite index for the specified element class ({@link Vertex} or {@link Edge}) and keys.
+     *
+     * @param elementClass the element class of the index to drop
+     * @param keys         the keys of the composite index to drop in the order they were given on creation
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void dropCompositeIndex(final Class<E> elementClass, final String... keys) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            if (null != this.vertexIndex) this.vertexIndex.dropCompositeIndex(Arrays.asList(keys));
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            if (null != this.edgeIndex) this.edgeIndex.dropCompositeIndex(Arrays.asList(keys));
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * Return the key combinations of the composite indices currently defined for said element class
+     * ({@link Vertex} or {@link Edge}).
+     *
+     * @param elementClass the element class to get the composite indices for
+     * @param <E>          The type of the element class
+     * @return the set of key combinations currently being indexed
+     */
+    public <E extends Element> Set<List<String>> getCompositeIndexedKeys(final Class<E> elementClass) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            return null == this.vertexIndex ? Collections.emptySet() : this.vertexIndex.getCompositeKeys();
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            return null == this.edgeIndex ? Collections.emptySet() : this.edgeIndex.getCompositeKeys();
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
     /**
      * Return all the keys currently being index for said element class  ({@link Vertex} or {@link Edge}).
      *
@@ -521,6 +957,99 @@ public final class TinkerGraph implements Graph {
         }
     }
 
+    /**
+     * Return statistics about the values of the index for said element class ({@link Vertex} or {@link Edge}) and
+     * key. The statistics are computed on each call by a pass over the distinct values of the index.
+     *
+     * @param key          the indexed property key
+     * @param elementClass the element class of the index
+     * @param topValues    the number of values with the most elements to report as heavy hitters
+     * @param <E>          The type of the element class
+     * @return the statistics or {@code null} if the key is not indexed
+     */
+    public <E extends Element> TinkerIndexStatistics getIndexStatistics(final String key, final Class<E> elementClass, final int topValues) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            return null == this.vertexIndex ? null : this.vertexIndex.statistics(key, topValues);
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            return null == this.edgeIndex ? null : this.edgeIndex.statistics(key, topValues);
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * Return the keys currently being indexed with an ordered index for said element class ({@link Vertex} or
+     * {@link Edge}). These keys are a subset of those returned by {@link #getIndexedKeys(Class)}.
+     *
+     * @param elementClass the element class to get the ordered indexed keys for
+     * @param <E>          The type of the element class
+     * @return the set of keys currently being indexed with an ordered index
+     */
+    public <E extends Element> Set<String> getOrderedIndexedKeys(final Class<E> elementClass) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            return null == this.vertexIndex ? Collections.emptySet() : this.vertexIndex.getOrderedKeys();
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            return null == this.edgeIndex ? Collections.emptySet() : this.edgeIndex.getOrderedKeys();
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * Create a vertex-centric index that keeps the incident edges of each vertex that have the specified edge label
+     * sorted by their value for the specified property key. The index is used when a traversal filters the incident
+     * edges of a vertex on the key, as in {@code outE('rated').has('stars', gt(4))}, and to take the first edges in
+     * the order of the key, as in {@code outE('rated').order().by('ts').limit(10)}, without iterating every edge of
+     * the vertex. When the index is created, all existing edges with the label are indexed.
+     *
+     * @param label the edge label to index
+     * @param key   the property key to index the edges by
+     */
+    public void createVertexCentricIndex(final String label, final String key) {
+        if (null == label)
+            throw Graph.Exceptions.argumentCanNotBeNull("label");
+        if (null == key)
+            throw Graph.Exceptions.argumentCanNotBeNull("key");
+        if (label.isEmpty() || key.isEmpty())
+            throw new IllegalArgumentException("The label and key for the vertex-centric index cannot be empty strings");
+        if (null != this.transaction)
+            throw new IllegalStateException("A vertex-centric index cannot be created on a transactional graph");
+
+        if (!this.vertexCentricIndices.computeIfAbsent(label, l -> ConcurrentHashMap.newKeySet()).add(key))
+            return;
+        this.edges.values().parallelStream()
+                .filter(edge -> edge.label().equals(label))
+                .forEach(edge -> TinkerHelper.addVertexCentricIndex((TinkerEdge) edge, key));
+    }
+
+    /**
+     * Drop the vertex-centric index for the specified edge label and key.
+     *
+     * @param label the edge label of the index to drop
+     * @param key   the property key of the index to drop
+     */
+    public void dropVertexCentricIndex(final String label, final String key) {
+        final Set<String> keys = this.vertexCentricIndices.get(label);
+        if (null == keys || !keys.remove(key))
+            return;
+        this.vertexCentricIndices.remove(label, Collections.<String>emptySet());
+        this.vertices.values().parallelStream().forEach(vertex -> {
+            if (null != ((TinkerVertex) vertex).outEdgeIndex) ((TinkerVertex) vertex).outEdgeIndex.drop(label, key);
+            if (null != ((TinkerVertex) vertex).inEdgeIndex) ((TinkerVertex) vertex).inEdgeIndex.drop(label, key);
+        });
+    }
+
+    /**
+     * Return the keys by which the incident edges with the specified label are indexed with a vertex-centric index.
+     *
+     * @param label the edge label to get the indexed keys for
+     * @return the set of keys of the vertex-centric indices for the edge label
+     */
+    public Set<String> getVertexCentricIndexedKeys(final String label) {
+        final Set<String> keys = this.vertexCentricIndices.get(label);
+        return null == keys ? Collections.emptySet() : Collections.unmodifiableSet(keys);
+    }
+
     /**
      * Construct an {@link TinkerGraph.IdManager} from the TinkerGraph {@code Configuration}.
      */
@@ -548,7 +1077,9 @@ public final class TinkerGraph implements Graph {
      */
     public interface IdManager<T> {
         /**
-         * Generate an identifier which should be unique to the {@link TinkerGraph} instance.
+         * Generate an identifier which should be unique to the {@link TinkerGraph} instance. User supplied
+         * {@code Long} and {@code Integer} identifiers advance the graph's id counter as elements are added, so
+         * implementations based on that counter do not need to check the graph for existing identifiers.
          */
         T getNextId(final TinkerGraph graph);
 
@@ -574,7 +1105,7 @@ public final class TinkerGraph implements Graph {
         LONG {
             @Override
             public Long getNextId(final TinkerGraph graph) {
-                return Stream.generate(() -> (graph.currentId.incrementAndGet())).filter(id -> !graph.vertices.containsKey(id) && !graph.edges.containsKey(id)).findAny().get();
+                return graph.currentId.incrementAndGet();
             }
 
             @Override
@@ -609,7 +1140,7 @@ public final class TinkerGraph implements Graph {
         INTEGER {
             @Override
             public Integer getNextId(final TinkerGraph graph) {
-                return Stream.generate(() -> (graph.currentId.incrementAndGet())).map(Long::intValue).filter(id -> !graph.vertices.containsKey(id) && !graph.edges.containsKey(id)).findAny().get();
+                return (int) graph.currentId.incrementAndGet();
             }
 
             @Override
@@ -678,7 +1209,7 @@ public final class TinkerGraph implements Graph {
         ANY {
             @Override
             public Long getNextId(final TinkerGraph graph) {
-                return Stream.generate(() -> (graph.currentId.incrementAndGet())).filter(id -> !graph.vertices.containsKey(id) && !graph.edges.containsKey(id)).findAny().get();
+                return graph.currentId.incrementAndGet();
             }
 
             @Override
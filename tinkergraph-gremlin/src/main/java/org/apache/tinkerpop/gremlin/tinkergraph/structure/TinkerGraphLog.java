@@ -0,0 +1,349 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.io.IoCore;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.KryoException;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An append-only log of the mutations made to a {@link TinkerGraph} which is enabled with
+ * {@link TinkerGraph#GREMLIN_TINKERGRAPH_GRAPH_LOG}. Records are written with Gryo into numbered segment files next
+ * to the {@link TinkerGraph#GREMLIN_TINKERGRAPH_GRAPH_LOCATION} and are forced to disk every
+ * {@link TinkerGraph#GREMLIN_TINKERGRAPH_GRAPH_LOG_BATCH_SIZE} records, so a crash loses at most one batch.
+ * <p/>
+ * A snapshot first {@link #rotate() rotates} to a new segment, then writes the whole graph, and only then deletes the
+ * segments that precede the rotation. Writers are held off while the log rotates, so every change in a deleted
+ * segment is part of the snapshot, but may go on while the snapshot is written, so the snapshot may or may not hold
+ * the changes of the segments that follow it. Replay is idempotent with respect to element identifiers, so replaying
+ * a segment whose changes are already part of the snapshot, as happens for those changes or after a crash between
+ * those steps, leaves the graph as it was.
+ */
+final class TinkerGraphLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(TinkerGraphLog.class);
+
+    private static final byte ADD_VERTEX = 1;
+    private static final byte REMOVE_VERTEX = 2;
+    private static final byte ADD_EDGE = 3;
+    private static final byte REMOVE_EDGE = 4;
+    private static final byte ADD_VERTEX_PROPERTY = 5;
+    private static final byte REMOVE_VERTEX_PROPERTY = 6;
+    private static final byte SET_EDGE_PROPERTY = 7;
+    private static final byte REMOVE_EDGE_PROPERTY = 8;
+    private static final byte SET_META_PROPERTY = 9;
+    private static final byte REMOVE_META_PROPERTY = 10;
+    private static final byte CLEAR = 11;
+
+    private final TinkerGraph graph;
+    private final File directory;
+    private final String prefix;
+    private final int batchSize;
+    private final Kryo kryo;
+
+    private long segment = 0;
+    private FileOutputStream stream = null;
+    private Output output = null;
+    private int unsynced = 0;
+    private long records = 0;
+
+    TinkerGraphLog(final TinkerGraph graph, final String graphLocation, final int batchSize) {
+        final File location = new File(graphLocation).getAbsoluteFile();
+        this.graph = graph;
+        this.directory = location.getParentFile();
+        this.prefix = location.getName() + ".log.";
+        this.batchSize = batchSize;
+        this.kryo = graph.io(IoCore.gryo()).mapper().create().createMapper();
+    }
+
+    /**
+     * Applies every segment on disk to the graph in order and opens a new segment to append to.
+     */
+    synchronized void replay() {
+        for (final File file : segments()) {
+            this.segment = Math.max(this.segment, sequence(file));
+            try (final InputStream in = new FileInputStream(file)) {
+                final Input input = new Input(in, 65536);
+                while (!input.eof()) {
+                    apply(input);
+                }
+            } catch (KryoException ke) {
+                // a record that was cut short by a crash ends the segment
+                logger.warn("Stopped replaying {} at an incomplete record", file, ke);
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
+        open();
+    }
+
+    synchronized void addVertex(final Vertex vertex) {
+        write(ADD_VERTEX, vertex.id(), vertex.label());
+    }
+
+    synchronized void removeVertex(final Vertex vertex) {
+        write(REMOVE_VERTEX, vertex.id());
+    }
+
+    synchronized void addEdge(final Edge edge) {
+        write(ADD_EDGE, edge.id(), edge.label(), edge.outVertex().id(), edge.inVertex().id());
+    }
+
+    synchronized void removeEdge(final Edge edge) {
+        write(REMOVE_EDGE, edge.id());
+    }
+
+    synchronized void addVertexProperty(final VertexProperty<?> vertexProperty) {
+        write(ADD_VERTEX_PROPERTY, vertexProperty.element().id(), vertexProperty.id(), vertexProperty.key(), vertexProperty.value());
+    }
+
+    synchronized void removeVertexProperty(final VertexProperty<?> vertexProperty) {
+        write(REMOVE_VERTEX_PROPERTY, vertexProperty.element().id(), vertexProperty.id());
+    }
+
+    synchronized void setProperty(final Property<?> property) {
+        if (property.element() instanceof Edge)
+            write(SET_EDGE_PROPERTY, property.element().id(), property.key(), property.value());
+        else
+            write(SET_META_PROPERTY, ((VertexProperty<?>) property.element()).element().id(), property.element().id(), property.key(), property.value());
+    }
+
+    synchronized void removeProperty(final Property<?> property) {
+        if (property.element() instanceof Edge)
+            write(REMOVE_EDGE_PROPERTY, property.element().id(), property.key());
+        else
+            write(REMOVE_META_PROPERTY, ((VertexProperty<?>) property.element()).element().id(), property.element().id(), property.key());
+    }
+
+    synchronized void clear() {
+        write(CLEAR);
+    }
+
+    /**
+     * The number of records written since the last {@link #rotate()}.
+     */
+    synchronized long records() {
+        return this.records;
+    }
+
+    /**
+     * Forces the current segment to disk and starts a new one, returning the sequence number of the last segment
+     * that a snapshot taken from this point on will contain.
+     */
+    synchronized long rotate() {
+        closeSegment();
+        final long last = this.segment;
+        open();
+        return last;
+    }
+
+    /**
+     * Deletes the segments up to and including the given sequence number once a snapshot holds their changes.
+     */
+    synchronized void compact(final long last) {
+        for (final File file : segments()) {
+            if (sequence(file) <= last && !file.delete())
+                logger.warn("Could not delete compacted graph log segment {}", file);
+        }
+    }
+
+    synchronized void sync() {
+        if (null == this.output) return;
+        try {
+            this.output.flush();
+            this.stream.getChannel().force(false);
+            this.unsynced = 0;
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    synchronized void close() {
+        closeSegment();
+    }
+
+    private void open() {
+        try {
+            this.segment++;
+            this.directory.mkdirs();
+            this.stream = new FileOutputStream(new File(this.directory, this.prefix + this.segment));
+            this.output = new Output(this.stream, 65536);
+            this.records = 0;
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    private void closeSegment() {
+        if (null == this.output) return;
+        sync();
+        try {
+            this.output.close();
+        } catch (KryoException ke) {
+            throw new UncheckedIOException(new IOException(ke));
+        } finally {
+            this.output = null;
+            this.stream = null;
+        }
+    }
+
+    private void write(final byte operation, final Object... values) {
+        if (null == this.output) open();
+        this.output.writeByte(operation);
+        for (final Object value : values) {
+            this.kryo.writeClassAndObject(this.output, value);
+        }
+        this.records++;
+        if (++this.unsynced >= this.batchSize) sync();
+    }
+
+    private void apply(final Input input) {
+        final byte operation = input.readByte();
+        switch (operation) {
+            case ADD_VERTEX: {
+                final Object id = read(input);
+                final String label = read(input);
+                if (!this.graph.vertices.containsKey(id))
+                    this.graph.addVertex(T.id, id, T.label, label);
+                break;
+            }
+            case REMOVE_VERTEX: {
+                final Vertex vertex = this.graph.vertices.get(read(input));
+                if (null != vertex) vertex.remove();
+                break;
+            }
+            case ADD_EDGE: {
+                final Object id = read(input);
+                final String label = read(input);
+                final Vertex outVertex = this.graph.vertices.get(read(input));
+                final Vertex inVertex = this.graph.vertices.get(read(input));
+                if (!this.graph.edges.containsKey(id) && null != outVertex && null != inVertex)
+                    outVertex.addEdge(label, inVertex, T.id, id);
+                break;
+            }
+            case REMOVE_EDGE: {
+                final Edge edge = this.graph.edges.get(read(input));
+                if (null != edge) edge.remove();
+                break;
+            }
+            case ADD_VERTEX_PROPERTY: {
+                final Vertex vertex = this.graph.vertices.get(read(input));
+                final Object id = read(input);
+                final String key = read(input);
+                final Object value = read(input);
+                if (null != vertex && null == vertexProperty(vertex, id))
+                    vertex.property(VertexProperty.Cardinality.list, key, value, T.id, id);
+                break;
+            }
+            case REMOVE_VERTEX_PROPERTY: {
+                final VertexProperty<?> vertexProperty = vertexProperty(this.graph.vertices.get(read(input)), read(input));
+                if (null != vertexProperty) vertexProperty.remove();
+                break;
+            }
+            case SET_EDGE_PROPERTY: {
+                final Edge edge = this.graph.edges.get(read(input));
+                final String key = read(input);
+                final Object value = read(input);
+                if (null != edge) edge.property(key, value);
+                break;
+            }
+            case REMOVE_EDGE_PROPERTY: {
+                final Edge edge = this.graph.edges.get(read(input));
+                final String key = read(input);
+                final Property<?> property = null == edge ? Property.empty() : edge.property(key);
+                if (property.isPresent()) property.remove();
+                break;
+            }
+            case SET_META_PROPERTY: {
+                final VertexProperty<?> vertexProperty = vertexProperty(this.graph.vertices.get(read(input)), read(input));
+                final String key = read(input);
+                final Object value = read(input);
+                if (null != vertexProperty) vertexProperty.property(key, value);
+                break;
+            }
+            case REMOVE_META_PROPERTY: {
+                final VertexProperty<?> vertexProperty = vertexProperty(this.graph.vertices.get(read(input)), read(input));
+                final String key = read(input);
+                final Property<?> property = null == vertexProperty ? Property.empty() : vertexProperty.property(key);
+                if (property.isPresent()) property.remove();
+                break;
+            }
+            case CLEAR:
+                this.graph.clear();
+                break;
+            default:
+                throw new KryoException("Unknown graph log operation " + operation);
+        }
+    }
+
+    private <V> V read(final Input input) {
+        return (V) this.kryo.readClassAndObject(input);
+    }
+
+    private static VertexProperty<?> vertexProperty(final Vertex vertex, final Object id) {
+        if (null == vertex) return null;
+        final Iterator<VertexProperty<Object>> properties = vertex.properties();
+        while (properties.hasNext()) {
+            final VertexProperty<?> vertexProperty = properties.next();
+            if (vertexProperty.id().equals(id)) return vertexProperty;
+        }
+        return null;
+    }
+
+    private List<File> segments() {
+        final File[] files = this.directory.listFiles((dir, name) -> name.startsWith(this.prefix) && isSequence(name.substring(this.prefix.length())));
+        if (null == files) return Collections.emptyList();
+        final List<File> segments = new ArrayList<>();
+        Collections.addAll(segments, files);
+        segments.sort((a, b) -> Long.compare(sequence(a), sequence(b)));
+        return segments;
+    }
+
+    private long sequence(final File file) {
+        return Long.parseLong(file.getName().substring(this.prefix.length()));
+    }
+
+    private static boolean isSequence(final String suffix) {
+        if (suffix.isEmpty()) return false;
+        for (int i = 0; i < suffix.length(); i++) {
+            if (!Character.isDigit(suffix.charAt(i))) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.GraphStatistics;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The {@link GraphStatistics} of a {@link TinkerGraph}. Element counts come from the maps and label indices of the
+ * graph and the number of distinct values of an indexed key from its index, so these are always current. Degrees and
+ * the number of distinct values of keys that are not indexed take a pass over the edges with the label or the
+ * elements with the key, which is never made by the caller. Such an estimate is computed in the background the first
+ * time it is asked for, which reports it as unknown until then, and recomputed in the background when it is asked for
+ * once it is older than the refresh interval and the number of vertices or edges has changed since, or once it is
+ * older than {@link #MAX_AGE_INTERVALS} refresh intervals, which catches changes to properties alone. Until then the
+ * previous estimate is reported.
+ * <p/>
+ * Each graph computes its estimates on a thread of its own, which only lives while there are estimates to compute and
+ * is stopped when the graph is closed. As the first request for an estimate reports it as unknown, a traversal
+ * optimized at that point may get another plan than it will once the estimate is known, so the number of such
+ * requests is given by {@link #getUnknownEstimateCount()} for callers that keep plans, like the
+ * {@link org.apache.tinkerpop.gremlin.jsr223.TraversalPlanCache}, to leave those out.
+ */
+public final class TinkerGraphStatistics implements GraphStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(TinkerGraphStatistics.class);
+
+    static final long REFRESH_INTERVAL_MILLIS = 1000;
+    static final long MAX_AGE_INTERVALS = 60;
+
+    private static final long REFRESH_THREAD_KEEP_ALIVE_MILLIS = 60000;
+
+    private static final ThreadFactory THREAD_FACTORY_REFRESH = new BasicThreadFactory.Builder().
+            namingPattern("tinker-statistics-%d").daemon(true).build();
+
+    private final TinkerGraph graph;
+    private final long refreshIntervalMillis;
+    private final ThreadPoolExecutor refreshService;
+    private final Map<List<Object>, Estimate> estimates = new ConcurrentHashMap<>();
+    private final Set<List<Object>> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong unknownEstimates = new AtomicLong(0);
+
+    TinkerGraphStatistics(final TinkerGraph graph) {
+        this(graph, REFRESH_INTERVAL_MILLIS);
+    }
+
+    TinkerGraphStatistics(final TinkerGraph graph, final long refreshIntervalMillis) {
+        this.graph = graph;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.refreshService = new ThreadPoolExecutor(1, 1, REFRESH_THREAD_KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), THREAD_FACTORY_REFRESH);
+        this.refreshService.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public Optional<Long> getVertexCount() {
+        return Optional.of((long) this.graph.vertices.size());
+    }
+
+    @Override
+    public Optional<Long> getVertexCount(final String label) {
+        return Optional.of(TinkerHelper.countVertexLabelIndex(this.graph, label));
+    }
+
+    @Override
+    public Optional<Long> getEdgeCount() {
+        return Optional.of((long) this.graph.edges.size());
+    }
+
+    @Override
+    public Optional<Long> getEdgeCount(final String label) {
+        return Optional.of(TinkerHelper.countEdgeLabelIndex(this.graph, label));
+    }
+
+    @Override
+    public Optional<Long> getDistinctValueCount(final Class<? extends Element> elementClass, final String key) {
+        final TinkerIndex<?> index = Vertex.class.isAssignableFrom(elementClass) ? this.graph.vertexIndex :
+                Edge.class.isAssignableFrom(elementClass) ? this.graph.edgeIndex : null;
+        if (null != index && index.countValues(key) >= 0)
+            return Optional.of(index.countValues(key));
+
+        return this.estimate(Arrays.asList(elementClass, key), () -> {
+            final Set<Object> values = new HashSet<>();
+            if (Vertex.class.isAssignableFrom(elementClass)) {
+                for (final Vertex vertex : this.graph.vertices.values()) {
+                    checkInterrupted();
+                    final Iterator<VertexProperty<Object>> properties = vertex.properties(key);
+                    while (properties.hasNext()) {
+                        values.add(properties.next().value());
+                    }
+                }
+            } else if (Edge.class.isAssignableFrom(elementClass)) {
+                for (final Edge edge : this.graph.edges.values()) {
+                    checkInterrupted();
+                    edge.property(key).ifPresent(values::add);
+                }
+            }
+            return (long) values.size();
+        });
+    }
+
+    /**
+     * Gets the number of edges with the label divided by the number of distinct vertices those edges leave from, for
+     * {@link Direction#OUT}, arrive at, for {@link Direction#IN}, or touch, for {@link Direction#BOTH} where each edge
+     * counts for both of its vertices.
+     */
+    @Override
+    public Optional<Double> getAverageDegree(final String edgeLabel, final Direction direction) {
+        return this.estimate(Arrays.asList(Direction.class, edgeLabel, direction), () -> {
+            final Collection<Edge> edges = null == edgeLabel ?
+                    this.graph.edges.values() :
+                    this.graph.edgeLabelIndex.getOrDefault(edgeLabel, Collections.emptySet());
+            final Set<Object> vertexIds = new HashSet<>();
+            long count = 0;
+            for (final Edge edge : edges) {
+                checkInterrupted();
+                count++;
+                if (Direction.IN != direction)
+                    vertexIds.add(((TinkerEdge) edge).outVertex.id());
+                if (Direction.OUT != direction)
+                    vertexIds.add(((TinkerEdge) edge).inVertex.id());
+            }
+            return vertexIds.isEmpty() ? 0d : (double) (Direction.BOTH == direction ? 2 * count : count) / vertexIds.size();
+        });
+    }
+
+    /**
+     * Determines if the key has an index, which is always the case for {@link T#label}.
+     */
+    @Override
+    public boolean isIndexed(final Class<? extends Element> elementClass, final String key) {
+        return T.label.getAccessor().equals(key) || (!VertexProperty.class.isAssignableFrom(elementClass) &&
+                this.graph.getIndexedKeys(elementClass).contains(key));
+    }
+
+    @Override
+    public long getUnknownEstimateCount() {
+        return this.unknownEstimates.get();
+    }
+
+    /**
+     * Stops the computation of estimates, dropping those waiting to be computed and waiting for the one being
+     * computed, if any, to give up. Estimates that were computed are still reported but are no longer refreshed.
+     */
+    void close() {
+        this.refreshService.shutdownNow();
+        try {
+            this.refreshService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the last estimate computed for the key, if any, and schedules it to be computed again if it is missing or
+     * stale and is not already being computed.
+     */
+    private <N extends Number> Optional<N> estimate(final List<Object> key, final Supplier<N> supplier) {
+        final Estimate estimate = this.estimates.get(key);
+        if (null == estimate)
+            this.unknownEstimates.incrementAndGet();
+        if ((null == estimate || this.isStale(estimate)) && this.refreshing.add(key)) {
+            try {
+                this.schedule(key, supplier);
+            } catch (final RejectedExecutionException ex) {
+                // the graph was closed
+                this.refreshing.remove(key);
+            }
+        }
+        return null == estimate ? Optional.empty() : Optional.of((N) estimate.value);
+    }
+
+    private void schedule(final List<Object> key, final Supplier<? extends Number> supplier) {
+        this.refreshService.execute(() -> {
+            try {
+                // take the counts ahead of the pass so that changes made during it leave the estimate stale
+                final long vertexCount = this.graph.vertices.size();
+                final long edgeCount = this.graph.edges.size();
+                this.estimates.put(key, new Estimate(supplier.get(), vertexCount, edgeCount, System.currentTimeMillis()));
+            } catch (final CancellationException ex) {
+                logger.debug("Stopped estimating {} of the graph as it was closed", key);
+            } catch (final RuntimeException ex) {
+                // the graph changed under the pass in a way it could not follow so keep the previous estimate
+                logger.debug("Could not estimate {} of the graph", key, ex);
+            } finally {
+                this.refreshing.remove(key);
+            }
+        });
+    }
+
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted())
+            throw new CancellationException();
+    }
+
+    private boolean isStale(final Estimate estimate) {
+        final long age = System.currentTimeMillis() - estimate.time;
+        return age >= this.refreshIntervalMillis && (age >= MAX_AGE_INTERVALS * this.refreshIntervalMillis ||
+                estimate.vertexCount != this.graph.vertices.size() || estimate.edgeCount != this.graph.edges.size());
+    }
+
+    private static final class Estimate {
+        private final Number value;
+        private final long vertexCount;
+        private final long edgeCount;
+        private final long time;
+
+        private Estimate(final Number value, final long vertexCount, final long edgeCount, final long time) {
+            this.value = value;
+            this.vertexCount = vertexCount;
+            this.edgeCount = edgeCount;
+            this.time = time;
+        }
+    }
+}
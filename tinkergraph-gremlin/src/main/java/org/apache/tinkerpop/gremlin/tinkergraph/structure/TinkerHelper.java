@@ -22,13 +22,16 @@ import org.apache.tinkerpop.gremlin.process.computer.GraphFilter;
 import org.apache.tinkerpop.gremlin.process.computer.VertexComputeKey;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputerView;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -37,6 +40,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 /**
@@ -48,6 +52,7 @@ public final class TinkerHelper {
     }
 
     protected static Edge addEdge(final TinkerGraph graph, final TinkerVertex outVertex, final TinkerVertex inVertex, final String label, final Object... keyValues) {
+        if (graph.isFrozen()) throw Vertex.Exceptions.edgeAdditionsNotSupported();
         ElementHelper.validateLabel(label);
         ElementHelper.legalPropertyKeyValueArray(keyValues);
 
@@ -55,36 +60,55 @@ public final class TinkerHelper {
 
         final Edge edge;
         if (null != idValue) {
-            if (graph.edges.containsKey(idValue))
+            if (null == graph.transaction ? graph.edges.containsKey(idValue) : null != graph.transaction.edge(idValue))
                 throw Graph.Exceptions.edgeWithIdAlreadyExists(idValue);
+            graph.reserveId(idValue);
         } else {
             idValue = graph.edgeIdManager.getNextId(graph);
         }
 
         edge = new TinkerEdge(idValue, outVertex, label, inVertex);
-        ElementHelper.attachProperties(edge, keyValues);
-        graph.edges.put(edge.id(), edge);
-        TinkerHelper.addOutEdge(outVertex, label, edge);
-        TinkerHelper.addInEdge(inVertex, label, edge);
+        if (null != graph.transaction) {
+            if (inVertex.isRemoved()) throw TinkerElement.elementAlreadyRemoved(Vertex.class, inVertex.id);
+            graph.transaction.add((TinkerEdge) edge);
+            ElementHelper.attachProperties(edge, keyValues);
+            return edge;
+        }
+        graph.beginMutation();
+        try {
+            if (null != graph.graphLog) graph.graphLog.addEdge(edge);
+            ElementHelper.attachProperties(edge, keyValues);
+            graph.edges.put(edge.id(), edge);
+            TinkerHelper.addLabelIndex(graph.edgeLabelIndex, edge);
+            TinkerHelper.addOutEdge(outVertex, label, edge);
+            TinkerHelper.addInEdge(inVertex, label, edge);
+            TinkerHelper.addVertexCentricIndex((TinkerEdge) edge);
+        } finally {
+            graph.endMutation();
+        }
         return edge;
 
     }
 
     protected static void addOutEdge(final TinkerVertex vertex, final String label, final Edge edge) {
-        if (null == vertex.outEdges) vertex.outEdges = new HashMap<>();
+        // the adjacency of a transactional graph is read by transactions while commits change it
+        final boolean concurrent = null != ((TinkerGraph) vertex.graph()).transaction;
+        if (null == vertex.outEdges) vertex.outEdges = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
         Set<Edge> edges = vertex.outEdges.get(label);
         if (null == edges) {
-            edges = new HashSet<>();
+            edges = concurrent ? ConcurrentHashMap.newKeySet() : new HashSet<>();
             vertex.outEdges.put(label, edges);
         }
         edges.add(edge);
     }
 
     protected static void addInEdge(final TinkerVertex vertex, final String label, final Edge edge) {
-        if (null == vertex.inEdges) vertex.inEdges = new HashMap<>();
+        // the adjacency of a transactional graph is read by transactions while commits change it
+        final boolean concurrent = null != ((TinkerGraph) vertex.graph()).transaction;
+        if (null == vertex.inEdges) vertex.inEdges = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
         Set<Edge> edges = vertex.inEdges.get(label);
         if (null == edges) {
-            edges = new HashSet<>();
+            edges = concurrent ? ConcurrentHashMap.newKeySet() : new HashSet<>();
             vertex.inEdges.put(label, edges);
         }
         edges.add(edge);
@@ -98,6 +122,41 @@ public final class TinkerHelper {
         return null == graph.edgeIndex ? Collections.emptyList() : graph.edgeIndex.get(key, value);
     }
 
+    protected static <E extends Element> void addLabelIndex(final Map<String, Set<E>> labelIndex, final E element) {
+        labelIndex.compute(element.label(), (label, elements) -> {
+            final Set<E> set = null == elements ? ConcurrentHashMap.newKeySet() : elements;
+            set.add(element);
+            return set;
+        });
+    }
+
+    protected static <E extends Element> void removeLabelIndex(final Map<String, Set<E>> labelIndex, final E element) {
+        labelIndex.computeIfPresent(element.label(), (label, elements) -> {
+            elements.remove(element);
+            return elements.isEmpty() ? null : elements;
+        });
+    }
+
+    public static List<Vertex> queryVertexLabelIndex(final TinkerGraph graph, final String label) {
+        final Set<Vertex> vertices = graph.vertexLabelIndex.get(label);
+        return null == vertices ? Collections.emptyList() : new ArrayList<>(vertices);
+    }
+
+    public static List<Edge> queryEdgeLabelIndex(final TinkerGraph graph, final String label) {
+        final Set<Edge> edges = graph.edgeLabelIndex.get(label);
+        return null == edges ? Collections.emptyList() : new ArrayList<>(edges);
+    }
+
+    public static long countVertexLabelIndex(final TinkerGraph graph, final String label) {
+        final Set<Vertex> vertices = graph.vertexLabelIndex.get(label);
+        return null == vertices ? 0 : vertices.size();
+    }
+
+    public static long countEdgeLabelIndex(final TinkerGraph graph, final String label) {
+        final Set<Edge> edges = graph.edgeLabelIndex.get(label);
+        return null == edges ? 0 : edges.size();
+    }
+
     public static boolean inComputerMode(final TinkerGraph graph) {
         return null != graph.graphComputerView;
     }
@@ -106,6 +165,18 @@ public final class TinkerHelper {
         return graph.graphComputerView = new TinkerGraphComputerView(graph, graphFilter, computeKeys);
     }
 
+    /**
+     * Gets the position of the vertex in the vertices of the running graph computer job, which the view
+     * and the message board of the job index their slots by.
+     */
+    public static int getComputeOrdinal(final TinkerVertex vertex) {
+        return vertex.computeOrdinal;
+    }
+
+    public static void setComputeOrdinal(final TinkerVertex vertex, final int computeOrdinal) {
+        vertex.computeOrdinal = computeOrdinal;
+    }
+
     public static TinkerGraphComputerView getGraphComputerView(final TinkerGraph graph) {
         return graph.graphComputerView;
     }
@@ -120,41 +191,114 @@ public final class TinkerHelper {
 
     public static void autoUpdateIndex(final TinkerEdge edge, final String key, final Object newValue, final Object oldValue) {
         final TinkerGraph graph = (TinkerGraph) edge.graph();
+        if (null != graph.transaction) return;
         if (graph.edgeIndex != null)
             graph.edgeIndex.autoUpdate(key, newValue, oldValue, edge);
+        updateVertexCentricIndex(edge, key, newValue, oldValue);
     }
 
     public static void autoUpdateIndex(final TinkerVertex vertex, final String key, final Object newValue, final Object oldValue) {
         final TinkerGraph graph = (TinkerGraph) vertex.graph();
+        if (null != graph.transaction) return;
         if (graph.vertexIndex != null)
             graph.vertexIndex.autoUpdate(key, newValue, oldValue, vertex);
     }
 
     public static void removeElementIndex(final TinkerVertex vertex) {
         final TinkerGraph graph = (TinkerGraph) vertex.graph();
+        if (null != graph.transaction) return;
         if (graph.vertexIndex != null)
             graph.vertexIndex.removeElement(vertex);
     }
 
     public static void removeElementIndex(final TinkerEdge edge) {
         final TinkerGraph graph = (TinkerGraph) edge.graph();
+        if (null != graph.transaction) return;
         if (graph.edgeIndex != null)
             graph.edgeIndex.removeElement(edge);
+        removeVertexCentricIndex(edge);
     }
 
     public static void removeIndex(final TinkerVertex vertex, final String key, final Object value) {
         final TinkerGraph graph = (TinkerGraph) vertex.graph();
+        if (null != graph.transaction) return;
         if (graph.vertexIndex != null)
             graph.vertexIndex.remove(key, value, vertex);
     }
 
     public static void removeIndex(final TinkerEdge edge, final String key, final Object value) {
         final TinkerGraph graph = (TinkerGraph) edge.graph();
+        if (null != graph.transaction) return;
         if (graph.edgeIndex != null)
             graph.edgeIndex.remove(key, value, edge);
+        updateVertexCentricIndex(edge, key, null, value);
+    }
+
+    /**
+     * Adds an edge that was just added to the graph to the vertex-centric indices of its label on both of its
+     * vertices.
+     */
+    protected static void addVertexCentricIndex(final TinkerEdge edge) {
+        final Set<String> keys = ((TinkerGraph) edge.graph()).vertexCentricIndices.get(edge.label());
+        if (null == keys)
+            return;
+        for (final String key : keys) {
+            addVertexCentricIndex(edge, key);
+        }
+    }
+
+    protected static void addVertexCentricIndex(final TinkerEdge edge, final String key) {
+        final Object value = edge.property(key).orElse(null);
+        getVertexCentricIndex((TinkerVertex) edge.outVertex, Direction.OUT).put(edge.label, key, value, edge);
+        getVertexCentricIndex((TinkerVertex) edge.inVertex, Direction.IN).put(edge.label, key, value, edge);
+    }
+
+    /**
+     * Moves an edge between the value buckets of the vertex-centric indices for the {@code key}. Edges that are not
+     * yet part of the graph are skipped as they are indexed with all of their properties once they are added.
+     */
+    private static void updateVertexCentricIndex(final TinkerEdge edge, final String key, final Object newValue, final Object oldValue) {
+        final TinkerGraph graph = (TinkerGraph) edge.graph();
+        final Set<String> keys = graph.vertexCentricIndices.get(edge.label());
+        if (null == keys || !keys.contains(key) || graph.edges.get(edge.id()) != edge)
+            return;
+        for (final TinkerVertexCentricIndex index : Arrays.asList(
+                getVertexCentricIndex((TinkerVertex) edge.outVertex, Direction.OUT),
+                getVertexCentricIndex((TinkerVertex) edge.inVertex, Direction.IN))) {
+            index.remove(edge.label, key, oldValue, edge);
+            index.put(edge.label, key, newValue, edge);
+        }
+    }
+
+    private static void removeVertexCentricIndex(final TinkerEdge edge) {
+        final Set<String> keys = ((TinkerGraph) edge.graph()).vertexCentricIndices.get(edge.label());
+        if (null == keys)
+            return;
+        final TinkerVertex outVertex = (TinkerVertex) edge.outVertex;
+        final TinkerVertex inVertex = (TinkerVertex) edge.inVertex;
+        for (final String key : keys) {
+            final Object value = edge.property(key).orElse(null);
+            if (null != outVertex.outEdgeIndex) outVertex.outEdgeIndex.remove(edge.label, key, value, edge);
+            if (null != inVertex.inEdgeIndex) inVertex.inEdgeIndex.remove(edge.label, key, value, edge);
+        }
+    }
+
+    protected static TinkerVertexCentricIndex getVertexCentricIndex(final TinkerVertex vertex, final Direction direction) {
+        synchronized (vertex) {
+            if (Direction.OUT == direction) {
+                if (null == vertex.outEdgeIndex) vertex.outEdgeIndex = new TinkerVertexCentricIndex();
+                return vertex.outEdgeIndex;
+            } else {
+                if (null == vertex.inEdgeIndex) vertex.inEdgeIndex = new TinkerVertexCentricIndex();
+                return vertex.inEdgeIndex;
+            }
+        }
     }
 
     public static Iterator<TinkerEdge> getEdges(final TinkerVertex vertex, final Direction direction, final String... edgeLabels) {
+        final TinkerAdjacency adjacency = ((TinkerGraph) vertex.graph()).adjacency;
+        if (null != adjacency) return adjacency.edges(vertex, direction, edgeLabels);
+
         final List<Edge> edges = new ArrayList<>();
         if (direction.equals(Direction.OUT) || direction.equals(Direction.BOTH)) {
             if (vertex.outEdges != null) {
@@ -176,10 +320,43 @@ public final class TinkerHelper {
                     Stream.of(edgeLabels).map(vertex.inEdges::get).filter(Objects::nonNull).forEach(edges::addAll);
             }
         }
+        final TinkerTransaction transaction = ((TinkerGraph) vertex.graph()).transaction;
+        if (null != transaction) transaction.incidentEdges(vertex, direction, edgeLabels, edges);
         return (Iterator) edges.iterator();
     }
 
+    /**
+     * Counts the edges of the vertex in both directions without iterating them, ignoring any filter of a
+     * {@link TinkerGraphComputerView}.
+     */
+    public static int getDegree(final TinkerVertex vertex) {
+        final TinkerAdjacency adjacency = ((TinkerGraph) vertex.graph()).adjacency;
+        if (null != adjacency) return adjacency.degree(vertex);
+
+        int degree = 0;
+        if (vertex.outEdges != null) {
+            for (final Set<Edge> edges : vertex.outEdges.values()) {
+                degree += edges.size();
+            }
+        }
+        if (vertex.inEdges != null) {
+            for (final Set<Edge> edges : vertex.inEdges.values()) {
+                degree += edges.size();
+            }
+        }
+        return degree;
+    }
+
     public static Iterator<TinkerVertex> getVertices(final TinkerVertex vertex, final Direction direction, final String... edgeLabels) {
+        final TinkerAdjacency adjacency = ((TinkerGraph) vertex.graph()).adjacency;
+        if (null != adjacency) return adjacency.vertices(vertex, direction, edgeLabels);
+        if (null != ((TinkerGraph) vertex.graph()).transaction) {
+            return direction == Direction.BOTH ?
+                    IteratorUtils.concat(getVertices(vertex, Direction.OUT, edgeLabels), getVertices(vertex, Direction.IN, edgeLabels)) :
+                    IteratorUtils.map(getEdges(vertex, direction, edgeLabels),
+                            edge -> (TinkerVertex) (direction == Direction.OUT ? edge.inVertex : edge.outVertex));
+        }
+
         final List<Vertex> vertices = new ArrayList<>();
         if (direction.equals(Direction.OUT) || direction.equals(Direction.BOTH)) {
             if (vertex.outEdges != null) {
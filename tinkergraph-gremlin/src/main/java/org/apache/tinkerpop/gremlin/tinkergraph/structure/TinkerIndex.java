@@ -20,16 +20,25 @@ package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
-import org.apache.tinkerpop.gremlin.structure.Property;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.NumberHelper;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -38,7 +47,16 @@ final class TinkerIndex<T extends Element> {
 
     protected Map<String, Map<Object, Set<T>>> index = new ConcurrentHashMap<>();
     protected final Class<T> indexClass;
-    private final Set<String> indexedKeys = new HashSet<>();
+    private final Set<String> indexedKeys = ConcurrentHashMap.newKeySet();
+    private final Set<String> orderedKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The values each element is indexed under by key, which lets an element be removed by visiting only its own
+     * buckets. Changes for an element are made within a {@code compute()} of its entry so that they are atomic with
+     * respect to each other.
+     */
+    private final Map<T, Map<String, Set<Object>>> postings = new ConcurrentHashMap<>();
+    private final Map<List<String>, CompositeIndex<T>> compositeIndices = new ConcurrentHashMap<>();
     private final TinkerGraph graph;
 
     public TinkerIndex(final TinkerGraph graph, final Class<T> indexClass) {
@@ -46,18 +64,50 @@ final class TinkerIndex<T extends Element> {
         this.indexClass = indexClass;
     }
 
+    /**
+     * Indexes the value of the element for the key. The map for the key is installed by {@link #createKeyIndex}
+     * before the key becomes visible as indexed, so a write that races with {@link #dropKeyIndex} and finds no map
+     * leaves the element out of the index rather than creating a map of the wrong kind.
+     */
     protected void put(final String key, final Object value, final T element) {
-        Map<Object, Set<T>> keyMap = this.index.get(key);
-        if (null == keyMap) {
-            this.index.putIfAbsent(key, new ConcurrentHashMap<>());
-            keyMap = this.index.get(key);
+        final Map<Object, Set<T>> buckets = this.index.get(key);
+        if (null == buckets)
+            return;
+        final Object indexableValue = indexable(value);
+        this.postings.compute(element, (e, keys) -> {
+            final Map<String, Set<Object>> indexed = null == keys ? new HashMap<>(2) : keys;
+            if (indexed.computeIfAbsent(key, k -> new HashSet<>(2)).add(indexableValue))
+                addToBucket(buckets, indexableValue, element);
+            return indexed;
+        });
+    }
+
+    /**
+     * Adds the element to the bucket for the value. A bucket is only dropped from the index while holding its
+     * monitor and once it is empty, so the element is added again should the bucket turn out to be dropped already.
+     */
+    private static <K, T> void addToBucket(final Map<K, Set<T>> keyMap, final K value, final T element) {
+        while (true) {
+            final Set<T> objects = keyMap.computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet());
+            synchronized (objects) {
+                if (keyMap.get(value) == objects) {
+                    objects.add(element);
+                    return;
+                }
+            }
         }
-        Set<T> objects = keyMap.get(value);
-        if (null == objects) {
-            keyMap.putIfAbsent(value, ConcurrentHashMap.newKeySet());
-            objects = keyMap.get(value);
+    }
+
+    private static <K, T> void removeFromBucket(final Map<K, Set<T>> keyMap, final K value, final T element) {
+        final Set<T> objects = keyMap.get(value);
+        if (null == objects)
+            return;
+
+        synchronized (objects) {
+            objects.remove(element);
+            if (objects.isEmpty())
+                keyMap.remove(value, objects);
         }
-        objects.add(element);
     }
 
     public List<T> get(final String key, final Object value) {
@@ -73,6 +123,108 @@ final class TinkerIndex<T extends Element> {
         }
     }
 
+    /**
+     * Gets the elements of an ordered index whose value for the {@code key} falls between {@code from} and {@code to}.
+     * A {@code null} bound leaves that side of the range open, though the range never extends beyond values that are
+     * comparable to the other bound (i.e. numbers are never mixed with strings).
+     */
+    public List<T> getRange(final String key, final Object from, final boolean fromInclusive,
+                            final Object to, final boolean toInclusive) {
+        final Set<T> elements = new LinkedHashSet<>();
+        this.forEachInRange(key, from, fromInclusive, to, toInclusive, elements::addAll);
+        return new ArrayList<>(elements);
+    }
+
+    /**
+     * Counts the entries of an ordered index that fall in the range as given to
+     * {@link #getRange(String, Object, boolean, Object, boolean)}. Counting stops once the {@code limit} is exceeded
+     * so that an estimate for a wide range stays cheap.
+     */
+    public long countRange(final String key, final Object from, final boolean fromInclusive,
+                           final Object to, final boolean toInclusive, final long limit) {
+        final long[] count = {0};
+        this.forEachInRange(key, from, fromInclusive, to, toInclusive, set -> (count[0] += set.size()) <= limit);
+        return count[0];
+    }
+
+    /**
+     * Gets the elements of an ordered index whose {@code String} value for the {@code key} starts with the
+     * {@code prefix}.
+     */
+    public List<T> getPrefix(final String key, final String prefix) {
+        final Set<T> elements = new LinkedHashSet<>();
+        this.forEachWithPrefix(key, prefix, elements::addAll);
+        return new ArrayList<>(elements);
+    }
+
+    /**
+     * Counts the entries of an ordered index that start with the {@code prefix}, stopping once the {@code limit} is
+     * exceeded.
+     */
+    public long countPrefix(final String key, final String prefix, final long limit) {
+        final long[] count = {0};
+        this.forEachWithPrefix(key, prefix, set -> (count[0] += set.size()) <= limit);
+        return count[0];
+    }
+
+    /**
+     * Visits the value buckets of an ordered index in range until the {@code visitor} returns {@code false}.
+     */
+    private void forEachInRange(final String key, final Object from, final boolean fromInclusive,
+                                final Object to, final boolean toInclusive, final Predicate<Set<T>> visitor) {
+        final Map<Object, Set<T>> keyMap = this.index.get(key);
+        if (keyMap instanceof NavigableMap)
+            forEachInRange((NavigableMap<Object, Set<T>>) keyMap, from, fromInclusive, to, toInclusive, visitor);
+    }
+
+    private void forEachWithPrefix(final String key, final String prefix, final Predicate<Set<T>> visitor) {
+        final Map<Object, Set<T>> keyMap = this.index.get(key);
+        if (keyMap instanceof NavigableMap)
+            forEachWithPrefix((NavigableMap<Object, Set<T>>) keyMap, prefix, visitor);
+    }
+
+    /**
+     * Visits the buckets of a map ordered by {@link #compareIndexable(Object, Object)} whose value falls in range
+     * until the {@code visitor} returns {@code false}.
+     */
+    static <E> void forEachInRange(final NavigableMap<Object, Set<E>> orderedMap, final Object from, final boolean fromInclusive,
+                                   final Object to, final boolean toInclusive, final Predicate<Set<E>> visitor) {
+        if (null == from && null == to)
+            return;
+
+        final NavigableMap<Object, Set<E>> range;
+        if (null != from && null != to) {
+            if (compareIndexable(from, to) > 0)
+                return;
+            range = orderedMap.subMap(from, fromInclusive, to, toInclusive);
+        } else if (null != from) {
+            range = orderedMap.tailMap(from, fromInclusive);
+        } else {
+            range = orderedMap.headMap(to, toInclusive).descendingMap();
+        }
+
+        final String boundType = indexType(null == from ? to : from);
+        for (final Map.Entry<Object, Set<E>> entry : range.entrySet()) {
+            if (!boundType.equals(indexType(entry.getKey())) || !visitor.test(entry.getValue()))
+                break;
+        }
+    }
+
+    /**
+     * Visits the buckets of a map ordered by {@link #compareIndexable(Object, Object)} whose {@code String} value
+     * starts with the {@code prefix} until the {@code visitor} returns {@code false}.
+     */
+    static <E> void forEachWithPrefix(final NavigableMap<Object, Set<E>> orderedMap, final String prefix,
+                                      final Predicate<Set<E>> visitor) {
+        if (null == prefix)
+            return;
+
+        for (final Map.Entry<Object, Set<E>> entry : orderedMap.tailMap(prefix, true).entrySet()) {
+            if (!(entry.getKey() instanceof String) || !((String) entry.getKey()).startsWith(prefix) || !visitor.test(entry.getValue()))
+                break;
+        }
+    }
+
     public long count(final String key, final Object value) {
         final Map<Object, Set<T>> keyMap = this.index.get(key);
         if (null == keyMap) {
@@ -86,59 +238,277 @@ final class TinkerIndex<T extends Element> {
         }
     }
 
-    public void remove(final String key, final Object value, final T element) {
-        final Map<Object, Set<T>> keyMap = this.index.get(key);
-        if (null != keyMap) {
-            final Set<T> objects = keyMap.get(indexable(value));
-            if (null != objects) {
-                objects.remove(element);
-                if (objects.size() == 0) {
-                    keyMap.remove(value);
-                }
+    /**
+     * Gets the elements whose values for the keys of a composite index equal the {@code values} given in the same
+     * order as those keys.
+     */
+    public List<T> getComposite(final List<String> keys, final List<Object> values) {
+        final CompositeIndex<T> compositeIndex = this.compositeIndices.get(keys);
+        return null == compositeIndex ? Collections.emptyList() : compositeIndex.get(values);
+    }
+
+    public long countComposite(final List<String> keys, final List<Object> values) {
+        final CompositeIndex<T> compositeIndex = this.compositeIndices.get(keys);
+        return null == compositeIndex ? 0 : compositeIndex.count(values);
+    }
+
+    /**
+     * Gets the number of distinct values indexed for the {@code key} or {@code -1} if the key is not indexed.
+     */
+    public long countValues(final String key) {
+        if (!this.indexedKeys.contains(key))
+            return -1;
+        return this.index.getOrDefault(key, Collections.emptyMap()).size();
+    }
+
+    /**
+     * Summarizes the values indexed for the {@code key}, keeping the {@code topValues} values with the most
+     * elements as heavy hitters. Returns {@code null} if the key is not indexed.
+     */
+    public TinkerIndexStatistics statistics(final String key, final int topValues) {
+        if (!this.indexedKeys.contains(key))
+            return null;
+
+        final Map<Object, Set<T>> keyMap = this.index.getOrDefault(key, Collections.emptyMap());
+        final PriorityQueue<Map.Entry<Object, Long>> heaviest = new PriorityQueue<>(Map.Entry.comparingByValue());
+        long entries = 0;
+        for (final Map.Entry<Object, Set<T>> entry : keyMap.entrySet()) {
+            final long size = entry.getValue().size();
+            entries += size;
+            if (topValues <= 0)
+                continue;
+            if (heaviest.size() < topValues) {
+                heaviest.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), size));
+            } else if (heaviest.peek().getValue() < size) {
+                heaviest.poll();
+                heaviest.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), size));
             }
         }
+
+        final List<Map.Entry<Object, Long>> sorted = new ArrayList<>(heaviest);
+        sorted.sort(Map.Entry.<Object, Long>comparingByValue().reversed());
+        final Map<Object, Long> heavyHitters = new LinkedHashMap<>();
+        for (final Map.Entry<Object, Long> entry : sorted) {
+            heavyHitters.put(entry.getKey() instanceof IndexedNull ? null : entry.getKey(), entry.getValue());
+        }
+        return new TinkerIndexStatistics(key, this.orderedKeys.contains(key), keyMap.size(), entries, heavyHitters);
+    }
+
+    public void remove(final String key, final Object value, final T element) {
+        this.removeValue(key, value, element);
+        this.updateCompositeIndices(key, element);
     }
 
+    private void removeValue(final String key, final Object value, final T element) {
+        final Object indexableValue = indexable(value);
+        this.postings.computeIfPresent(element, (e, keys) -> {
+            this.removeValue(keys, key, indexableValue, element);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * Removes the value from the postings of the element and the element from the bucket for the value, which must
+     * be called within a {@code compute()} of the entry of the element.
+     */
+    private void removeValue(final Map<String, Set<Object>> keys, final String key, final Object indexableValue, final T element) {
+        final Set<Object> values = keys.get(key);
+        if (null == values || !values.remove(indexableValue))
+            return;
+        if (values.isEmpty())
+            keys.remove(key);
+
+        final Map<Object, Set<T>> keyMap = this.index.get(key);
+        if (null != keyMap)
+            removeFromBucket(keyMap, indexableValue, element);
+    }
+
+    /**
+     * Removes the element from the buckets it is indexed under, which only touches the buckets recorded in its
+     * postings rather than every bucket of the index.
+     */
     public void removeElement(final T element) {
         if (this.indexClass.isAssignableFrom(element.getClass())) {
-            for (Map<Object, Set<T>> map : index.values()) {
-                for (Set<T> set : map.values()) {
-                    set.remove(element);
-                }
+            this.postings.computeIfPresent(element, (e, keys) -> {
+                keys.forEach((key, values) -> {
+                    final Map<Object, Set<T>> keyMap = this.index.get(key);
+                    if (null != keyMap)
+                        values.forEach(value -> removeFromBucket(keyMap, value, element));
+                });
+                return null;
+            });
+            for (final CompositeIndex<T> compositeIndex : this.compositeIndices.values()) {
+                compositeIndex.removeElement(element);
             }
         }
     }
 
+    /**
+     * Adds a value of the element for the key without removing any other value it has, as needed for the
+     * multi-properties of a vertex.
+     */
+    void add(final String key, final Object value, final T element) {
+        if (this.indexedKeys.contains(key))
+            this.put(key, value, element);
+        this.updateCompositeIndices(key, element);
+    }
+
     public void autoUpdate(final String key, final Object newValue, final Object oldValue, final T element) {
         if (this.indexedKeys.contains(key)) {
-            this.remove(key, oldValue, element);
+            this.removeValue(key, oldValue, element);
             this.put(key, newValue, element);
         }
+        this.updateCompositeIndices(key, element);
+    }
+
+    private void updateCompositeIndices(final String key, final T element) {
+        for (final CompositeIndex<T> compositeIndex : this.compositeIndices.values()) {
+            if (compositeIndex.keys.contains(key))
+                compositeIndex.update(element);
+        }
     }
 
     public void createKeyIndex(final String key) {
+        createKeyIndex(key, false);
+    }
+
+    /**
+     * Creates an index for the {@code key}. An ordered index keeps its values sorted so that it can answer range
+     * queries as well as equality lookups. If the key is already indexed with a different ordering the index is
+     * rebuilt. Writes may continue while the existing elements are indexed as the key counts as indexed before they
+     * are visited.
+     */
+    public void createKeyIndex(final String key, final boolean ordered) {
         if (null == key)
             throw Graph.Exceptions.argumentCanNotBeNull("key");
         if (key.isEmpty())
             throw new IllegalArgumentException("The key for the index cannot be an empty string");
 
-        if (this.indexedKeys.contains(key))
-            return;
+        if (this.indexedKeys.contains(key)) {
+            if (this.orderedKeys.contains(key) == ordered)
+                return;
+            this.dropKeyIndex(key);
+        }
+        // the map and its ordering are in place before the key is visible to writers as indexed
+        if (ordered) this.orderedKeys.add(key);
+        this.index.put(key, ordered ?
+                new ConcurrentSkipListMap<>(TinkerIndex::compareIndexable) :
+                new ConcurrentHashMap<>());
         this.indexedKeys.add(key);
 
-        (Vertex.class.isAssignableFrom(this.indexClass) ?
-                this.graph.vertices.values().parallelStream() :
-                this.graph.edges.values().parallelStream())
-                .map(e -> new Object[]{((T) e).property(key), e})
-                .filter(a -> ((Property) a[0]).isPresent())
-                .forEach(a -> this.put(key, ((Property) a[0]).value(), (T) a[1]));
+        this.elements().forEach(e -> this.reindex(key, (T) e));
+    }
+
+    /**
+     * Indexes the values the element has for the key while writes may be changing them. Values are read again once
+     * they are put and any that were replaced or removed in the meantime are dropped, because the write that
+     * replaced them may have tried to remove them from the index before they were put. That second read is made
+     * within the {@code compute()} of the entry of the element, so a write that comes after it is indexed by the
+     * write itself.
+     */
+    private void reindex(final String key, final T element) {
+        for (final Object value : values(key, element)) {
+            this.put(key, value, element);
+        }
+        this.postings.computeIfPresent(element, (e, keys) -> {
+            final Set<Object> indexed = keys.get(key);
+            if (null != indexed) {
+                final Set<Object> current = this.isInGraph(element) ? values(key, element) : Collections.emptySet();
+                for (final Object value : new ArrayList<>(indexed)) {
+                    if (!current.contains(value))
+                        this.removeValue(keys, key, value, element);
+                }
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static Set<Object> values(final String key, final Element element) {
+        final Set<Object> values = new HashSet<>();
+        element.properties(key).forEachRemaining(p -> values.add(indexable(p.value())));
+        return values;
+    }
+
+    private boolean isInGraph(final T element) {
+        final Map<Object, ? extends Element> elements = Vertex.class.isAssignableFrom(this.indexClass) ?
+                this.graph.vertices : this.graph.edges;
+        return elements.get(element.id()) == element;
+    }
+
+    /**
+     * Creates an index over the combination of several keys where {@link org.apache.tinkerpop.gremlin.structure.T#label} may be one of them. Elements are
+     * only indexed when they have a value for each key.
+     */
+    public void createCompositeIndex(final List<String> keys) {
+        if (null == keys)
+            throw Graph.Exceptions.argumentCanNotBeNull("keys");
+        if (keys.size() < 2)
+            throw new IllegalArgumentException("A composite index requires at least two keys");
+        for (final String key : keys) {
+            if (null == key)
+                throw Graph.Exceptions.argumentCanNotBeNull("key");
+            if (key.isEmpty())
+                throw new IllegalArgumentException("The key for the index cannot be an empty string");
+        }
+        if (new HashSet<>(keys).size() != keys.size())
+            throw new IllegalArgumentException("The keys of a composite index must be unique: " + keys);
+
+        final List<String> compositeKeys = Collections.unmodifiableList(new ArrayList<>(keys));
+        if (this.compositeIndices.containsKey(compositeKeys))
+            return;
+
+        final CompositeIndex<T> compositeIndex = new CompositeIndex<>(compositeKeys);
+        this.compositeIndices.put(compositeKeys, compositeIndex);
+        this.elements().forEach(e -> compositeIndex.update((T) e));
+    }
+
+    /**
+     * Streams the elements of the graph to index, which is done in parallel unless the graph is transactional as
+     * the elements can then only be read from the thread of the transaction.
+     */
+    private Stream<? extends Element> elements() {
+        final Map<Object, ? extends Element> elements = Vertex.class.isAssignableFrom(this.indexClass) ?
+                this.graph.vertices : this.graph.edges;
+        return null == this.graph.transaction ? elements.values().parallelStream() : elements.values().stream();
+    }
+
+    /**
+     * Creates a new index with the same key and composite definitions as this one, populated from the current
+     * elements of the graph.
+     */
+    TinkerIndex<T> rebuild() {
+        final TinkerIndex<T> rebuilt = new TinkerIndex<>(this.graph, this.indexClass);
+        for (final String key : this.indexedKeys) {
+            rebuilt.createKeyIndex(key, this.orderedKeys.contains(key));
+        }
+        for (final List<String> keys : this.compositeIndices.keySet()) {
+            rebuilt.createCompositeIndex(keys);
+        }
+        return rebuilt;
+    }
+
+    public void dropCompositeIndex(final List<String> keys) {
+        final CompositeIndex<T> compositeIndex = this.compositeIndices.remove(keys);
+        if (null != compositeIndex)
+            compositeIndex.clear();
+    }
+
+    public Set<List<String>> getCompositeKeys() {
+        return Collections.unmodifiableSet(this.compositeIndices.keySet());
     }
 
     public void dropKeyIndex(final String key) {
         if (this.index.containsKey(key))
             this.index.remove(key).clear();
+        for (final T element : this.postings.keySet()) {
+            this.postings.computeIfPresent(element, (e, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
 
         this.indexedKeys.remove(key);
+        this.orderedKeys.remove(key);
     }
 
     /**
@@ -153,6 +523,139 @@ final class TinkerIndex<T extends Element> {
         return this.indexedKeys;
     }
 
+    public Set<String> getOrderedKeys() {
+        return this.orderedKeys;
+    }
+
+    /**
+     * Orders values of an ordered index. Values are first grouped by type, where all numbers share one type and are
+     * compared with {@link NumberHelper}, and then by their natural order. Values without a natural order are sorted
+     * by hash code which keeps equal values together and is all an equality lookup requires.
+     */
+    static int compareIndexable(final Object first, final Object second) {
+        if (first == second)
+            return 0;
+
+        final int typeComparison = indexType(first).compareTo(indexType(second));
+        if (typeComparison != 0)
+            return typeComparison;
+
+        if (first instanceof Number)
+            return NumberHelper.compare((Number) first, (Number) second);
+        if (first instanceof Comparable && first.getClass().equals(second.getClass()))
+            return ((Comparable) first).compareTo(second);
+
+        final int hashComparison = Integer.compare(first.hashCode(), second.hashCode());
+        if (hashComparison != 0 || first.equals(second))
+            return hashComparison;
+        return first.toString().compareTo(second.toString());
+    }
+
+    static String indexType(final Object obj) {
+        if (obj instanceof IndexedNull)
+            return "";
+        else if (obj instanceof Number)
+            return Number.class.getName();
+        else
+            return obj.getClass().getName();
+    }
+
+    /**
+     * An index over the combined values of several keys. Each element keeps a back-reference to the value
+     * combinations it is stored under so that it can be moved or removed without scanning the whole index.
+     */
+    private static final class CompositeIndex<T extends Element> {
+        private final List<String> keys;
+        private final Map<List<Object>, Set<T>> buckets = new ConcurrentHashMap<>();
+        private final Map<T, Set<List<Object>>> entries = new ConcurrentHashMap<>();
+
+        private CompositeIndex(final List<String> keys) {
+            this.keys = keys;
+        }
+
+        private List<T> get(final List<Object> values) {
+            final Set<T> set = this.buckets.get(indexableValues(values));
+            return null == set ? Collections.emptyList() : new ArrayList<>(set);
+        }
+
+        private static List<Object> indexableValues(final List<Object> values) {
+            final List<Object> indexableValues = new ArrayList<>(values.size());
+            for (final Object value : values) {
+                indexableValues.add(TinkerIndex.indexable(value));
+            }
+            return indexableValues;
+        }
+
+        private long count(final List<Object> values) {
+            final Set<T> set = this.buckets.get(indexableValues(values));
+            return null == set ? 0 : set.size();
+        }
+
+        /**
+         * Moves the element to the buckets of the combinations it has now. The combinations are read within the
+         * {@code compute()} of the entry of the element so that concurrent updates of the same element are applied
+         * one after the other and the last one reflects its latest values.
+         */
+        private void update(final T element) {
+            this.entries.compute(element, (e, previous) -> {
+                final Set<List<Object>> combinations = combinations(element);
+                if (null != previous) {
+                    for (final List<Object> combination : previous) {
+                        if (!combinations.contains(combination))
+                            removeFromBucket(this.buckets, combination, element);
+                    }
+                }
+                for (final List<Object> combination : combinations) {
+                    if (null == previous || !previous.contains(combination))
+                        addToBucket(this.buckets, combination, element);
+                }
+                return combinations.isEmpty() ? null : combinations;
+            });
+        }
+
+        private void removeElement(final T element) {
+            this.entries.computeIfPresent(element, (e, combinations) -> {
+                for (final List<Object> combination : combinations) {
+                    removeFromBucket(this.buckets, combination, element);
+                }
+                return null;
+            });
+        }
+
+        private void clear() {
+            this.buckets.clear();
+            this.entries.clear();
+        }
+
+        /**
+         * Produces every combination of values the element has for the keys of the index, which is a single
+         * combination unless multi-properties are involved, or none if the element is missing one of the keys.
+         */
+        private Set<List<Object>> combinations(final T element) {
+            Set<List<Object>> combinations = Collections.singleton(Collections.emptyList());
+            for (final String key : this.keys) {
+                final List<Object> values = new ArrayList<>();
+                if (org.apache.tinkerpop.gremlin.structure.T.label.getAccessor().equals(key))
+                    values.add(element.label());
+                else
+                    element.properties(key).forEachRemaining(p -> values.add(indexable(p.value())));
+                if (values.isEmpty())
+                    return Collections.emptySet();
+
+                final Set<List<Object>> extended = new HashSet<>();
+                for (final List<Object> combination : combinations) {
+                    for (final Object value : values) {
+                        final List<Object> next = new ArrayList<>(combination);
+                        next.add(value);
+                        extended.add(next);
+                    }
+                }
+                combinations = extended;
+            }
+            return combinations;
+        }
+    }
+
     public static final class IndexedNull {
         private static final IndexedNull inst = new IndexedNull();
 
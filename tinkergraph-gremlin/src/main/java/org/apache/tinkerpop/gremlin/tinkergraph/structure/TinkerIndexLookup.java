@@ -0,0 +1,390 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Text;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.OrP;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Chooses how the elements that satisfy a set of {@link HasContainer} filters are looked up in a {@link TinkerGraph}.
+ * Each usable access path (a composite index, an equality index, a range of an ordered index or the label index) is
+ * costed by the number of elements it would return, which is cheap to determine from bucket sizes, and the cheapest
+ * one is used when it beats a full scan. Elements returned from here are only candidates that must still be tested
+ * against all of the filters, so the remaining filters act as the intersection with the other indices.
+ */
+public final class TinkerIndexLookup {
+
+    private TinkerIndexLookup() {
+    }
+
+    /**
+     * Gets the candidate elements of the {@code elementClass} from the cheapest index that applies to the
+     * {@code hasContainers} or {@code null} if no index is cheaper than iterating all elements. On a transactional
+     * graph the indices are only used by transactions that see the latest commit and have no changes of their own.
+     */
+    public static List<? extends Element> query(final TinkerGraph graph, final Class<? extends Element> elementClass,
+                                                final List<HasContainer> hasContainers) {
+        return null == graph.transaction ?
+                queryIndex(graph, elementClass, hasContainers) :
+                graph.transaction.lookup(() -> queryIndex(graph, elementClass, hasContainers));
+    }
+
+    private static List<? extends Element> queryIndex(final TinkerGraph graph, final Class<? extends Element> elementClass,
+                                                      final List<HasContainer> hasContainers) {
+        final boolean forVertices = Vertex.class.isAssignableFrom(elementClass);
+        final TinkerIndex<? extends Element> index = forVertices ? graph.vertexIndex : graph.edgeIndex;
+
+        long bestCost = forVertices ? graph.vertices.size() : graph.edges.size();
+        Supplier<List<? extends Element>> best = null;
+
+        if (null != index) {
+            for (final List<String> keys : index.getCompositeKeys()) {
+                final List<Object> values = getEqualityValues(keys, hasContainers);
+                if (null == values)
+                    continue;
+                final long cost = index.countComposite(keys, values);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = () -> index.getComposite(keys, values);
+                }
+            }
+
+            for (final HasContainer hasContainer : hasContainers) {
+                if (hasContainer.getBiPredicate() != Compare.eq || !index.getIndexedKeys().contains(hasContainer.getKey()))
+                    continue;
+                final long cost = index.count(hasContainer.getKey(), hasContainer.getValue());
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = () -> index.get(hasContainer.getKey(), hasContainer.getValue());
+                }
+            }
+
+            final Set<String> rangeKeys = new LinkedHashSet<>();
+            for (final HasContainer hasContainer : hasContainers) {
+                if (index.getOrderedKeys().contains(hasContainer.getKey()) && isRangeable(hasContainer.getPredicate()))
+                    rangeKeys.add(hasContainer.getKey());
+            }
+            for (final String key : rangeKeys) {
+                final List<Range> ranges = getRanges(key, hasContainers);
+                long cost = 0;
+                for (final Range range : ranges) {
+                    cost += range.count(index, key, bestCost);
+                }
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = () -> {
+                        final Set<Element> elements = new LinkedHashSet<>();
+                        for (final Range range : ranges) {
+                            elements.addAll(range.get(index, key));
+                        }
+                        return new ArrayList<>(elements);
+                    };
+                }
+            }
+        }
+
+        final Collection<String> labels = getLabels(hasContainers);
+        if (null != labels) {
+            long cost = 0;
+            for (final String label : labels) {
+                cost += forVertices ? TinkerHelper.countVertexLabelIndex(graph, label) : TinkerHelper.countEdgeLabelIndex(graph, label);
+            }
+            if (cost < bestCost) {
+                best = () -> {
+                    final List<Element> elements = new ArrayList<>();
+                    for (final String label : labels) {
+                        elements.addAll(forVertices ?
+                                TinkerHelper.queryVertexLabelIndex(graph, label) :
+                                TinkerHelper.queryEdgeLabelIndex(graph, label));
+                    }
+                    return elements;
+                };
+            }
+        }
+
+        return null == best ? null : best.get();
+    }
+
+    /**
+     * Gets the candidate edges incident to the {@code vertex} in the {@code direction} from the vertex-centric index
+     * of each of the edge {@code labels} that is cheapest for the {@code hasContainers}, or {@code null} if one of the
+     * labels has no vertex-centric index on a key that the filters constrain. As with {@link #query}, the candidates
+     * must still be tested against all of the filters.
+     */
+    public static List<Edge> queryIncident(final TinkerVertex vertex, final Direction direction, final String[] labels,
+                                           final List<HasContainer> hasContainers) {
+        if (0 == labels.length)
+            return null;
+
+        final TinkerGraph graph = (TinkerGraph) vertex.graph();
+        final List<TinkerVertexCentricIndex> indices = new ArrayList<>(2);
+        if (Direction.IN != direction && null != vertex.outEdgeIndex) indices.add(vertex.outEdgeIndex);
+        if (Direction.OUT != direction && null != vertex.inEdgeIndex) indices.add(vertex.inEdgeIndex);
+
+        final List<Edge> edges = new ArrayList<>();
+        for (final String label : labels) {
+            long bestCost = Long.MAX_VALUE;
+            String bestKey = null;
+            List<Range> bestRanges = null;
+            for (final String key : graph.getVertexCentricIndexedKeys(label)) {
+                if (!hasContainers.stream().anyMatch(has -> key.equals(has.getKey()) && isRangeable(has.getPredicate())))
+                    continue;
+                final List<Range> ranges = getRanges(key, hasContainers);
+                long cost = 0;
+                for (final TinkerVertexCentricIndex index : indices) {
+                    final NavigableMap<Object, Set<Edge>> keyMap = index.get(label, key);
+                    for (final Range range : ranges) {
+                        if (null != keyMap) cost += range.count(keyMap, bestCost);
+                    }
+                }
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestKey = key;
+                    bestRanges = ranges;
+                }
+            }
+            if (null == bestKey)
+                return null;
+
+            for (final TinkerVertexCentricIndex index : indices) {
+                final NavigableMap<Object, Set<Edge>> keyMap = index.get(label, bestKey);
+                if (null == keyMap)
+                    continue;
+                final Set<Edge> matched = new LinkedHashSet<>();
+                for (final Range range : bestRanges) {
+                    range.forEach(keyMap, matched::addAll);
+                }
+                edges.addAll(matched);
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Gets the edges incident to the {@code vertex} with the edge {@code label} in the order of their value for the
+     * {@code key} from a vertex-centric index. Returns {@code null} if there is no such index, if the direction is
+     * {@link Direction#BOTH} or if the edges lack a value or have values of different types, as the order of the index
+     * then differs from that of {@code order()}.
+     */
+    public static Iterator<Edge> orderIncident(final TinkerVertex vertex, final Direction direction, final String label,
+                                               final String key, final boolean descending) {
+        if (Direction.BOTH == direction || !((TinkerGraph) vertex.graph()).getVertexCentricIndexedKeys(label).contains(key))
+            return null;
+
+        final TinkerVertexCentricIndex index = Direction.OUT == direction ? vertex.outEdgeIndex : vertex.inEdgeIndex;
+        final NavigableMap<Object, Set<Edge>> keyMap = null == index ? null : index.get(label, key);
+        if (null == keyMap || keyMap.isEmpty())
+            return Collections.emptyIterator();
+
+        final Object first = keyMap.firstKey();
+        if (!TinkerIndex.indexType(first).equals(TinkerIndex.indexType(keyMap.lastKey())) ||
+                !(first instanceof Number || (first instanceof Comparable && !(first instanceof Enum))))
+            return null;
+        return IteratorUtils.flatMap((descending ? keyMap.descendingMap() : keyMap).values().iterator(), Set::iterator);
+    }
+
+    /**
+     * Gets the distinct labels of the first label filter among the {@link HasContainer} objects that is either an
+     * equality check or a {@link Contains#within} of labels, or {@code null} if there is no such filter.
+     */
+    public static Collection<String> getLabels(final List<HasContainer> hasContainers) {
+        for (final HasContainer hasContainer : hasContainers) {
+            if (!T.label.getAccessor().equals(hasContainer.getKey()))
+                continue;
+
+            final Object value = hasContainer.getValue();
+            if (hasContainer.getBiPredicate() == Compare.eq && value instanceof String)
+                return Collections.singleton((String) value);
+            if (hasContainer.getBiPredicate() == Contains.within && value instanceof Collection) {
+                final Set<String> labels = new LinkedHashSet<>();
+                for (final Object label : (Collection<?>) value) {
+                    if (label instanceof String)
+                        labels.add((String) label);
+                }
+                return labels;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the values of the first equality filter for each of the {@code keys} or {@code null} if one of the keys
+     * has no equality filter.
+     */
+    private static List<Object> getEqualityValues(final List<String> keys, final List<HasContainer> hasContainers) {
+        final List<Object> values = new ArrayList<>(keys.size());
+        for (final String key : keys) {
+            HasContainer equality = null;
+            for (final HasContainer hasContainer : hasContainers) {
+                if (hasContainer.getBiPredicate() == Compare.eq && key.equals(hasContainer.getKey())) {
+                    equality = hasContainer;
+                    break;
+                }
+            }
+            if (null == equality)
+                return null;
+            values.add(equality.getValue());
+        }
+        return values;
+    }
+
+    /**
+     * Gets the ranges of an ordered index for the {@code key}. A lower and an upper bound, as produced by
+     * {@code between()} or {@code inside()}, are combined into a single range. Otherwise, the first usable predicate
+     * is resolved on its own, where an {@link OrP} such as {@code outside()} becomes the union of its parts.
+     */
+    private static List<Range> getRanges(final String key, final List<HasContainer> hasContainers) {
+        HasContainer lower = null;
+        HasContainer upper = null;
+        P<?> predicate = null;
+        for (final HasContainer hasContainer : hasContainers) {
+            if (!hasContainer.getKey().equals(key) || !isRangeable(hasContainer.getPredicate()))
+                continue;
+
+            final BiPredicate<?, ?> biPredicate = hasContainer.getBiPredicate();
+            if (null == lower && (biPredicate == Compare.gt || biPredicate == Compare.gte))
+                lower = hasContainer;
+            else if (null == upper && (biPredicate == Compare.lt || biPredicate == Compare.lte))
+                upper = hasContainer;
+            else if (null == predicate)
+                predicate = hasContainer.getPredicate();
+        }
+
+        final List<Range> ranges = new ArrayList<>();
+        if (null != lower || null != upper) {
+            ranges.add(new Range(null == lower ? null : lower.getValue(), null != lower && lower.getBiPredicate() == Compare.gte,
+                    null == upper ? null : upper.getValue(), null != upper && upper.getBiPredicate() == Compare.lte));
+        } else {
+            addRanges(predicate, ranges);
+        }
+        return ranges;
+    }
+
+    private static void addRanges(final P<?> predicate, final List<Range> ranges) {
+        final BiPredicate<?, ?> biPredicate = predicate.getBiPredicate();
+        final Object value = predicate.getValue();
+        if (predicate instanceof OrP) {
+            for (final P<?> p : ((OrP<?>) predicate).getPredicates()) {
+                addRanges(p, ranges);
+            }
+        } else if (biPredicate == Text.startingWith) {
+            ranges.add(new Range((String) value));
+        } else if (biPredicate == Compare.eq) {
+            ranges.add(new Range(value, true, value, true));
+        } else if (biPredicate == Compare.gt || biPredicate == Compare.gte) {
+            ranges.add(new Range(value, biPredicate == Compare.gte, null, false));
+        } else {
+            ranges.add(new Range(null, false, value, biPredicate == Compare.lte));
+        }
+    }
+
+    /**
+     * Determines if the predicate can be resolved by an ordered index which is the case for comparisons other than
+     * {@link Compare#neq}, for {@link Text#startingWith} and for an {@link OrP} made only of such predicates.
+     */
+    private static boolean isRangeable(final P<?> predicate) {
+        if (predicate instanceof OrP) {
+            for (final P<?> p : ((OrP<?>) predicate).getPredicates()) {
+                if (!isRangeable(p))
+                    return false;
+            }
+            return true;
+        }
+
+        final BiPredicate<?, ?> biPredicate = predicate.getBiPredicate();
+        if (null == predicate.getValue())
+            return false;
+        return (biPredicate instanceof Compare && biPredicate != Compare.neq) ||
+                (biPredicate == Text.startingWith && predicate.getValue() instanceof String);
+    }
+
+    /**
+     * A range of an ordered index, either bounded by values or by a {@code String} prefix.
+     */
+    private static final class Range {
+        private final Object from;
+        private final boolean fromInclusive;
+        private final Object to;
+        private final boolean toInclusive;
+        private final String prefix;
+
+        private Range(final Object from, final boolean fromInclusive, final Object to, final boolean toInclusive) {
+            this.from = from;
+            this.fromInclusive = fromInclusive;
+            this.to = to;
+            this.toInclusive = toInclusive;
+            this.prefix = null;
+        }
+
+        private Range(final String prefix) {
+            this.from = null;
+            this.fromInclusive = false;
+            this.to = null;
+            this.toInclusive = false;
+            this.prefix = prefix;
+        }
+
+        private long count(final TinkerIndex<?> index, final String key, final long limit) {
+            return null == this.prefix ?
+                    index.countRange(key, this.from, this.fromInclusive, this.to, this.toInclusive, limit) :
+                    index.countPrefix(key, this.prefix, limit);
+        }
+
+        private List<? extends Element> get(final TinkerIndex<?> index, final String key) {
+            return null == this.prefix ?
+                    index.getRange(key, this.from, this.fromInclusive, this.to, this.toInclusive) :
+                    index.getPrefix(key, this.prefix);
+        }
+
+        private <E> long count(final NavigableMap<Object, Set<E>> keyMap, final long limit) {
+            final long[] count = {0};
+            this.forEach(keyMap, set -> (count[0] += set.size()) <= limit);
+            return count[0];
+        }
+
+        private <E> void forEach(final NavigableMap<Object, Set<E>> keyMap, final Predicate<Set<E>> visitor) {
+            if (null == this.prefix)
+                TinkerIndex.forEachInRange(keyMap, this.from, this.fromInclusive, this.to, this.toInclusive, visitor);
+            else
+                TinkerIndex.forEachWithPrefix(keyMap, this.prefix, visitor);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A point-in-time summary of the values held by a {@link TinkerGraph} index for a single property key, as returned
+ * by {@link TinkerGraph#getIndexStatistics(String, Class, int)}.
+ */
+public final class TinkerIndexStatistics {
+
+    private final String key;
+    private final boolean ordered;
+    private final long distinctValues;
+    private final long entries;
+    private final Map<Object, Long> heavyHitters;
+
+    TinkerIndexStatistics(final String key, final boolean ordered, final long distinctValues, final long entries,
+                          final Map<Object, Long> heavyHitters) {
+        this.key = key;
+        this.ordered = ordered;
+        this.distinctValues = distinctValues;
+        this.entries = entries;
+        this.heavyHitters = Collections.unmodifiableMap(heavyHitters);
+    }
+
+    /**
+     * The indexed property key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Determines if the index keeps its values sorted.
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * The number of distinct values in the index.
+     */
+    public long getDistinctValues() {
+        return distinctValues;
+    }
+
+    /**
+     * The number of element entries in the index across all values.
+     */
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * The values with the most elements mapped to their element counts in descending order of count.
+     */
+    public Map<Object, Long> getHeavyHitters() {
+        return heavyHitters;
+    }
+
+    /**
+     * The average number of elements per distinct value.
+     */
+    public double getAverageBucketSize() {
+        return 0 == distinctValues ? 0d : (double) entries / distinctValues;
+    }
+
+    @Override
+    public String toString() {
+        return "TinkerIndexStatistics[key=" + key + ", ordered=" + ordered + ", distinctValues=" + distinctValues +
+                ", entries=" + entries + ", heavyHitters=" + heavyHitters + "]";
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A {@code Map} of elements keyed by primitive {@code long} identifiers which is used as the element storage of a
+ * {@link TinkerGraph} when {@link TinkerGraph#GREMLIN_TINKERGRAPH_LONG_ID_STORAGE} is enabled. Keys live in a
+ * {@code long[]} and values in a parallel array addressed by linear probing, so there is neither a boxed key nor an
+ * entry object per element. Removed slots are marked rather than shifted, which keeps iteration stable while the
+ * iterating thread removes elements.
+ * <p/>
+ * Writes are serialized and reads use an optimistic {@link StampedLock} stamp, so lookups remain lock-free unless they
+ * race with a write. Iterators are weakly consistent in the same sense as those of a {@code ConcurrentHashMap}: they
+ * never throw {@code ConcurrentModificationException} and may or may not reflect writes made after their creation.
+ */
+final class TinkerLongKeyedMap<E> extends AbstractMap<Object, E> {
+
+    private static final Object REMOVED = new Object();
+    private static final int MIN_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+    private volatile Table table = new Table(MIN_CAPACITY);
+    private volatile int size = 0;
+
+    /**
+     * The number of slots that are either live or marked as removed.
+     */
+    private int used = 0;
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return 0 == this.size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return null != get(key);
+    }
+
+    @Override
+    public E get(final Object key) {
+        return key instanceof Long ? get(((Long) key).longValue()) : null;
+    }
+
+    public E get(final long key) {
+        long stamp = this.lock.tryOptimisticRead();
+        E value = find(this.table, key);
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                value = find(this.table, key);
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public E put(final Object key, final E value) {
+        return put(key, value, false);
+    }
+
+    @Override
+    public E putIfAbsent(final Object key, final E value) {
+        return put(key, value, true);
+    }
+
+    private E put(final Object key, final E value, final boolean onlyIfAbsent) {
+        if (!(key instanceof Long))
+            throw new IllegalArgumentException(String.format("Expected an id of type %s but received %s", Long.class, null == key ? null : key.getClass()));
+        if (null == value)
+            throw new NullPointerException("The value of a TinkerLongKeyedMap entry may not be null");
+
+        final long k = (Long) key;
+        final long stamp = this.lock.writeLock();
+        try {
+            Table t = this.table;
+            final int existing = slot(t, k);
+            if (existing >= 0) {
+                final E old = (E) t.values[existing];
+                if (!onlyIfAbsent) t.values[existing] = value;
+                return old;
+            }
+
+            if ((this.used + 1) * 4 > t.keys.length * 3) {
+                t = rehash(t, this.size + 1);
+                this.table = t;
+                this.used = this.size;
+            }
+
+            final int mask = t.keys.length - 1;
+            int i = index(k, mask);
+            while (null != t.values[i]) {
+                i = (i + 1) & mask;
+            }
+            t.keys[i] = k;
+            t.values[i] = value;
+            this.used++;
+            this.size++;
+            return null;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public E remove(final Object key) {
+        if (!(key instanceof Long)) return null;
+
+        final long stamp = this.lock.writeLock();
+        try {
+            final Table t = this.table;
+            final int i = slot(t, (Long) key);
+            if (i < 0) return null;
+            final E old = (E) t.values[i];
+            t.values[i] = REMOVED;
+            this.size--;
+            return old;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Grows the table up front so that it can hold {@code expected} entries without rehashing along the way.
+     */
+    public void ensureCapacity(final int expected) {
+        final long stamp = this.lock.writeLock();
+        try {
+            if (expected * 4 > this.table.keys.length * 3) {
+                this.table = rehash(this.table, expected);
+                this.used = this.size;
+            }
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        final long stamp = this.lock.writeLock();
+        try {
+            this.table = new Table(MIN_CAPACITY);
+            this.used = 0;
+            this.size = 0;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Collection<E> values() {
+        return new AbstractCollection<E>() {
+            @Override
+            public Iterator<E> iterator() {
+                return new SlotIterator<E>() {
+                    @Override
+                    E get(final long key, final E value) {
+                        return value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return TinkerLongKeyedMap.this.size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<Object, E>> entrySet() {
+        return new AbstractSet<Map.Entry<Object, E>>() {
+            @Override
+            public Iterator<Map.Entry<Object, E>> iterator() {
+                return new SlotIterator<Map.Entry<Object, E>>() {
+                    @Override
+                    Map.Entry<Object, E> get(final long key, final E value) {
+                        return new SimpleImmutableEntry<>(key, value);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return TinkerLongKeyedMap.this.size;
+            }
+        };
+    }
+
+    private static <E> E find(final Table table, final long key) {
+        final long[] keys = table.keys;
+        final Object[] values = table.values;
+        final int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (true) {
+            final Object value = values[i];
+            if (null == value) return null;
+            if (keys[i] == key && value != REMOVED) return (E) value;
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Finds the slot holding the live entry for the key or returns -1. Only called while holding the write lock.
+     */
+    private static int slot(final Table table, final long key) {
+        final int mask = table.keys.length - 1;
+        int i = index(key, mask);
+        while (true) {
+            final Object value = table.values[i];
+            if (null == value) return -1;
+            if (table.keys[i] == key && value != REMOVED) return i;
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Copies the live entries into a fresh table sized for the expected number of entries, dropping removed slots.
+     * The old table is left untouched so that iterators created before the rehash can finish walking it.
+     */
+    private static Table rehash(final Table table, final int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+        final Table rehashed = new Table(capacity);
+        final int mask = capacity - 1;
+        for (int j = 0; j < table.keys.length; j++) {
+            final Object value = table.values[j];
+            if (null == value || value == REMOVED) continue;
+            int i = index(table.keys[j], mask);
+            while (null != rehashed.values[i]) {
+                i = (i + 1) & mask;
+            }
+            rehashed.keys[i] = table.keys[j];
+            rehashed.values[i] = value;
+        }
+        return rehashed;
+    }
+
+    private static int index(final long key, final int mask) {
+        int h = (int) (key ^ (key >>> 32));
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h & mask;
+    }
+
+    private static final class Table {
+        private final long[] keys;
+        private final Object[] values;
+
+        private Table(final int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+    }
+
+    private abstract class SlotIterator<R> implements Iterator<R> {
+        private final Table table = TinkerLongKeyedMap.this.table;
+        private int position = -1;
+        private long nextKey;
+        private E nextValue;
+        private long lastKey;
+        private boolean canRemove = false;
+
+        private SlotIterator() {
+            advance();
+        }
+
+        abstract R get(final long key, final E value);
+
+        private void advance() {
+            final Object[] values = this.table.values;
+            this.nextValue = null;
+            while (++this.position < values.length) {
+                final Object value = values[this.position];
+                if (null != value && value != REMOVED) {
+                    this.nextKey = this.table.keys[this.position];
+                    this.nextValue = (E) value;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return null != this.nextValue;
+        }
+
+        @Override
+        public R next() {
+            if (null == this.nextValue) throw new NoSuchElementException();
+            final R result = get(this.nextKey, this.nextValue);
+            this.lastKey = this.nextKey;
+            this.canRemove = true;
+            advance();
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            if (!this.canRemove) throw new IllegalStateException();
+            TinkerLongKeyedMap.this.remove(this.lastKey);
+            this.canRemove = false;
+        }
+    }
+}
@@ -79,11 +79,18 @@ public final class TinkerProperty<V> implements Property<V> {
 
     @Override
     public void remove() {
-        if (this.element instanceof Edge) {
-            ((TinkerEdge) this.element).properties.remove(this.key);
-            TinkerHelper.removeIndex((TinkerEdge) this.element, this.key, this.value);
-        } else {
-            ((TinkerVertexProperty) this.element).properties.remove(this.key);
+        final TinkerGraph graph = (TinkerGraph) this.element.graph();
+        graph.beginMutation();
+        try {
+            if (this.element instanceof Edge) {
+                ((TinkerEdge) this.element).mutablePropertyMap().remove(this.key);
+                TinkerHelper.removeIndex((TinkerEdge) this.element, this.key, this.value);
+            } else {
+                ((TinkerVertexProperty) this.element).mutablePropertyMap().remove(this.key);
+            }
+            if (null != graph.graphLog && !TinkerHelper.inComputerMode(graph)) graph.graphLog.removeProperty(this);
+        } finally {
+            graph.endMutation();
         }
     }
 }
@@ -0,0 +1,615 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.util.AbstractThreadLocalTransaction;
+import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+import org.apache.tinkerpop.gremlin.structure.util.TransactionException;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The snapshot isolation {@link org.apache.tinkerpop.gremlin.structure.Transaction} of a {@link TinkerGraph} that
+ * was opened with {@link TinkerGraph#GREMLIN_TINKERGRAPH_TRANSACTIONAL} enabled. A transaction is bound to the
+ * thread that opened it and reads the graph as of the last commit before it was opened by following the
+ * {@link TinkerVersion} chains of the elements, so that readers take no locks and never see a commit that is only
+ * partially applied. Changes are kept private to the transaction until it commits through a single commit pipeline,
+ * which fails with a {@link TransactionException} if another transaction committed a change to one of the same
+ * elements since this one was opened and otherwise makes all of the changes visible to the transactions that are
+ * opened afterwards at once. Versions that no open transaction can read anymore, along with removed elements, are
+ * released by later commits.
+ */
+public final class TinkerTransaction extends AbstractThreadLocalTransaction {
+
+    private final TinkerGraph graph;
+    private final ThreadLocal<Context> threadContext = new ThreadLocal<>();
+    private final Set<Context> openContexts = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Deque<Retired> retired = new ArrayDeque<>();
+
+    private volatile long committedVersion = 0L;
+
+    /**
+     * The oldest snapshot that versions were kept for when versions were last released. Transactions must not read
+     * an older snapshot.
+     */
+    private volatile long horizon = 0L;
+
+    /**
+     * Incremented before and after a commit is applied to the shared state of the graph, so that it is odd while a
+     * commit is in progress.
+     */
+    private volatile long commitSequence = 0L;
+
+    TinkerTransaction(final TinkerGraph graph) {
+        super(graph);
+        this.graph = graph;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return null != this.threadContext.get();
+    }
+
+    @Override
+    protected void doOpen() {
+        Context context = new Context(this.committedVersion);
+        this.openContexts.add(context);
+
+        // a commit that released versions concurrently may not have seen the snapshot so take a more recent one
+        while (context.snapshot < this.horizon) {
+            this.openContexts.remove(context);
+            context = new Context(this.committedVersion);
+            this.openContexts.add(context);
+        }
+        this.threadContext.set(context);
+    }
+
+    @Override
+    protected void doCommit() throws TransactionException {
+        final Context context = this.threadContext.get();
+        try {
+            if (context.writes.isEmpty())
+                return;
+
+            this.commitLock.lock();
+            try {
+                release();
+                validate(context);
+                apply(context);
+            } finally {
+                this.commitLock.unlock();
+            }
+        } finally {
+            close(context);
+        }
+    }
+
+    @Override
+    protected void doRollback() throws TransactionException {
+        close(this.threadContext.get());
+    }
+
+    private void close(final Context context) {
+        this.openContexts.remove(context);
+        this.threadContext.remove();
+    }
+
+    /**
+     * Runs the {@code action} while no transaction can commit and with the current thread reading the latest commit
+     * instead of the snapshot of its own transaction, which is restored afterwards.
+     */
+    void exclusive(final Runnable action) {
+        this.commitLock.lock();
+        final Context context = this.threadContext.get();
+        try {
+            this.threadContext.set(new Context(this.committedVersion));
+            action.run();
+        } finally {
+            if (null == context)
+                this.threadContext.remove();
+            else
+                this.threadContext.set(context);
+            this.commitLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a {@code lookup} against the indices of the graph, which always reflect the latest commit, and returns
+     * its result or {@code null} if the transaction of the current thread may see a different state of the graph.
+     */
+    <R> R lookup(final Supplier<R> lookup) {
+        final Context context = context();
+        final long sequence = this.commitSequence;
+        if ((sequence & 1L) == 1L || context.snapshot != this.committedVersion || !context.writes.isEmpty())
+            return null;
+        final R result = lookup.get();
+        return sequence == this.commitSequence ? result : null;
+    }
+
+    /**
+     * Discards the transaction of the current thread and the versions kept for older snapshots as the graph is
+     * cleared.
+     */
+    void clear() {
+        this.commitLock.lock();
+        try {
+            if (isOpen()) close(this.threadContext.get());
+            this.retired.clear();
+        } finally {
+            this.commitLock.unlock();
+        }
+    }
+
+    ////////////// READS //////////////////
+
+    boolean isVisible(final TinkerElement element) {
+        return isVisible(context(), element);
+    }
+
+    /**
+     * Gets the properties of the {@code element} as seen by the transaction of the current thread or {@code null} if
+     * it has none or is not visible to the transaction.
+     */
+    <M extends Map<String, ?>> M properties(final TinkerElement element) {
+        final Context context = context();
+        final Write write = context.writes.get(element);
+        if (null != write)
+            return write.removed ? null : (M) write.properties;
+        final TinkerVersion version = versionAt(element, context.snapshot);
+        return null == version || version.removed ? null : (M) version.properties;
+    }
+
+    Vertex vertex(final Object id) {
+        return element(this.graph.vertices, context().addedVertices, id);
+    }
+
+    Edge edge(final Object id) {
+        return element(this.graph.edges, context().addedEdges, id);
+    }
+
+    Iterator<Vertex> vertices() {
+        return elements(this.graph.vertices, context().addedVertices);
+    }
+
+    Iterator<Edge> edges() {
+        return elements(this.graph.edges, context().addedEdges);
+    }
+
+    /**
+     * Removes the edges from the incident {@code edges} of the {@code vertex} that are not visible to the
+     * transaction of the current thread and adds the ones that the transaction added.
+     */
+    void incidentEdges(final TinkerVertex vertex, final Direction direction, final String[] edgeLabels, final List<Edge> edges) {
+        final Context context = context();
+        edges.removeIf(edge -> !isVisible(context, (TinkerElement) edge));
+        if (direction != Direction.IN)
+            addIncidentEdges(context, context.addedOutEdges.get(vertex), edgeLabels, edges);
+        if (direction != Direction.OUT)
+            addIncidentEdges(context, context.addedInEdges.get(vertex), edgeLabels, edges);
+    }
+
+    private static void addIncidentEdges(final Context context, final List<Edge> added, final String[] edgeLabels, final List<Edge> edges) {
+        if (null == added)
+            return;
+        for (final Edge edge : added) {
+            if ((0 == edgeLabels.length || ElementHelper.keyExists(edge.label(), edgeLabels)) && isVisible(context, (TinkerElement) edge))
+                edges.add(edge);
+        }
+    }
+
+    private <E extends Element> E element(final Map<Object, E> committed, final Map<Object, E> added, final Object id) {
+        final Context context = context();
+        final E element = committed.get(id);
+        if (null != element && isVisible(context, (TinkerElement) element))
+            return element;
+        final E addedElement = added.get(id);
+        return null != addedElement && isVisible(context, (TinkerElement) addedElement) ? addedElement : null;
+    }
+
+    private <E extends Element> Iterator<E> elements(final Map<Object, E> committed, final Map<Object, E> added) {
+        final Context context = context();
+        final Iterator<E> iterator = IteratorUtils.filter(committed.values().iterator(), element -> isVisible(context, (TinkerElement) element));
+        return added.isEmpty() ?
+                iterator :
+                IteratorUtils.concat(iterator, IteratorUtils.filter(new ArrayList<>(added.values()).iterator(),
+                        element -> isVisible(context, (TinkerElement) element)));
+    }
+
+    private static boolean isVisible(final Context context, final TinkerElement element) {
+        final Write write = context.writes.get(element);
+        if (null != write)
+            return !write.removed;
+        final TinkerVersion version = versionAt(element, context.snapshot);
+        return null != version && !version.removed;
+    }
+
+    private static TinkerVersion versionAt(final TinkerElement element, final long snapshot) {
+        TinkerVersion version = element.versions;
+        while (null != version && version.version > snapshot) {
+            version = version.previous;
+        }
+        return version;
+    }
+
+    ////////////// WRITES //////////////////
+
+    /**
+     * Gets the properties of the {@code element} that the transaction of the current thread may modify, copying
+     * them from the version that it sees on the first modification.
+     */
+    <M extends Map<String, ?>> M mutableProperties(final TinkerElement element) {
+        final Write write = write(context(), element);
+        if (!write.copied) {
+            final Map<String, Object> copy = new HashMap<>();
+            if (null != write.properties) {
+                // the lists of vertex properties are modified in place so they are copied as well
+                write.properties.forEach((key, value) -> copy.put(key, value instanceof List ? new ArrayList<>((List<?>) value) : value));
+            }
+            write.properties = copy;
+            write.copied = true;
+        }
+        return (M) write.properties;
+    }
+
+    /**
+     * Adds an element that was just created to the transaction of the current thread.
+     */
+    void add(final TinkerElement element) {
+        final Context context = context();
+        final Write write = new Write(true);
+        context.writes.put(element, write);
+        context.order.add(element);
+        if (element instanceof TinkerVertex) {
+            context.addedVertices.put(element.id, (Vertex) element);
+        } else if (element instanceof TinkerEdge) {
+            final TinkerEdge edge = (TinkerEdge) element;
+            context.addedEdges.put(edge.id, edge);
+            context.addedOutEdges.computeIfAbsent((TinkerVertex) edge.outVertex, v -> new ArrayList<>()).add(edge);
+            context.addedInEdges.computeIfAbsent((TinkerVertex) edge.inVertex, v -> new ArrayList<>()).add(edge);
+        }
+    }
+
+    void remove(final TinkerElement element) {
+        write(context(), element).removed = true;
+    }
+
+    private static Write write(final Context context, final TinkerElement element) {
+        Write write = context.writes.get(element);
+        if (null == write) {
+            write = new Write(false);
+            final TinkerVersion version = versionAt(element, context.snapshot);
+            write.properties = null == version ? null : (Map<String, Object>) version.properties;
+            context.writes.put(element, write);
+            context.order.add(element);
+        }
+        return write;
+    }
+
+    ////////////// COMMIT //////////////////
+
+    /**
+     * Releases the versions and removed elements that are older than the snapshot of any open transaction.
+     */
+    private void release() {
+        long horizon = this.committedVersion;
+        for (final Context context : this.openContexts) {
+            horizon = Math.min(horizon, context.snapshot);
+        }
+        this.horizon = horizon;
+
+        // a transaction that opened meanwhile either sees the horizon and takes a later snapshot or is seen here
+        for (final Context context : this.openContexts) {
+            horizon = Math.min(horizon, context.snapshot);
+        }
+
+        while (!this.retired.isEmpty() && this.retired.peekFirst().version <= horizon) {
+            final TinkerElement element = this.retired.pollFirst().element;
+            final TinkerVersion version = versionAt(element, horizon);
+            if (null == version)
+                continue;
+            version.previous = null;
+            if (version.removed && !element.removed) {
+                if (element instanceof TinkerVertex) {
+                    if (this.graph.vertices.get(element.id) == element)
+                        this.graph.vertices.remove(element.id);
+                } else if (element instanceof TinkerEdge) {
+                    if (this.graph.edges.get(element.id) == element)
+                        this.graph.edges.remove(element.id);
+                    removeIncidentEdge((TinkerEdge) element);
+                }
+                element.removed = true;
+            }
+        }
+    }
+
+    /**
+     * Takes a removed element out of the graph for good when an element with the same id is added, in which case
+     * transactions with an older snapshot stop seeing it before its version is released.
+     */
+    private void displace(final TinkerElement element) {
+        if (element.removed)
+            return;
+        if (element instanceof TinkerEdge)
+            removeIncidentEdge((TinkerEdge) element);
+        element.removed = true;
+    }
+
+    private static void removeIncidentEdge(final TinkerEdge edge) {
+        removeIncidentEdge(((TinkerVertex) edge.outVertex).outEdges, edge);
+        removeIncidentEdge(((TinkerVertex) edge.inVertex).inEdges, edge);
+    }
+
+    private static void removeIncidentEdge(final Map<String, Set<Edge>> incidentEdges, final TinkerEdge edge) {
+        if (null == incidentEdges)
+            return;
+        final Set<Edge> edges = incidentEdges.get(edge.label);
+        if (null != edges)
+            edges.remove(edge);
+    }
+
+    /**
+     * Fails the commit if another transaction committed a change to an element that the {@code context} changes
+     * since its snapshot.
+     */
+    private void validate(final Context context) {
+        for (final TinkerElement element : context.order) {
+            final Write write = context.writes.get(element);
+            if (write.added) {
+                if (write.removed)
+                    continue;
+                if (element instanceof TinkerVertex) {
+                    validateId(context, this.graph.vertices.get(element.id), Vertex.class, element.id);
+                } else if (element instanceof TinkerEdge) {
+                    final TinkerEdge edge = (TinkerEdge) element;
+                    validateId(context, this.graph.edges.get(edge.id), Edge.class, edge.id);
+                    validateIncidentVertex(context, (TinkerVertex) edge.outVertex);
+                    validateIncidentVertex(context, (TinkerVertex) edge.inVertex);
+                }
+            } else {
+                final TinkerVersion latest = element.versions;
+                if (null == latest || latest.version > context.snapshot)
+                    throw concurrentModification(element);
+                if (write.removed && element instanceof TinkerVertex) {
+                    validateIncidentEdges(context, ((TinkerVertex) element).outEdges);
+                    validateIncidentEdges(context, ((TinkerVertex) element).inEdges);
+                }
+            }
+        }
+    }
+
+    private static void validateId(final Context context, final Element existing, final Class<? extends Element> clazz, final Object id) {
+        if (null == existing)
+            return;
+        final Write write = context.writes.get(existing);
+        if ((null == write || !write.removed) && !((TinkerElement) existing).versions.removed)
+            throw new TransactionException(String.format("%s with id %s was added by a concurrent transaction", clazz.getSimpleName(), id));
+    }
+
+    private static void validateIncidentVertex(final Context context, final TinkerVertex vertex) {
+        final Write write = context.writes.get(vertex);
+        if ((null == write || !write.added) && (null == vertex.versions || vertex.versions.removed))
+            throw concurrentModification(vertex);
+    }
+
+    private static void validateIncidentEdges(final Context context, final Map<String, Set<Edge>> incidentEdges) {
+        if (null == incidentEdges)
+            return;
+        for (final Set<Edge> edges : incidentEdges.values()) {
+            for (final Edge edge : edges) {
+                final TinkerVersion version = ((TinkerElement) edge).versions;
+                if (version.version > context.snapshot && !version.removed && !context.writes.containsKey(edge))
+                    throw concurrentModification((TinkerElement) edge);
+            }
+        }
+    }
+
+    private static TransactionException concurrentModification(final TinkerElement element) {
+        final String type = element instanceof Vertex ? Vertex.class.getSimpleName() :
+                element instanceof Edge ? Edge.class.getSimpleName() : VertexProperty.class.getSimpleName();
+        return new TransactionException(String.format("%s with id %s was modified by a concurrent transaction", type, element.id));
+    }
+
+    /**
+     * Applies the changes of the {@code context} to the graph as a new version, which becomes visible to other
+     * transactions when it is published as the committed version at the end.
+     */
+    private void apply(final Context context) {
+        final long version = this.committedVersion + 1;
+        this.commitSequence++;
+        try {
+            for (final TinkerElement element : context.order) {
+                final Write write = context.writes.get(element);
+                if (write.added) {
+                    if (!write.removed)
+                        applyAdd(element, write, version);
+                } else if (write.removed) {
+                    applyRemove(element, version);
+                } else if (write.copied) {
+                    final TinkerVersion previous = element.versions;
+                    updateIndex(element, previous.properties, write.properties);
+                    element.versions = new TinkerVersion(version, false, write.properties, previous);
+                    this.retired.addLast(new Retired(version, element));
+                }
+            }
+        } finally {
+            this.committedVersion = version;
+            this.commitSequence++;
+        }
+    }
+
+    private void applyAdd(final TinkerElement element, final Write write, final long version) {
+        element.versions = new TinkerVersion(version, false, write.properties, null);
+        if (element instanceof TinkerVertex) {
+            final TinkerVertex vertex = (TinkerVertex) element;
+            final Vertex existing = this.graph.vertices.put(vertex.id, vertex);
+            if (null != existing) displace((TinkerElement) existing);
+            TinkerHelper.addLabelIndex(this.graph.vertexLabelIndex, vertex);
+            updateIndex(vertex, null, write.properties);
+        } else if (element instanceof TinkerEdge) {
+            final TinkerEdge edge = (TinkerEdge) element;
+            if (null != this.graph.edgeIndex)
+                this.graph.edgeIndex.add(T.label.getAccessor(), edge.label, edge);
+            updateIndex(edge, null, write.properties);
+            final Edge existing = this.graph.edges.put(edge.id, edge);
+            if (null != existing) displace((TinkerElement) existing);
+            TinkerHelper.addLabelIndex(this.graph.edgeLabelIndex, edge);
+            TinkerHelper.addOutEdge((TinkerVertex) edge.outVertex, edge.label, edge);
+            TinkerHelper.addInEdge((TinkerVertex) edge.inVertex, edge.label, edge);
+        }
+    }
+
+    private void applyRemove(final TinkerElement element, final long version) {
+        if (element instanceof TinkerVertex) {
+            final TinkerVertex vertex = (TinkerVertex) element;
+            if (null != this.graph.vertexIndex)
+                this.graph.vertexIndex.removeElement(vertex);
+            TinkerHelper.removeLabelIndex(this.graph.vertexLabelIndex, vertex);
+        } else if (element instanceof TinkerEdge) {
+            final TinkerEdge edge = (TinkerEdge) element;
+            if (null != this.graph.edgeIndex)
+                this.graph.edgeIndex.removeElement(edge);
+            TinkerHelper.removeLabelIndex(this.graph.edgeLabelIndex, edge);
+        }
+
+        // the element stays in the graph for older snapshots until the version is released
+        element.versions = new TinkerVersion(version, true, null, element.versions);
+        this.retired.addLast(new Retired(version, element));
+    }
+
+    /**
+     * Moves the {@code element} in the key and composite indices from the values of its properties {@code before}
+     * the commit to the values {@code after} it. The composite indices read the values of the element from the
+     * transaction that is being committed.
+     */
+    private void updateIndex(final TinkerElement element, final Map<String, ?> before, final Map<String, ?> after) {
+        final TinkerIndex index = element instanceof TinkerVertex ? this.graph.vertexIndex :
+                element instanceof TinkerEdge ? this.graph.edgeIndex : null;
+        if (null == index)
+            return;
+
+        final Set<String> keys = new HashSet<>();
+        if (null != before) keys.addAll(before.keySet());
+        if (null != after) keys.addAll(after.keySet());
+        for (final String key : keys) {
+            final Set<Object> oldValues = values(before, key);
+            final Set<Object> newValues = values(after, key);
+            if (oldValues.equals(newValues))
+                continue;
+            for (final Object value : oldValues) {
+                if (!newValues.contains(value))
+                    index.remove(key, value, element);
+            }
+            for (final Object value : newValues) {
+                if (!oldValues.contains(value))
+                    index.add(key, value, element);
+            }
+        }
+    }
+
+    private static Set<Object> values(final Map<String, ?> properties, final String key) {
+        final Object property = null == properties ? null : properties.get(key);
+        if (null == property)
+            return Collections.emptySet();
+
+        final Set<Object> values = new HashSet<>();
+        if (property instanceof Collection) {
+            for (final Object vertexProperty : (Collection<?>) property) {
+                values.add(((VertexProperty<?>) vertexProperty).value());
+            }
+        } else {
+            values.add(((Property<?>) property).value());
+        }
+        return values;
+    }
+
+    private Context context() {
+        readWrite();
+        return this.threadContext.get();
+    }
+
+    /**
+     * The snapshot and the private changes of a transaction.
+     */
+    private static final class Context {
+        private final long snapshot;
+        private final Map<TinkerElement, Write> writes = new IdentityHashMap<>();
+        private final List<TinkerElement> order = new ArrayList<>();
+        private final Map<Object, Vertex> addedVertices = new LinkedHashMap<>();
+        private final Map<Object, Edge> addedEdges = new LinkedHashMap<>();
+        private final Map<TinkerVertex, List<Edge>> addedOutEdges = new IdentityHashMap<>();
+        private final Map<TinkerVertex, List<Edge>> addedInEdges = new IdentityHashMap<>();
+
+        private Context(final long snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+
+    /**
+     * The change of a transaction to one element, where the properties are those of the version that the
+     * transaction read until they are copied on the first modification.
+     */
+    private static final class Write {
+        private final boolean added;
+        private Map<String, Object> properties;
+        private boolean copied;
+        private boolean removed;
+
+        private Write(final boolean added) {
+            this.added = added;
+        }
+    }
+
+    /**
+     * An element that has versions which may be released once no open transaction has a snapshot older than the
+     * version.
+     */
+    private static final class Retired {
+        private final long version;
+        private final TinkerElement element;
+
+        private Retired(final long version, final TinkerElement element) {
+            this.version = version;
+            this.element = element;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import java.util.Map;
+
+/**
+ * The state of a {@link TinkerElement} as written by one commit of a {@link TinkerTransaction}. The versions of an
+ * element form a chain from the most recent commit to older ones that is followed back to the newest version that
+ * is not younger than the snapshot of a transaction. A version is never changed once it is published except for
+ * cutting off the older versions that no open transaction can read anymore.
+ */
+final class TinkerVersion {
+
+    final long version;
+    final boolean removed;
+
+    /**
+     * The properties of the element which are a {@code Map<String, List<VertexProperty>>} for a {@link TinkerVertex}
+     * and a {@code Map<String, Property>} otherwise. The map is not modified after it is published.
+     */
+    final Map<String, ?> properties;
+
+    TinkerVersion previous;
+
+    TinkerVersion(final long version, final boolean removed, final Map<String, ?> properties, final TinkerVersion previous) {
+        this.version = version;
+        this.removed = removed;
+        this.properties = properties;
+        this.previous = previous;
+    }
+}
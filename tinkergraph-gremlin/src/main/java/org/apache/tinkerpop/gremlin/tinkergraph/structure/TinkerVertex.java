@@ -45,6 +45,10 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
     protected Map<String, List<VertexProperty>> properties;
     protected Map<String, Set<Edge>> outEdges;
     protected Map<String, Set<Edge>> inEdges;
+    protected TinkerVertexCentricIndex outEdgeIndex;
+    protected TinkerVertexCentricIndex inEdgeIndex;
+    protected int ordinal = -1;
+    protected int computeOrdinal = -1;
     private final TinkerGraph graph;
     private boolean allowNullPropertyValues;
 
@@ -71,8 +75,9 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
             else
                 throw Vertex.Exceptions.multiplePropertiesExistForProvidedKey(key);
         } else {
-            if (this.properties != null && this.properties.containsKey(key)) {
-                final List<VertexProperty> list = (List) this.properties.get(key);
+            final Map<String, List<VertexProperty>> properties = this.propertyMap();
+            if (properties != null && properties.containsKey(key)) {
+                final List<VertexProperty> list = (List) properties.get(key);
                 if (list.size() > 1)
                     throw Vertex.Exceptions.multiplePropertiesExistForProvidedKey(key);
                 else
@@ -84,7 +89,7 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
 
     @Override
     public <V> VertexProperty<V> property(final VertexProperty.Cardinality cardinality, final String key, final V value, final Object... keyValues) {
-        if (this.removed) throw elementAlreadyRemoved(Vertex.class, id);
+        if (this.isRemoved()) throw elementAlreadyRemoved(Vertex.class, id);
         ElementHelper.legalPropertyKeyValueArray(keyValues);
         ElementHelper.validateProperty(key, value);
 
@@ -97,6 +102,10 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
             return VertexProperty.empty();
         }
 
+        // a single value with no meta-properties replaces the slot of the compute key without a wrapper in between
+        if (TinkerHelper.inComputerMode(this.graph) && VertexProperty.Cardinality.single == cardinality && 0 == keyValues.length)
+            return this.graph.graphComputerView.setProperty(this, key, value);
+
         final Optional<Object> optionalId = ElementHelper.getIdValue(keyValues);
         final Optional<VertexProperty<V>> optionalVertexProperty = ElementHelper.stageVertexProperty(this, cardinality, key, value, keyValues);
         if (optionalVertexProperty.isPresent()) return optionalVertexProperty.get();
@@ -112,28 +121,35 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
 
             final VertexProperty<V> vertexProperty = new TinkerVertexProperty<V>(idValue, this, key, value);
 
-            if (null == this.properties) this.properties = new HashMap<>();
-            final List<VertexProperty> list = this.properties.getOrDefault(key, new ArrayList<>());
-            list.add(vertexProperty);
-            this.properties.put(key, list);
-            TinkerHelper.autoUpdateIndex(this, key, value, null);
-            ElementHelper.attachProperties(vertexProperty, keyValues);
+            this.graph.beginMutation();
+            try {
+                final Map<String, List<VertexProperty>> properties = this.mutablePropertyMap();
+                final List<VertexProperty> list = properties.getOrDefault(key, new ArrayList<>());
+                list.add(vertexProperty);
+                properties.put(key, list);
+                TinkerHelper.autoUpdateIndex(this, key, value, null);
+                if (null != this.graph.graphLog) this.graph.graphLog.addVertexProperty(vertexProperty);
+                ElementHelper.attachProperties(vertexProperty, keyValues);
+            } finally {
+                this.graph.endMutation();
+            }
             return vertexProperty;
         }
     }
 
     @Override
     public Set<String> keys() {
-        if (null == this.properties) return Collections.emptySet();
+        final Map<String, List<VertexProperty>> properties = this.propertyMap();
+        if (null == properties) return Collections.emptySet();
         return TinkerHelper.inComputerMode((TinkerGraph) graph()) ?
                 Vertex.super.keys() :
-                this.properties.keySet();
+                properties.keySet();
     }
 
     @Override
     public Edge addEdge(final String label, final Vertex vertex, final Object... keyValues) {
         if (null == vertex) throw Graph.Exceptions.argumentCanNotBeNull("vertex");
-        if (this.removed) throw elementAlreadyRemoved(Vertex.class, this.id);
+        if (this.isRemoved()) throw elementAlreadyRemoved(Vertex.class, this.id);
         return TinkerHelper.addEdge(this.graph, this, (TinkerVertex) vertex, label, keyValues);
     }
 
@@ -141,11 +157,23 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
     public void remove() {
         final List<Edge> edges = new ArrayList<>();
         this.edges(Direction.BOTH).forEachRemaining(edges::add);
-        edges.stream().filter(edge -> !((TinkerEdge) edge).removed).forEach(Edge::remove);
-        this.properties = null;
-        TinkerHelper.removeElementIndex(this);
-        this.graph.vertices.remove(this.id);
-        this.removed = true;
+        if (!edges.isEmpty() && this.graph.isFrozen()) throw Vertex.Exceptions.vertexRemovalNotSupported();
+        edges.stream().filter(edge -> !((TinkerEdge) edge).isRemoved()).forEach(Edge::remove);
+        if (null != this.graph.transaction) {
+            this.graph.transaction.remove(this);
+            return;
+        }
+        this.graph.beginMutation();
+        try {
+            this.properties = null;
+            TinkerHelper.removeElementIndex(this);
+            this.graph.vertices.remove(this.id);
+            TinkerHelper.removeLabelIndex(this.graph.vertexLabelIndex, this);
+            if (null != this.graph.graphLog) this.graph.graphLog.removeVertex(this);
+            this.removed = true;
+        } finally {
+            this.graph.endMutation();
+        }
     }
 
     @Override
@@ -176,11 +204,12 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
     public <V> Iterator<VertexProperty<V>> properties(final String... propertyKeys) {
         if (this.removed) return Collections.emptyIterator();
         if (TinkerHelper.inComputerMode((TinkerGraph) graph()))
-            return (Iterator) ((TinkerGraph) graph()).graphComputerView.getProperties(TinkerVertex.this).stream().filter(p -> ElementHelper.keyExists(p.key(), propertyKeys)).iterator();
+            return (Iterator) ((TinkerGraph) graph()).graphComputerView.getProperties(TinkerVertex.this, propertyKeys).iterator();
         else {
-            if (null == this.properties) return Collections.emptyIterator();
+            final Map<String, List<VertexProperty>> propertyMap = this.propertyMap();
+            if (null == propertyMap) return Collections.emptyIterator();
             if (propertyKeys.length == 1) {
-                final List<VertexProperty> properties = this.properties.getOrDefault(propertyKeys[0], Collections.emptyList());
+                final List<VertexProperty> properties = propertyMap.getOrDefault(propertyKeys[0], Collections.emptyList());
                 if (properties.size() == 1) {
                     return IteratorUtils.of(properties.get(0));
                 } else if (properties.isEmpty()) {
@@ -189,7 +218,21 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
                     return (Iterator) new ArrayList<>(properties).iterator();
                 }
             } else
-                return (Iterator) this.properties.entrySet().stream().filter(entry -> ElementHelper.keyExists(entry.getKey(), propertyKeys)).flatMap(entry -> entry.getValue().stream()).collect(Collectors.toList()).iterator();
+                return (Iterator) propertyMap.entrySet().stream().filter(entry -> ElementHelper.keyExists(entry.getKey(), propertyKeys)).flatMap(entry -> entry.getValue().stream()).collect(Collectors.toList()).iterator();
         }
     }
+
+    /**
+     * Gets the properties of the vertex as seen by the transaction of the current thread when the graph is
+     * transactional.
+     */
+    Map<String, List<VertexProperty>> propertyMap() {
+        return null == this.graph.transaction ? this.properties : this.graph.transaction.properties(this);
+    }
+
+    Map<String, List<VertexProperty>> mutablePropertyMap() {
+        if (null != this.graph.transaction) return this.graph.transaction.mutableProperties(this);
+        if (null == this.properties) this.properties = new HashMap<>();
+        return this.properties;
+    }
 }
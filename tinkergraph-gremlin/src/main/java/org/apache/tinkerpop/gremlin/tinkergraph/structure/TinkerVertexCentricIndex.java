@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The incident edges of one {@link TinkerVertex} in one direction, grouped by edge label and sorted by their value for
+ * each key of a vertex-centric index as created with {@link TinkerGraph#createVertexCentricIndex(String, String)}.
+ * Values are ordered as in an ordered {@link TinkerIndex} and an edge without a value for a key is kept under the
+ * {@code null} value so that each key covers every edge with the label.
+ */
+final class TinkerVertexCentricIndex {
+
+    private final Map<String, Map<String, NavigableMap<Object, Set<Edge>>>> index = new HashMap<>();
+
+    synchronized void put(final String label, final String key, final Object value, final Edge edge) {
+        this.index.computeIfAbsent(label, l -> new HashMap<>())
+                .computeIfAbsent(key, k -> new TreeMap<>(TinkerIndex::compareIndexable))
+                .computeIfAbsent(TinkerIndex.indexable(value), v -> new HashSet<>())
+                .add(edge);
+    }
+
+    synchronized void remove(final String label, final String key, final Object value, final Edge edge) {
+        final NavigableMap<Object, Set<Edge>> keyMap = get(label, key);
+        if (null == keyMap)
+            return;
+        final Object indexable = TinkerIndex.indexable(value);
+        final Set<Edge> edges = keyMap.get(indexable);
+        if (null != edges && edges.remove(edge) && edges.isEmpty())
+            keyMap.remove(indexable);
+    }
+
+    synchronized void drop(final String label, final String key) {
+        final Map<String, NavigableMap<Object, Set<Edge>>> labelMap = this.index.get(label);
+        if (null != labelMap && null != labelMap.remove(key) && labelMap.isEmpty())
+            this.index.remove(label);
+    }
+
+    /**
+     * Gets the edges with the {@code label} keyed by their value for the {@code key} or {@code null} if there are
+     * none.
+     */
+    NavigableMap<Object, Set<Edge>> get(final String label, final String key) {
+        final Map<String, NavigableMap<Object, Set<Edge>>> labelMap = this.index.get(label);
+        return null == labelMap ? null : labelMap.get(key);
+    }
+}
@@ -30,6 +30,7 @@ import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -69,6 +70,8 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
         this.key = key;
         this.value = value;
         ElementHelper.legalPropertyKeyValueArray(propertyKeyValues);
+        final TinkerTransaction transaction = ((TinkerGraph) vertex.graph()).transaction;
+        if (null != transaction) transaction.add(this);
         ElementHelper.attachProperties(this, propertyKeyValues);
     }
 
@@ -105,17 +108,19 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
 
     @Override
     public Set<String> keys() {
-        return null == this.properties ? Collections.emptySet() : this.properties.keySet();
+        final Map<String, Property> properties = this.propertyMap();
+        return null == properties ? Collections.emptySet() : properties.keySet();
     }
 
     @Override
     public <U> Property<U> property(final String key) {
-        return null == this.properties ? Property.<U>empty() : this.properties.getOrDefault(key, Property.<U>empty());
+        final Map<String, Property> properties = this.propertyMap();
+        return null == properties ? Property.<U>empty() : properties.getOrDefault(key, Property.<U>empty());
     }
 
     @Override
     public <U> Property<U> property(final String key, final U value) {
-        if (this.removed) throw elementAlreadyRemoved(VertexProperty.class, id);
+        if (this.isRemoved()) throw elementAlreadyRemoved(VertexProperty.class, id);
 
         if ((!allowNullPropertyValues && null == value)) {
             properties(key).forEachRemaining(Property::remove);
@@ -123,8 +128,14 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
         }
 
         final Property<U> property = new TinkerProperty<>(this, key, value);
-        if (this.properties == null) this.properties = new HashMap<>();
-        this.properties.put(key, property);
+        final TinkerGraph graph = (TinkerGraph) this.vertex.graph();
+        graph.beginMutation();
+        try {
+            this.mutablePropertyMap().put(key, property);
+            if (null != graph.graphLog && !TinkerHelper.inComputerMode(graph)) graph.graphLog.setProperty(property);
+        } finally {
+            graph.endMutation();
+        }
         return property;
     }
 
@@ -135,31 +146,60 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
 
     @Override
     public void remove() {
-        if (null != this.vertex.properties && this.vertex.properties.containsKey(this.key)) {
-            this.vertex.properties.get(this.key).remove(this);
-            if (this.vertex.properties.get(this.key).size() == 0) {
-                this.vertex.properties.remove(this.key);
-                TinkerHelper.removeIndex(this.vertex, this.key, this.value);
+        final Map<String, List<VertexProperty>> vertexProperties = this.vertex.propertyMap();
+        if (null != vertexProperties && vertexProperties.containsKey(this.key)) {
+            final TinkerGraph graph = (TinkerGraph) this.vertex.graph();
+            graph.beginMutation();
+            try {
+                final Map<String, List<VertexProperty>> mutableVertexProperties = this.vertex.mutablePropertyMap();
+                mutableVertexProperties.get(this.key).remove(this);
+                if (mutableVertexProperties.get(this.key).size() == 0) {
+                    mutableVertexProperties.remove(this.key);
+                    TinkerHelper.removeIndex(this.vertex, this.key, this.value);
+                }
+                final AtomicBoolean delete = new AtomicBoolean(true);
+                this.vertex.properties(this.key).forEachRemaining(property -> {
+                    final Object currentPropertyValue = property.value();
+                    if ((currentPropertyValue != null && currentPropertyValue.equals(this.value) || null == currentPropertyValue && null == this.value))
+                        delete.set(false);
+                });
+                if (delete.get()) TinkerHelper.removeIndex(this.vertex, this.key, this.value);
+                if (null != graph.graphLog) graph.graphLog.removeVertexProperty(this);
+                if (null != graph.transaction) {
+                    graph.transaction.remove(this);
+                    return;
+                }
+                this.properties = null;
+                this.removed = true;
+            } finally {
+                graph.endMutation();
             }
-            final AtomicBoolean delete = new AtomicBoolean(true);
-            this.vertex.properties(this.key).forEachRemaining(property -> {
-                final Object currentPropertyValue = property.value();
-                if ((currentPropertyValue != null && currentPropertyValue.equals(this.value) || null == currentPropertyValue && null == this.value))
-                    delete.set(false);
-            });
-            if (delete.get()) TinkerHelper.removeIndex(this.vertex, this.key, this.value);
-            this.properties = null;
-            this.removed = true;
         }
     }
 
     @Override
     public <U> Iterator<Property<U>> properties(final String... propertyKeys) {
-        if (null == this.properties) return Collections.emptyIterator();
+        final Map<String, Property> properties = this.propertyMap();
+        if (null == properties) return Collections.emptyIterator();
         if (propertyKeys.length == 1) {
-            final Property<U> property = this.properties.get(propertyKeys[0]);
+            final Property<U> property = properties.get(propertyKeys[0]);
             return null == property ? Collections.emptyIterator() : IteratorUtils.of(property);
         } else
-            return (Iterator) this.properties.entrySet().stream().filter(entry -> ElementHelper.keyExists(entry.getKey(), propertyKeys)).map(entry -> entry.getValue()).collect(Collectors.toList()).iterator();
+            return (Iterator) properties.entrySet().stream().filter(entry -> ElementHelper.keyExists(entry.getKey(), propertyKeys)).map(entry -> entry.getValue()).collect(Collectors.toList()).iterator();
+    }
+
+    /**
+     * Gets the meta-properties as seen by the transaction of the current thread when the graph is transactional.
+     */
+    Map<String, Property> propertyMap() {
+        final TinkerTransaction transaction = ((TinkerGraph) this.vertex.graph()).transaction;
+        return null == transaction ? this.properties : transaction.properties(this);
+    }
+
+    Map<String, Property> mutablePropertyMap() {
+        final TinkerTransaction transaction = ((TinkerGraph) this.vertex.graph()).transaction;
+        if (null != transaction) return transaction.mutableProperties(this);
+        if (null == this.properties) this.properties = new HashMap<>();
+        return this.properties;
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph;
+
+import org.apache.tinkerpop.gremlin.LoadGraphWith;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+import java.util.Map;
+
+/**
+ * Provides {@link TinkerGraph} instances with {@link TinkerGraph#GREMLIN_TINKERGRAPH_TRANSACTIONAL} enabled.
+ */
+@Graph.OptOut(
+        test = "org.apache.tinkerpop.gremlin.structure.io.IoCustomTest",
+        method = "shouldProperlySerializeCustomId",
+        specific = "graphson-v1-embedded",
+        reason = "GraphMigrator writes from another thread which cannot see the uncommitted vertex of the test")
+@Graph.OptOut(
+        test = "org.apache.tinkerpop.gremlin.structure.io.IoCustomTest",
+        method = "shouldProperlySerializeCustomId",
+        specific = "graphson-v2-embedded",
+        reason = "GraphMigrator writes from another thread which cannot see the uncommitted vertex of the test")
+@Graph.OptOut(
+        test = "org.apache.tinkerpop.gremlin.structure.io.IoCustomTest",
+        method = "shouldProperlySerializeCustomId",
+        specific = "graphson-v3",
+        reason = "GraphMigrator writes from another thread which cannot see the uncommitted vertex of the test")
+@Graph.OptOut(
+        test = "org.apache.tinkerpop.gremlin.structure.io.IoCustomTest",
+        method = "shouldProperlySerializeCustomId",
+        specific = "gryo-v1",
+        reason = "GraphMigrator writes from another thread which cannot see the uncommitted vertex of the test")
+@Graph.OptOut(
+        test = "org.apache.tinkerpop.gremlin.structure.io.IoCustomTest",
+        method = "shouldProperlySerializeCustomId",
+        specific = "gryo-v3",
+        reason = "GraphMigrator writes from another thread which cannot see the uncommitted vertex of the test")
+@Graph.OptOut(
+        test = "org.apache.tinkerpop.gremlin.structure.TransactionTest",
+        method = "shouldRollbackOnCloseByDefault",
+        reason = "The test leaves a lookup by id open which TinkerGraphIterator only counts as closed once it is exhausted")
+public class TinkerTransactionalGraphProvider extends TinkerGraphProvider {
+
+    @Override
+    public Map<String, Object> getBaseConfiguration(final String graphName, final Class<?> test, final String testMethodName,
+                                                    final LoadGraphWith.GraphData loadGraphWith) {
+        final Map<String, Object> configuration = super.getBaseConfiguration(graphName, test, testMethodName, loadGraphWith);
+        configuration.put(TinkerGraph.GREMLIN_TINKERGRAPH_TRANSACTIONAL, true);
+        return configuration;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerVertexStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.apache.tinkerpop.gremlin.process.traversal.P.eq;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.gt;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.lt;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(Parameterized.class)
+public class TinkerVertexStepStrategyTest {
+
+    @Parameterized.Parameter(value = 0)
+    public Traversal original;
+
+    @Parameterized.Parameter(value = 1)
+    public Traversal optimized;
+
+    @Parameterized.Parameter(value = 2)
+    public Collection<TraversalStrategy> otherStrategies;
+
+    @Test
+    public void doTest() {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(TinkerVertexStepStrategy.instance());
+        for (final TraversalStrategy strategy : this.otherStrategies) {
+            strategies.addStrategies(strategy);
+        }
+        this.original.asAdmin().setStrategies(strategies);
+        this.original.asAdmin().applyStrategies();
+        assertEquals(this.optimized, this.original);
+    }
+
+    private static GraphTraversal.Admin<?, ?> outE(final GraphTraversal<?, ?> traversal, final String label, final Object... hasKeyValues) {
+        return incident(traversal, label, null, false, -1, hasKeyValues);
+    }
+
+    private static GraphTraversal.Admin<?, ?> incident(final GraphTraversal<?, ?> traversal, final String label, final String orderKey,
+                                                       final boolean descending, final long limit, final Object... hasKeyValues) {
+        final GraphTraversal.Admin<?, ?> admin = traversal.asAdmin();
+        final TinkerVertexStep<Edge> vertexStep = new TinkerVertexStep<>(new VertexStep<>(admin, Edge.class, Direction.OUT, label));
+        for (int i = 0; i < hasKeyValues.length; i = i + 2) {
+            vertexStep.addHasContainer(new HasContainer((String) hasKeyValues[i], (P) hasKeyValues[i + 1]));
+        }
+        if (null != orderKey)
+            vertexStep.setOrder(orderKey, descending, limit);
+        return (GraphTraversal.Admin<?, ?>) admin.addStep(vertexStep);
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Iterable<Object[]> generateTestParameters() {
+        return Arrays.asList(new Object[][]{
+                {__.outE("rated").has("stars", gt(4)), outE(__.start(), "rated", "stars", gt(4)), Collections.emptyList()},
+                {__.outE("rated").has("stars", gt(4).and(lt(10))).has("ts", 1), outE(__.start(), "rated", "stars", gt(4), "stars", lt(10), "ts", eq(1)), Collections.emptyList()},
+                {__.outE("rated").has("stars", gt(4)).as("a").inV(), outE(__.start(), "rated", "stars", gt(4)).as("a").inV(), Collections.emptyList()},
+                {__.outE("rated").order().by("ts", Order.desc).limit(10),
+                        incident(__.start(), "rated", "ts", true, 10).order().by("ts", Order.desc).limit(10), Collections.emptyList()},
+                {__.outE("rated").has("stars", 5).order().by("ts").range(5, 10),
+                        incident(__.start(), "rated", "ts", false, 10, "stars", eq(5)).order().by("ts").range(5, 10), Collections.emptyList()},
+                {__.V().local(__.outE("rated").order().by("ts").limit(3)),
+                        __.V().local(incident(__.start(), "rated", "ts", false, 3).order().by("ts").limit(3)), Collections.emptyList()},
+                {__.outE("rated").has("stars", gt(4)).count(), outE(__.start(), "rated", "stars", gt(4)).count(),
+                        TraversalStrategies.GlobalCache.getStrategies(TinkerGraph.class).toList()},
+                ///////
+                {__.outE("rated"), __.outE("rated"), Collections.emptyList()},
+                {__.out("rated").has("stars", gt(4)), __.out("rated").has("stars", gt(4)), Collections.emptyList()},
+                {__.outE("rated").order().by("ts"), __.outE("rated").order().by("ts"), Collections.emptyList()},
+                {__.outE("rated").order().by("ts").by("stars").limit(3), __.outE("rated").order().by("ts").by("stars").limit(3), Collections.emptyList()},
+                {__.outE("rated").order().by(__.values("ts")).limit(3), __.outE("rated").order().by(__.values("ts")).limit(3), Collections.emptyList()},
+                {__.outE("rated").order().by("ts", Order.shuffle).limit(3), __.outE("rated").order().by("ts", Order.shuffle).limit(3), Collections.emptyList()},
+        });
+    }
+}
@@ -20,21 +20,50 @@ package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
 import org.apache.commons.configuration2.BaseConfiguration;
 import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.tinkerpop.gremlin.GraphHelper;
 import org.apache.tinkerpop.gremlin.TestHelper;
+import org.apache.tinkerpop.gremlin.jsr223.TraversalPlanCache;
 import org.apache.tinkerpop.gremlin.process.computer.Computer;
+import org.apache.tinkerpop.gremlin.process.computer.ComputerResult;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.computer.Memory;
+import org.apache.tinkerpop.gremlin.process.computer.MemoryComputeKey;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.process.computer.Messenger;
+import org.apache.tinkerpop.gremlin.process.computer.VertexComputeKey;
+import org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankVertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.traversal.step.map.ConnectedComponent;
+import org.apache.tinkerpop.gremlin.process.computer.traversal.step.map.PageRank;
+import org.apache.tinkerpop.gremlin.process.computer.traversal.step.map.ShortestPath;
+import org.apache.tinkerpop.gremlin.process.computer.util.StaticVertexProgram;
+import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
+import org.apache.tinkerpop.gremlin.process.traversal.Operator;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.process.traversal.TextP;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.WhereTraversalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ParallelScanStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization.ParallelExecutionStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.CostBasedOptimizationStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.IdentityRemovalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.verification.ReservedKeysVerificationStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.util.Metrics;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalMetrics;
+import org.apache.tinkerpop.gremlin.structure.Column;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.GraphStatistics;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
@@ -51,6 +80,9 @@ import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoClassResolverV1d0;
 import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoMapper;
 import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoVersion;
 import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoWriter;
+import org.apache.tinkerpop.gremlin.structure.util.TransactionException;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputer;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 import org.apache.tinkerpop.shaded.jackson.databind.ObjectMapper;
 import org.apache.tinkerpop.shaded.kryo.ClassResolver;
@@ -70,23 +102,37 @@ import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.apache.tinkerpop.gremlin.process.traversal.AnonymousTraversalSource.traversal;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -321,6 +367,600 @@ public class TinkerGraphTest {
         }, 0.5)).has("oid", "1").count().next());
     }
 
+    @Test
+    public void shouldManageOrderedIndices() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("name", Vertex.class);
+        g.createIndex("age", Vertex.class, true);
+        g.createIndex("weight", Edge.class, true);
+
+        assertEquals(new HashSet<>(Arrays.asList("name", "age")), g.getIndexedKeys(Vertex.class));
+        assertEquals(new HashSet<>(Arrays.asList("age")), g.getOrderedIndexedKeys(Vertex.class));
+        assertEquals(new HashSet<>(Arrays.asList("weight")), g.getOrderedIndexedKeys(Edge.class));
+
+        // changing the ordering rebuilds the index
+        g.createIndex("name", Vertex.class, true);
+        assertEquals(new HashSet<>(Arrays.asList("name", "age")), g.getOrderedIndexedKeys(Vertex.class));
+
+        g.dropIndex("age", Vertex.class);
+        assertEquals(new HashSet<>(Arrays.asList("name")), g.getIndexedKeys(Vertex.class));
+        assertEquals(new HashSet<>(Arrays.asList("name")), g.getOrderedIndexedKeys(Vertex.class));
+    }
+
+    @Test
+    public void shouldUseOrderedVertexIndexForRanges() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("age", Vertex.class, true);
+
+        g.addVertex("name", "marko", "age", 29);
+        g.addVertex("name", "vadas", "age", 27L);
+        g.addVertex("name", "josh", "age", 32);
+        g.addVertex("name", "peter", "age", 35.0d);
+        g.addVertex("name", "stephen", "age", "unknown");
+
+        // the same spy approach used for equality indices - only the names of vertices that are in range for "age"
+        // should ever reach the "name" filter when the ordered index is used
+        final GraphTraversalSource gts = g.traversal();
+        assertEquals(new Long(2), gts.V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("josh") || t.equals("peter"));
+            return true;
+        }, "x")).has("age", P.gt(29)).count().next());
+        assertEquals(new Long(3), gts.V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("marko") || t.equals("vadas") || t.equals("josh"));
+            return true;
+        }, "x")).has("age", P.lte(32L)).count().next());
+        assertEquals(new Long(2), gts.V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("marko") || t.equals("josh"));
+            return true;
+        }, "x")).has("age", P.between(28, 35)).count().next());
+        assertEquals(new Long(2), gts.V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("vadas") || t.equals("peter"));
+            return true;
+        }, "x")).has("age", P.outside(28, 34)).count().next());
+        assertEquals(new Long(1), gts.V().has("name", P.test((t, u) -> {
+            assertEquals("josh", t);
+            return true;
+        }, "x")).has("age", 32L).count().next());
+
+        g.vertices().forEachRemaining(v -> {
+            if (v.value("name").equals("josh")) v.property("age", 10);
+        });
+        assertEquals(new Long(1), gts.V().has("age", P.inside(28, 34)).count().next());
+        assertEquals(new Long(1), gts.V().has("age", TextP.startingWith("unk")).count().next());
+    }
+
+    @Test
+    public void shouldUseOrderedIndexCreatedWhileVerticesAreAdded() throws Exception {
+        final TinkerGraph g = TinkerGraph.open();
+        final int total = 5000;
+        final Thread writer = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                g.addVertex("age", i);
+            }
+        });
+        writer.start();
+        g.createIndex("age", Vertex.class, true);
+        writer.join();
+
+        assertEquals(total, g.traversal().V().has("age", P.gte(0)).count().next().intValue());
+        assertEquals(100, g.traversal().V().has("age", P.between(100, 200)).count().next().intValue());
+    }
+
+    @Test
+    public void shouldUseOrderedEdgeIndexForRanges() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("weight", Edge.class, true);
+
+        final Vertex v = g.addVertex();
+        v.addEdge("friend", v, "oid", "1", "weight", 0.5f);
+        v.addEdge("friend", v, "oid", "2", "weight", 0.6f);
+        v.addEdge("friend", v, "oid", "3", "weight", 1.0d);
+
+        assertEquals(new Long(2), g.traversal().E().has("oid", P.test((t, u) -> {
+            assertTrue(t.equals("2") || t.equals("3"));
+            return true;
+        }, "x")).has("weight", P.gte(0.6)).count().next());
+    }
+
+    @Test
+    public void shouldManageCompositeIndices() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createCompositeIndex(Vertex.class, T.label.getAccessor(), "tenant", "status");
+        g.createCompositeIndex(Edge.class, "oid", "weight");
+
+        // add the same one twice to check idempotency
+        g.createCompositeIndex(Vertex.class, T.label.getAccessor(), "tenant", "status");
+
+        assertEquals(1, g.getCompositeIndexedKeys(Vertex.class).size());
+        assertEquals(Arrays.asList(T.label.getAccessor(), "tenant", "status"), g.getCompositeIndexedKeys(Vertex.class).iterator().next());
+        assertEquals(Arrays.asList("oid", "weight"), g.getCompositeIndexedKeys(Edge.class).iterator().next());
+        assertEquals(0, g.getIndexedKeys(Vertex.class).size());
+
+        g.dropCompositeIndex(Vertex.class, T.label.getAccessor(), "tenant", "status");
+        assertEquals(0, g.getCompositeIndexedKeys(Vertex.class).size());
+        g.dropCompositeIndex(Edge.class, "better-not-error-index-key-does-not-exist", "x");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateCompositeIndexWithSingleKey() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createCompositeIndex(Vertex.class, "tenant");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateCompositeIndexWithDuplicateKeys() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createCompositeIndex(Vertex.class, "tenant", "tenant");
+    }
+
+    @Test
+    public void shouldUseCompositeVertexIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.addVertex(T.label, "person", "name", "marko", "tenant", 1, "status", "active");
+        g.createCompositeIndex(Vertex.class, T.label.getAccessor(), "tenant", "status");
+        g.createIndex("tenant", Vertex.class);
+
+        g.addVertex(T.label, "person", "name", "stephen", "tenant", 1, "status", "inactive");
+        g.addVertex(T.label, "software", "name", "lop", "tenant", 1, "status", "active");
+        final Vertex josh = g.addVertex(T.label, "person", "name", "josh", "tenant", 1, "status", "inactive");
+        g.addVertex(T.label, "person", "name", "vadas", "tenant", 1);
+
+        // the composite index is preferred over the single key index on "tenant" so only "marko" should reach
+        // the spy on "name"
+        assertEquals(new Long(1), g.traversal().V().has("name", P.test((t, u) -> {
+            assertEquals("marko", t);
+            return true;
+        }, "x")).hasLabel("person").has("tenant", 1).has("status", "active").count().next());
+
+        josh.property("status", "active");
+        assertEquals(new Long(2), g.traversal().V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("marko") || t.equals("josh"));
+            return true;
+        }, "x")).hasLabel("person").has("tenant", 1).has("status", "active").count().next());
+
+        josh.property("status").remove();
+        assertEquals(new Long(1), g.traversal().V().hasLabel("person").has("tenant", 1).has("status", "active").count().next());
+
+        josh.property("status", "active");
+        josh.remove();
+        assertEquals(new Long(1), g.traversal().V().hasLabel("person").has("tenant", 1).has("status", "active").count().next());
+    }
+
+    @Test
+    public void shouldKeepCompositeIndexConsistentUnderConcurrentUpdates() throws Exception {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createCompositeIndex(Vertex.class, T.label.getAccessor(), "tenant", "status");
+        final int threads = 4;
+        final List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            vertices.add(g.addVertex(T.label, "person", "tenant", 1, "status", "active"));
+        }
+
+        // every thread moves its own vertex back and forth between two buckets that all of them share
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (final Vertex vertex : vertices) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    vertex.property("status", "inactive");
+                    vertex.property("status", "active");
+                }
+            }));
+        }
+        executor.shutdown();
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+
+        assertEquals(new Long(threads), g.traversal().V().hasLabel("person").has("tenant", 1).has("status", "active").count().next());
+        assertEquals(new Long(0), g.traversal().V().hasLabel("person").has("tenant", 1).has("status", "inactive").count().next());
+    }
+
+    @Test
+    public void shouldUseCompositeEdgeIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createCompositeIndex(Edge.class, T.label.getAccessor(), "oid");
+
+        final Vertex v = g.addVertex();
+        v.addEdge("friend", v, "oid", "1", "weight", 0.5f);
+        v.addEdge("enemy", v, "oid", "1", "weight", 0.6f);
+        v.addEdge("friend", v, "oid", "2", "weight", 0.7f);
+
+        assertEquals(new Long(1), g.traversal().E().has("weight", P.test((t, u) -> {
+            assertEquals(0.5f, t);
+            return true;
+        }, 0.5)).hasLabel("friend").has("oid", "1").count().next());
+    }
+
+    @Test
+    public void shouldUseLabelIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.addVertex(T.label, "person", "name", "marko");
+        g.addVertex(T.label, "person", "name", "stephen");
+        final Vertex lop = g.addVertex(T.label, "software", "name", "lop");
+        g.addVertex(T.label, "company", "name", "acme");
+        lop.addEdge("createdBy", g.vertices().next(), "weight", 0.5f);
+
+        // only vertices with the label should reach the spy on "name"
+        assertEquals(new Long(1), g.traversal().V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("marko") || t.equals("stephen"));
+            return true;
+        }, "x")).hasLabel("person").has("name", "stephen").count().next());
+        assertEquals(new Long(3), g.traversal().V().has("name", P.test((t, u) -> {
+            assertTrue(!t.equals("acme"));
+            return true;
+        }, "x")).hasLabel("person", "software").count().next());
+
+        assertEquals(new Long(2), g.traversal().V().hasLabel("person").count().next());
+        assertEquals(new Long(3), g.traversal().V().hasLabel("person", "software").count().next());
+        assertEquals(new Long(1), g.traversal().E().hasLabel("createdBy").count().next());
+        assertEquals(new Long(0), g.traversal().E().hasLabel("knows").count().next());
+
+        lop.remove();
+        assertEquals(new Long(0), g.traversal().V().hasLabel("software").count().next());
+        assertEquals(new Long(0), g.traversal().E().hasLabel("createdBy").count().next());
+
+        g.clear();
+        assertEquals(new Long(0), g.traversal().V().hasLabel("person").count().next());
+    }
+
+    @Test
+    public void shouldUseMostSelectiveIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("country", Vertex.class);
+        g.createIndex("email", Vertex.class);
+        g.createIndex("age", Vertex.class, true);
+
+        for (int i = 0; i < 10; i++) {
+            g.addVertex(T.label, "person", "name", "person" + i, "country", "US", "email", "person" + i + "@x.com", "age", 20 + i);
+        }
+
+        // the "country" filter comes first but the "email" index has the smaller bucket so only "person3" should
+        // reach the spy on "name"
+        assertEquals(new Long(1), g.traversal().V().has("name", P.test((t, u) -> {
+            assertEquals("person3", t);
+            return true;
+        }, "x")).has("country", "US").has("email", "person3@x.com").count().next());
+
+        // the range on "age" is narrower than the "country" bucket and the label bucket
+        assertEquals(new Long(2), g.traversal().V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("person8") || t.equals("person9"));
+            return true;
+        }, "x")).hasLabel("person").has("country", "US").has("age", P.gt(27)).count().next());
+    }
+
+    @Test
+    public void shouldProvideIndexStatistics() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("country", Vertex.class);
+        g.addVertex("country", "US");
+        g.addVertex("country", "US");
+        g.addVertex("country", "US");
+        g.addVertex("country", "FR");
+        g.addVertex("country", "DE");
+        g.addVertex("country", "DE");
+
+        final TinkerIndexStatistics statistics = g.getIndexStatistics("country", Vertex.class, 2);
+        assertEquals("country", statistics.getKey());
+        assertEquals(false, statistics.isOrdered());
+        assertEquals(3, statistics.getDistinctValues());
+        assertEquals(6, statistics.getEntries());
+        assertEquals(2.0d, statistics.getAverageBucketSize(), 0.0001d);
+        assertEquals(Arrays.asList("US", "DE"), new ArrayList<>(statistics.getHeavyHitters().keySet()));
+        assertEquals(Arrays.asList(3L, 2L), new ArrayList<>(statistics.getHeavyHitters().values()));
+
+        assertEquals(null, g.getIndexStatistics("name", Vertex.class, 2));
+        assertEquals(null, g.getIndexStatistics("country", Edge.class, 2));
+    }
+
+    @Test
+    public void shouldRemoveVertexWithMultiPropertiesFromIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("country", Vertex.class);
+        g.createIndex("name", Vertex.class, true);
+        final Vertex marko = g.addVertex("country", "US");
+        marko.property(VertexProperty.Cardinality.list, "name", "marko");
+        marko.property(VertexProperty.Cardinality.list, "name", "okram");
+        final Vertex stephen = g.addVertex("name", "stephen", "country", "US");
+
+        marko.remove();
+        assertEquals(Collections.singletonList(stephen), TinkerHelper.queryVertexIndex(g, "country", "US"));
+        assertEquals(0, TinkerHelper.queryVertexIndex(g, "name", "marko").size());
+        assertEquals(0, TinkerHelper.queryVertexIndex(g, "name", "okram").size());
+        assertEquals(1, g.getIndexStatistics("name", Vertex.class, 0).getEntries());
+        assertEquals(1, g.getIndexStatistics("country", Vertex.class, 0).getEntries());
+
+        // a vertex that is added again with the same id is indexed afresh
+        final Vertex again = g.addVertex(T.id, marko.id(), "name", "marko");
+        assertEquals(Collections.singletonList(again), TinkerHelper.queryVertexIndex(g, "name", "marko"));
+        assertEquals(1, g.getIndexStatistics("country", Vertex.class, 0).getEntries());
+    }
+
+    @Test
+    public void shouldCreateIndexWhileVerticesChange() throws Exception {
+        final TinkerGraph g = TinkerGraph.open();
+        final int vertexCount = 20000;
+        final int valueCount = 50;
+        for (int i = 0; i < vertexCount; i++) {
+            g.addVertex(T.id, i, "value", i % valueCount);
+        }
+
+        // each writer owns the vertices whose id matches its number so that no vertex is changed concurrently
+        final int writerCount = 2;
+        final AtomicBoolean indexed = new AtomicBoolean(false);
+        final ExecutorService writers = Executors.newFixedThreadPool(writerCount);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < writerCount; w++) {
+            final int writer = w;
+            futures.add(writers.submit(() -> {
+                final Random random = new Random(writer);
+                int changes = 0;
+                while (!indexed.get() || changes < 10000) {
+                    final int id = random.nextInt(vertexCount / writerCount) * writerCount + writer;
+                    final Vertex vertex = g.vertices(id).hasNext() ? g.vertices(id).next() : null;
+                    final int action = random.nextInt(10);
+                    if (null == vertex)
+                        g.addVertex(T.id, id, "value", random.nextInt(valueCount));
+                    else if (action == 0)
+                        vertex.remove();
+                    else if (action == 1)
+                        vertex.property("value").remove();
+                    else
+                        vertex.property("value", random.nextInt(valueCount));
+                    changes++;
+                }
+            }));
+        }
+
+        try {
+            g.createIndex("value", Vertex.class);
+            indexed.set(true);
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            writers.shutdown();
+        }
+
+        long entries = 0;
+        for (int value = 0; value < valueCount; value++) {
+            final int expected = value;
+            final Set<Object> indexedIds = TinkerHelper.queryVertexIndex(g, "value", value).stream()
+                    .map(Vertex::id).collect(Collectors.toSet());
+            final Set<Object> scannedIds = IteratorUtils.stream(g.vertices())
+                    .filter(v -> v.<Integer>property("value").orElse(-1) == expected)
+                    .map(Vertex::id).collect(Collectors.toSet());
+            assertEquals(scannedIds, indexedIds);
+            entries += indexedIds.size();
+        }
+        assertEquals(entries, g.getIndexStatistics("value", Vertex.class, 0).getEntries());
+    }
+
+    @Test
+    public void shouldComputeOverSupernodeWithManyWorkers() {
+        final TinkerGraph graph = TinkerGraph.open();
+        final Vertex hub = graph.addVertex(T.id, 0);
+        for (int i = 1; i <= 2000; i++) {
+            final Vertex spoke = graph.addVertex(T.id, i);
+            spoke.addEdge("link", hub);
+            if (i > 1) spoke.addEdge("link", graph.vertices(i - 1).next());
+        }
+        final GraphTraversalSource g = graph.traversal();
+        final List<Object> expected = g.V().both().groupCount().by(T.id).unfold().order().by(Column.keys).toList();
+
+        // every vertex is visited once no matter how the weight of the hub is spread over the workers
+        assertEquals(expected, g.withComputer(Computer.compute().workers(1)).V().both().groupCount().by(T.id).unfold().order().by(Column.keys).toList());
+        final int workers = Runtime.getRuntime().availableProcessors();
+        assertEquals(expected, g.withComputer(Computer.compute().workers(workers)).V().both().groupCount().by(T.id).unfold().order().by(Column.keys).toList());
+        assertEquals(2000L, g.withComputer(Computer.compute().workers(workers)).V(0).both().count().next().longValue());
+    }
+
+    @Test
+    public void shouldComputeOverActiveVerticesOnly() {
+        final TinkerGraph graph = TinkerGraph.open();
+        Vertex previous = graph.addVertex(T.id, 0);
+        for (int i = 1; i < 200; i++) {
+            final Vertex next = graph.addVertex(T.id, i);
+            previous.addEdge("link", next);
+            previous = next;
+        }
+        previous = graph.addVertex(T.id, 1000);
+        for (int i = 1001; i < 1010; i++) {
+            final Vertex next = graph.addVertex(T.id, i);
+            next.addEdge("link", previous);
+            previous = next;
+        }
+        final GraphTraversalSource g = graph.traversal().withComputer();
+
+        // the frontier shrinks to a single vertex at the end of the chain yet every component is still found
+        final Map<Object, Long> components = g.V().connectedComponent().<Object>groupCount().by(ConnectedComponent.component).next();
+        assertEquals(2, components.size());
+        assertEquals(200L, components.get("0").longValue());
+        assertEquals(10L, components.get("1000").longValue());
+
+        final List<Path> paths = g.V(0).shortestPath().with(ShortestPath.target, __.hasId(199)).toList();
+        assertEquals(1, paths.size());
+        assertEquals(200, paths.get(0).size());
+        assertEquals(0, g.V(1009).shortestPath().with(ShortestPath.target, __.hasId(0)).count().next().intValue());
+    }
+
+    @Test
+    public void shouldPersistColumnarComputeProperties() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final ComputerResult result = graph.compute().program(PageRankVertexProgram.build().create(graph)).submit().get();
+        final Graph resultGraph = result.graph();
+
+        // the values of the compute key come out of the columns as doubles that each got their own property id
+        final Set<Object> ids = new HashSet<>();
+        resultGraph.vertices().forEachRemaining(vertex -> {
+            final VertexProperty<Object> pageRank = vertex.property(PageRankVertexProgram.PAGE_RANK);
+            assertTrue(pageRank.isPresent());
+            assertTrue(pageRank.value() instanceof Double);
+            assertTrue(ids.add(pageRank.id()));
+            assertEquals(graph.vertices(vertex.id()).next().<String>value("name"), vertex.<String>value("name"));
+        });
+        assertEquals(6, ids.size());
+        assertFalse(graph.vertices().next().property(PageRankVertexProgram.PAGE_RANK).isPresent());
+
+        final GraphTraversalSource g = graph.traversal().withComputer();
+        assertEquals(g.V().pageRank().with(PageRank.propertyName, "pr").order().by("pr").by("name").values("name").toList(),
+                resultGraph.traversal().V().order().by(PageRankVertexProgram.PAGE_RANK).by("name").values("name").toList());
+    }
+
+    @Test
+    public void shouldResumeComputerFromCheckpoint() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final ComputerResult expected = graph.compute().program(new CheckpointedSumVertexProgram()).submit().get();
+
+        final String directory = TestHelper.makeTestDataDirectory(TinkerGraphTest.class, "shouldResumeComputerFromCheckpoint");
+        CheckpointedSumVertexProgram.failAtIteration = 4;
+        try {
+            graph.compute().program(new CheckpointedSumVertexProgram())
+                    .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_DIRECTORY, directory)
+                    .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_INTERVAL, 2).submit().get();
+            fail("The vertex program should have failed on iteration 4");
+        } catch (ExecutionException ee) {
+            // the checkpoint taken before iteration 4 is left behind
+        } finally {
+            CheckpointedSumVertexProgram.failAtIteration = -1;
+        }
+        assertEquals(1, new File(directory).list().length);
+
+        CheckpointedSumVertexProgram.executions.set(0);
+        final ComputerResult resumed = graph.compute().program(new CheckpointedSumVertexProgram())
+                .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_DIRECTORY, directory).submit().get();
+
+        // only iterations 4 and 5 ran again yet memory, properties and messages carried on from the checkpoint
+        assertEquals(12, CheckpointedSumVertexProgram.executions.get());
+        assertEquals(expected.memory().getIteration(), resumed.memory().getIteration());
+        assertEquals(expected.memory().<Long>get(CheckpointedSumVertexProgram.TOTAL), resumed.memory().<Long>get(CheckpointedSumVertexProgram.TOTAL));
+        assertEquals(expected.graph().traversal().V().order().by(T.id).values(CheckpointedSumVertexProgram.SUM).toList(),
+                resumed.graph().traversal().V().order().by(T.id).values(CheckpointedSumVertexProgram.SUM).toList());
+        assertEquals(0, new File(directory).list().length);
+    }
+
+    @Test
+    public void shouldNotResumeComputerFromCheckpointOfAnotherJob() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final String directory = TestHelper.makeTestDataDirectory(TinkerGraphTest.class, "shouldNotResumeComputerFromCheckpointOfAnotherJob");
+        CheckpointedSumVertexProgram.failAtIteration = 4;
+        try {
+            graph.compute().program(new CheckpointedSumVertexProgram())
+                    .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_DIRECTORY, directory)
+                    .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_INTERVAL, 2).submit().get();
+            fail("The vertex program should have failed on iteration 4");
+        } catch (ExecutionException ee) {
+            // the checkpoint taken before iteration 4 is left behind
+        } finally {
+            CheckpointedSumVertexProgram.failAtIteration = -1;
+        }
+
+        try {
+            graph.compute().program(new CheckpointedSumVertexProgram(7))
+                    .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_DIRECTORY, directory).submit().get();
+            fail("The checkpoint is of a vertex program with another configuration");
+        } catch (ExecutionException ee) {
+            assertThat(ExceptionUtils.getRootCause(ee), instanceOf(IllegalStateException.class));
+            assertThat(ExceptionUtils.getRootCause(ee).getMessage(), containsString("configured as"));
+        }
+
+        // a failed job leaves its view on the graph
+        TinkerHelper.dropGraphComputerView(graph);
+        graph.addVertex("name", "gremlin");
+        try {
+            graph.compute().program(new CheckpointedSumVertexProgram())
+                    .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_DIRECTORY, directory).submit().get();
+            fail("The checkpoint is of a graph with another number of vertices");
+        } catch (ExecutionException ee) {
+            assertThat(ExceptionUtils.getRootCause(ee), instanceOf(IllegalStateException.class));
+            assertThat(ExceptionUtils.getRootCause(ee).getMessage(), containsString("7 vertices"));
+        }
+
+        // the checkpoint is kept for the job it belongs to
+        assertEquals(1, new File(directory).list().length);
+    }
+
+    @Test
+    public void shouldTraverseFrozenAdjacency() {
+        final TinkerGraph graph = TinkerFactory.createTheCrew();
+        final GraphTraversalSource g = graph.traversal();
+        final List<List<?>> expected = Arrays.asList(
+                g.V().out().id().order().toList(),
+                g.V().in("uses").id().order().toList(),
+                g.V().both("develops", "uses").id().order().toList(),
+                g.V().outE().id().order().toList(),
+                g.V().bothE("traverses").id().order().toList(),
+                g.V().out().in().id().order().toList(),
+                g.withComputer().V().both().groupCount().by(T.id).unfold().order().by(Column.keys).toList());
+
+        graph.freeze();
+        assertTrue(graph.isFrozen());
+        final List<List<?>> frozen = Arrays.asList(
+                g.V().out().id().order().toList(),
+                g.V().in("uses").id().order().toList(),
+                g.V().both("develops", "uses").id().order().toList(),
+                g.V().outE().id().order().toList(),
+                g.V().bothE("traverses").id().order().toList(),
+                g.V().out().in().id().order().toList(),
+                g.withComputer().V().both().groupCount().by(T.id).unfold().order().by(Column.keys).toList());
+        assertEquals(expected, frozen);
+
+        // vertices and properties stay mutable but new vertices have no edges
+        final Vertex v = graph.addVertex(T.label, "person", "name", "vadas");
+        assertEquals(0, IteratorUtils.count(v.edges(Direction.BOTH)));
+        g.V().has("name", "marko").property("age", 29).iterate();
+        v.remove();
+
+        graph.unfreeze();
+        assertEquals(false, graph.isFrozen());
+        assertEquals(expected.get(0), g.V().out().id().order().toList());
+        assertEquals(expected.get(4), g.V().bothE("traverses").id().order().toList());
+        g.V().has("name", "marko").addE("knows").to(__.V().has("name", "stephen")).iterate();
+        assertEquals(expected.get(0).size() + 1, g.V().out().count().next().intValue());
+    }
+
+    @Test
+    public void shouldTraverseOffHeapFrozenAdjacency() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_OFF_HEAP_ADJACENCY, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateTheCrew(graph);
+        final GraphTraversalSource g = graph.traversal();
+        final List<Object> expectedOut = g.V().out().id().order().toList();
+        final List<Object> expectedBothE = g.V().bothE("uses", "traverses").id().order().toList();
+        final Map<Object, Object> expectedDegrees = g.withComputer().V().group().by(T.id).by(__.both().count()).next();
+
+        graph.freeze();
+        assertEquals(expectedOut, g.V().out().id().order().toList());
+        assertEquals(expectedBothE, g.V().bothE("uses", "traverses").id().order().toList());
+        assertEquals(expectedDegrees, g.withComputer().V().group().by(T.id).by(__.both().count()).next());
+
+        graph.unfreeze();
+        assertEquals(expectedOut, g.V().out().id().order().toList());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotAddEdgeToFrozenGraph() {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        graph.freeze();
+        final Vertex v = graph.vertices(1).next();
+        v.addEdge("knows", v);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotRemoveEdgeFromFrozenGraph() {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        graph.freeze();
+        graph.edges(7).next().remove();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotRemoveVertexWithEdgesFromFrozenGraph() {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        graph.freeze();
+        graph.vertices(1).next().remove();
+    }
+
     @Test
     public void shouldSerializeTinkerGraphToGryo() throws Exception {
         final TinkerGraph graph = TinkerFactory.createModern();
@@ -488,6 +1128,171 @@ public class TinkerGraphTest {
         reloadedGraph.close();
     }
 
+    @Test
+    public void shouldRecoverFromGraphLogWithoutClose() {
+        final Configuration conf = graphLogConfiguration("shouldRecoverFromGraphLogWithoutClose.kryo");
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateTheCrew(graph);
+
+        // no close() so the graph has to come back from the log alone
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        IoTest.assertCrewGraph(reloadedGraph, false);
+        reloadedGraph.close();
+        graph.close();
+    }
+
+    @Test
+    public void shouldReplayGraphLogOverSnapshot() {
+        final Configuration conf = graphLogConfiguration("shouldReplayGraphLogOverSnapshot.kryo");
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        graph.snapshot();
+        assertEquals(1, graphLogSegments(conf).length);
+
+        final GraphTraversalSource g = graph.traversal();
+        g.V(1).property("name", "mark").iterate();
+        g.V(2).drop().iterate();
+        g.E(9).property("weight", 0.5d).iterate();
+        g.E(10).properties("weight").drop().iterate();
+        g.V(4).property(VertexProperty.Cardinality.list, "location", "santa fe", "startTime", 2004).iterate();
+        g.V(4).properties("location").properties("startTime").drop().iterate();
+        g.V(6).addE("knows").to(__.V(1)).property(T.id, 13).iterate();
+        g.V(5).properties("lang").drop().iterate();
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        final GraphTraversalSource rg = reloadedGraph.traversal();
+        assertEquals(5L, rg.V().count().next().longValue());
+        assertEquals(6L, rg.E().count().next().longValue());
+        assertEquals("mark", rg.V(1).values("name").next());
+        assertEquals(0.5d, rg.E(9).values("weight").next());
+        assertEquals(false, rg.E(10).properties("weight").hasNext());
+        assertEquals(0L, rg.V(4).properties("location").properties().count().next().longValue());
+        assertEquals(1L, rg.V(6).out("knows").hasId(1).count().next().longValue());
+        assertEquals(false, rg.V(5).properties("lang").hasNext());
+
+        // compaction leaves only the segment that was started by the snapshot
+        reloadedGraph.snapshot();
+        assertEquals(1, graphLogSegments(conf).length);
+        reloadedGraph.close();
+        graph.close();
+
+        final TinkerGraph compactedGraph = TinkerGraph.open(conf);
+        assertEquals(5L, IteratorUtils.count(compactedGraph.vertices()));
+        assertEquals("mark", compactedGraph.vertices(1).next().value("name"));
+        compactedGraph.close();
+    }
+
+    @Test
+    public void shouldNotLoseChangesWhenSnapshotRunsDuringWrites() throws Exception {
+        final Configuration conf = graphLogConfiguration("shouldNotLoseChangesWhenSnapshotRunsDuringWrites.kryo");
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        final int writers = 4;
+        final int perWriter = 250;
+        final ExecutorService executor = Executors.newFixedThreadPool(writers);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            final int offset = w * perWriter;
+            futures.add(executor.submit(() -> {
+                Vertex previous = graph.addVertex(T.id, offset, "i", offset);
+                for (int i = offset + 1; i < offset + perWriter; i++) {
+                    final Vertex v = graph.addVertex(T.id, i, "i", i);
+                    previous.addEdge("next", v, T.id, i, "w", i);
+                    previous.property("updated", true);
+                    previous = v;
+                }
+            }));
+        }
+        executor.shutdown();
+        while (!executor.isTerminated()) {
+            graph.snapshot();
+            Thread.sleep(20);
+        }
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+        graph.close();
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        final GraphTraversalSource rg = reloadedGraph.traversal();
+        assertEquals(writers * perWriter, rg.V().count().next().intValue());
+        assertEquals(writers * (perWriter - 1), rg.E().count().next().intValue());
+        assertEquals(writers * (perWriter - 1), rg.V().has("updated", true).count().next().intValue());
+        assertEquals(writers * (perWriter - 1), rg.E().has("w").count().next().intValue());
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldHoldOffSnapshotUntilMutationEnds() throws Exception {
+        final Configuration conf = graphLogConfiguration("shouldHoldOffSnapshotUntilMutationEnds.kryo");
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        graph.addVertex(T.id, 1);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        graph.beginMutation();
+        final Future<?> snapshot;
+        try {
+            snapshot = executor.submit(graph::snapshot);
+            Thread.sleep(200);
+            assertFalse(snapshot.isDone());
+        } finally {
+            graph.endMutation();
+        }
+        snapshot.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertEquals(1, graphLogSegments(conf).length);
+        graph.close();
+    }
+
+    @Test
+    public void shouldNotHoldOffWritersWhileSnapshotIsWritten() throws Exception {
+        final Configuration conf = graphLogConfiguration("shouldNotHoldOffWritersWhileSnapshotIsWritten.kryo");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOG_BATCH_SIZE, 100000);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        final int size = 50000;
+        final Vertex first = graph.addVertex(T.id, 0, "i", 0);
+        Vertex previous = first;
+        for (int i = 1; i < size; i++) {
+            final Vertex v = graph.addVertex(T.id, i, "i", i);
+            previous.addEdge("next", v, T.id, i);
+            previous = v;
+        }
+        previous.addEdge("back", first, T.id, size);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Future<?> snapshot = executor.submit(graph::snapshot);
+        while (graph.graphLog.records() > 0 && !snapshot.isDone()) {
+            Thread.yield();
+        }
+
+        // the log has rotated so these changes are made while the snapshot is written. removing the last vertex
+        // leaves the snapshot with its "back" edge on the first vertex but likely not the vertex it comes out of
+        graph.addVertex(T.id, size + 1, "i", size + 1).addEdge("back", first, T.id, size + 1);
+        graph.vertices(size / 2).next().remove();
+        graph.vertices(size - 1).next().remove();
+        graph.vertices(1).next().property("i", -1);
+        assertFalse(snapshot.isDone());
+
+        snapshot.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertEquals(1, graphLogSegments(conf).length);
+        graph.close();
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        final GraphTraversalSource rg = reloadedGraph.traversal();
+        assertEquals(size - 1, rg.V().count().next().intValue());
+        assertEquals(size - 3, rg.E().count().next().intValue());
+        assertEquals(-1, rg.V(1).values("i").next());
+        assertEquals(size + 1, rg.V(0).in("back").id().next());
+        reloadedGraph.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRequireGraphLocationForGraphLog() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOG, true);
+        TinkerGraph.open(conf);
+    }
+
     @Test
     public void shouldPersistToGryoAndHandleMultiProperties() {
         final String graphLocation = TestHelper.makeTestDataFile(TinkerGraphTest.class, "shouldPersistToGryoMulti.kryo");
@@ -898,6 +1703,578 @@ public class TinkerGraphTest {
         assertEquals(3, g.V(100, "1000", uuid).count().next().intValue());
     }
 
+    @Test
+    public void shouldNotGenerateIdsThatWereSuppliedByTheUser() {
+        final TinkerGraph graph = TinkerGraph.open();
+        graph.addVertex(T.id, 0L);
+        graph.addVertex(T.id, 2L);
+        final Vertex v = graph.addVertex();
+        assertEquals(3L, v.id());
+        assertEquals(4L, v.addEdge("self", v).id());
+
+        v.addEdge("self", v, T.id, 10L);
+        assertEquals(11L, graph.addVertex().id());
+    }
+
+    @Test
+    public void shouldStoreElementsInLongIdStorage() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_VERTEX_ID_MANAGER, TinkerGraph.DefaultIdManager.LONG.name());
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_EDGE_ID_MANAGER, TinkerGraph.DefaultIdManager.LONG.name());
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_LONG_ID_STORAGE, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        assertThat(graph.vertices, instanceOf(TinkerLongKeyedMap.class));
+        assertThat(graph.edges, instanceOf(TinkerLongKeyedMap.class));
+
+        final GraphTraversalSource g = graph.traversal();
+        for (int i = 0; i < 1000; i++) {
+            g.addV("person").property(T.id, i).property("age", i % 10).iterate();
+        }
+        for (int i = 0; i < 999; i++) {
+            g.V(i).addE("next").to(__.V(i + 1)).iterate();
+        }
+
+        assertEquals(1000, IteratorUtils.count(graph.vertices()));
+        assertEquals(999, IteratorUtils.count(graph.edges()));
+        assertEquals(5, g.V(5).values("age").next());
+        assertEquals(5, g.V("5").values("age").next());
+        assertEquals(5, g.V(5d).values("age").next());
+        assertEquals(6L, g.V(5L).out().id().next());
+
+        g.V().has("age", 0).drop().iterate();
+        assertEquals(900, IteratorUtils.count(graph.vertices()));
+        assertEquals(false, graph.vertices(10).hasNext());
+
+        graph.vertices().forEachRemaining(Vertex::remove);
+        assertEquals(0, IteratorUtils.count(graph.vertices()));
+        assertEquals(0, IteratorUtils.count(graph.edges()));
+
+        graph.addVertex(T.id, 10);
+        assertEquals(1, IteratorUtils.count(graph.vertices(10)));
+        assertThat((Long) graph.addVertex().id(), greaterThan(999L));
+
+        graph.clear();
+        assertEquals(0, IteratorUtils.count(graph.vertices()));
+        assertEquals(0L, graph.addVertex().id());
+    }
+
+    @Test
+    public void shouldFilterAndOrderIncidentEdgesWithVertexCentricIndex() {
+        final TinkerGraph graph = TinkerGraph.open();
+        final GraphTraversalSource g = graph.traversal();
+        final Vertex user = graph.addVertex(T.id, "user");
+        for (int i = 1; i <= 1000; i++) {
+            user.addEdge("rated", graph.addVertex(T.id, i), "stars", i % 5 + 1, "ts", i);
+        }
+        user.addEdge("rated", graph.addVertex(T.id, 1001), "ts", 1001);
+
+        graph.createVertexCentricIndex("rated", "stars");
+        graph.createVertexCentricIndex("rated", "ts");
+        user.addEdge("rated", graph.vertices(1).next(), "stars", 5, "ts", 2000);
+        assertEquals(new HashSet<>(Arrays.asList("stars", "ts")), graph.getVertexCentricIndexedKeys("rated"));
+
+        final List<HasContainer> fiveStars = Collections.singletonList(new HasContainer("stars", P.eq(5)));
+        assertEquals(201, TinkerIndexLookup.queryIncident((TinkerVertex) user, Direction.OUT, new String[]{"rated"}, fiveStars).size());
+        assertEquals(201L, g.V("user").outE("rated").has("stars", P.gt(4)).count().next().longValue());
+        assertEquals(400L, g.V("user").outE("rated").has("stars", P.between(2, 4)).count().next().longValue());
+        assertEquals(1L, g.V(1).inE("rated").has("stars", 5).count().next().longValue());
+        assertEquals(Arrays.asList(2000, 1001, 1000), g.V("user").outE("rated").order().by("ts", Order.desc).limit(3).values("ts").toList());
+        assertEquals(Arrays.asList(1, 2, 3), g.V("user").outE("rated").order().by("ts").limit(3).values("ts").toList());
+        assertEquals(Collections.singletonList(1001), g.V("user").outE("rated").order().by("stars").limit(1).values("ts").toList());
+        assertEquals(Arrays.asList(2000, 999), g.V("user").outE("rated").has("stars", 5).order().by("ts", Order.desc).limit(2).values("ts").toList());
+
+        g.V("user").outE("rated").has("ts", 2000).property("stars", 1).iterate();
+        assertEquals(200L, g.V("user").outE("rated").has("stars", 5).count().next().longValue());
+        assertEquals(0L, g.V(1).inE("rated").has("stars", 5).count().next().longValue());
+
+        g.V("user").outE("rated").has("stars", 5).drop().iterate();
+        assertEquals(0L, g.V("user").outE("rated").has("stars", 5).count().next().longValue());
+        assertEquals(802L, g.V("user").outE("rated").count().next().longValue());
+        g.V("user").outE("rated").has("ts", 2000).properties("stars").drop().iterate();
+        assertEquals(200L, g.V("user").outE("rated").has("stars", 1).count().next().longValue());
+
+        graph.dropVertexCentricIndex("rated", "stars");
+        assertEquals(Collections.singleton("ts"), graph.getVertexCentricIndexedKeys("rated"));
+        assertEquals(null, TinkerIndexLookup.queryIncident((TinkerVertex) user, Direction.OUT, new String[]{"rated"}, fiveStars));
+        assertEquals(200L, g.V("user").outE("rated").has("stars", 1).count().next().longValue());
+    }
+
+    @Test
+    public void shouldBulkLoadFromManyThreads() {
+        final Configuration longIdConf = new BaseConfiguration();
+        longIdConf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_VERTEX_ID_MANAGER, TinkerGraph.DefaultIdManager.LONG.name());
+        longIdConf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_EDGE_ID_MANAGER, TinkerGraph.DefaultIdManager.LONG.name());
+        longIdConf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_LONG_ID_STORAGE, true);
+
+        for (final TinkerGraph graph : Arrays.asList(TinkerGraph.open(), TinkerGraph.open(longIdConf))) {
+            graph.createIndex("name", Vertex.class);
+            graph.createIndex("weight", Edge.class);
+
+            try (final TinkerBulkLoader loader = graph.bulkLoader().trusted(true).expectedVertices(10000).expectedEdges(9999).expectedDegree(1)) {
+                IntStream.range(0, 10000).parallel().forEach(i -> loader.addVertex((long) i, "person", "name", "p" + i, "age", i % 50));
+                IntStream.range(0, 9999).parallel().forEach(i -> loader.addEdge(null, (long) i, "next", (long) i + 1, "weight", i % 2));
+            }
+
+            final GraphTraversalSource g = graph.traversal();
+            assertEquals(10000, IteratorUtils.count(graph.vertices()));
+            assertEquals(9999, IteratorUtils.count(graph.edges()));
+            assertEquals(1, TinkerHelper.queryVertexIndex(graph, "name", "p42").size());
+            assertEquals(5000, TinkerHelper.queryEdgeIndex(graph, "weight", 0).size());
+            assertEquals(42L, g.V().has("name", "p42").id().next());
+            assertEquals(43L, g.V(42L).out("next").id().next());
+            assertEquals(41L, g.V(42L).in("next").id().next());
+            assertEquals(200L, g.V().hasLabel("person").has("age", 7).count().next().longValue());
+            assertThat((Long) graph.addVertex().id(), greaterThan(9999L));
+        }
+    }
+
+    @Test
+    public void shouldBulkLoadBatchesFromManyThreads() {
+        final TinkerGraph graph = TinkerGraph.open();
+        graph.createIndex("name", Vertex.class);
+
+        try (final TinkerBulkLoader loader = graph.bulkLoader().trusted(true)) {
+            IntStream.range(0, 100).parallel().forEach(b -> {
+                final Object[] ids = new Object[100];
+                final Object[][] keyValues = new Object[100][];
+                for (int i = 0; i < 100; i++) {
+                    ids[i] = (long) (b * 100 + i);
+                    keyValues[i] = new Object[]{"name", "p" + ids[i]};
+                }
+                loader.addVertices("person", ids, keyValues);
+            });
+            IntStream.range(0, 99).parallel().forEach(b -> {
+                final Object[] outVertexIds = new Object[100];
+                final Object[] inVertexIds = new Object[100];
+                for (int i = 0; i < 100; i++) {
+                    outVertexIds[i] = (long) (b * 100 + i);
+                    inVertexIds[i] = (long) (b * 100 + i + 100);
+                }
+                loader.addEdges("next", null, outVertexIds, inVertexIds, null);
+            });
+        }
+
+        final GraphTraversalSource g = graph.traversal();
+        assertEquals(10000L, g.V().hasLabel("person").count().next().longValue());
+        assertEquals(9900L, g.E().hasLabel("next").count().next().longValue());
+        assertEquals(1, TinkerHelper.queryVertexIndex(graph, "name", "p4242").size());
+        assertEquals(4342L, g.V(4242L).out("next").id().next());
+        assertEquals(4142L, g.V(4242L).in("next").id().next());
+    }
+
+    @Test
+    public void shouldBulkLoadPropertiesAsAddVertexAndAddEdgeWould() {
+        final TinkerGraph graph = TinkerGraph.open();
+        try (final TinkerBulkLoader loader = graph.bulkLoader()) {
+            loader.addVertex(1L, "person", "name", "marko", "location", "santa fe", "location", "brussels");
+            loader.addVertex(2L, "person", "name", "vadas", "age", 27, "age", null);
+            loader.addEdge(3L, 1L, "knows", 2L, "weight", 0.5d, "weight", 1.0d);
+            loader.addVertices("software", new Object[]{4L, 5L}, new Object[][]{new Object[]{"name", "lop"}, null});
+        }
+
+        final Vertex marko = graph.vertices(1L).next();
+        assertEquals(2L, IteratorUtils.count(marko.properties("location")));
+        assertEquals(false, graph.vertices(2L).next().property("age").isPresent());
+        assertEquals(1.0d, (double) graph.edges(3L).next().value("weight"), 0.0d);
+        assertEquals(0L, IteratorUtils.count(graph.vertices(5L).next().properties()));
+
+        // properties built by the loader take changes as any other
+        marko.property(VertexProperty.Cardinality.list, "location", "santa cruz");
+        assertEquals(3L, IteratorUtils.count(marko.properties("location")));
+        marko.properties("location").next().property("startTime", 1997);
+        graph.edges(3L).next().property("weight", 0.25d);
+        assertEquals(0.25d, (double) graph.edges(3L).next().value("weight"), 0.0d);
+        assertNotEquals(marko.properties("location").next().id(), graph.vertices(2L).next().property("name").id());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBulkLoadBatchesOfDifferentSizes() {
+        final TinkerGraph graph = TinkerGraph.open();
+        try (final TinkerBulkLoader loader = graph.bulkLoader()) {
+            loader.addVertices("person", new Object[]{1L, 2L}, new Object[][]{new Object[]{"name", "marko"}});
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBulkLoadIllegalPropertiesFromUntrustedSource() {
+        final TinkerGraph graph = TinkerGraph.open();
+        try (final TinkerBulkLoader loader = graph.bulkLoader()) {
+            loader.addVertex(1L, "person", "name");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBulkLoadVertexWithExistingId() {
+        final TinkerGraph graph = TinkerGraph.open();
+        graph.addVertex(T.id, 1L);
+        try (final TinkerBulkLoader loader = graph.bulkLoader()) {
+            loader.addVertex(1L, "person");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBulkLoadEdgeWithMissingVertex() {
+        final TinkerGraph graph = TinkerGraph.open();
+        try (final TinkerBulkLoader loader = graph.bulkLoader()) {
+            loader.addVertex(1L, "person");
+            loader.addEdge(null, 1L, "knows", 2L);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotOpenTwoBulkLoaders() {
+        final TinkerGraph graph = TinkerGraph.open();
+        graph.bulkLoader();
+        graph.bulkLoader();
+    }
+
+    @Test
+    public void shouldReadSnapshotOfTransactionalGraph() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open(transactionalConfiguration());
+        final GraphTraversalSource g = graph.traversal();
+        final Vertex marko = graph.addVertex(T.id, 1, "name", "marko", "age", 29);
+        final Vertex josh = graph.addVertex(T.id, 2, "name", "josh");
+        marko.addEdge("knows", josh, "weight", 1.0d);
+        graph.tx().commit();
+
+        final ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            // the reader opens its transaction before the changes below are committed
+            assertEquals(29, (int) reader.submit(() -> g.V(1).<Integer>values("age").next()).get());
+
+            g.V(1).property("age", 30).iterate();
+            g.V(2).drop().iterate();
+            graph.addVertex(T.id, 3, "name", "vadas");
+            assertEquals(30, (int) g.V(1).<Integer>values("age").next());
+            assertEquals(Arrays.asList("marko", "vadas"), g.V().<String>values("name").order().toList());
+            assertEquals(2L, reader.submit(() -> g.V().count().next()).get().longValue());
+            graph.tx().commit();
+
+            assertEquals(29, (int) reader.submit(() -> g.V(1).<Integer>values("age").next()).get());
+            assertEquals(Collections.singletonList("josh"), reader.submit(() -> g.V(1).out("knows").values("name").toList()).get());
+            assertEquals(Arrays.asList("josh", "marko"), reader.submit(() -> g.V().values("name").order().toList()).get());
+            reader.submit(() -> graph.tx().rollback()).get();
+
+            assertEquals(30, (int) reader.submit(() -> g.V(1).<Integer>values("age").next()).get());
+            assertEquals(0L, reader.submit(() -> g.V(1).outE().count().next()).get().longValue());
+            assertEquals(Arrays.asList("marko", "vadas"), reader.submit(() -> g.V().values("name").order().toList()).get());
+            reader.submit(() -> graph.tx().rollback()).get();
+        } finally {
+            reader.shutdown();
+        }
+
+        // once no transaction can see the removed vertex anymore it is released by the next commit
+        assertEquals(3, TinkerHelper.getVertices(graph).size());
+        graph.addVertex(T.id, 4);
+        graph.tx().commit();
+        assertEquals(3, TinkerHelper.getVertices(graph).size());
+        assertEquals(0, TinkerHelper.getEdges(graph).size());
+    }
+
+    @Test
+    public void shouldFailCommitOfConcurrentModification() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open(transactionalConfiguration());
+        final GraphTraversalSource g = graph.traversal();
+        graph.addVertex(T.id, 1, "name", "marko");
+        graph.tx().commit();
+
+        final ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            writer.submit(() -> g.V(1).property("name", "mark").iterate()).get();
+            g.V(1).property("name", "marko a. rodriguez").iterate();
+            graph.tx().commit();
+
+            try {
+                writer.submit(() -> graph.tx().commit()).get();
+                fail("The commit should have failed as the vertex was modified concurrently");
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause(), instanceOf(TransactionException.class));
+            }
+            assertEquals(false, writer.submit(() -> graph.tx().isOpen()).get());
+        } finally {
+            writer.shutdown();
+        }
+
+        assertEquals("marko a. rodriguez", g.V(1).values("name").next());
+        graph.tx().rollback();
+    }
+
+    @Test
+    public void shouldUseIndicesOfTransactionalGraph() {
+        final TinkerGraph graph = TinkerGraph.open(transactionalConfiguration());
+        final GraphTraversalSource g = graph.traversal();
+        graph.createIndex("name", Vertex.class);
+        graph.addVertex(T.id, 1, "name", "marko");
+        graph.addVertex(T.id, 2, "name", "josh");
+        graph.tx().commit();
+        assertEquals(1, TinkerHelper.queryVertexIndex(graph, "name", "marko").size());
+
+        // the changes of a transaction are found although they are not indexed until it commits
+        g.V().has("name", "marko").property("name", "mark").iterate();
+        assertEquals(1L, g.V().has("name", "mark").count().next().longValue());
+        assertEquals(0L, g.V().has("name", "marko").count().next().longValue());
+        assertEquals(1, TinkerHelper.queryVertexIndex(graph, "name", "marko").size());
+        graph.tx().rollback();
+        assertEquals(0L, g.V().has("name", "mark").count().next().longValue());
+
+        g.V().has("name", "marko").property("name", "mark").iterate();
+        g.V().has("name", "josh").drop().iterate();
+        graph.tx().commit();
+        assertEquals(0, TinkerHelper.queryVertexIndex(graph, "name", "marko").size());
+        assertEquals(0, TinkerHelper.queryVertexIndex(graph, "name", "josh").size());
+        assertEquals(1L, g.V().has("name", "mark").count().next().longValue());
+        graph.tx().rollback();
+    }
+
+    @Test
+    public void shouldPersistTransactionalGraph() {
+        final String graphLocation = TestHelper.makeTestDataFile(TinkerGraphTest.class, "shouldPersistTransactionalGraph.kryo");
+        final File f = new File(graphLocation);
+        if (f.exists() && f.isFile()) f.delete();
+
+        final Configuration conf = transactionalConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "gryo");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        final Vertex marko = graph.addVertex(T.id, 1, "name", "marko");
+        marko.addEdge("knows", graph.addVertex(T.id, 2, "name", "josh"));
+        graph.tx().commit();
+
+        // changes that are not committed are not saved
+        graph.addVertex(T.id, 3, "name", "vadas");
+        graph.close();
+        graph.tx().rollback();
+
+        final TinkerGraph reloaded = TinkerGraph.open(conf);
+        assertEquals(Arrays.asList("josh", "marko"), reloaded.traversal().V().values("name").order().toList());
+        assertEquals(1L, reloaded.traversal().E().count().next().longValue());
+        reloaded.tx().rollback();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotFreezeTransactionalGraph() {
+        TinkerGraph.open(transactionalConfiguration()).freeze();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRequireLongIdManagerForLongIdStorage() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_LONG_ID_STORAGE, true);
+        TinkerGraph.open(conf);
+    }
+
+    @Test
+    public void shouldExecuteCachedPlansWithDifferentIds() {
+        final GraphTraversalSource g = TinkerFactory.createModern().traversal();
+        final TraversalPlanCache cache = new TraversalPlanCache(10);
+        final Traversal.Admin<?, ?> marko = compile(cache, g, g.V(1).out("knows").has("age", P.gt(30)).values("name").asAdmin().getBytecode());
+        final Traversal.Admin<?, ?> josh = compile(cache, g, g.V(4).out("created").values("name").asAdmin().getBytecode());
+        final Traversal.Admin<?, ?> peter = compile(cache, g, g.V(6).out("knows").has("age", P.gt(30)).values("name").asAdmin().getBytecode());
+        final Traversal.Admin<?, ?> vadas = compile(cache, g, g.V(2).out("knows").has("age", P.gt(30)).values("name").asAdmin().getBytecode());
+        assertEquals(2, cache.size());
+        assertTrue(peter.isLocked());
+        assertTrue(vadas.isLocked());
+
+        assertEquals(Collections.singletonList("josh"), marko.toList());
+        assertEquals(new HashSet<>(Arrays.asList("ripple", "lop")), new HashSet<>(josh.toList()));
+        assertEquals(Collections.emptyList(), peter.toList());
+        assertEquals(Collections.emptyList(), vadas.toList());
+        assertEquals(Collections.singletonList("josh"), compile(cache, g, g.V(1).out("knows").has("age", P.gt(30)).values("name").asAdmin().getBytecode()).toList());
+    }
+
+    @Test
+    public void shouldExecuteInParallelWithSameResults() {
+        final GraphTraversalSource g = TinkerFactory.createGratefulDead().traversal();
+        final GraphTraversalSource p = g.withStrategies(new ParallelExecutionStrategy(16));
+        final Traversal.Admin<?, ?> traversal = p.V().hasLabel("song").out().count().asAdmin();
+        traversal.applyStrategies();
+        assertThat(traversal.getStartStep(), instanceOf(ParallelScanStep.class));
+
+        assertEquals(g.V().hasLabel("song").out().count().next(), p.V().hasLabel("song").out().count().next());
+        assertEquals(g.V().hasLabel("song").values("performances").sum().next(), p.V().hasLabel("song").values("performances").sum().next());
+        assertEquals(g.V().hasLabel("song").values("performances").mean().next(), p.V().hasLabel("song").values("performances").mean().next());
+        assertEquals(g.V().hasLabel("song").values("performances").max().next(), p.V().hasLabel("song").values("performances").max().next());
+        assertEquals(g.V().hasLabel("song").groupCount().by("songType").next(), p.V().hasLabel("song").groupCount().by("songType").next());
+        assertEquals(g.V().hasLabel("song").group().by("songType").by(__.values("performances").sum()).next(),
+                p.V().hasLabel("song").group().by("songType").by(__.values("performances").sum()).next());
+        assertEquals(g.V().out("followedBy").values("name").fold().next(), p.V().out("followedBy").values("name").fold().next());
+        assertEquals(g.V().out().out().values("name").dedup().order().toList(), p.V().out().out().values("name").dedup().order().toList());
+        assertEquals(0L, p.V().has("name", "nothing").out().count().next().longValue());
+    }
+
+    @Test
+    public void shouldNotExecuteTransactionalGraphInParallel() {
+        final GraphTraversalSource g = TinkerGraph.open(transactionalConfiguration()).traversal().withStrategies(new ParallelExecutionStrategy(16));
+        final Traversal.Admin<?, ?> traversal = g.V().out().count().asAdmin();
+        traversal.applyStrategies();
+        assertThat(traversal.getStartStep(), instanceOf(TinkerGraphStep.class));
+    }
+
+    @Test
+    public void shouldProvideGraphStatistics() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final GraphStatistics statistics = new TinkerGraphStatistics(graph, 0);
+        assertEquals(6L, statistics.getVertexCount().get().longValue());
+        assertEquals(4L, statistics.getVertexCount("person").get().longValue());
+        assertEquals(0L, statistics.getVertexCount("nothing").get().longValue());
+        assertEquals(6L, statistics.getEdgeCount().get().longValue());
+        assertEquals(4L, statistics.getEdgeCount("created").get().longValue());
+
+        // estimates that take a pass over the graph are unknown until they have been computed in the background
+        assertFalse(statistics.getAverageDegree("created", Direction.OUT).isPresent());
+        assertFalse(statistics.getDistinctValueCount(Vertex.class, "lang").isPresent());
+
+        assertEquals(4d / 3d, awaitEstimate(() -> statistics.getAverageDegree("created", Direction.OUT)).doubleValue(), 0.0001d);
+        assertEquals(2d, awaitEstimate(() -> statistics.getAverageDegree("created", Direction.IN)).doubleValue(), 0.0001d);
+        assertEquals(1.6d, awaitEstimate(() -> statistics.getAverageDegree("created", Direction.BOTH)).doubleValue(), 0.0001d);
+        assertEquals(2d, awaitEstimate(() -> statistics.getAverageDegree("knows", Direction.OUT)).doubleValue(), 0.0001d);
+        assertEquals(1d, awaitEstimate(() -> statistics.getAverageDegree("knows", Direction.IN)).doubleValue(), 0.0001d);
+        assertEquals(2d, awaitEstimate(() -> statistics.getAverageDegree(null, Direction.OUT)).doubleValue(), 0.0001d);
+        assertEquals(0d, awaitEstimate(() -> statistics.getAverageDegree("nothing", Direction.OUT)).doubleValue(), 0.0001d);
+        assertEquals(1L, awaitEstimate(() -> statistics.getDistinctValueCount(Vertex.class, "lang")).longValue());
+        assertEquals(4L, awaitEstimate(() -> statistics.getDistinctValueCount(Edge.class, "weight")).longValue());
+        assertFalse(statistics.isIndexed(Vertex.class, "name"));
+        assertTrue(statistics.isIndexed(Vertex.class, T.label.getAccessor()));
+
+        graph.createIndex("name", Vertex.class);
+        assertTrue(statistics.isIndexed(Vertex.class, "name"));
+        assertEquals(6L, statistics.getDistinctValueCount(Vertex.class, "name").get().longValue());
+
+        graph.addVertex(T.label, "software", "name", "gremlin", "lang", "groovy");
+        assertEquals(7L, statistics.getDistinctValueCount(Vertex.class, "name").get().longValue());
+
+        // the stale estimate is still reported while it is computed again
+        assertEquals(1L, statistics.getDistinctValueCount(Vertex.class, "lang").get().longValue());
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (2L != statistics.getDistinctValueCount(Vertex.class, "lang").get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2L, statistics.getDistinctValueCount(Vertex.class, "lang").get().longValue());
+    }
+
+    @Test
+    public void shouldNotScanGraphForStatisticsOnTheCallingThread() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final GraphStatistics statistics = graph.statistics().get();
+        final Thread caller = Thread.currentThread();
+        final AtomicBoolean scannedByCaller = new AtomicBoolean(false);
+        graph.vertices().forEachRemaining(v -> v.property("probe", new Object() {
+            @Override
+            public int hashCode() {
+                if (Thread.currentThread() == caller) scannedByCaller.set(true);
+                return super.hashCode();
+            }
+        }));
+
+        assertFalse(statistics.getDistinctValueCount(Vertex.class, "probe").isPresent());
+        assertEquals(6L, awaitEstimate(() -> statistics.getDistinctValueCount(Vertex.class, "probe")).longValue());
+        assertFalse(scannedByCaller.get());
+    }
+
+    @Test
+    public void shouldStopComputingStatisticsOnClose() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final GraphStatistics statistics = graph.statistics().get();
+        assertEquals(1d, awaitEstimate(() -> statistics.getAverageDegree("knows", Direction.IN)).doubleValue(), 0.0001d);
+        graph.close();
+
+        // estimates already computed are still reported but no new ones are computed
+        assertEquals(1d, statistics.getAverageDegree("knows", Direction.IN).get(), 0.0001d);
+        assertFalse(statistics.getAverageDegree("created", Direction.IN).isPresent());
+        Thread.sleep(100);
+        assertFalse(statistics.getAverageDegree("created", Direction.IN).isPresent());
+    }
+
+    @Test
+    public void shouldNotCachePlansCompiledWhileEstimatesAreUnknown() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final GraphTraversalSource g = new GraphTraversalSource(graph, TraversalStrategies.GlobalCache.getStrategies(TinkerGraph.class).clone().
+                addStrategies(CostBasedOptimizationStrategy.instance()));
+        final Bytecode bytecode = g.V().hasLabel("person").as("a").V().hasLabel("software").as("b").
+                where(__.as("b").in("created").as("a")).select("a", "b").by("name").asAdmin().getBytecode();
+        final TraversalPlanCache cache = new TraversalPlanCache(10);
+
+        compile(cache, g, bytecode);
+        assertEquals(0, cache.size());
+
+        final GraphStatistics statistics = graph.statistics().get();
+        awaitEstimate(() -> statistics.getAverageDegree("created", Direction.IN));
+        awaitEstimate(() -> statistics.getAverageDegree("created", Direction.OUT));
+        compile(cache, g, bytecode);
+        assertEquals(1, cache.size());
+    }
+
+    private static Number awaitEstimate(final Supplier<? extends Optional<? extends Number>> estimate) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        Optional<? extends Number> value = estimate.get();
+        while (!value.isPresent() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            value = estimate.get();
+        }
+        return value.orElseThrow(() -> new AssertionError("The estimate was not computed"));
+    }
+
+    @Test
+    public void shouldOptimizeWithGraphStatisticsWithSameResults() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final GraphStatistics statistics = graph.statistics().get();
+        awaitEstimate(() -> statistics.getAverageDegree("created", Direction.IN));
+        awaitEstimate(() -> statistics.getAverageDegree("created", Direction.OUT));
+
+        final GraphTraversalSource g = graph.traversal();
+        final GraphTraversalSource c = g.withStrategies(CostBasedOptimizationStrategy.instance());
+        final Traversal.Admin<?, ?> traversal = c.V().hasLabel("person").as("a").V().hasLabel("software").as("b").
+                where(__.as("b").in("created").as("a")).select("a", "b").by("name").asAdmin();
+        traversal.applyStrategies();
+        final WhereTraversalStep<?> whereStep = TraversalHelper.getFirstStepOfAssignableClass(WhereTraversalStep.class, traversal).get();
+        assertEquals(Direction.OUT, TraversalHelper.getFirstStepOfAssignableClass(VertexStep.class, whereStep.getLocalChildren().get(0)).get().getDirection());
+
+        assertEquals(g.V().hasLabel("person").as("a").V().hasLabel("software").as("b").
+                        where(__.as("b").in("created").as("a")).select("a", "b").by("name").toList(),
+                c.V().hasLabel("person").as("a").V().hasLabel("software").as("b").
+                        where(__.as("b").in("created").as("a")).select("a", "b").by("name").toList());
+        assertEquals(g.V().has("age", P.gt(30)).hasLabel("person").values("name").toList(),
+                c.V().has("age", P.gt(30)).hasLabel("person").values("name").toList());
+        assertEquals(new HashSet<>(g.V().match(__.as("a").out("created").as("b"), __.as("a").out("knows").as("c")).select("a", "b", "c").by("name").toList()),
+                new HashSet<>(c.V().match(__.as("a").out("created").as("b"), __.as("a").out("knows").as("c")).select("a", "b", "c").by("name").toList()));
+    }
+
+    private static Configuration transactionalConfiguration() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_VERTEX_ID_MANAGER, TinkerGraph.DefaultIdManager.INTEGER.name());
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_EDGE_ID_MANAGER, TinkerGraph.DefaultIdManager.INTEGER.name());
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_TRANSACTIONAL, true);
+        return conf;
+    }
+
+    private static Traversal.Admin<?, ?> compile(final TraversalPlanCache cache, final GraphTraversalSource g, final Bytecode bytecode) {
+        final Traversal.Admin<?, ?> traversal = cache.translate(g, bytecode);
+        cache.applyStrategies(g, bytecode, traversal);
+        return traversal;
+    }
+
+    private static Configuration graphLogConfiguration(final String fileName) {
+        final String graphLocation = TestHelper.makeTestDataFile(TinkerGraphTest.class, fileName);
+        final File f = new File(graphLocation);
+        if (f.exists() && f.isFile()) f.delete();
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "gryo");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOG, true);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOG_BATCH_SIZE, 1);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_SNAPSHOT_INTERVAL, 0);
+        for (final File segment : graphLogSegments(conf)) {
+            segment.delete();
+        }
+        return conf;
+    }
+
+    private static File[] graphLogSegments(final Configuration conf) {
+        final File f = new File(conf.getString(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION));
+        return f.getParentFile().listFiles((dir, name) -> name.startsWith(f.getName() + ".log."));
+    }
+
     /**
      * Coerces a {@code Color} to a {@link TinkerGraph} during serialization.  Demonstrates how custom serializers
      * can be developed that can coerce one value to another during serialization.
@@ -955,6 +2332,86 @@ public class TinkerGraphTest {
         }
     }
 
+    /**
+     * Adds up the sums of the vertices that point at each vertex for six iterations, or as many as it is configured
+     * with, failing on the iteration given by {@code failAtIteration}.
+     */
+    public static class CheckpointedSumVertexProgram extends StaticVertexProgram<Long> {
+        public static final String SUM = "sum";
+        public static final String TOTAL = "total";
+        private static final String ITERATIONS = "checkpointedSumVertexProgram.iterations";
+        private static final MessageScope.Local<Long> SCOPE = MessageScope.Local.of(__::outE);
+
+        static volatile int failAtIteration = -1;
+        static final AtomicInteger executions = new AtomicInteger();
+
+        private final int iterations;
+
+        public CheckpointedSumVertexProgram() {
+            this(6);
+        }
+
+        public CheckpointedSumVertexProgram(final int iterations) {
+            this.iterations = iterations;
+        }
+
+        @Override
+        public void storeState(final Configuration configuration) {
+            super.storeState(configuration);
+            configuration.setProperty(ITERATIONS, this.iterations);
+        }
+
+        @Override
+        public void setup(final Memory memory) {
+            memory.set(TOTAL, 0L);
+        }
+
+        @Override
+        public void execute(final Vertex vertex, final Messenger<Long> messenger, final Memory memory) {
+            if (memory.getIteration() == failAtIteration)
+                throw new IllegalStateException("Failing on iteration " + failAtIteration);
+            executions.incrementAndGet();
+            long sum = memory.isInitialIteration() ? ((Number) vertex.id()).longValue() : vertex.<Long>value(SUM);
+            final Iterator<Long> messages = messenger.receiveMessages();
+            while (messages.hasNext()) {
+                sum += messages.next();
+            }
+            vertex.property(VertexProperty.Cardinality.single, SUM, sum);
+            messenger.sendMessage(SCOPE, sum);
+            memory.add(TOTAL, sum);
+        }
+
+        @Override
+        public boolean terminate(final Memory memory) {
+            return memory.getIteration() >= this.iterations - 1;
+        }
+
+        @Override
+        public Set<VertexComputeKey> getVertexComputeKeys() {
+            return Collections.singleton(VertexComputeKey.of(SUM, false));
+        }
+
+        @Override
+        public Set<MemoryComputeKey> getMemoryComputeKeys() {
+            return Collections.singleton(MemoryComputeKey.of(TOTAL, Operator.sum, true, false));
+        }
+
+        @Override
+        public Set<MessageScope> getMessageScopes(final Memory memory) {
+            return Collections.singleton(SCOPE);
+        }
+
+        @Override
+        public GraphComputer.ResultGraph getPreferredResultGraph() {
+            return GraphComputer.ResultGraph.NEW;
+        }
+
+        @Override
+        public GraphComputer.Persist getPreferredPersist() {
+            return GraphComputer.Persist.VERTEX_PROPERTIES;
+        }
+    }
+
     public static class CustomClassResolverSupplier implements Supplier<ClassResolver> {
         @Override
         public ClassResolver get() {